@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.benchmark;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pathvisio.libgpml.util.ColorUtils;
+
+/**
+ * Benchmarks for converting colors from and to GPML attribute values, which are
+ * converted for nearly every pathway element read or written.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColorBenchmark {
+
+	/**
+	 * Typical color attribute values of GPML2021 and GPML2013a.
+	 */
+	private final String[] values = { "000000", "ffffff", "00000000", "b4b46419", "99ccff", "Transparent", "Red" };
+	private final Color[] colors = { Color.BLACK, Color.WHITE, new Color(0, 0, 0, 0), new Color(180, 180, 100, 25),
+			new Color(0x99, 0xcc, 0xff) };
+
+	@Benchmark
+	public void stringToColor(Blackhole blackhole) {
+		for (String value : values) {
+			blackhole.consume(ColorUtils.stringToColor(value));
+		}
+	}
+
+	@Benchmark
+	public void colorToHex(Blackhole blackhole) {
+		for (Color color : colors) {
+			blackhole.consume(ColorUtils.colorToHex(color, false));
+		}
+	}
+
+	@Benchmark
+	public void colorToHex2013(Blackhole blackhole) {
+		for (Color color : colors) {
+			blackhole.consume(ColorUtils.colorToHex2013(color, false));
+		}
+	}
+}
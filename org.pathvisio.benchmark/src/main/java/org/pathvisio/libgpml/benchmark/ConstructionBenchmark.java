@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pathvisio.libgpml.model.DataNode;
+import org.pathvisio.libgpml.model.Interaction;
+import org.pathvisio.libgpml.model.Label;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+
+/**
+ * Benchmarks for constructing pathway elements with their default values, as
+ * done for every element read from GPML.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+
+	/**
+	 * Constructs a data node with one font size and one dynamic property.
+	 */
+	@Benchmark
+	public DataNode newDataNode() {
+		DataNode dataNode = new DataNode("label", DataNodeType.GENEPRODUCT);
+		dataNode.setFontSize(10);
+		dataNode.setDynamicProperty("key", "value");
+		return dataNode;
+	}
+
+	@Benchmark
+	public Interaction newInteraction() {
+		return new Interaction();
+	}
+
+	@Benchmark
+	public Label newLabel() {
+		return new Label("label");
+	}
+}
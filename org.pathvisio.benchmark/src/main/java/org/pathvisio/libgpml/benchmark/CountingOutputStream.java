@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.benchmark;
+
+import java.io.OutputStream;
+
+/**
+ * Output stream which only counts the bytes written, so benchmarks of writers
+ * do not measure copying to memory.
+ */
+public class CountingOutputStream extends OutputStream {
+
+	private long count = 0;
+
+	@Override
+	public void write(int b) {
+		count++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		count += len;
+	}
+
+	public long getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.GPMLFormat;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * Benchmarks for reading and writing GPML.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GPMLBenchmark {
+
+	@Benchmark
+	public PathwayModel readGPML2021(PathwayState state) throws ConverterException {
+		PathwayModel pathwayModel = new PathwayModel();
+		GPMLFormat.readFromXml(pathwayModel, new ByteArrayInputStream(state.gpml2021), false);
+		return pathwayModel;
+	}
+
+	@Benchmark
+	public PathwayModel readGPML2013a(PathwayState state) throws ConverterException {
+		PathwayModel pathwayModel = new PathwayModel();
+		GPMLFormat.readFromXml(pathwayModel, new ByteArrayInputStream(state.gpml2013a), false);
+		return pathwayModel;
+	}
+
+	@Benchmark
+	public PathwayModel readGPML2021Validated(PathwayState state) throws ConverterException {
+		PathwayModel pathwayModel = new PathwayModel();
+		GPMLFormat.readFromXml(pathwayModel, new ByteArrayInputStream(state.gpml2021), true);
+		return pathwayModel;
+	}
+
+	@Benchmark
+	public void writeGPML2021(PathwayState state, Blackhole blackhole) throws ConverterException {
+		CountingOutputStream out = new CountingOutputStream();
+		GPMLFormat.GPML2021.writeToXml(state.pathwayModel, out, false);
+		blackhole.consume(out.getCount());
+	}
+}
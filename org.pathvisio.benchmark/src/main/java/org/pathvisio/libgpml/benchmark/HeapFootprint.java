@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.benchmark;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * Measures the heap retained by clones of the example pathways, after full
+ * garbage collection. JMH reports allocation, not retained heap, so this is
+ * run on its own:
+ *
+ * <pre>
+ * java -Xmx2g -cp target/benchmarks.jar org.pathvisio.libgpml.benchmark.HeapFootprint [clones]
+ * </pre>
+ */
+public class HeapFootprint {
+
+	private static final String[] EXAMPLES = { "example-v2021.gpml", "example-v2013a.gpml" };
+
+	public static void main(String[] args) throws ConverterException {
+		int clones = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		List<PathwayModel> examples = new ArrayList<PathwayModel>();
+		for (String example : EXAMPLES) {
+			InputStream in = HeapFootprint.class.getClassLoader().getResourceAsStream(example);
+			if (in == null) {
+				throw new IllegalStateException("Example " + example + " not on the classpath");
+			}
+			PathwayModel pathwayModel = new PathwayModel();
+			pathwayModel.readFromXml(in, false);
+			examples.add(pathwayModel);
+		}
+		List<PathwayModel> retained = new ArrayList<PathwayModel>(clones * examples.size());
+		long before = usedHeap();
+		for (int i = 0; i < clones; i++) {
+			for (PathwayModel pathwayModel : examples) {
+				retained.add(pathwayModel.clone());
+			}
+		}
+		long after = usedHeap();
+		System.out.println("models=" + retained.size() + " heap/model=" + (after - before) / retained.size() / 1024
+				+ " kB");
+	}
+
+	/**
+	 * Returns the used heap after repeated full garbage collection.
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pathvisio.libgpml.model.DataNode;
+import org.pathvisio.libgpml.model.Label;
+import org.pathvisio.libgpml.model.Shape;
+import org.pathvisio.libgpml.model.ShapedElement;
+
+/**
+ * Benchmarks for the font and shape style of shaped pathway elements on import.
+ * The style of every data node, label and shape is set on a new pathway element
+ * with the same setters, in the same order, as the GPML readers use, without
+ * parsing XML. Run with {@code -prof gc} to also compare allocation. See
+ * {@link GPMLBenchmark#readGPML2021} for the whole import.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportBenchmark {
+
+	@Benchmark
+	public List<ShapedElement> importStyles(PathwayState state) {
+		List<ShapedElement> result = new ArrayList<ShapedElement>();
+		for (DataNode src : state.pathwayModel.getDataNodes()) {
+			result.add(copyStyle(src, new DataNode(src.getTextLabel(), src.getType())));
+		}
+		for (Label src : state.pathwayModel.getLabels()) {
+			result.add(copyStyle(src, new Label(src.getTextLabel())));
+		}
+		for (Shape src : state.pathwayModel.getShapes()) {
+			result.add(copyStyle(src, new Shape()));
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the font and shape style of the given source on the given pathway
+	 * element, as done by readFontProperty and readShapeStyleProperty.
+	 */
+	private static ShapedElement copyStyle(ShapedElement src, ShapedElement dst) {
+		dst.setTextColor(src.getTextColor());
+		dst.setFontName(src.getFontName());
+		dst.setFontWeight(src.getFontWeight());
+		dst.setFontStyle(src.getFontStyle());
+		dst.setFontDecoration(src.getFontDecoration());
+		dst.setFontStrikethru(src.getFontStrikethru());
+		dst.setFontSize(src.getFontSize());
+		dst.setHAlign(src.getHAlign());
+		dst.setVAlign(src.getVAlign());
+		dst.setBorderColor(src.getBorderColor());
+		dst.setBorderStyle(src.getBorderStyle());
+		dst.setBorderWidth(src.getBorderWidth());
+		dst.setFillColor(src.getFillColor());
+		dst.setShapeType(src.getShapeType());
+		return dst;
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pathvisio.libgpml.model.Group;
+import org.pathvisio.libgpml.model.LineElement;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+/**
+ * Benchmarks for operations on pathway models. Connector routing and group
+ * dimensions are recalculated in place; the results do not change between
+ * invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelBenchmark {
+
+	@Benchmark
+	public PathwayModel cloneModel(PathwayState state) {
+		return state.pathwayModel.clone();
+	}
+
+	/**
+	 * Recalculates connector shapes of all line elements, as done by
+	 * refreshLineElements after reading GPML.
+	 */
+	@Benchmark
+	public void refreshLineElements(PathwayState state, Blackhole blackhole) {
+		for (LineElement lineElement : state.pathwayModel.getLineElements()) {
+			lineElement.getConnectorShape().recalculateShape(lineElement);
+			blackhole.consume(lineElement.getConnectorShape());
+		}
+	}
+
+	@Benchmark
+	public void updateGroupDimensions(PathwayState state, Blackhole blackhole) {
+		for (Group group : state.pathwayModel.getGroups()) {
+			group.updateDimensions();
+			blackhole.consume(group.getWidth());
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.benchmark;
+
+import java.io.ByteArrayOutputStream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.GPMLFormat;
+import org.pathvisio.libgpml.model.PathwayModel;
+import org.pathvisio.libgpml.model.PathwayModelGenerator;
+
+/**
+ * Synthetic pathway model of {@link #size} pathway elements, generated by
+ * {@link PathwayModelGenerator}, and its GPML2021 and GPML2013a documents,
+ * shared by all benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class PathwayState {
+
+	/**
+	 * The number of pathway elements.
+	 */
+	@Param({ "100", "1000", "10000", "100000" })
+	public int size;
+
+	/**
+	 * The seed of the synthetic pathway model.
+	 */
+	@Param({ "42" })
+	public long seed;
+
+	public PathwayModel pathwayModel;
+	public byte[] gpml2021;
+	public byte[] gpml2013a;
+
+	@Setup(Level.Trial)
+	public void setUp() throws ConverterException {
+		pathwayModel = PathwayModelGenerator.generate(size, seed);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GPMLFormat.GPML2021.writeToXml(pathwayModel, out, false);
+		gpml2021 = out.toByteArray();
+		out = new ByteArrayOutputStream();
+		GPMLFormat.GPML2013a.writeToXml(pathwayModel, out, false);
+		gpml2013a = out.toByteArray();
+	}
+}
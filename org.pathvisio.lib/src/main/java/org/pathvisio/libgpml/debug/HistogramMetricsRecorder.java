@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.debug;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MetricsRecorder} which keeps a histogram of durations per
+ * {@link Phase} in memory. Durations are counted in buckets of powers of two
+ * nanoseconds, so percentiles are accurate to within a factor of two. Recording
+ * is lock-free.
+ */
+public class HistogramMetricsRecorder implements MetricsRecorder {
+
+	private static final int BUCKETS = 64;
+
+	private final Map<Phase, Histogram> histograms = new EnumMap<Phase, Histogram>(Phase.class);
+
+	/**
+	 * Histogram of durations of a phase.
+	 */
+	private static final class Histogram {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder total = new LongAdder();
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+		private void record(long nanos) {
+			count.increment();
+			total.add(nanos);
+			buckets.incrementAndGet(bucket(nanos));
+		}
+
+		private void reset() {
+			count.reset();
+			total.reset();
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets.set(i, 0);
+			}
+		}
+	}
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates a recorder with empty histograms for all phases.
+	 */
+	public HistogramMetricsRecorder() {
+		for (Phase phase : Phase.values()) {
+			histograms.put(phase, new Histogram());
+		}
+	}
+
+	// ================================================================================
+	// Record Methods
+	// ================================================================================
+	/**
+	 * Always enabled.
+	 */
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	/**
+	 * Adds the duration to the histogram of the phase.
+	 */
+	@Override
+	public void record(Phase phase, long nanos) {
+		histograms.get(phase).record(Math.max(0, nanos));
+	}
+
+	/**
+	 * Clears all histograms.
+	 */
+	public void reset() {
+		for (Histogram histogram : histograms.values()) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * Returns the bucket of the given duration, i.e. the number of bits needed for
+	 * the duration. Bucket i holds durations less than 2^i nanoseconds.
+	 */
+	private static int bucket(long nanos) {
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+	}
+
+	// ================================================================================
+	// Accessors
+	// ================================================================================
+	/**
+	 * Returns the number of recorded executions of the phase.
+	 *
+	 * @param phase the phase.
+	 * @return the count.
+	 */
+	public long getCount(Phase phase) {
+		return histograms.get(phase).count.sum();
+	}
+
+	/**
+	 * Returns the total recorded duration of the phase.
+	 *
+	 * @param phase the phase.
+	 * @return the total duration in nanoseconds.
+	 */
+	public long getTotalTime(Phase phase) {
+		return histograms.get(phase).total.sum();
+	}
+
+	/**
+	 * Returns the mean recorded duration of the phase.
+	 *
+	 * @param phase the phase.
+	 * @return the mean duration in nanoseconds, or 0 if not recorded.
+	 */
+	public double getMeanTime(Phase phase) {
+		long count = getCount(phase);
+		return count == 0 ? 0 : (double) getTotalTime(phase) / count;
+	}
+
+	/**
+	 * Returns an upper bound of the given percentile of recorded durations of the
+	 * phase, e.g. 0.99 for the 99th percentile.
+	 *
+	 * @param phase      the phase.
+	 * @param percentile the percentile, between 0.0 and 1.0.
+	 * @return the upper bound of the bucket holding the percentile in nanoseconds,
+	 *         or 0 if not recorded.
+	 * @throws IllegalArgumentException if percentile is not between 0.0 and 1.0.
+	 */
+	public long getPercentile(Phase phase, double percentile) {
+		if (percentile < 0 || percentile > 1) {
+			throw new IllegalArgumentException("Percentile " + percentile + " should be between 0.0 and 1.0");
+		}
+		AtomicLongArray buckets = histograms.get(phase).buckets;
+		long[] counts = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			count += counts[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile * count));
+		long seen = 0;
+		int i = 0;
+		for (; i < BUCKETS - 1; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				break;
+			}
+		}
+		return i == 0 ? 0 : i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+	}
+
+	/**
+	 * Returns a table of count, total, mean, 50th and 99th percentile in
+	 * milliseconds of all recorded phases.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format("%-24s %8s %12s %10s %10s %10s%n", "phase", "count", "total(ms)", "mean(ms)",
+				"p50(ms)", "p99(ms)"));
+		for (Phase phase : Phase.values()) {
+			long count = getCount(phase);
+			if (count > 0) {
+				builder.append(String.format("%-24s %8d %12.3f %10.3f %10.3f %10.3f%n", phase, count,
+						getTotalTime(phase) / 1e6, getMeanTime(phase) / 1e6, getPercentile(phase, 0.5) / 1e6,
+						getPercentile(phase, 0.99) / 1e6));
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -19,6 +19,12 @@ package org.pathvisio.libgpml.debug;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Logs output to a stream, with the option to filter for types of messages
@@ -32,19 +38,28 @@ import java.io.PrintStream;
  * <li>5: error
  * <li>6: fatal
  * </ol>
+ * <p>
+ * Messages which are expensive to build should be passed as a {@link Supplier},
+ * or guarded by e.g. {@link #isTraceEnabled()}, so that they are only built
+ * when their level is enabled. By default messages are written to the stream
+ * by the calling thread. With {@link #setAsync(int)} they are queued and
+ * written by a background thread instead; when the queue is full, messages are
+ * dropped rather than slowing down the caller.
  * 
  * @author unknown
  */
 public class Logger {
 
-	private boolean debugEnabled = true;
-	private boolean traceEnabled = false;
-	private boolean infoEnabled = true;
-	private boolean warnEnabled = true;
-	private boolean errorEnabled = true;
-	private boolean fatalEnabled = true;
+	private volatile boolean debugEnabled = true;
+	private volatile boolean traceEnabled = false;
+	private volatile boolean infoEnabled = true;
+	private volatile boolean warnEnabled = true;
+	private volatile boolean errorEnabled = true;
+	private volatile boolean fatalEnabled = true;
 
-	private PrintStream s = System.err;
+	private volatile PrintStream s = System.err;
+	private volatile AsyncAppender appender = null;
+	private final AtomicLong droppedCount = new AtomicLong();
 
 	public PrintStream getStream() {
 		return s;
@@ -104,46 +119,114 @@ public class Logger {
 		fatalEnabled = fatal;
 	}
 
+	public boolean isDebugEnabled() {
+		return debugEnabled;
+	}
+
+	public boolean isTraceEnabled() {
+		return traceEnabled;
+	}
+
+	public boolean isInfoEnabled() {
+		return infoEnabled;
+	}
+
+	public boolean isWarnEnabled() {
+		return warnEnabled;
+	}
+
+	public boolean isErrorEnabled() {
+		return errorEnabled;
+	}
+
+	public boolean isFatalEnabled() {
+		return fatalEnabled;
+	}
+
+	// ================================================================================
+	// Log Methods
+	// ================================================================================
 	private static final String FORMAT_STRING = "[%10.3f] ";
 
 	public void trace(String msg) {
 		if (traceEnabled) {
-			s.printf(FORMAT_STRING, logTimer.look() / 1000.0f);
-			s.println("Trace: " + msg);
+			append(timestamp(), "Trace: " + msg, null);
+		}
+	}
+
+	/**
+	 * Logs the supplied message, which is only built if trace is enabled.
+	 * 
+	 * @param msg the supplier of the message.
+	 */
+	public void trace(Supplier<String> msg) {
+		if (traceEnabled) {
+			trace(msg.get());
 		}
 	}
 
 	public void debug(String msg) {
 		if (debugEnabled) {
-			s.printf(FORMAT_STRING, logTimer.look() / 1000.0f);
-			s.println("Debug: " + msg);
+			append(timestamp(), "Debug: " + msg, null);
+		}
+	}
+
+	/**
+	 * Logs the supplied message, which is only built if debug is enabled.
+	 * 
+	 * @param msg the supplier of the message.
+	 */
+	public void debug(Supplier<String> msg) {
+		if (debugEnabled) {
+			debug(msg.get());
 		}
 	}
 
 	public void info(String msg) {
 		if (infoEnabled) {
-			s.printf(FORMAT_STRING, logTimer.look() / 1000.0f);
-			s.println("Info:  " + msg);
+			append(timestamp(), "Info:  " + msg, null);
+		}
+	}
+
+	/**
+	 * Logs the supplied message, which is only built if info is enabled.
+	 * 
+	 * @param msg the supplier of the message.
+	 */
+	public void info(Supplier<String> msg) {
+		if (infoEnabled) {
+			info(msg.get());
 		}
 	}
 
 	public void warn(String msg) {
 		if (warnEnabled)
-			s.println("Warn:  " + msg);
+			append(NO_TIMESTAMP, "Warn:  " + msg, null);
+	}
+
+	/**
+	 * Logs the supplied message, which is only built if warn is enabled.
+	 * 
+	 * @param msg the supplier of the message.
+	 */
+	public void warn(Supplier<String> msg) {
+		if (warnEnabled) {
+			warn(msg.get());
+		}
 	}
 
 	public void warn(String msg, Throwable e) {
 		if (warnEnabled) {
-			s.println("Warn:  " + msg + "\n\t" + e.getMessage());
+			append(NO_TIMESTAMP, "Warn:  " + msg + "\n\t" + e.getMessage(), null);
 		}
 		if (debugEnabled) {
-			e.printStackTrace(s);
+			append(NO_TIMESTAMP, null, e);
 		}
 	}
 
 	public void error(String msg) {
 		if (errorEnabled)
-			s.println("Error: " + msg);
+			append(NO_TIMESTAMP, "Error: " + msg, null);
 	}
 
 	public void error(String msg, Throwable e) {
@@ -151,13 +234,187 @@ public class Logger {
 			error(msg + "\n\t" + e.toString() + (e != null ? ": " + e.getMessage() : ""));
 		}
 		if (debugEnabled) {
-			e.printStackTrace(s);
+			append(NO_TIMESTAMP, null, e);
 		}
 	}
 
 	public void fatal(String msg) {
 		if (fatalEnabled)
-			s.println("Fatal: " + msg);
+			append(NO_TIMESTAMP, "Fatal: " + msg, null);
+	}
+
+	// ================================================================================
+	// Appender Methods
+	// ================================================================================
+	private static final float NO_TIMESTAMP = -1;
+
+	private float timestamp() {
+		return logTimer.look() / 1000.0f;
+	}
+
+	/**
+	 * Writes the message, or queues it if asynchronous.
+	 */
+	private void append(float time, String text, Throwable stackTrace) {
+		AsyncAppender a = appender;
+		if (a == null) {
+			write(s, time, text, stackTrace);
+		} else {
+			a.append(new LogRecord(time, text, stackTrace, null));
+		}
+	}
+
+	private static void write(PrintStream out, float time, String text, Throwable stackTrace) {
+		if (time != NO_TIMESTAMP) {
+			out.printf(FORMAT_STRING, time);
+		}
+		if (text != null) {
+			out.println(text);
+		}
+		if (stackTrace != null) {
+			stackTrace.printStackTrace(out);
+		}
+	}
+
+	/**
+	 * Writes log messages from a background thread, so that callers are not slowed
+	 * down by the stream. Enabled messages are queued up to the given capacity;
+	 * when the queue is full, messages are dropped and counted, see
+	 * {@link #getDroppedCount()}. A capacity of 0 writes messages synchronously
+	 * again, after writing all queued messages.
+	 * 
+	 * @param capacity the maximum number of queued messages, or 0.
+	 * @throws IllegalArgumentException if capacity is negative.
+	 */
+	public synchronized void setAsync(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity " + capacity + " should not be negative.");
+		}
+		AsyncAppender previous = appender;
+		appender = capacity == 0 ? null : new AsyncAppender(capacity);
+		if (previous != null) {
+			previous.close();
+		}
+	}
+
+	/**
+	 * Returns true if log messages are written from a background thread.
+	 * 
+	 * @return true if asynchronous.
+	 */
+	public boolean isAsync() {
+		return appender != null;
+	}
+
+	/**
+	 * Returns the number of messages dropped because the queue was full.
+	 * 
+	 * @return the dropped count.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Blocks until all messages queued before this call are written, if
+	 * asynchronous.
+	 */
+	public void flush() {
+		AsyncAppender a = appender;
+		if (a != null) {
+			a.flush();
+		}
+		s.flush();
+	}
+
+	/**
+	 * A queued log message, or a flush marker.
+	 */
+	private static final class LogRecord {
+		private final float time;
+		private final String text;
+		private final Throwable stackTrace;
+		private final CountDownLatch flushed;
+
+		private LogRecord(float time, String text, Throwable stackTrace, CountDownLatch flushed) {
+			this.time = time;
+			this.text = text;
+			this.stackTrace = stackTrace;
+			this.flushed = flushed;
+		}
+	}
+
+	/**
+	 * Bounded queue of log messages, written to the stream by a daemon thread.
+	 */
+	private final class AsyncAppender implements Runnable {
+		private final BlockingQueue<LogRecord> queue;
+		private final Thread thread;
+		private volatile boolean closed = false;
+		private long reportedDropCount;
+
+		private AsyncAppender(int capacity) {
+			queue = new ArrayBlockingQueue<LogRecord>(capacity);
+			reportedDropCount = droppedCount.get();
+			thread = new Thread(this, "Logger");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		private void append(LogRecord record) {
+			if (closed || !queue.offer(record)) {
+				droppedCount.incrementAndGet();
+			}
+		}
+
+		private void flush() {
+			CountDownLatch flushed = new CountDownLatch(1);
+			try {
+				queue.put(new LogRecord(NO_TIMESTAMP, null, null, flushed));
+				flushed.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Writes all queued messages and stops the thread.
+		 */
+		private void close() {
+			closed = true;
+			flush();
+			thread.interrupt();
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				LogRecord record;
+				try {
+					record = queue.poll(1, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					if (closed && queue.isEmpty()) {
+						return;
+					}
+					continue;
+				}
+				PrintStream out = s;
+				if (record != null && record.flushed == null) {
+					write(out, record.time, record.text, record.stackTrace);
+				}
+				if (record == null || queue.isEmpty()) {
+					long dropped = droppedCount.get();
+					if (dropped > reportedDropCount) {
+						write(out, NO_TIMESTAMP, "Warn:  " + (dropped - reportedDropCount) + " log messages dropped",
+								null);
+						reportedDropCount = dropped;
+					}
+				}
+				if (record != null && record.flushed != null) {
+					record.flushed.countDown();
+				}
+			}
+		}
 	}
 
 	/**
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.debug;
+
+/**
+ * Times {@link Phase}s of reading and writing pathway models, and reports them
+ * to the current {@link MetricsRecorder}. By default no recorder is set, and
+ * timing costs a single check per phase.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * long t = Metrics.start();
+ * readGroups(...);
+ * t = Metrics.lap(Phase.READ_GROUPS, t);
+ * readLabels(...);
+ * Metrics.stop(Phase.READ_LABELS, t);
+ * </pre>
+ */
+public final class Metrics {
+
+	private static volatile MetricsRecorder recorder = MetricsRecorder.NONE;
+
+	private Metrics() {
+	}
+
+	/**
+	 * Returns the current recorder.
+	 *
+	 * @return the recorder, {@link MetricsRecorder#NONE} by default.
+	 */
+	public static MetricsRecorder getRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Sets the recorder for all threads.
+	 *
+	 * @param v the recorder, or null to record nothing.
+	 */
+	public static void setRecorder(MetricsRecorder v) {
+		recorder = v == null ? MetricsRecorder.NONE : v;
+	}
+
+	/**
+	 * Returns the start time of a phase.
+	 *
+	 * @return the current time in nanoseconds, or 0 if the recorder is not
+	 *         enabled.
+	 */
+	public static long start() {
+		return recorder.isEnabled() ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records the given phase, started at the given time.
+	 *
+	 * @param phase the phase.
+	 * @param start the start time from {@link #start()}.
+	 */
+	public static void stop(Phase phase, long start) {
+		lap(phase, start);
+	}
+
+	/**
+	 * Records the given phase, started at the given time, and returns the start
+	 * time of the next phase.
+	 *
+	 * @param phase the phase.
+	 * @param start the start time from {@link #start()} or a previous lap.
+	 * @return the current time in nanoseconds, or 0 if the recorder is not
+	 *         enabled.
+	 */
+	public static long lap(Phase phase, long start) {
+		MetricsRecorder r = recorder;
+		if (!r.isEnabled()) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		// phase not timed if the recorder was enabled during the phase
+		if (start != 0) {
+			r.record(phase, now - start);
+		}
+		return now;
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.debug;
+
+/**
+ * Receives the timings of {@link Phase}s from {@link Metrics}. Implementations
+ * must be thread-safe, as pathway models may be read and written from any
+ * thread.
+ */
+public interface MetricsRecorder {
+
+	/**
+	 * Recorder which records nothing. Phases are not timed while this recorder is
+	 * set.
+	 */
+	public static final MetricsRecorder NONE = new MetricsRecorder() {
+
+		@Override
+		public boolean isEnabled() {
+			return false;
+		}
+
+		@Override
+		public void record(Phase phase, long nanos) {
+		}
+	};
+
+	/**
+	 * Returns true if phases should be timed for this recorder.
+	 *
+	 * @return true if enabled.
+	 */
+	public boolean isEnabled();
+
+	/**
+	 * Records one execution of the given phase.
+	 *
+	 * @param phase the phase.
+	 * @param nanos the duration in nanoseconds.
+	 */
+	public void record(Phase phase, long nanos);
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.debug;
+
+/**
+ * Phases of reading and writing pathway models, timed by {@link Metrics}.
+ */
+public enum Phase {
+
+	/** Total time of reading a GPML file, including all read phases. */
+	READ_GPML,
+	/** Building the JDOM document with the SAX parser. */
+	BUILD_JDOM,
+	/** Validating the JDOM document against the GPML schema. */
+	VALIDATE,
+	/** Reading pathway information, comment group and annotations, etc. */
+	READ_PATHWAY,
+	READ_GROUPS,
+	READ_LABELS,
+	READ_SHAPES,
+	/** Reading data nodes and their states. */
+	READ_DATANODES,
+	READ_INTERACTIONS,
+	READ_GRAPHICALLINES,
+	READ_POINT_ELEMENTREFS,
+	/** Removing empty groups and updating group dimensions. */
+	UPDATE_GROUPS,
+	/** Recalculating connector shapes of line elements. */
+	REFRESH_LINE_ELEMENTS,
+	/** Interning strings and xrefs with an intern pool. */
+	INTERN,
+	/** Total time of writing a GPML file, including all write phases. */
+	WRITE_GPML,
+	/** Converting the pathway model to a JDOM document. */
+	CREATE_JDOM,
+	/** Serializing the JDOM document to XML. */
+	SERIALIZE,
+	/** Reading a pathway model in the binary format. */
+	READ_BINARY,
+	/** Writing a pathway model in the binary format. */
+	WRITE_BINARY;
+}
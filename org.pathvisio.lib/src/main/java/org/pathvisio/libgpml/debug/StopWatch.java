@@ -44,6 +44,7 @@ public class StopWatch {
 	}
 
 	public void stopToLog(String msg) {
-		Logger.log.trace(msg + "\t" + stop());
+		long time = stop();
+		Logger.log.trace(() -> msg + "\t" + time);
 	}
 }
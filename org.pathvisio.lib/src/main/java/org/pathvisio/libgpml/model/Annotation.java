@@ -25,6 +25,7 @@ import org.pathvisio.libgpml.model.PathwayElement.AnnotationRef;
 import org.pathvisio.libgpml.model.type.AnnotationType;
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 import org.pathvisio.libgpml.util.XrefUtils;
 
@@ -294,6 +295,20 @@ public class Annotation extends PathwayObject {
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the values of this annotation with equal values of the given
+	 * pool. Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		value = pool.intern(value);
+		urlLink = pool.intern(urlLink);
+		xref = pool.intern(xref);
+	}
+
 	/**
 	 * Copies this annotation.
 	 *
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.pathvisio.libgpml.debug.Metrics;
+import org.pathvisio.libgpml.debug.Phase;
+import org.pathvisio.libgpml.io.AbstractPathwayModelFormat;
+import org.pathvisio.libgpml.io.ConverterException;
+
+/**
+ * Class responsible for interaction with the compact binary format of pathway
+ * models. The binary format holds the same information as GPML2021, and is
+ * meant for caches and transfer between services, where re-parsing GPML is too
+ * slow and the source is trusted. The binary format is not validated.
+ * <p>
+ * NB:
+ * <ol>
+ * <li>Files start with {@link #MAGIC} followed by the format {@link #VERSION}.
+ * Newer versions cannot be read by older readers.
+ * <li>Strings are written once, and afterwards referred to by their index in a
+ * string table. Likewise for font and shape styles.
+ * <li>Coordinates with at most two decimals are written as variable length
+ * integers, other doubles are written in full.
+ * <li>References between pathway objects (groupRef, aliasRef, elementRef,
+ * annotationRef, etc.) are written as the index of the referenced object.
+ * </ol>
+ */
+public class BinaryFormat extends AbstractPathwayModelFormat {
+
+	/**
+	 * The first bytes of the binary format.
+	 */
+	public static final byte[] MAGIC = { 'G', 'P', 'M', 'B' };
+
+	/**
+	 * The current version of the binary format.
+	 */
+	public static final int VERSION = 1;
+
+	// ================================================================================
+	// Import Methods
+	// ================================================================================
+	/**
+	 *
+	 */
+	@Override
+	public PathwayModel doImport(File file) throws ConverterException {
+		PathwayModel pathwayModel = new PathwayModel();
+		readFromBinary(pathwayModel, file);
+		pathwayModel.clearChangedFlag();
+		return pathwayModel;
+	}
+
+	// ================================================================================
+	// Export Methods
+	// ================================================================================
+	/**
+	 *
+	 */
+	@Override
+	public void doExport(File file, PathwayModel pathwayModel) throws ConverterException {
+		writeToBinary(pathwayModel, file);
+	}
+
+	/**
+	 * Exports the given pathway model to the file. The binary format has no zoom,
+	 * so the zoom factor is ignored.
+	 */
+	@Override
+	public void doExport(File file, PathwayModel pathwayModel, int zoom) throws ConverterException {
+		doExport(file, pathwayModel);
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public String[] getExtensions() {
+		return new String[] { "gpmlb" };
+	}
+
+	/**
+	 *
+	 */
+	@Override
+	public String getName() {
+		return "Binary GPML file";
+	}
+
+	/**
+	 * Returns true if the file starts with {@link #MAGIC}.
+	 *
+	 * @param f the file.
+	 * @return true if file type correct.
+	 */
+	@Override
+	public boolean isCorrectType(File f) {
+		try (InputStream in = new FileInputStream(f)) {
+			byte[] magic = new byte[MAGIC.length];
+			int n = 0;
+			while (n < magic.length) {
+				int read = in.read(magic, n, magic.length - n);
+				if (read < 0) {
+					return false;
+				}
+				n += read;
+			}
+			return isMagic(ByteBuffer.wrap(magic));
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns true if the given buffer starts with {@link #MAGIC} at its current
+	 * position. The position of the buffer is not changed.
+	 *
+	 * @param buffer the buffer to check.
+	 * @return true if the buffer starts with the binary format.
+	 */
+	public static boolean isMagic(ByteBuffer buffer) {
+		if (buffer.remaining() < MAGIC.length) {
+			return false;
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// ================================================================================
+	// Write Methods
+	// ================================================================================
+	/**
+	 * Writes the pathway model in the binary format to a byte array.
+	 *
+	 * @param pathwayModel the pathway model.
+	 * @return the bytes of the binary format.
+	 * @throws ConverterException
+	 */
+	public static byte[] writeToBinary(PathwayModel pathwayModel) throws ConverterException {
+		long t = Metrics.start();
+		byte[] bytes = new BinaryFormatWriter().write(pathwayModel);
+		Metrics.stop(Phase.WRITE_BINARY, t);
+		return bytes;
+	}
+
+	/**
+	 * Writes the pathway model in the binary format to the output stream. The
+	 * output stream is not closed.
+	 *
+	 * @param pathwayModel the pathway model.
+	 * @param out          the output stream to write to.
+	 * @throws ConverterException
+	 */
+	public static void writeToBinary(PathwayModel pathwayModel, OutputStream out) throws ConverterException {
+		byte[] bytes = writeToBinary(pathwayModel);
+		try {
+			out.write(bytes);
+		} catch (IOException e) {
+			throw new ConverterException(e);
+		}
+	}
+
+	/**
+	 * Writes the pathway model in the binary format to the file.
+	 *
+	 * @param pathwayModel the pathway model.
+	 * @param file         the file to write to.
+	 * @throws ConverterException
+	 */
+	public static void writeToBinary(PathwayModel pathwayModel, File file) throws ConverterException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			writeToBinary(pathwayModel, out);
+		} catch (IOException e) {
+			throw new ConverterException(e);
+		}
+	}
+
+	// ================================================================================
+	// Read Methods
+	// ================================================================================
+	/**
+	 * Reads the pathway model from the binary format in the buffer, starting at its
+	 * current position. Afterwards the position of the buffer is after the pathway
+	 * model. The buffer may be a direct or memory-mapped buffer.
+	 *
+	 * @param pathwayModel the pathway model to read into.
+	 * @param buffer       the buffer to read from.
+	 * @throws ConverterException if the buffer does not hold a valid pathway model
+	 *                            of a supported version.
+	 */
+	public static void readFromBinary(PathwayModel pathwayModel, ByteBuffer buffer) throws ConverterException {
+		long t = Metrics.start();
+		try {
+			new BinaryFormatReader(buffer).read(pathwayModel);
+			Metrics.stop(Phase.READ_BINARY, t);
+		} catch (ConverterException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ConverterException(e);
+		}
+	}
+
+	/**
+	 * Reads the pathway model from the binary format in the byte array.
+	 *
+	 * @param pathwayModel the pathway model to read into.
+	 * @param bytes        the bytes to read from.
+	 * @throws ConverterException
+	 */
+	public static void readFromBinary(PathwayModel pathwayModel, byte[] bytes) throws ConverterException {
+		readFromBinary(pathwayModel, ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Reads the pathway model from the binary format in the input stream. The
+	 * input stream is read to the end, but not closed.
+	 *
+	 * @param pathwayModel the pathway model to read into.
+	 * @param in           the input stream to read from.
+	 * @throws ConverterException
+	 */
+	public static void readFromBinary(PathwayModel pathwayModel, InputStream in) throws ConverterException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		try {
+			int n;
+			while ((n = in.read(buffer)) >= 0) {
+				bytes.write(buffer, 0, n);
+			}
+		} catch (IOException e) {
+			throw new ConverterException(e);
+		}
+		readFromBinary(pathwayModel, bytes.toByteArray());
+	}
+
+	/**
+	 * Reads the pathway model from the binary format in the file.
+	 *
+	 * @param pathwayModel the pathway model to read into.
+	 * @param file         the file to read from.
+	 * @throws ConverterException
+	 */
+	public static void readFromBinary(PathwayModel pathwayModel, File file) throws ConverterException {
+		try (InputStream in = new FileInputStream(file)) {
+			readFromBinary(pathwayModel, in);
+		} catch (IOException e) {
+			throw new ConverterException(e);
+		}
+	}
+}
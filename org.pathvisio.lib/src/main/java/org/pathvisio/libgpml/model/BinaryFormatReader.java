@@ -0,0 +1,491 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.Pathway.Author;
+import org.pathvisio.libgpml.model.PathwayElement.AnnotationRef;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.Referenceable.Annotatable;
+import org.pathvisio.libgpml.model.Referenceable.Citable;
+import org.pathvisio.libgpml.model.Referenceable.Evidenceable;
+import org.pathvisio.libgpml.model.type.AnchorShapeType;
+import org.pathvisio.libgpml.model.type.AnnotationType;
+import org.pathvisio.libgpml.model.type.ArrowHeadType;
+import org.pathvisio.libgpml.model.type.ConnectorType;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.GroupType;
+import org.pathvisio.libgpml.model.type.HAlignType;
+import org.pathvisio.libgpml.model.type.LineStyleType;
+import org.pathvisio.libgpml.model.type.ShapeType;
+import org.pathvisio.libgpml.model.type.StateType;
+import org.pathvisio.libgpml.model.type.VAlignType;
+import org.pathvisio.libgpml.util.XrefUtils;
+
+/**
+ * Reads a pathway model from the {@link BinaryFormat}, in the order written by
+ * {@link BinaryFormatWriter}.
+ *
+ * <p>
+ * NB: Pathway elements are created with all their properties before they are
+ * added to the pathway model, so the pathway model is notified once per pathway
+ * element.
+ */
+final class BinaryFormatReader {
+
+	private final ByteBuffer buf;
+	private final List<String> strings = new ArrayList<String>();
+	private final List<ShapedStyle> styles = new ArrayList<ShapedStyle>();
+	private final List<PathwayObject> objects = new ArrayList<PathwayObject>();
+	private final Map<String, DataSource> dataSources = new HashMap<String, DataSource>();
+	private byte[] bytes = new byte[64];
+
+	/**
+	 * Instantiates a reader for the given buffer.
+	 *
+	 * @param buf the buffer to read from, at its current position.
+	 */
+	BinaryFormatReader(ByteBuffer buf) {
+		this.buf = buf;
+	}
+
+	// ================================================================================
+	// Read Methods
+	// ================================================================================
+	/**
+	 * Reads the pathway model.
+	 *
+	 * @param pathwayModel the pathway model to read into.
+	 * @throws ConverterException if the buffer does not hold a pathway model in a
+	 *                            supported version.
+	 */
+	void read(PathwayModel pathwayModel) throws ConverterException {
+		if (!BinaryFormat.isMagic(buf)) {
+			throw new ConverterException("Not a binary pathway model");
+		}
+		buf.position(buf.position() + BinaryFormat.MAGIC.length);
+		int version = readVarInt();
+		if (version > BinaryFormat.VERSION) {
+			throw new ConverterException("Binary format version " + version
+					+ " was not recognized. This application might be out of date.");
+		}
+		readPathway(pathwayModel.getPathway());
+		int n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			String value = readString();
+			AnnotationType type = AnnotationType.register(readString());
+			Annotation annotation = new Annotation(value, type, readXref(), readString());
+			annotation.setElementId(elementId);
+			objects.add(pathwayModel.addAnnotation(annotation));
+		}
+		n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			Citation citation = new Citation(readXref(), readString());
+			citation.setElementId(elementId);
+			citation.setTitle(readString());
+			citation.setSource(readString());
+			citation.setYear(readString());
+			citation.setAuthors(readStrings());
+			objects.add(pathwayModel.addCitation(citation));
+		}
+		n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			String value = readString();
+			Evidence evidence = new Evidence(value, readXref(), readString());
+			evidence.setElementId(elementId);
+			objects.add(pathwayModel.addEvidence(evidence));
+		}
+		readElementInfo(pathwayModel.getPathway());
+		n = readVarInt();
+		List<Group> groups = new ArrayList<Group>(n);
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			Group group = new Group(GroupType.register(readString()));
+			group.setElementId(elementId);
+			group.setTextLabel(readString());
+			group.setXref(readXref());
+			readShapedElement(group);
+			pathwayModel.addGroup(group);
+			objects.add(group);
+			groups.add(group);
+		}
+		n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			Label label = new Label(readString());
+			label.setElementId(elementId);
+			label.setHref(readString());
+			readShapedElement(label);
+			pathwayModel.addLabel(label);
+			objects.add(label);
+		}
+		n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			Shape shape = new Shape();
+			shape.setElementId(elementId);
+			shape.setTextLabel(readString());
+			readShapedElement(shape);
+			pathwayModel.addShape(shape);
+			objects.add(shape);
+		}
+		n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			String textLabel = readString();
+			DataNode dataNode = new DataNode(textLabel, DataNodeType.register(readString()));
+			dataNode.setElementId(elementId);
+			dataNode.setXref(readXref());
+			readShapedElement(dataNode);
+			objects.add(dataNode);
+			int m = readVarInt();
+			for (int j = 0; j < m; j++) {
+				String stateId = readString();
+				String stateLabel = readString();
+				StateType type = StateType.register(readString());
+				double relX = readDouble();
+				double relY = readDouble();
+				State state = dataNode.addState(stateId, stateLabel, type, relX, relY);
+				state.setXref(readXref());
+				readShapedElement(state);
+				objects.add(state);
+			}
+			// adds data node with its states
+			pathwayModel.addDataNode(dataNode);
+			Group aliasRef = (Group) readRef();
+			if (aliasRef != null) {
+				dataNode.setAliasRef(aliasRef);
+			}
+		}
+		n = readVarInt();
+		List<LineElement> lineElements = new ArrayList<LineElement>();
+		for (int i = 0; i < n; i++) {
+			Interaction interaction = new Interaction();
+			readLineElement(interaction);
+			interaction.setXref(readXref());
+			pathwayModel.addInteraction(interaction);
+			lineElements.add(interaction);
+		}
+		n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			GraphicalLine graphicalLine = new GraphicalLine();
+			readLineElement(graphicalLine);
+			pathwayModel.addGraphicalLine(graphicalLine);
+			lineElements.add(graphicalLine);
+		}
+		for (Group group : groups) {
+			int m = readVarInt();
+			for (int j = 0; j < m; j++) {
+				((Groupable) readRef()).setGroupRefTo(group);
+			}
+		}
+		for (LineElement lineElement : lineElements) {
+			for (LinePoint point : lineElement.getLinePoints()) {
+				LinkableTo elementRef = (LinkableTo) readRef();
+				if (elementRef != null) {
+					double relX = readDouble();
+					double relY = readDouble();
+					point.linkTo(elementRef, relX, relY);
+				}
+			}
+		}
+		// refreshes line elements
+		for (LineElement lineElement : lineElements) {
+			lineElement.getConnectorShape().recalculateShape(lineElement);
+		}
+	}
+
+	/**
+	 * Reads pathway information.
+	 *
+	 * @param pathway the pathway.
+	 */
+	private void readPathway(Pathway pathway) {
+		pathway.setTitle(readString());
+		pathway.setOrganism(readString());
+		pathway.setSource(readString());
+		pathway.setVersion(readString());
+		pathway.setLicense(readString());
+		pathway.setDescription(readString());
+		pathway.setXref(readXref());
+		pathway.setBoardWidth(readDouble());
+		pathway.setBoardHeight(readDouble());
+		pathway.setBackgroundColor(readColor());
+		int n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			Author author = pathway.addAuthor(readString());
+			author.setUsername(readString());
+			author.setOrder(unZigZag(readVarInt()));
+			author.setXref(readXref());
+		}
+	}
+
+	/**
+	 * Reads comment group (comment, dynamic property, annotationRef, citationRef,
+	 * evidenceRef) information of the pathway element.
+	 *
+	 * @param pathwayElement the pathway element.
+	 */
+	private void readElementInfo(PathwayElement pathwayElement) {
+		int n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String commentText = readString();
+			pathwayElement.addComment(commentText, readString());
+		}
+		n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String key = readString();
+			pathwayElement.setDynamicProperty(key, readString());
+		}
+		readAnnotationRefs(pathwayElement);
+		readCitationRefs(pathwayElement);
+		readEvidenceRefs(pathwayElement);
+	}
+
+	private void readAnnotationRefs(Annotatable annotatable) {
+		int n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			AnnotationRef annotationRef = annotatable.addAnnotation((Annotation) readRef());
+			readCitationRefs(annotationRef);
+			readEvidenceRefs(annotationRef);
+		}
+	}
+
+	private void readCitationRefs(Citable citable) {
+		int n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			CitationRef citationRef = citable.addCitation((Citation) readRef());
+			readAnnotationRefs(citationRef);
+		}
+	}
+
+	private void readEvidenceRefs(Evidenceable evidenceable) {
+		int n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			evidenceable.addEvidence((Evidence) readRef());
+		}
+	}
+
+	/**
+	 * Reads common properties of shaped pathway elements.
+	 *
+	 * @param shapedElement the shaped pathway element.
+	 */
+	private void readShapedElement(ShapedElement shapedElement) {
+		shapedElement.setCenterX(readDouble());
+		shapedElement.setCenterY(readDouble());
+		shapedElement.setWidth(readDouble());
+		shapedElement.setHeight(readDouble());
+		shapedElement.setZOrder(unZigZag(readVarInt()));
+		shapedElement.setRotation(readDouble());
+		int index = readVarInt();
+		if (index == 0) {
+			ShapedStyle style = ShapedStyle.DEFAULT.withTextColor(readColor()).withFontName(readString());
+			int fontFlags = readVarInt();
+			for (int flag : new int[] { ShapedStyle.FONT_WEIGHT, ShapedStyle.FONT_STYLE,
+					ShapedStyle.FONT_DECORATION, ShapedStyle.FONT_STRIKETHRU }) {
+				style = style.withFontFlag(flag, (fontFlags & flag) != 0);
+			}
+			style = style.withFontSize(readDouble()).withHAlign(HAlignType.fromName(readString()))
+					.withVAlign(VAlignType.fromName(readString())).withBorderColor(readColor())
+					.withBorderStyle(LineStyleType.register(readString())).withBorderWidth(readDouble())
+					.withFillColor(readColor()).withShapeType(ShapeType.register(readString(), null));
+			styles.add(style);
+			shapedElement.setStyle(style);
+		} else {
+			shapedElement.setStyle(styles.get(index - 1));
+		}
+		readElementInfo(shapedElement);
+	}
+
+	/**
+	 * Reads line pathway element properties, points and anchors. The elementRefs
+	 * of points are read after all pathway elements.
+	 *
+	 * @param lineElement the line pathway element.
+	 */
+	private void readLineElement(LineElement lineElement) {
+		objects.add(lineElement);
+		lineElement.setElementId(readString());
+		lineElement.setStartArrowHeadType(ArrowHeadType.register(readString()));
+		lineElement.setEndArrowHeadType(ArrowHeadType.register(readString()));
+		int n = readVarInt();
+		List<LinePoint> points = new ArrayList<LinePoint>(n);
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			double x = readDouble();
+			LinePoint point = lineElement.new LinePoint(x, readDouble());
+			point.setElementId(elementId);
+			points.add(point);
+			objects.add(point);
+		}
+		lineElement.setLinePoints(points);
+		n = readVarInt();
+		for (int i = 0; i < n; i++) {
+			String elementId = readString();
+			double position = readDouble();
+			objects.add(lineElement.addAnchor(elementId, position, AnchorShapeType.register(readString())));
+		}
+		lineElement.setLineColor(readColor());
+		lineElement.setLineStyle(LineStyleType.register(readString()));
+		lineElement.setLineWidth(readDouble());
+		lineElement.setConnectorType(ConnectorType.register(readString()));
+		lineElement.setZOrder(unZigZag(readVarInt()));
+		readElementInfo(lineElement);
+	}
+
+	// ================================================================================
+	// Value Methods
+	// ================================================================================
+	/**
+	 * Reads a reference to a read pathway object.
+	 *
+	 * @return the referenced pathway object, or null.
+	 */
+	private PathwayObject readRef() {
+		int index = readVarInt();
+		return index == 0 ? null : objects.get(index - 1);
+	}
+
+	/**
+	 * Reads an xref. Data sources are looked up once per data source string.
+	 *
+	 * @return the xref, or null.
+	 */
+	private Xref readXref() {
+		int flag = readByte();
+		if (flag == 0) {
+			return null;
+		}
+		String identifier = readString();
+		String dataSourceStr = readString();
+		DataSource dataSource = null;
+		if (dataSourceStr != null) {
+			dataSource = dataSources.get(dataSourceStr);
+			if (dataSource == null) {
+				dataSource = XrefUtils.getXrefDataSource(dataSourceStr);
+				dataSources.put(dataSourceStr, dataSource);
+			}
+		}
+		return new Xref(identifier, dataSource, flag == 2);
+	}
+
+	private Color readColor() {
+		if (readByte() == 0) {
+			return null;
+		}
+		return new Color(buf.getInt(), true);
+	}
+
+	private List<String> readStrings() {
+		int n = readVarInt();
+		if (n == 0) {
+			return null;
+		}
+		List<String> list = new ArrayList<String>(n - 1);
+		for (int i = 1; i < n; i++) {
+			list.add(readString());
+		}
+		return list;
+	}
+
+	/**
+	 * Reads a string, in full or as index in the string table.
+	 *
+	 * @return the string, or null.
+	 */
+	private String readString() {
+		int index = readVarInt();
+		if (index == BinaryFormatWriter.STRING_NULL) {
+			return null;
+		}
+		if (index != BinaryFormatWriter.STRING_NEW) {
+			return strings.get(index - 2);
+		}
+		int length = readVarInt();
+		String s;
+		if (buf.hasArray()) {
+			s = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+			buf.position(buf.position() + length);
+		} else {
+			if (bytes.length < length) {
+				bytes = new byte[Math.max(length, bytes.length * 2)];
+			}
+			buf.get(bytes, 0, length);
+			s = new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+		strings.add(s);
+		return s;
+	}
+
+	/**
+	 * Reads a double, as scaled variable length integer or in full.
+	 *
+	 * @return the double.
+	 */
+	private double readDouble() {
+		long v = readVarLong();
+		if (v == BinaryFormatWriter.DOUBLE_FULL) {
+			return Double.longBitsToDouble(buf.getLong());
+		}
+		return unZigZag(v >>> 1) / BinaryFormatWriter.DOUBLE_SCALE;
+	}
+
+	private static int unZigZag(int v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static long unZigZag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private int readVarInt() {
+		return (int) readVarLong();
+	}
+
+	private long readVarLong() {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buf.get();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalStateException("Malformed variable length integer");
+	}
+
+	private int readByte() {
+		return buf.get() & 0xFF;
+	}
+}
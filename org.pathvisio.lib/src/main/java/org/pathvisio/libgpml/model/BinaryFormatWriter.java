@@ -0,0 +1,492 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bridgedb.Xref;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.Pathway.Author;
+import org.pathvisio.libgpml.model.PathwayElement.AnnotationRef;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.PathwayElement.Comment;
+import org.pathvisio.libgpml.model.PathwayElement.EvidenceRef;
+import org.pathvisio.libgpml.util.XrefUtils;
+
+/**
+ * Writes a pathway model in the {@link BinaryFormat}. The order of writing is
+ * the same as the order of reading by {@link BinaryFormatReader}: referenced
+ * pathway objects are written first, so each pathway object is referred to by
+ * the index in which it was written.
+ */
+final class BinaryFormatWriter {
+
+	static final int STRING_NULL = 0;
+	static final int STRING_NEW = 1; // followed by length and UTF-8 bytes, else index + 2
+	static final int DOUBLE_FULL = 1; // followed by 8 bytes, else scaled value << 1
+	static final double DOUBLE_SCALE = 100; // coordinates with at most two decimals
+	static final long DOUBLE_MAX_SCALED = 1L << 52;
+
+	private byte[] buf = new byte[8192];
+	private int pos = 0;
+	private final Map<String, Integer> strings = new HashMap<String, Integer>();
+	private final Map<ShapedStyle, Integer> styles = new IdentityHashMap<ShapedStyle, Integer>();
+	private final Map<PathwayObject, Integer> objects = new IdentityHashMap<PathwayObject, Integer>();
+
+	// ================================================================================
+	// Write Methods
+	// ================================================================================
+	/**
+	 * Writes the given pathway model.
+	 *
+	 * @param pathwayModel the pathway model.
+	 * @return the bytes of the binary format.
+	 * @throws ConverterException if a reference refers to a pathway object which
+	 *                            is not part of the pathway model.
+	 */
+	byte[] write(PathwayModel pathwayModel) throws ConverterException {
+		for (byte b : BinaryFormat.MAGIC) {
+			writeByte(b);
+		}
+		writeVarInt(BinaryFormat.VERSION);
+		writePathway(pathwayModel.getPathway());
+		// annotations, citations and evidences are referenced by pathway elements
+		writeVarInt(pathwayModel.getAnnotations().size());
+		for (Annotation annotation : pathwayModel.getAnnotations()) {
+			addObject(annotation);
+			writeString(annotation.getElementId());
+			writeString(annotation.getValue());
+			writeString(annotation.getType().getName());
+			writeXref(annotation.getXref());
+			writeString(annotation.getUrlLink());
+		}
+		writeVarInt(pathwayModel.getCitations().size());
+		for (Citation citation : pathwayModel.getCitations()) {
+			addObject(citation);
+			writeString(citation.getElementId());
+			writeXref(citation.getXref());
+			writeString(citation.getUrlLink());
+			writeString(citation.getTitle());
+			writeString(citation.getSource());
+			writeString(citation.getYear());
+			writeStrings(citation.getAuthors());
+		}
+		writeVarInt(pathwayModel.getEvidences().size());
+		for (Evidence evidence : pathwayModel.getEvidences()) {
+			addObject(evidence);
+			writeString(evidence.getElementId());
+			writeString(evidence.getValue());
+			writeXref(evidence.getXref());
+			writeString(evidence.getUrlLink());
+		}
+		writeElementInfo(pathwayModel.getPathway());
+		// groups are written first as other pathway elements reference groups
+		writeVarInt(pathwayModel.getGroups().size());
+		for (Group group : pathwayModel.getGroups()) {
+			addObject(group);
+			writeString(group.getElementId());
+			writeString(group.getType().getName());
+			writeString(group.getTextLabel());
+			writeXref(group.getXref());
+			writeShapedElement(group);
+		}
+		writeVarInt(pathwayModel.getLabels().size());
+		for (Label label : pathwayModel.getLabels()) {
+			addObject(label);
+			writeString(label.getElementId());
+			writeString(label.getTextLabel());
+			writeString(label.getHref());
+			writeShapedElement(label);
+		}
+		writeVarInt(pathwayModel.getShapes().size());
+		for (Shape shape : pathwayModel.getShapes()) {
+			addObject(shape);
+			writeString(shape.getElementId());
+			writeString(shape.getTextLabel());
+			writeShapedElement(shape);
+		}
+		writeVarInt(pathwayModel.getDataNodes().size());
+		for (DataNode dataNode : pathwayModel.getDataNodes()) {
+			addObject(dataNode);
+			writeString(dataNode.getElementId());
+			writeString(dataNode.getTextLabel());
+			writeString(dataNode.getType().getName());
+			writeXref(dataNode.getXref());
+			writeShapedElement(dataNode);
+			writeVarInt(dataNode.getStates().size());
+			for (State state : dataNode.getStates()) {
+				addObject(state);
+				writeString(state.getElementId());
+				writeString(state.getTextLabel());
+				writeString(state.getType().getName());
+				writeDouble(state.getRelX());
+				writeDouble(state.getRelY());
+				writeXref(state.getXref());
+				writeShapedElement(state);
+			}
+			writeRef(dataNode.getAliasRef());
+		}
+		writeVarInt(pathwayModel.getInteractions().size());
+		for (Interaction interaction : pathwayModel.getInteractions()) {
+			writeLineElement(interaction);
+			writeXref(interaction.getXref());
+		}
+		writeVarInt(pathwayModel.getGraphicalLines().size());
+		for (GraphicalLine graphicalLine : pathwayModel.getGraphicalLines()) {
+			writeLineElement(graphicalLine);
+		}
+		// group members, in order
+		for (Group group : pathwayModel.getGroups()) {
+			writeVarInt(group.getPathwayElements().size());
+			for (Groupable member : group.getPathwayElements()) {
+				writeRef((PathwayObject) member);
+			}
+		}
+		// point elementRefs are written last, they may refer to any pathway object
+		for (Interaction interaction : pathwayModel.getInteractions()) {
+			writePointElementRefs(interaction);
+		}
+		for (GraphicalLine graphicalLine : pathwayModel.getGraphicalLines()) {
+			writePointElementRefs(graphicalLine);
+		}
+		return Arrays.copyOf(buf, pos);
+	}
+
+	/**
+	 * Writes pathway information.
+	 *
+	 * @param pathway the pathway.
+	 */
+	private void writePathway(Pathway pathway) {
+		writeString(pathway.getTitle());
+		writeString(pathway.getOrganism());
+		writeString(pathway.getSource());
+		writeString(pathway.getVersion());
+		writeString(pathway.getLicense());
+		writeString(pathway.getDescription());
+		writeXref(pathway.getXref());
+		writeDouble(pathway.getBoardWidth());
+		writeDouble(pathway.getBoardHeight());
+		writeColor(pathway.getBackgroundColor());
+		writeVarInt(pathway.getAuthors().size());
+		for (Author author : pathway.getAuthors()) {
+			writeString(author.getName());
+			writeString(author.getUsername());
+			writeVarInt(zigZag(author.getOrder()));
+			writeXref(author.getXref());
+		}
+	}
+
+	/**
+	 * Writes comment group (comment, dynamic property, annotationRef, citationRef,
+	 * evidenceRef) information of the pathway element.
+	 *
+	 * @param pathwayElement the pathway element.
+	 * @throws ConverterException
+	 */
+	private void writeElementInfo(PathwayElement pathwayElement) throws ConverterException {
+		writeVarInt(pathwayElement.getComments().size());
+		for (Comment comment : pathwayElement.getComments()) {
+			writeString(comment.getCommentText());
+			writeString(comment.getSource());
+		}
+		writeVarInt(pathwayElement.getDynamicProperties().size());
+		for (Map.Entry<String, String> entry : pathwayElement.getDynamicProperties().entrySet()) {
+			writeString(entry.getKey());
+			writeString(entry.getValue());
+		}
+		writeAnnotationRefs(pathwayElement.getAnnotationRefs());
+		writeCitationRefs(pathwayElement.getCitationRefs());
+		writeEvidenceRefs(pathwayElement.getEvidenceRefs());
+	}
+
+	private void writeAnnotationRefs(List<AnnotationRef> annotationRefs) throws ConverterException {
+		writeVarInt(annotationRefs.size());
+		for (AnnotationRef annotationRef : annotationRefs) {
+			writeRequiredRef(annotationRef.getAnnotation());
+			writeCitationRefs(annotationRef.getCitationRefs());
+			writeEvidenceRefs(annotationRef.getEvidenceRefs());
+		}
+	}
+
+	private void writeCitationRefs(List<CitationRef> citationRefs) throws ConverterException {
+		writeVarInt(citationRefs.size());
+		for (CitationRef citationRef : citationRefs) {
+			writeRequiredRef(citationRef.getCitation());
+			writeAnnotationRefs(citationRef.getAnnotationRefs());
+		}
+	}
+
+	private void writeEvidenceRefs(List<EvidenceRef> evidenceRefs) throws ConverterException {
+		writeVarInt(evidenceRefs.size());
+		for (EvidenceRef evidenceRef : evidenceRefs) {
+			writeRequiredRef(evidenceRef.getEvidence());
+		}
+	}
+
+	/**
+	 * Writes common properties of shaped pathway elements. Each font and shape
+	 * style is written once, and afterwards referred to by index.
+	 *
+	 * @param shapedElement the shaped pathway element.
+	 * @throws ConverterException
+	 */
+	private void writeShapedElement(ShapedElement shapedElement) throws ConverterException {
+		writeDouble(shapedElement.getCenterX());
+		writeDouble(shapedElement.getCenterY());
+		writeDouble(shapedElement.getWidth());
+		writeDouble(shapedElement.getHeight());
+		writeVarInt(zigZag(shapedElement.getZOrder()));
+		writeDouble(shapedElement.getRotation());
+		ShapedStyle style = shapedElement.getStyle();
+		Integer index = styles.get(style);
+		if (index != null) {
+			writeVarInt(index + 1);
+		} else {
+			styles.put(style, styles.size());
+			writeVarInt(0);
+			writeColor(style.getTextColor());
+			writeString(style.getFontName());
+			int fontFlags = 0;
+			for (int flag : new int[] { ShapedStyle.FONT_WEIGHT, ShapedStyle.FONT_STYLE,
+					ShapedStyle.FONT_DECORATION, ShapedStyle.FONT_STRIKETHRU }) {
+				if (style.hasFontFlag(flag)) {
+					fontFlags |= flag;
+				}
+			}
+			writeVarInt(fontFlags);
+			writeDouble(style.getFontSize());
+			writeString(style.getHAlign().getName());
+			writeString(style.getVAlign().getName());
+			writeColor(style.getBorderColor());
+			writeString(style.getBorderStyle().getName());
+			writeDouble(style.getBorderWidth());
+			writeColor(style.getFillColor());
+			writeString(style.getShapeType().getName());
+		}
+		writeElementInfo(shapedElement);
+	}
+
+	/**
+	 * Writes line pathway element properties, points and anchors. The elementRefs
+	 * of points are written after all pathway elements.
+	 *
+	 * @param lineElement the line pathway element.
+	 * @throws ConverterException
+	 */
+	private void writeLineElement(LineElement lineElement) throws ConverterException {
+		addObject(lineElement);
+		writeString(lineElement.getElementId());
+		writeString(lineElement.getStartArrowHeadType().getName());
+		writeString(lineElement.getEndArrowHeadType().getName());
+		writeVarInt(lineElement.getLinePoints().size());
+		for (LinePoint point : lineElement.getLinePoints()) {
+			addObject(point);
+			writeString(point.getElementId());
+			writeDouble(point.getX());
+			writeDouble(point.getY());
+		}
+		writeVarInt(lineElement.getAnchors().size());
+		for (Anchor anchor : lineElement.getAnchors()) {
+			addObject(anchor);
+			writeString(anchor.getElementId());
+			writeDouble(anchor.getPosition());
+			writeString(anchor.getShapeType().getName());
+		}
+		writeColor(lineElement.getLineColor());
+		writeString(lineElement.getLineStyle().getName());
+		writeDouble(lineElement.getLineWidth());
+		writeString(lineElement.getConnectorType().getName());
+		writeVarInt(zigZag(lineElement.getZOrder()));
+		writeElementInfo(lineElement);
+	}
+
+	/**
+	 * Writes the elementRef, relX and relY of the points of the line pathway
+	 * element.
+	 *
+	 * @param lineElement the line pathway element.
+	 * @throws ConverterException
+	 */
+	private void writePointElementRefs(LineElement lineElement) throws ConverterException {
+		for (LinePoint point : lineElement.getLinePoints()) {
+			writeRef((PathwayObject) point.getElementRef());
+			if (point.getElementRef() != null) {
+				writeDouble(point.getRelX());
+				writeDouble(point.getRelY());
+			}
+		}
+	}
+
+	// ================================================================================
+	// Value Methods
+	// ================================================================================
+	/**
+	 * Assigns the next index to the given pathway object.
+	 *
+	 * @param o the pathway object.
+	 */
+	private void addObject(PathwayObject o) {
+		objects.put(o, objects.size());
+	}
+
+	/**
+	 * Writes a reference to a written pathway object, or 0 for null.
+	 *
+	 * @param o the referenced pathway object, may be null.
+	 * @throws ConverterException if the pathway object was not written.
+	 */
+	private void writeRef(PathwayObject o) throws ConverterException {
+		if (o == null) {
+			writeVarInt(0);
+			return;
+		}
+		Integer index = objects.get(o);
+		if (index == null) {
+			throw new ConverterException("Reference to " + o.getClass().getSimpleName() + " " + o.getElementId()
+					+ " which is not part of the pathway model");
+		}
+		writeVarInt(index + 1);
+	}
+
+	private void writeRequiredRef(PathwayObject o) throws ConverterException {
+		if (o == null) {
+			throw new ConverterException("Reference without source annotation, citation or evidence");
+		}
+		writeRef(o);
+	}
+
+	private void writeXref(Xref xref) {
+		if (xref == null) {
+			writeByte(0);
+			return;
+		}
+		writeByte(xref.isPrimary() ? 2 : 1);
+		writeString(xref.getId());
+		writeString(XrefUtils.getXrefDataSourceStr(xref.getDataSource()));
+	}
+
+	private void writeColor(Color color) {
+		if (color == null) {
+			writeByte(0);
+			return;
+		}
+		writeByte(1);
+		int argb = color.getRGB();
+		writeByte(argb >>> 24);
+		writeByte(argb >>> 16);
+		writeByte(argb >>> 8);
+		writeByte(argb);
+	}
+
+	private void writeStrings(List<String> list) {
+		if (list == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(list.size() + 1);
+		for (String s : list) {
+			writeString(s);
+		}
+	}
+
+	/**
+	 * Writes a string. A string is written in full the first time, and afterwards
+	 * as its index in the string table.
+	 *
+	 * @param s the string, may be null.
+	 */
+	private void writeString(String s) {
+		if (s == null) {
+			writeVarInt(STRING_NULL);
+			return;
+		}
+		Integer index = strings.get(s);
+		if (index != null) {
+			writeVarInt(index + 2);
+			return;
+		}
+		strings.put(s, strings.size());
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(STRING_NEW);
+		writeVarInt(bytes.length);
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, buf, pos, bytes.length);
+		pos += bytes.length;
+	}
+
+	/**
+	 * Writes a double. Doubles which are exactly a multiple of 0.01 are written as
+	 * a variable length integer, other doubles are written in full.
+	 *
+	 * @param v the double.
+	 */
+	private void writeDouble(double v) {
+		long scaled = Math.round(v * DOUBLE_SCALE);
+		if (Math.abs(scaled) < DOUBLE_MAX_SCALED
+				&& Double.doubleToRawLongBits(scaled / DOUBLE_SCALE) == Double.doubleToRawLongBits(v)) {
+			writeVarLong(zigZag(scaled) << 1);
+		} else {
+			writeVarLong(DOUBLE_FULL);
+			long bits = Double.doubleToRawLongBits(v);
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				writeByte((int) (bits >>> shift));
+			}
+		}
+	}
+
+	private static int zigZag(int v) {
+		return (v << 1) ^ (v >> 31);
+	}
+
+	private static long zigZag(long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+
+	private void writeVarInt(int v) {
+		writeVarLong(v & 0xFFFFFFFFL);
+	}
+
+	private void writeVarLong(long v) {
+		ensureCapacity(10);
+		while ((v & ~0x7FL) != 0) {
+			buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		buf[pos++] = (byte) v;
+	}
+
+	private void writeByte(int b) {
+		ensureCapacity(1);
+		buf[pos++] = (byte) b;
+	}
+
+	private void ensureCapacity(int n) {
+		if (pos + n > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps track of the right and bottom edges of all pathway elements in a
+ * pathway model, so that the board size can be kept exact when elements are
+ * moved, added or removed. Edges are stored in sorted multisets, which makes
+ * an update O(log n) instead of a scan over all pathway elements.
+ */
+class BoardExtent {
+
+	private final Map<PathwayObject, double[]> edges = new IdentityHashMap<PathwayObject, double[]>();
+	private final TreeMap<Double, Integer> rightEdges = new TreeMap<Double, Integer>();
+	private final TreeMap<Double, Integer> bottomEdges = new TreeMap<Double, Integer>();
+
+	/**
+	 * Updates the edges of the given pathway object. Only {@link ShapedElement}
+	 * and {@link LineElement} have a position on the board, other pathway objects
+	 * are ignored.
+	 *
+	 * @param o the pathway object which was added or moved.
+	 */
+	void update(PathwayObject o) {
+		double right;
+		double bottom;
+		if (o instanceof LineElement) {
+			LineElement l = (LineElement) o;
+			right = Math.max(l.getStartLinePointX(), l.getEndLinePointX());
+			bottom = Math.max(l.getStartLinePointY(), l.getEndLinePointY());
+		} else if (o instanceof ShapedElement) {
+			ShapedElement s = (ShapedElement) o;
+			right = s.getLeft() + s.getWidth();
+			bottom = s.getTop() + s.getHeight();
+		} else {
+			return;
+		}
+		double[] e = edges.get(o);
+		if (e == null) {
+			edges.put(o, new double[] { right, bottom });
+		} else if (e[0] != right || e[1] != bottom) {
+			decrement(rightEdges, e[0]);
+			decrement(bottomEdges, e[1]);
+			e[0] = right;
+			e[1] = bottom;
+		} else {
+			return;
+		}
+		increment(rightEdges, right);
+		increment(bottomEdges, bottom);
+	}
+
+	/**
+	 * Removes the edges of the given pathway object, if any.
+	 *
+	 * @param o the pathway object which was removed.
+	 */
+	void remove(PathwayObject o) {
+		double[] e = edges.remove(o);
+		if (e != null) {
+			decrement(rightEdges, e[0]);
+			decrement(bottomEdges, e[1]);
+		}
+	}
+
+	/**
+	 * Returns the right most edge of all pathway elements, or 0 if there are none.
+	 *
+	 * @return the maximum right edge.
+	 */
+	double getMaxRight() {
+		return rightEdges.isEmpty() ? 0 : rightEdges.lastKey();
+	}
+
+	/**
+	 * Returns the bottom most edge of all pathway elements, or 0 if there are
+	 * none.
+	 *
+	 * @return the maximum bottom edge.
+	 */
+	double getMaxBottom() {
+		return bottomEdges.isEmpty() ? 0 : bottomEdges.lastKey();
+	}
+
+	/**
+	 * Returns true if no pathway elements are tracked.
+	 *
+	 * @return true if empty.
+	 */
+	boolean isEmpty() {
+		return edges.isEmpty();
+	}
+
+	private static void increment(TreeMap<Double, Integer> multiset, double v) {
+		multiset.merge(v, 1, Integer::sum);
+	}
+
+	private static void decrement(TreeMap<Double, Integer> multiset, double v) {
+		multiset.computeIfPresent(v, (k, n) -> n == 1 ? null : n - 1);
+	}
+}
@@ -23,6 +23,7 @@ import org.bridgedb.Xref;
 import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 import org.pathvisio.libgpml.util.XrefUtils;
 
@@ -115,6 +116,7 @@ public class Citation extends PathwayObject {
 	protected void setUrlLink(String v) {
 		if (v != null && !Utils.stringEquals(urlLink, v)) {
 			urlLink = v;
+			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.CITATIONREF));
 		}
 	}
 
@@ -135,6 +137,7 @@ public class Citation extends PathwayObject {
 	protected void setTitle(String v) {
 		if (v != null && !Utils.stringEquals(title, v)) {
 			title = v;
+			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.CITATIONREF));
 		}
 	}
 
@@ -155,6 +158,7 @@ public class Citation extends PathwayObject {
 	protected void setSource(String v) {
 		if (v != null && !Utils.stringEquals(source, v)) {
 			source = v;
+			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.CITATIONREF));
 		}
 	}
 
@@ -175,6 +179,7 @@ public class Citation extends PathwayObject {
 	protected void setYear(String v) {
 		if (v != null && !Utils.stringEquals(year, v)) {
 			year = v;
+			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.CITATIONREF));
 		}
 	}
 
@@ -194,6 +199,7 @@ public class Citation extends PathwayObject {
 	 */
 	protected void setAuthors(List<String> authors) {
 		this.authors = authors;
+		fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.CITATIONREF));
 	}
 
 	/**
@@ -320,6 +326,22 @@ public class Citation extends PathwayObject {
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the values of this citation with equal values of the given pool.
+	 * Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		urlLink = pool.intern(urlLink);
+		title = pool.intern(title);
+		source = pool.intern(source);
+		year = pool.intern(year);
+		xref = pool.intern(xref);
+	}
+
 	/**
 	 * Copies this citation.
 	 *
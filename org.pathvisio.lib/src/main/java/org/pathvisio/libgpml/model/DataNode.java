@@ -17,7 +17,6 @@
 package org.pathvisio.libgpml.model;
 
 import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -28,6 +27,7 @@ import org.pathvisio.libgpml.model.type.DataNodeType;
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.model.type.StateType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 
 /**
@@ -109,6 +109,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 	public void setTextLabel(String v) {
 		String value = (v == null) ? "" : v;
 		if (!Utils.stringEquals(textLabel, value)) {
+			propertyChanging(StaticProperty.TEXTLABEL);
 			textLabel = value;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.TEXTLABEL));
 		}
@@ -136,6 +137,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 				unsetAliasRef(); // unset alias ref
 			}
 			// set new data node type
+			propertyChanging(StaticProperty.DATANODETYPE);
 			type = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.DATANODETYPE));
 		}
@@ -158,6 +160,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 	 */
 	@Override
 	public void setXref(Xref v) {
+		propertyChanging(StaticProperty.XREF);
 		xref = v;
 		fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.XREF));
 	}
@@ -304,6 +307,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 			}
 			unsetAliasRef();
 			v.getPathwayModel().linkAlias(v, this);
+			propertyChanging(StaticProperty.ALIASREF);
 			aliasRef = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.ALIASREF));
 		}
@@ -324,6 +328,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 	public void unsetAliasRef() {
 		if (getAliasRef() != null) {
 			pathwayModel.unlinkAlias(aliasRef, this);
+			propertyChanging(StaticProperty.ALIASREF);
 			aliasRef = null;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.ALIASREF));
 		}
@@ -357,6 +362,19 @@ public class DataNode extends ShapedElement implements Xrefable {
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the text label and xref of this data node with equal values of
+	 * the given pool. Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		textLabel = pool.intern(textLabel);
+		xref = pool.intern(xref);
+	}
+
 	/**
 	 * Copies this pathway element.
 	 *
@@ -396,6 +414,14 @@ public class DataNode extends ShapedElement implements Xrefable {
 	// ================================================================================
 	// Property Methods
 	// ================================================================================
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(ShapedElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.TEXTLABEL, StaticProperty.DATANODETYPE, StaticProperty.XREF, StaticProperty.ALIASREF);
+	/* static property keys of states, shared by all instances */
+	static final Set<StaticProperty> STATE_STATIC_PROPERTY_KEYS = staticPropertyKeys(ShapedElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.TEXTLABEL, StaticProperty.STATETYPE, StaticProperty.RELX, StaticProperty.RELY,
+			StaticProperty.XREF);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -403,11 +429,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		Set<StaticProperty> propsDataNode = EnumSet.of(StaticProperty.TEXTLABEL, StaticProperty.DATANODETYPE,
-				StaticProperty.XREF, StaticProperty.ALIASREF);
-		result.addAll(propsDataNode);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
@@ -607,6 +629,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 		public void setTextLabel(String v) {
 			String value = (v == null) ? "" : v;
 			if (!Utils.stringEquals(textLabel, value)) {
+				propertyChanging(StaticProperty.TEXTLABEL);
 				textLabel = value;
 				fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.TEXTLABEL));
 			}
@@ -628,6 +651,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 		 */
 		public void setType(StateType v) {
 			if (type != v && v != null) {
+				propertyChanging(StaticProperty.STATETYPE);
 				type = v;
 				fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.STATETYPE));
 			}
@@ -657,6 +681,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 		public void setRelX(double v) {
 			if (Math.abs(v) <= 1.0) {
 				if (relX != v) {
+					propertyChanging(StaticProperty.RELX);
 					relX = v;
 					updateCoordinates();
 					fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
@@ -689,6 +714,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 		public void setRelY(double v) {
 			if (Math.abs(v) <= 1.0) {
 				if (relY != v) {
+					propertyChanging(StaticProperty.RELY);
 					relY = v;
 					updateCoordinates();
 					fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
@@ -716,6 +742,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 		@Override
 		public void setXref(Xref v) {
 			if (v != null) {
+				propertyChanging(StaticProperty.XREF);
 				xref = v;
 				fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.XREF));
 			}
@@ -840,6 +867,20 @@ public class DataNode extends ShapedElement implements Xrefable {
 			fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 		}
 
+		/**
+		 * Replaces the text label and xref of this state with equal values of
+		 * the given pool. Called by
+		 * {@link PathwayModel#internValues(InternPool)}.
+		 *
+		 * @param pool the intern pool.
+		 */
+		@Override
+		void internValues(InternPool pool) {
+			super.internValues(pool);
+			textLabel = pool.intern(textLabel);
+			xref = pool.intern(xref);
+		}
+
 		/**
 		 * Copies this pathway element.
 		 * 
@@ -865,11 +906,7 @@ public class DataNode extends ShapedElement implements Xrefable {
 		 */
 		@Override
 		public Set<StaticProperty> getStaticPropertyKeys() {
-			Set<StaticProperty> result = super.getStaticPropertyKeys();
-			Set<StaticProperty> propsState = EnumSet.of(StaticProperty.TEXTLABEL, StaticProperty.STATETYPE,
-					StaticProperty.RELX, StaticProperty.RELY, StaticProperty.XREF);
-			result.addAll(propsState);
-			return result;
+			return STATE_STATIC_PROPERTY_KEYS;
 		}
 
 		/**
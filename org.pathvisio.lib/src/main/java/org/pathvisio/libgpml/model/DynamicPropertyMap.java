@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map of the dynamic properties of a {@link PathwayElement}. Keys and values
+ * are stored in two arrays sorted by key, so iteration order is the same as for
+ * a TreeMap. Pathway elements have few dynamic properties, for which this map
+ * uses less memory than a TreeMap or HashMap, which allocate an entry object
+ * per key.
+ *
+ * <p>
+ * NB: Keys may not be null.
+ */
+final class DynamicPropertyMap extends AbstractMap<String, String> {
+
+	private String[] keys;
+	private String[] values;
+	private int size = 0;
+	private int modCount = 0;
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates an empty map.
+	 */
+	DynamicPropertyMap() {
+		keys = new String[2];
+		values = new String[2];
+	}
+
+	/**
+	 * Instantiates a map with the entries of the given map.
+	 *
+	 * @param src the map to copy.
+	 */
+	DynamicPropertyMap(Map<String, String> src) {
+		keys = new String[Math.max(src.size(), 2)];
+		values = new String[keys.length];
+		putAll(src);
+	}
+
+	// ================================================================================
+	// Map Methods
+	// ================================================================================
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public String get(Object key) {
+		int i = indexOf(key);
+		return i >= 0 ? values[i] : null;
+	}
+
+	@Override
+	public String put(String key, String value) {
+		if (key == null) {
+			throw new NullPointerException("Dynamic property key may not be null.");
+		}
+		int i = Arrays.binarySearch(keys, 0, size, key);
+		if (i >= 0) {
+			String old = values[i];
+			values[i] = value;
+			return old;
+		}
+		i = -(i + 1);
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		System.arraycopy(keys, i, keys, i + 1, size - i);
+		System.arraycopy(values, i, values, i + 1, size - i);
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		modCount++;
+		return null;
+	}
+
+	@Override
+	public String remove(Object key) {
+		int i = indexOf(key);
+		if (i < 0) {
+			return null;
+		}
+		String old = values[i];
+		removeAt(i);
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		return new AbstractSet<Map.Entry<String, String>>() {
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public Iterator<Map.Entry<String, String>> iterator() {
+				return new EntryIterator();
+			}
+		};
+	}
+
+	// ================================================================================
+	// Helper Methods
+	// ================================================================================
+	/**
+	 * Returns the index of the given key, or a negative number if this map does
+	 * not contain the key.
+	 *
+	 * @param key the key to look for.
+	 * @return the index of the key.
+	 */
+	private int indexOf(Object key) {
+		if (!(key instanceof String)) {
+			return -1;
+		}
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+
+	/**
+	 * Removes the entry at the given index.
+	 *
+	 * @param i the index of the entry.
+	 */
+	private void removeAt(int i) {
+		System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+		System.arraycopy(values, i + 1, values, i, size - i - 1);
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		modCount++;
+	}
+
+	/**
+	 * Iterator over the entries of this map, in key order. Entries write through
+	 * to this map.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, String>> {
+
+		private int next = 0;
+		private int last = -1;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		public Map.Entry<String, String> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next >= size) {
+				throw new NoSuchElementException();
+			}
+			last = next++;
+			final int i = last;
+			return new SimpleEntry<String, String>(keys[i], values[i]) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public String setValue(String value) {
+					values[i] = value;
+					return super.setValue(value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			removeAt(last);
+			next = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+}
@@ -24,6 +24,7 @@ import org.bridgedb.Xref;
 import org.pathvisio.libgpml.model.PathwayElement.EvidenceRef;
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 import org.pathvisio.libgpml.util.XrefUtils;
 
@@ -89,8 +90,9 @@ public class Evidence extends PathwayObject {
 	 * @param v the name, term, or text of this evidence.
 	 */
 	protected void setValue(String v) {
-		if (v != null && Utils.stringEquals(value, v)) {
+		if (v != null && !Utils.stringEquals(value, v)) {
 			value = v;
+			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.EVIDENCEREF));
 		}
 	}
 
@@ -135,6 +137,7 @@ public class Evidence extends PathwayObject {
 	protected void setUrlLink(String v) {
 		if (v != null && !Utils.stringEquals(urlLink, v)) {
 			urlLink = v;
+			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.EVIDENCEREF));
 		}
 	}
 
@@ -258,6 +261,20 @@ public class Evidence extends PathwayObject {
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the values of this evidence with equal values of the given pool.
+	 * Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		value = pool.intern(value);
+		urlLink = pool.intern(urlLink);
+		xref = pool.intern(xref);
+	}
+
 	/**
 	 * Copies this evidence.
 	 *
@@ -32,6 +32,8 @@ import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
 import org.pathvisio.libgpml.debug.Logger;
+import org.pathvisio.libgpml.debug.Metrics;
+import org.pathvisio.libgpml.debug.Phase;
 import org.pathvisio.libgpml.io.ConverterException;
 import org.pathvisio.libgpml.model.DataNode.State;
 import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
@@ -116,6 +118,7 @@ public class GPML2013aReader extends GPML2013aFormatAbstract implements GPMLForm
 		Map<String, Group> graphIdToGroup = new HashMap<String, Group>(); // groupId to group
 		Map<Element, LinePoint> elementToPoint = new HashMap<Element, LinePoint>(); // jdom element to point
 
+		long t = Metrics.start();
 		readAllElementIds(root, elementIdSet);// reads all elementIds and stores in set
 		readPublicationXrefMap(root, elementIdSet, idToPublicationXref);
 		// reads pathway information and comment group
@@ -123,22 +126,32 @@ public class GPML2013aReader extends GPML2013aFormatAbstract implements GPMLForm
 		readCommentGroup(pathwayModel.getPathway(), root, idToPublicationXref);
 		// reads biopax OpenControlledVocabulary/Annotation(s)
 		readOpenControlledVocabulary(pathwayModel, root, elementIdSet);
+		t = Metrics.lap(Phase.READ_PATHWAY, t);
 		// reads groups first and then groupRefs
 		readGroups(pathwayModel, root, elementIdSet, idToPublicationXref, groupIdToGroup, graphIdToGroup);
 		readGroupGroupRef(pathwayModel, root, groupIdToGroup);
+		t = Metrics.lap(Phase.READ_GROUPS, t);
 		readLabels(pathwayModel, root, elementIdSet, idToPublicationXref, groupIdToGroup);
+		t = Metrics.lap(Phase.READ_LABELS, t);
 		readShapes(pathwayModel, root, elementIdSet, idToPublicationXref, groupIdToGroup);
+		t = Metrics.lap(Phase.READ_SHAPES, t);
 		readDataNodes(pathwayModel, root, elementIdSet, idToPublicationXref, groupIdToGroup);
 		// reads states after data nodes
 		readStates(pathwayModel, root, elementIdSet, idToPublicationXref);
+		t = Metrics.lap(Phase.READ_DATANODES, t);
 		readInteractions(pathwayModel, root, elementIdSet, idToPublicationXref, groupIdToGroup, elementToPoint);
+		t = Metrics.lap(Phase.READ_INTERACTIONS, t);
 		readGraphicalLines(pathwayModel, root, elementIdSet, idToPublicationXref, groupIdToGroup, elementToPoint);
+		t = Metrics.lap(Phase.READ_GRAPHICALLINES, t);
 		// reads line point elementRefs last
 		readPointElementRefs(pathwayModel, graphIdToGroup, elementToPoint);
+		t = Metrics.lap(Phase.READ_POINT_ELEMENTREFS, t);
 		// removes empty groups and updates group dimensions
 		updateGroups(pathwayModel);
+		t = Metrics.lap(Phase.UPDATE_GROUPS, t);
 		// refreshes line elements
 		refreshLineElements(pathwayModel);
+		Metrics.stop(Phase.REFRESH_LINE_ELEMENTS, t);
 	}
 
 	/**
@@ -262,7 +275,7 @@ public class GPML2013aReader extends GPML2013aFormatAbstract implements GPMLForm
 			for (Element ocv : bp.getChildren("openControlledVocabulary", BIOPAX_NAMESPACE)) {
 				// generates new unique elementId and adds to elementIdSet
 				String elementId = PathwayModel.getUniqueId(elementIdSet);
-				Logger.log.trace("Annotation missing elementId, new id is: " + elementId);
+				Logger.log.trace(() -> "Annotation missing elementId, new id is: " + elementId);
 				elementIdSet.add(elementId);
 				// reads OpenControlledVocabulary
 				String value = ocv.getChild("TERM", BIOPAX_NAMESPACE).getText();
@@ -320,7 +333,7 @@ public class GPML2013aReader extends GPML2013aFormatAbstract implements GPMLForm
 				String elementId = null;
 				if (elementIdSet.contains(id)) {
 					String newId = PathwayModel.getUniqueId(elementIdSet);
-					Logger.log.trace("Biopax id " + id + " is not unique, new id is: " + newId);
+					Logger.log.trace(() -> "Biopax id " + id + " is not unique, new id is: " + newId);
 					elementId = newId;
 				} else {
 					elementId = id; // if rdf:id unique, use as elementId
@@ -396,7 +409,7 @@ public class GPML2013aReader extends GPML2013aFormatAbstract implements GPMLForm
 				if (!authors.isEmpty())
 					citation.setAuthors(authors);
 			} else {
-				Logger.log.trace("Warning: biopaxRef " + id
+				Logger.log.trace(() -> "Warning: biopaxRef " + id
 						+ " refers to invalid Biopax PublicationXref, biopaxRef is not created.");
 			}
 		}
@@ -595,7 +608,7 @@ public class GPML2013aReader extends GPML2013aFormatAbstract implements GPMLForm
 			String graphId = getAttr("Group", "GraphId", grp);
 			if (elementIdSet.contains(groupId)) {
 				String newId = PathwayModel.getUniqueId(elementIdSet);
-				Logger.log.trace("GroupId " + elementId + " is not unique, new id is: " + newId);
+				Logger.log.trace(() -> "GroupId " + groupId + " is not unique, new id is: " + newId);
 				elementId = newId;
 			} else {
 				elementId = groupId; // if groupId unique, use as elementId
@@ -911,7 +924,8 @@ public class GPML2013aReader extends GPML2013aFormatAbstract implements GPMLForm
 				}
 				// add comment to list to be removed after creating annotation and annotationRef
 				commentsToRemove.add(comment);
-				Logger.log.trace("State " + state.getElementId() + " comment converted to Annotations/AnnotationRefs");
+				Logger.log.trace(
+						() -> "State " + state.getElementId() + " comment converted to Annotations/AnnotationRefs");
 			}
 		}
 		// remove state comments which were converted into xref or annotationRefs
@@ -1168,9 +1182,10 @@ public class GPML2013aReader extends GPML2013aFormatAbstract implements GPMLForm
 		String elementId = getAttr(tag, "GraphId", e);
 		// if elementId null, generates new unique elementId and adds to elementIdSet
 		if (elementId == null) {
-			elementId = PathwayModel.getUniqueId(elementIdSet);
-			elementIdSet.add(elementId);
-			Logger.log.trace(e.getName() + " missing elementId, new id is: " + elementId);
+			String newId = PathwayModel.getUniqueId(elementIdSet);
+			elementIdSet.add(newId);
+			Logger.log.trace(() -> e.getName() + " missing elementId, new id is: " + newId);
+			return newId;
 		}
 		return elementId;
 	}
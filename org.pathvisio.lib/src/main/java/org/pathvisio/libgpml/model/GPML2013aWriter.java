@@ -35,6 +35,8 @@ import org.jdom2.Namespace;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
 import org.pathvisio.libgpml.debug.Logger;
+import org.pathvisio.libgpml.debug.Metrics;
+import org.pathvisio.libgpml.debug.Phase;
 import org.pathvisio.libgpml.io.ConverterException;
 import org.pathvisio.libgpml.model.DataNode.State;
 import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
@@ -90,10 +92,14 @@ public class GPML2013aWriter extends GPML2013aFormatAbstract implements GPMLForm
 	@Override
 	public void writeToXml(PathwayModel pathwayModel, OutputStream output, boolean validate) throws ConverterException {
 
+		long start = Metrics.start();
+		long t = start;
 		Document doc = createJdom(pathwayModel);
+		t = Metrics.lap(Phase.CREATE_JDOM, t);
 
 		if (validate) {
 			validateDocument(doc);
+			t = Metrics.lap(Phase.VALIDATE, t);
 		}
 		// Get the XML code
 		XMLOutputter xmlOutput = new XMLOutputter(Format.getPrettyFormat());
@@ -105,6 +111,8 @@ public class GPML2013aWriter extends GPML2013aFormatAbstract implements GPMLForm
 		try {
 			// Send XML code to the outputstream
 			xmlOutput.output(doc, output); // new FileOutputStream(new File("fileName.gpml")
+			Metrics.lap(Phase.SERIALIZE, t);
+			Metrics.stop(Phase.WRITE_GPML, start);
 			// Create a new file and write XML to it
 			Logger.log.trace("Wrote pathway model successfully to gpml file");
 		} catch (IOException e) {
@@ -336,7 +344,7 @@ public class GPML2013aWriter extends GPML2013aFormatAbstract implements GPMLForm
 			}
 			// warnings for conversion GPML2021 to GPML2013a
 			if (dataNode.getAliasRef() != null) {
-				Logger.log.trace("Warning: Conversion GPML2021 to GPML2013a: DataNode " + dataNode.getElementId()
+				Logger.log.trace(() -> "Warning: Conversion GPML2021 to GPML2013a: DataNode " + dataNode.getElementId()
 						+ " aliasRef info lost.");
 			}
 		}
@@ -774,8 +782,8 @@ public class GPML2013aWriter extends GPML2013aFormatAbstract implements GPMLForm
 			}
 			// warnings for conversion GPML2021 to GPML2013a
 			if (annotation.getUrlLink() != null) {
-				Logger.log.trace("Warning: Conversion GPML2021 to GPML2013a: Annotation " + annotation.getElementId()
-						+ " url and elementId info lost.");
+				Logger.log.trace(() -> "Warning: Conversion GPML2021 to GPML2013a: Annotation "
+						+ annotation.getElementId() + " url and elementId info lost.");
 			}
 		}
 	}
@@ -807,7 +815,7 @@ public class GPML2013aWriter extends GPML2013aFormatAbstract implements GPMLForm
 			}
 			// warnings for conversion GPML2021 to GPML2013a
 			if (citation.getUrlLink() != null) {
-				Logger.log.trace("Warning: Conversion GPML2021 to GPML2013a: Citation " + citation.getElementId()
+				Logger.log.trace(() -> "Warning: Conversion GPML2021 to GPML2013a: Citation " + citation.getElementId()
 						+ " url info lost.");
 			}
 		}
@@ -28,6 +28,8 @@ import org.bridgedb.Xref;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
+import org.pathvisio.libgpml.debug.Metrics;
+import org.pathvisio.libgpml.debug.Phase;
 import org.pathvisio.libgpml.io.ConverterException;
 import org.pathvisio.libgpml.model.DataNode.State;
 import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
@@ -90,26 +92,37 @@ public class GPML2021Reader extends GPML2021FormatAbstract implements GPMLFormat
 	 */
 	@Override
 	public void readFromRoot(PathwayModel pathwayModel, Element root) throws ConverterException {
+		long t = Metrics.start();
 		readPathway(pathwayModel.getPathway(), root);
 		// reads annotation/citation/evidence ref info into a map
 		Map<String, Element> refIdToJdomElement = new HashMap<String, Element>();
 		readInfoMap(root, refIdToJdomElement);
 		// reads pathway info
 		readCommentGroup(pathwayModel, pathwayModel.getPathway(), root, refIdToJdomElement);
+		t = Metrics.lap(Phase.READ_PATHWAY, t);
 		// reads groups first
 		readGroups(pathwayModel, root, refIdToJdomElement);
+		t = Metrics.lap(Phase.READ_GROUPS, t);
 		readLabels(pathwayModel, root, refIdToJdomElement);
+		t = Metrics.lap(Phase.READ_LABELS, t);
 		readShapes(pathwayModel, root, refIdToJdomElement);
+		t = Metrics.lap(Phase.READ_SHAPES, t);
 		readDataNodes(pathwayModel, root, refIdToJdomElement);
+		t = Metrics.lap(Phase.READ_DATANODES, t);
 		// stores jdom element to point, for reading point elementRefs (last)
 		Map<Element, LinePoint> elementToPoint = new HashMap<Element, LinePoint>();
 		readInteractions(pathwayModel, root, refIdToJdomElement, elementToPoint);
+		t = Metrics.lap(Phase.READ_INTERACTIONS, t);
 		readGraphicalLines(pathwayModel, root, refIdToJdomElement, elementToPoint);
+		t = Metrics.lap(Phase.READ_GRAPHICALLINES, t);
 		readPointElementRefs(pathwayModel, elementToPoint);
+		t = Metrics.lap(Phase.READ_POINT_ELEMENTREFS, t);
 		// removes empty groups and updates group dimensions
 		updateGroups(pathwayModel);
+		t = Metrics.lap(Phase.UPDATE_GROUPS, t);
 		// refreshes line elements
 		refreshLineElements(pathwayModel);
+		Metrics.stop(Phase.REFRESH_LINE_ELEMENTS, t);
 	}
 
 	/**
@@ -32,6 +32,8 @@ import org.jdom2.Namespace;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
 import org.pathvisio.libgpml.debug.Logger;
+import org.pathvisio.libgpml.debug.Metrics;
+import org.pathvisio.libgpml.debug.Phase;
 import org.pathvisio.libgpml.io.ConverterException;
 import org.pathvisio.libgpml.model.DataNode.State;
 import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
@@ -87,10 +89,14 @@ public class GPML2021Writer extends GPML2021FormatAbstract implements GPMLFormat
 	@Override
 	public void writeToXml(PathwayModel pathwayModel, OutputStream output, boolean validate) throws ConverterException {
 
+		long start = Metrics.start();
+		long t = start;
 		Document doc = createJdom(pathwayModel);
+		t = Metrics.lap(Phase.CREATE_JDOM, t);
 
 		if (validate) {
 			validateDocument(doc);
+			t = Metrics.lap(Phase.VALIDATE, t);
 		}
 		// Get the XML code
 		XMLOutputter xmlOutput = new XMLOutputter(Format.getPrettyFormat());
@@ -102,6 +108,8 @@ public class GPML2021Writer extends GPML2021FormatAbstract implements GPMLFormat
 		try {
 			// Send XML code to the outputstream
 			xmlOutput.output(doc, output); // new FileOutputStream(new File("fileName.gpml")
+			Metrics.lap(Phase.SERIALIZE, t);
+			Metrics.stop(Phase.WRITE_GPML, start);
 			// Create a new file and write XML to it
 			Logger.log.trace("Wrote pathway model successfully to gpml file");
 		} catch (IOException e) {
@@ -323,8 +331,8 @@ public class GPML2021Writer extends GPML2021FormatAbstract implements GPMLFormat
 			String value = dynamicProperties.get(key);
 			// warnings for conversion GPML2021 to GPML2013a
 			if (GPML2013aFormatAbstract.GPML2013A_KEY_SET.contains(key)) {
-				Logger.log.trace("Warning: Conversion GPML2013a to GPML2021: " + e.getName() + " dynamic property \""
-						+ key + "\" (key) and \"" + value + "\" (value) info lost.");
+				Logger.log.trace(() -> "Warning: Conversion GPML2013a to GPML2021: " + e.getName()
+						+ " dynamic property \"" + key + "\" (key) and \"" + value + "\" (value) info lost.");
 				continue;
 			}
 			Element dp = new Element("Property", e.getNamespace());
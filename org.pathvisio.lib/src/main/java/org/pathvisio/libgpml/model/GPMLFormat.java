@@ -32,8 +32,11 @@ import org.jdom2.JDOMException;
 import org.jdom2.Namespace;
 import org.jdom2.input.SAXBuilder;
 import org.pathvisio.libgpml.debug.Logger;
+import org.pathvisio.libgpml.debug.Metrics;
+import org.pathvisio.libgpml.debug.Phase;
 import org.pathvisio.libgpml.io.AbstractPathwayModelFormat;
 import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.RootElementFinder;
 import org.xml.sax.InputSource;
 
@@ -57,6 +60,7 @@ public class GPMLFormat extends AbstractPathwayModelFormat {
 	static public final GPML2013aWriter GPML2013a = GPML2013aWriter.GPML2013aWRITER;
 
 	private GPMLFormatWriter writer;
+	private InternPool internPool = null;
 
 	// ================================================================================
 	// Constructors and Initialize
@@ -86,11 +90,30 @@ public class GPMLFormat extends AbstractPathwayModelFormat {
 	@Override
 	public PathwayModel doImport(File file) throws ConverterException {
 		PathwayModel pathwayModel = new PathwayModel();
-		readFromXml(pathwayModel, file, true); // always validate
+		readFromXml(pathwayModel, file, true, internPool); // always validate
 		pathwayModel.clearChangedFlag();
 		return pathwayModel;
 	}
 
+	/**
+	 * Returns the intern pool for strings and xrefs of imported pathway models.
+	 *
+	 * @return the intern pool, or null if values are not interned.
+	 */
+	public InternPool getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Sets the intern pool for strings and xrefs of imported pathway models.
+	 * Pathway models imported with the same pool share equal values.
+	 *
+	 * @param internPool the intern pool, or null to not intern values.
+	 */
+	public void setInternPool(InternPool internPool) {
+		this.internPool = internPool;
+	}
+
 	// ================================================================================
 	// Export Methods
 	// ================================================================================
@@ -173,13 +196,28 @@ public class GPMLFormat extends AbstractPathwayModelFormat {
 	 * @throws ConverterException
 	 */
 	static public void readFromXml(PathwayModel pathwayModel, File file, boolean validate) throws ConverterException {
+		readFromXml(pathwayModel, file, validate, null);
+	}
+
+	/**
+	 * Reads the JDOM document from the file specified, and interns strings and
+	 * xrefs with the given pool.
+	 *
+	 * @param pathwayModel the pathway model.
+	 * @param file         the file from which the JDOM document should be read.
+	 * @param validate     if true, validate the dom structure during/after reading.
+	 * @param pool         the intern pool, or null to not intern values.
+	 * @throws ConverterException
+	 */
+	static public void readFromXml(PathwayModel pathwayModel, File file, boolean validate, InternPool pool)
+			throws ConverterException {
 		InputStream in;
 		try {
 			in = new FileInputStream(file);
 		} catch (FileNotFoundException e) {
 			throw new ConverterException(e);
 		}
-		readFromXmlImpl(pathwayModel, new InputSource(in), validate);
+		readFromXmlImpl(pathwayModel, new InputSource(in), validate, pool);
 	}
 
 	/**
@@ -192,7 +230,23 @@ public class GPMLFormat extends AbstractPathwayModelFormat {
 	 */
 	static public void readFromXml(PathwayModel pathwayModel, InputStream in, boolean validate)
 			throws ConverterException {
-		readFromXmlImpl(pathwayModel, new InputSource(in), validate);
+		readFromXmlImpl(pathwayModel, new InputSource(in), validate, null);
+	}
+
+	/**
+	 * Reads the JDOM document from the input stream specified, and interns strings
+	 * and xrefs with the given pool.
+	 *
+	 * @param pathwayModel the pathway model.
+	 * @param in           the input stream from which the JDOM document should be
+	 *                     read.
+	 * @param validate     if true, validate the dom structure during/after reading.
+	 * @param pool         the intern pool, or null to not intern values.
+	 * @throws ConverterException
+	 */
+	static public void readFromXml(PathwayModel pathwayModel, InputStream in, boolean validate, InternPool pool)
+			throws ConverterException {
+		readFromXmlImpl(pathwayModel, new InputSource(in), validate, pool);
 	}
 
 	/**
@@ -204,7 +258,22 @@ public class GPMLFormat extends AbstractPathwayModelFormat {
 	 * @throws ConverterException
 	 */
 	static public void readFromXml(PathwayModel pathwayModel, Reader in, boolean validate) throws ConverterException {
-		readFromXmlImpl(pathwayModel, new InputSource(in), validate);
+		readFromXmlImpl(pathwayModel, new InputSource(in), validate, null);
+	}
+
+	/**
+	 * Reads the JDOM document from the reader specified, and interns strings and
+	 * xrefs with the given pool.
+	 *
+	 * @param pathwayModel the pathway model.
+	 * @param in           the reader from which the JDOM document should be read.
+	 * @param validate     if true, validate the dom structure during/after reading.
+	 * @param pool         the intern pool, or null to not intern values.
+	 * @throws ConverterException
+	 */
+	static public void readFromXml(PathwayModel pathwayModel, Reader in, boolean validate, InternPool pool)
+			throws ConverterException {
+		readFromXmlImpl(pathwayModel, new InputSource(in), validate, pool);
 	}
 
 	/**
@@ -230,16 +299,20 @@ public class GPMLFormat extends AbstractPathwayModelFormat {
 	 * @param pathwayModel the pathway model.
 	 * @param is           the file from which the JDOM document should be read.
 	 * @param validate     if true, validate the dom structure during/after reading.
+	 * @param pool         the intern pool, or null to not intern values.
 	 * @throws ConverterException
 	 */
-	private static void readFromXmlImpl(PathwayModel pathwayModel, InputSource is, boolean validate)
-			throws ConverterException {
+	private static void readFromXmlImpl(PathwayModel pathwayModel, InputSource is, boolean validate,
+			InternPool pool) throws ConverterException {
 		// Start XML processing
 		SAXBuilder builder = new SAXBuilder(); // no validation when reading the xml file, validation later.
+		long start = Metrics.start();
 		try {
 			Logger.log.trace("Build JDOM tree");
 			// build jdom tree
+			long t = start;
 			Document doc = builder.build(is);
+			t = Metrics.lap(Phase.BUILD_JDOM, t);
 			// copy the pathway information to a VPathway
 			Element root = doc.getRootElement();
 			if (!root.getName().equals("Pathway")) {
@@ -252,15 +325,23 @@ public class GPMLFormat extends AbstractPathwayModelFormat {
 				throw new ConverterException("This file looks like a pathwayModel, " + "but the namespace " + ns
 						+ " was not recognized. This application might be out of date.");
 			}
-			Logger.log.info("Recognized format " + ns);
+			Logger.log.info(() -> "Recognized format " + ns);
 			// validation
 			if (validate) {
 				format.validateDocument(doc);
-				Logger.log.trace("Validated with schema: " + format.getSchemaFile());
+				Logger.log.trace(() -> "Validated with schema: " + format.getSchemaFile());
+				Metrics.lap(Phase.VALIDATE, t);
 			}
 			Logger.log.trace("Copy map elements");
 			format.readFromRoot(pathwayModel, root);
-		
+			if (pool != null) {
+				t = Metrics.start();
+				// readers are shared, so values are interned after reading
+				pathwayModel.internValues(pool);
+				Logger.log.trace(() -> "Interned values: " + pool);
+				Metrics.stop(Phase.INTERN, t);
+			}
+			Metrics.stop(Phase.READ_GPML, start);
 		} catch (JDOMException e) {
 			throw new ConverterException(e);
 		} catch (IOException e) {
@@ -121,7 +121,7 @@ public abstract class GPMLFormatAbstract {
 			}
 		}
 		for (Group groupToRemove : groupsToRemove) {
-			Logger.log.trace("Warning: Removed empty group " + groupToRemove.getElementId());
+			Logger.log.trace(() -> "Warning: Removed empty group " + groupToRemove.getElementId());
 			pathwayModel.removeGroup(groupToRemove);
 		}
 	}
@@ -160,8 +160,7 @@ public abstract class GPMLFormatAbstract {
 				SAXOutputter so = new SAXOutputter(vh);
 				so.output(doc);
 				// if no errors, the file is valid according to the gpml xml schema
-				Logger.log
-						.info("Document is valid according to the xml schema definition '" + xsdFile.toString() + "'");
+				Logger.log.info(() -> "Document is valid according to the xml schema definition '" + xsdFile + "'");
 			} catch (SAXException se) {
 				Logger.log.error("Could not parse the xml-schema definition", se);
 				throw new ConverterException(se);
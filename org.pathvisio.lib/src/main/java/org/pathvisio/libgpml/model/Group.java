@@ -16,10 +16,8 @@
  ******************************************************************************/
 package org.pathvisio.libgpml.model;
 
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -29,6 +27,7 @@ import org.pathvisio.libgpml.model.type.DataNodeType;
 import org.pathvisio.libgpml.model.type.GroupType;
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 
 /**
@@ -43,6 +42,9 @@ public class Group extends ShapedElement implements Xrefable {
 	private Xref xref; // optional
 	/* list of pathway elements which belong to the group. */
 	private List<Groupable> pathwayElements; // should have at least one pathway element
+	/* union of member bounds without margin, null if it must be recalculated. */
+	private Rectangle2D memberBounds;
+	private Rectangle2D memberRotatedBounds;
 
 	// ================================================================================
 	// Constructors
@@ -125,6 +127,14 @@ public class Group extends ShapedElement implements Xrefable {
 			// add pathway element to this group
 			if (pathwayElement.getGroupRef() == this && !hasPathwayElement(pathwayElement)) {
 				pathwayElements.add(pathwayElement);
+				// a new member can only grow the union of member bounds
+				if (memberBounds != null) {
+					memberBounds.add(pathwayElement.getBounds());
+				}
+				if (memberRotatedBounds != null) {
+					memberRotatedBounds.add(pathwayElement.getRotatedBounds());
+				}
+				invalidateBounds();
 			}
 		}
 	}
@@ -168,7 +178,9 @@ public class Group extends ShapedElement implements Xrefable {
 	public void removePathwayElement(Groupable pathwayElement) {
 		if (pathwayElement != null) {
 			pathwayElement.unsetGroupRef();
-			pathwayElements.remove(pathwayElement);
+			if (pathwayElements.remove(pathwayElement)) {
+				memberBoundsChanged(pathwayElement.getBounds(), pathwayElement.getRotatedBounds(), null, null);
+			}
 		}
 		// remove group if its empty, and refers to and belongs to the pathway model
 		if (pathwayElements.isEmpty() && pathwayModel != null && pathwayModel.hasPathwayObject(this)) {
@@ -214,7 +226,9 @@ public class Group extends ShapedElement implements Xrefable {
 	 */
 	public void setType(GroupType v) {
 		if (type != v && v != null) {
+			propertyChanging(StaticProperty.GROUPTYPE);
 			type = v;
+			invalidateBounds(); // margin depends on type
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.GROUPTYPE));
 		}
 	}
@@ -238,6 +252,7 @@ public class Group extends ShapedElement implements Xrefable {
 	@Override
 	public void setTextLabel(String v) {
 		if (v != null && !Utils.stringEquals(textLabel, v)) {
+			propertyChanging(StaticProperty.TEXTLABEL);
 			textLabel = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.TEXTLABEL));
 		}
@@ -261,6 +276,7 @@ public class Group extends ShapedElement implements Xrefable {
 	@Override
 	public void setXref(Xref v) {
 		if (v != null) {
+			propertyChanging(StaticProperty.XREF);
 			xref = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.XREF));
 		}
@@ -335,8 +351,8 @@ public class Group extends ShapedElement implements Xrefable {
 	}
 
 	/**
-	 * Iterates over all group elements to find the TOTAL rectangular bounds, taking
-	 * into account rotation of the nested elements.
+	 * Calculates the TOTAL rectangular bounds of this group and its elements,
+	 * taking into account rotation of the nested elements.
 	 * 
 	 * NB: For now, groups should never be rotated.
 	 *
@@ -344,48 +360,34 @@ public class Group extends ShapedElement implements Xrefable {
 	 *         account.
 	 */
 	@Override
-	public Rectangle2D getRotatedBounds() {
-		Rectangle2D bounds = getBounds();
-		AffineTransform t = new AffineTransform();
-		t.rotate(getRotation(), getCenterX(), getCenterY());
-		bounds = t.createTransformedShape(bounds).getBounds2D();
-		Rectangle2D minbounds = getMinBounds(true);
-		bounds.add(minbounds); // add bounds
-		return new Rectangle2D.Double(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight());
+	protected Rectangle2D computeRotatedBounds() {
+		Rectangle2D bounds = super.computeRotatedBounds();
+		bounds.add(getMinBounds(true)); // add bounds
+		return bounds;
 	}
 
 	/**
-	 * Iterates over all group elements to find the TOTAL rectangular bounds.
+	 * Calculates the TOTAL rectangular bounds of this group and its elements.
 	 *
 	 * @return the rectangular bounds for this group.
 	 */
 	@Override
-	public Rectangle2D getBounds() {
-		Rectangle2D bounds = new Rectangle2D.Double(getLeft(), getTop(), getWidth(), getHeight());
-		Rectangle2D minbounds = getMinBounds(false);
-		bounds.add(minbounds); // add bounds
-		return new Rectangle2D.Double(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight());
+	protected Rectangle2D computeBounds() {
+		Rectangle2D bounds = super.computeBounds();
+		bounds.add(getMinBounds(false)); // add bounds
+		return bounds;
 	}
 
 	/**
-	 * Iterates over all group elements to find the MINIMAL total rectangular
-	 * bounds.
+	 * Returns the MINIMAL total rectangular bounds of the group elements, plus the
+	 * group margin. The union of the element bounds is cached and updated
+	 * incrementally when elements are moved, added or removed.
 	 *
 	 * @param rotated if true, take into account rotation.
 	 * @return the rectangular bounds for this group.
 	 */
 	public Rectangle2D getMinBounds(boolean rotated) {
-		Rectangle2D bounds = null;
-		for (Groupable e : pathwayElements) {
-			if (e == this) {
-				continue; // To prevent recursion error
-			}
-			if (bounds == null) {
-				bounds = rotated ? e.getRotatedBounds() : e.getBounds();
-			} else {
-				bounds.add(rotated ? e.getRotatedBounds() : e.getBounds());
-			}
-		}
+		Rectangle2D bounds = getMemberBounds(rotated);
 		if (bounds != null) {
 			double margin = getMargin();
 			return new Rectangle2D.Double(bounds.getX() - margin, bounds.getY() - margin,
@@ -395,6 +397,82 @@ public class Group extends ShapedElement implements Xrefable {
 		}
 	}
 
+	/**
+	 * Returns the cached union of the bounds of all group elements, iterating over
+	 * the elements if the union is not known. The returned rectangle must not be
+	 * modified.
+	 *
+	 * @param rotated if true, take into account rotation.
+	 * @return the union of element bounds, or null if the group has no elements.
+	 */
+	private Rectangle2D getMemberBounds(boolean rotated) {
+		Rectangle2D bounds = rotated ? memberRotatedBounds : memberBounds;
+		if (bounds == null) {
+			for (Groupable e : pathwayElements) {
+				if (e == this) {
+					continue; // To prevent recursion error
+				}
+				if (bounds == null) {
+					bounds = rotated ? e.getRotatedBounds() : e.getBounds();
+				} else {
+					bounds.add(rotated ? e.getRotatedBounds() : e.getBounds());
+				}
+			}
+			if (rotated) {
+				memberRotatedBounds = bounds;
+			} else {
+				memberBounds = bounds;
+			}
+		}
+		return bounds;
+	}
+
+	/**
+	 * Called when the bounds of the given group element change. If the previous
+	 * bounds are unknown, the union of element bounds is recalculated on next use.
+	 *
+	 * @param member           the group element which changed.
+	 * @param oldBounds        the previous bounds of the element, or null.
+	 * @param oldRotatedBounds the previous rotated bounds of the element, or null.
+	 */
+	void memberBoundsChanged(Groupable member, Rectangle2D oldBounds, Rectangle2D oldRotatedBounds) {
+		Rectangle2D newBounds = memberBounds != null && oldBounds != null ? member.getBounds() : null;
+		Rectangle2D newRotatedBounds = memberRotatedBounds != null && oldRotatedBounds != null
+				? member.getRotatedBounds()
+				: null;
+		memberBoundsChanged(oldBounds, oldRotatedBounds, newBounds, newRotatedBounds);
+	}
+
+	/**
+	 * Updates the union of element bounds for an element which moved from old to
+	 * new bounds. New bounds are null if the element was removed. The union is
+	 * kept if the old bounds did not touch its edges, otherwise it is dropped and
+	 * recalculated on next use. The cached bounds of this group are invalidated,
+	 * which in turn notifies the parent group of nested groups.
+	 */
+	private void memberBoundsChanged(Rectangle2D oldBounds, Rectangle2D oldRotatedBounds, Rectangle2D newBounds,
+			Rectangle2D newRotatedBounds) {
+		memberBounds = updateMemberBounds(memberBounds, oldBounds, newBounds);
+		memberRotatedBounds = updateMemberBounds(memberRotatedBounds, oldRotatedBounds, newRotatedBounds);
+		invalidateBounds();
+	}
+
+	/**
+	 * Returns the union with old bounds replaced by new bounds, or null if the
+	 * union must be recalculated.
+	 */
+	private static Rectangle2D updateMemberBounds(Rectangle2D union, Rectangle2D oldBounds, Rectangle2D newBounds) {
+		if (union == null || oldBounds == null || oldBounds.getMinX() <= union.getMinX()
+				|| oldBounds.getMinY() <= union.getMinY() || oldBounds.getMaxX() >= union.getMaxX()
+				|| oldBounds.getMaxY() >= union.getMaxY()) {
+			return null;
+		}
+		if (newBounds != null) {
+			union.add(newBounds);
+		}
+		return union;
+	}
+
 	// ================================================================================
 	// Copy Methods
 	// ================================================================================
@@ -408,9 +486,23 @@ public class Group extends ShapedElement implements Xrefable {
 		textLabel = src.textLabel;
 		type = src.type;
 		xref = src.xref;
+		invalidateBounds();
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the text label and xref of this group with equal values of the
+	 * given pool. Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		textLabel = pool.intern(textLabel);
+		xref = pool.intern(xref);
+	}
+
 	/**
 	 * Copies this pathway element.
 	 *
@@ -427,6 +519,10 @@ public class Group extends ShapedElement implements Xrefable {
 	// ================================================================================
 	// Property Methods
 	// ================================================================================
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(ShapedElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.GROUPTYPE, StaticProperty.XREF, StaticProperty.TEXTLABEL);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -434,11 +530,7 @@ public class Group extends ShapedElement implements Xrefable {
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		Set<StaticProperty> propsGroup = EnumSet.of(StaticProperty.GROUPTYPE, StaticProperty.XREF,
-				StaticProperty.TEXTLABEL);
-		result.addAll(propsGroup);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
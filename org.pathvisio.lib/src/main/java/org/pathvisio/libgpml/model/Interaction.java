@@ -21,6 +21,7 @@ import java.util.Set;
 import org.bridgedb.Xref;
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 
 /**
  * This class stores information for an Interaction pathway element.
@@ -83,6 +84,7 @@ public class Interaction extends LineElement implements Xrefable {
 	@Override
 	public void setXref(Xref v) {
 		if (v != null) {
+			propertyChanging(StaticProperty.XREF);
 			xref = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.XREF));
 		}
@@ -102,6 +104,18 @@ public class Interaction extends LineElement implements Xrefable {
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the xref of this interaction with equal values of the given
+	 * pool. Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		xref = pool.intern(xref);
+	}
+
 	/**
 	 * Copies this pathway element.
 	 *
@@ -118,6 +132,10 @@ public class Interaction extends LineElement implements Xrefable {
 	// ================================================================================
 	// Property Methods
 	// ================================================================================
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(LineElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.XREF);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -125,9 +143,7 @@ public class Interaction extends LineElement implements Xrefable {
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		result.add(StaticProperty.XREF);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
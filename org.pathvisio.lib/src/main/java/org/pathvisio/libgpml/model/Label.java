@@ -16,11 +16,11 @@
  ******************************************************************************/
 package org.pathvisio.libgpml.model;
 
-import java.util.EnumSet;
 import java.util.Set;
 
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 
 /**
@@ -79,6 +79,7 @@ public class Label extends ShapedElement {
 	public void setTextLabel(String v) {
 		String value = (v == null) ? "" : v;
 		if (!Utils.stringEquals(textLabel, value)) {
+			propertyChanging(StaticProperty.TEXTLABEL);
 			textLabel = value;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.TEXTLABEL));
 		}
@@ -100,6 +101,7 @@ public class Label extends ShapedElement {
 	 */
 	public void setHref(String v) {
 		if (v != null && !Utils.stringEquals(href, v)) {
+			propertyChanging(StaticProperty.HREF);
 			href = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.HREF));
 		}
@@ -134,6 +136,19 @@ public class Label extends ShapedElement {
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the text label and href of this label with equal values of the
+	 * given pool. Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		textLabel = pool.intern(textLabel);
+		href = pool.intern(href);
+	}
+
 	/**
 	 * Copies this pathway element.
 	 *
@@ -150,6 +165,10 @@ public class Label extends ShapedElement {
 	// ================================================================================
 	// Property Methods
 	// ================================================================================
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(ShapedElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.TEXTLABEL, StaticProperty.HREF);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -157,10 +176,7 @@ public class Label extends ShapedElement {
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		Set<StaticProperty> propsLabel = EnumSet.of(StaticProperty.TEXTLABEL, StaticProperty.HREF);
-		result.addAll(propsLabel);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
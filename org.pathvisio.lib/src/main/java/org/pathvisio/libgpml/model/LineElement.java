@@ -21,13 +21,13 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 import org.pathvisio.libgpml.debug.Logger;
 import org.pathvisio.libgpml.model.GraphLink.LinkableFrom;
 import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
+import org.pathvisio.libgpml.model.connector.AbstractConnector;
 import org.pathvisio.libgpml.model.connector.ConnectorRestrictions;
 import org.pathvisio.libgpml.model.connector.ConnectorShape;
 import org.pathvisio.libgpml.model.connector.ConnectorShape.WayPoint;
@@ -56,7 +56,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	private List<Anchor> anchors;
 
 	// line style properties
-	private Color lineColor = Color.decode("#000000"); // black
+	private Color lineColor = Color.BLACK; // black
 	private LineStyleType lineStyle = LineStyleType.SOLID; // solid, dashed, or double
 	private double lineWidth = 1.0; // 1.0
 	private ConnectorType connectorType = ConnectorType.STRAIGHT; // straight, elbow, curved...
@@ -103,6 +103,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	 */
 	public void setStartArrowHeadType(ArrowHeadType value) {
 		if (startArrowHeadType != value && value != null) {
+			propertyChanging(StaticProperty.STARTARROWHEADTYPE);
 			startArrowHeadType = value;
 			fireObjectModifiedEvent(
 					PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.STARTARROWHEADTYPE));
@@ -127,6 +128,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	 */
 	public void setEndArrowHeadType(ArrowHeadType value) {
 		if (endArrowHeadType != value && value != null) {
+			propertyChanging(StaticProperty.ENDARROWHEADTYPE);
 			endArrowHeadType = value;
 			fireObjectModifiedEvent(
 					PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.ENDARROWHEADTYPE));
@@ -184,6 +186,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	 * @param v the given group to set.
 	 */
 	private void setGroupRef(Group v) {
+		propertyChanging(StaticProperty.GROUPREF);
 		groupRef = v;
 		fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.GROUPREF));
 	}
@@ -228,6 +231,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 				throw new IllegalArgumentException("Points array should at least have two elements for "
 						+ getClass().getSimpleName() + " " + getElementId());
 			}
+			propertiesChanging();
 			List<LinePoint> toRemove = new ArrayList<LinePoint>();
 			if (linePoints != null) {
 				for (LinePoint linePoint : linePoints) {
@@ -398,7 +402,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	 */
 	public Color getLineColor() {
 		if (lineColor == null) {
-			return Color.decode("#000000"); // black
+			return Color.BLACK; // black
 		} else {
 			return lineColor;
 		}
@@ -415,6 +419,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 			throw new IllegalArgumentException();
 		}
 		if (lineColor != v) {
+			propertyChanging(StaticProperty.LINECOLOR);
 			lineColor = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.LINECOLOR));
 		}
@@ -444,6 +449,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 			throw new IllegalArgumentException();
 		}
 		if (lineStyle != v) {
+			propertyChanging(StaticProperty.LINESTYLE);
 			lineStyle = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.LINESTYLE));
 		}
@@ -469,6 +475,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 			throw new IllegalArgumentException();
 		}
 		if (lineWidth != v) {
+			propertyChanging(StaticProperty.LINEWIDTH);
 			lineWidth = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.LINEWIDTH));
 		}
@@ -502,7 +509,9 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 			throw new IllegalArgumentException();
 		}
 		if (connectorType != v) {
+			propertyChanging(StaticProperty.CONNECTORTYPE);
 			connectorType = v;
+			shape = null; // recreated for new type on next use
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.CONNECTORTYPE));
 		}
 	}
@@ -525,6 +534,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	@Override
 	public void setZOrder(int v) {
 		if (zOrder != v) {
+			propertyChanging(StaticProperty.ZORDER);
 			zOrder = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.ZORDER));
 		}
@@ -728,6 +738,21 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 		return new Rectangle2D.Double(getLeft(), getTop(), getWidth(), getHeight());
 	}
 
+	/**
+	 * Fires the given event. Line bounds are not cached, as they depend on the
+	 * pathway elements the line points link to, but the parent group, if any, is
+	 * told that its member bounds are out of date on every coordinate change.
+	 *
+	 * @param e the pathway object event.
+	 */
+	@Override
+	public void fireObjectModifiedEvent(PathwayObjectEvent e) {
+		if (groupRef != null && e.isCoordinateChange()) {
+			groupRef.memberBoundsChanged(this, null, null);
+		}
+		super.fireObjectModifiedEvent(e);
+	}
+
 	/**
 	 * Returns the center x coordinate of the bounding box around (start, end) this
 	 * line pathway element.
@@ -900,20 +925,37 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	/**
 	 * The Connector Shape for this line - the connector shape can calculate a Shape
 	 * based on the connector type (straight, elbow or curved) and possibly way
-	 * points
+	 * points. The shape is created on first use and kept until the connector type
+	 * changes.
 	 */
 	public ConnectorShape getConnectorShape() {
-		String type = getConnectorType().getName();
-
-		// Recreate the ConnectorShape when it's null or when the type
-		// doesn't match the implementing class
-		if (shape == null || !shape.getClass().equals(ConnectorShapeFactory.getImplementingClass(type))) {
-			shape = ConnectorShapeFactory.createConnectorShape(getConnectorType().getName());
+		if (shape == null) {
+			shape = ConnectorShapeFactory.createConnectorShape(getConnectorType());
 			shape.recalculateShape(this);
 		}
 		return shape;
 	}
 
+	/**
+	 * Takes over the connector shape geometry of the given source line, instead of
+	 * recalculating it on first use. The line points, anchors and links of this
+	 * line must be equal to those of the source line, e.g. after copying a pathway
+	 * model. If the source line has no connector shape yet, or its connector shape
+	 * can not be copied, the connector shape is calculated on first use.
+	 *
+	 * @param src the source line.
+	 */
+	void copyConnectorShapeFrom(LineElement src) {
+		shape = null;
+		if (src.shape instanceof AbstractConnector && src.connectorType == connectorType) {
+			ConnectorShape newShape = ConnectorShapeFactory.createConnectorShape(connectorType);
+			if (newShape.getClass() == src.shape.getClass()) {
+				((AbstractConnector) newShape).copyShapeFrom((AbstractConnector) src.shape);
+				shape = newShape;
+			}
+		}
+	}
+
 	/**
 	 * Calculate on which side of a PathwayElement (SIDE_NORTH, SIDE_EAST,
 	 * SIDE_SOUTH or SIDE_WEST) the start of this line is connected to.
@@ -1223,6 +1265,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 		lineStyle = src.lineStyle;
 		lineWidth = src.lineWidth;
 		connectorType = src.connectorType;
+		shape = null;
 		zOrder = src.zOrder;
 		startArrowHeadType = src.startArrowHeadType;
 		endArrowHeadType = src.endArrowHeadType;
@@ -1232,6 +1275,13 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	// ================================================================================
 	// Property Methods
 	// ================================================================================
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(PathwayElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.GROUPREF, StaticProperty.LINECOLOR, StaticProperty.LINESTYLE, StaticProperty.LINEWIDTH,
+			StaticProperty.CONNECTORTYPE, StaticProperty.STARTX, StaticProperty.STARTY, StaticProperty.ENDX,
+			StaticProperty.ENDY, StaticProperty.STARTARROWHEADTYPE, StaticProperty.ENDARROWHEADTYPE,
+			StaticProperty.STARTELEMENTREF, StaticProperty.ENDELEMENTREF, StaticProperty.ZORDER);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -1239,14 +1289,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		Set<StaticProperty> propsLineElement = EnumSet.of(StaticProperty.GROUPREF, StaticProperty.LINECOLOR,
-				StaticProperty.LINESTYLE, StaticProperty.LINEWIDTH, StaticProperty.CONNECTORTYPE, StaticProperty.STARTX,
-				StaticProperty.STARTY, StaticProperty.ENDX, StaticProperty.ENDY, StaticProperty.STARTARROWHEADTYPE,
-				StaticProperty.ENDARROWHEADTYPE, StaticProperty.STARTELEMENTREF, StaticProperty.ENDELEMENTREF,
-				StaticProperty.ZORDER);
-		result.addAll(propsLineElement);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
@@ -1518,7 +1561,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 				moveBy(v - getX(), 0);
 			}
 			if (x < 0) {
-				Logger.log.trace("Warning: negative x coordinate " + String.valueOf(v));
+				Logger.log.trace(() -> "Warning: negative x coordinate " + String.valueOf(v));
 			}
 
 		}
@@ -1546,7 +1589,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 				moveBy(0, v - getY());
 			}
 			if (y < 0) {
-				Logger.log.trace("Warning: negative y coordinate " + String.valueOf(v));
+				Logger.log.trace(() -> "Warning: negative y coordinate " + String.valueOf(v));
 			}
 		}
 
@@ -1571,6 +1614,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 		 */
 		private void setElementRef(LinkableTo v) {
 			if (elementRef != v) {
+				positionChanging();
 				if (pathwayModel != null) {
 					if (elementRef != null) {
 						pathwayModel.removeElementRef(elementRef, this);
@@ -1607,9 +1651,10 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 		 */
 		private void setRelX(double v) {
 			if (Math.abs(v) > 1.0) {
-				Logger.log.trace("Warning: relX absolute value of " + String.valueOf(v) + " greater than 1");
+				Logger.log.trace(() -> "Warning: relX absolute value of " + String.valueOf(v) + " greater than 1");
 			}
 			if (relX != v) {
+				positionChanging();
 				relX = v;
 				LineElement.this
 						.fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(LineElement.this));
@@ -1639,9 +1684,10 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 		 */
 		private void setRelY(double v) {
 			if (Math.abs(v) > 1.0) {
-				Logger.log.trace("Warning: relY absolute value of " + String.valueOf(v) + " greater than 1");
+				Logger.log.trace(() -> "Warning: relY absolute value of " + String.valueOf(v) + " greater than 1");
 			}
 			if (relY != v) {
+				positionChanging();
 				relY = v;
 				LineElement.this
 						.fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(LineElement.this));
@@ -1777,6 +1823,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 		 * @param deltaY the value to move y coordinate by.
 		 */
 		public void moveBy(double deltaX, double deltaY) {
+			positionChanging();
 			x = getX() + deltaX;
 			y = getY() + deltaY;
 			LineElement.this
@@ -1790,6 +1837,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 		 * @param vy the value to move y coordinate to.
 		 */
 		public void moveTo(double vx, double vy) {
+			positionChanging();
 			x = vx;
 			y = vy;
 			LineElement.this
@@ -1820,6 +1868,17 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 					.fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(LineElement.this));
 		}
 
+		/**
+		 * Called before the position or link of this line point changes, so that the
+		 * undo journal of the pathway model, if any, can record the old position and
+		 * link.
+		 */
+		private void positionChanging() {
+			if (pathwayModel != null && pathwayModel.undoJournal != null) {
+				pathwayModel.undoJournal.pointChanging(this);
+			}
+		}
+
 		// ================================================================================
 		// Inherited Methods
 		// ================================================================================
@@ -1923,6 +1982,7 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 				throw new IllegalArgumentException("Invalid position value '" + v + "' must be between 0 and 1");
 			}
 			if (position != v) {
+				anchorChanging();
 				position = v;
 				LineElement.this
 						.fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(LineElement.this));
@@ -1951,14 +2011,25 @@ public abstract class LineElement extends PathwayElement implements Groupable, C
 		 */
 		public void setShapeType(AnchorShapeType v) {
 			if (v == null) {
-				shapeType = AnchorShapeType.NONE;
+				v = AnchorShapeType.NONE;
 			}
 			if (shapeType != v) {
+				anchorChanging();
 				shapeType = v;
 			}
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.ANCHORSHAPETYPE));
 		}
 
+		/**
+		 * Called before the position or shape type of this anchor changes, so that
+		 * the undo journal of the pathway model, if any, can record the old values.
+		 */
+		private void anchorChanging() {
+			if (pathwayModel != null && pathwayModel.undoJournal != null) {
+				pathwayModel.undoJournal.anchorChanging(this);
+			}
+		}
+
 		// ================================================================================
 		// Inherited Methods
 		// ================================================================================
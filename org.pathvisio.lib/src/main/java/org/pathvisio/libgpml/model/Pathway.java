@@ -18,13 +18,13 @@ package org.pathvisio.libgpml.model;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 import org.bridgedb.Xref;
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 import org.pathvisio.libgpml.util.XrefUtils;
 
@@ -46,6 +46,10 @@ public class Pathway extends PathwayElement implements Xrefable {
 	private String title;
 	private double boardWidth;
 	private double boardHeight;
+	// board size as set, e.g. read from GPML, the pathway model only fits the
+	// board to its pathway elements above this size
+	private double minBoardWidth;
+	private double minBoardHeight;
 	private Color backgroundColor;
 	private List<Author> authors;
 	// optional properties
@@ -67,7 +71,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 		this.title = "Click to add title";
 		this.boardWidth = 0;
 		this.boardHeight = 0;
-		this.backgroundColor = Color.decode("#ffffff");
+		this.backgroundColor = Color.WHITE;
 		this.authors = new ArrayList<Author>();
 	}
 
@@ -103,6 +107,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 			throw new IllegalArgumentException();
 		}
 		if (title != v) {
+			propertyChanging(StaticProperty.TITLE);
 			title = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.TITLE));
 		}
@@ -119,7 +124,8 @@ public class Pathway extends PathwayElement implements Xrefable {
 	}
 
 	/**
-	 * Sets the board width.
+	 * Sets the board width. The board of the pathway model is not made narrower
+	 * than this width, but may be wider to fit the pathway elements.
 	 *
 	 * @param v the board width to set.
 	 */
@@ -128,6 +134,10 @@ public class Pathway extends PathwayElement implements Xrefable {
 			throw new IllegalArgumentException("Tried to set dimension < 0: " + v);
 		} else {
 			boardWidth = v;
+			minBoardWidth = v;
+			if (pathwayModel != null) {
+				pathwayModel.updateBoardSize();
+			}
 		}
 	}
 
@@ -142,7 +152,8 @@ public class Pathway extends PathwayElement implements Xrefable {
 	}
 
 	/**
-	 * Sets the board height.
+	 * Sets the board height. The board of the pathway model is not made lower
+	 * than this height, but may be higher to fit the pathway elements.
 	 *
 	 * @param v the board height to set.
 	 */
@@ -151,9 +162,43 @@ public class Pathway extends PathwayElement implements Xrefable {
 			throw new IllegalArgumentException("Tried to set dimension < 0: " + v);
 		} else {
 			boardHeight = v;
+			minBoardHeight = v;
+			if (pathwayModel != null) {
+				pathwayModel.updateBoardSize();
+			}
 		}
 	}
 
+	/**
+	 * Returns the board width as last set by {@link #setBoardWidth}.
+	 *
+	 * @return the minimum board width.
+	 */
+	double getMinBoardWidth() {
+		return minBoardWidth;
+	}
+
+	/**
+	 * Returns the board height as last set by {@link #setBoardHeight}.
+	 *
+	 * @return the minimum board height.
+	 */
+	double getMinBoardHeight() {
+		return minBoardHeight;
+	}
+
+	/**
+	 * Sets the board size fitted to the pathway elements by the pathway model,
+	 * without changing the minimum board size.
+	 *
+	 * @param width  the board width.
+	 * @param height the board height.
+	 */
+	void fitBoardSize(double width, double height) {
+		boardWidth = width;
+		boardHeight = height;
+	}
+
 	/**
 	 * Returns the background color of this pathway.
 	 *
@@ -161,7 +206,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 */
 	public Color getBackgroundColor() {
 		if (backgroundColor == null) {
-			this.backgroundColor = Color.decode("#ffffff");
+			this.backgroundColor = Color.WHITE;
 		}
 		return backgroundColor;
 	}
@@ -172,6 +217,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 * @param v the background color to set.
 	 */
 	public void setBackgroundColor(Color v) {
+		propertyChanging(StaticProperty.BACKGROUNDCOLOR);
 		backgroundColor = v;
 	}
 
@@ -192,6 +238,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	public Author addAuthor(Author author) {
 		if (author != null) {
 			authors.add(author);
+			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.AUTHOR));
 		}
 		return author;
 	}
@@ -213,8 +260,8 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 * @param author the author to remove.
 	 */
 	public void removeAuthor(Author author) {
-		if (author != null && authors.contains(author)) {
-			authors.remove(author);
+		if (author != null && authors.remove(author)) {
+			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.AUTHOR));
 		}
 	}
 
@@ -234,6 +281,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 */
 	public void setDescription(String v) {
 		if (v != null) {
+			propertyChanging(StaticProperty.DESCRIPTION);
 			description = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.DESCRIPTION));
 		}
@@ -257,6 +305,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 */
 	public void setOrganism(String v) {
 		if (!Utils.stringEquals(organism, v)) {
+			propertyChanging(StaticProperty.ORGANISM);
 			organism = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.ORGANISM));
 		}
@@ -278,6 +327,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 */
 	public void setSource(String v) {
 		if (!Utils.stringEquals(source, v)) {
+			propertyChanging(StaticProperty.SOURCE);
 			source = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.SOURCE));
 		}
@@ -299,6 +349,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 */
 	public void setVersion(String v) {
 		if (!Utils.stringEquals(version, v)) {
+			propertyChanging(StaticProperty.VERSION);
 			version = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.VERSION));
 		}
@@ -320,6 +371,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 */
 	public void setLicense(String v) {
 		if (!Utils.stringEquals(license, v)) {
+			propertyChanging(StaticProperty.LICENSE);
 			license = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.LICENSE));
 		}
@@ -343,6 +395,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	@Override
 	public void setXref(Xref v) {
 		if (v != null) {
+			propertyChanging(StaticProperty.XREF);
 			xref = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.XREF));
 		}
@@ -363,6 +416,8 @@ public class Pathway extends PathwayElement implements Xrefable {
 		title = src.title;
 		boardWidth = src.boardWidth;
 		boardHeight = src.boardHeight;
+		minBoardWidth = src.minBoardWidth;
+		minBoardHeight = src.minBoardHeight;
 		backgroundColor = src.backgroundColor;
 		// copy authors
 		for (Author c : src.authors) {
@@ -381,6 +436,29 @@ public class Pathway extends PathwayElement implements Xrefable {
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the values and authors of this pathway with equal values of the
+	 * given pool. Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		title = pool.intern(title);
+		description = pool.intern(description);
+		organism = pool.intern(organism);
+		source = pool.intern(source);
+		version = pool.intern(version);
+		license = pool.intern(license);
+		xref = pool.intern(xref);
+		for (Author a : authors) {
+			a.name = pool.intern(a.name);
+			a.username = pool.intern(a.username);
+			a.xref = pool.intern(a.xref);
+		}
+	}
+
 	/**
 	 * Copy Object. The object will not be part of the same Pathway object, it's
 	 * parent will be set to null.
@@ -397,6 +475,12 @@ public class Pathway extends PathwayElement implements Xrefable {
 	// ================================================================================
 	// Property Methods
 	// ================================================================================
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(PathwayElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.TITLE, StaticProperty.ORGANISM, StaticProperty.DESCRIPTION, StaticProperty.SOURCE,
+			StaticProperty.VERSION, StaticProperty.LICENSE, StaticProperty.AUTHOR, StaticProperty.XREF,
+			StaticProperty.BOARDWIDTH, StaticProperty.BOARDHEIGHT, StaticProperty.BACKGROUNDCOLOR);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -404,13 +488,7 @@ public class Pathway extends PathwayElement implements Xrefable {
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		Set<StaticProperty> propsPathway = EnumSet.of(StaticProperty.TITLE, StaticProperty.ORGANISM,
-				StaticProperty.DESCRIPTION, StaticProperty.SOURCE, StaticProperty.VERSION, StaticProperty.LICENSE,
-				StaticProperty.AUTHOR, StaticProperty.XREF, StaticProperty.BOARDWIDTH, StaticProperty.BOARDHEIGHT,
-				StaticProperty.BACKGROUNDCOLOR);
-		result.addAll(propsPathway);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
@@ -0,0 +1,475 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.pathvisio.libgpml.debug.Logger;
+import org.pathvisio.libgpml.debug.ThreadSafe;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.util.FileUtils;
+import org.pathvisio.libgpml.util.InternPool;
+
+/**
+ * A single file archive of many pathway models in the {@link BinaryFormat},
+ * with an index from pathway id to the position of each pathway model. The
+ * archive is memory-mapped when opened, and pathway models are only decoded
+ * when read. An open archive can be read from any number of threads.
+ * <p>
+ * NB:
+ * <ol>
+ * <li>The file starts with {@link #MAGIC}, the format {@link #VERSION} and the
+ * position of the index. The index is written after the pathway models, and
+ * holds the id, position and length of each pathway model.
+ * <li>The pathway id is the file name without extension, e.g. "WP4".
+ * <li>Mapped regions are at most {@link #MAX_REGION_SIZE} bytes, so archives
+ * may be larger than 2 GB.
+ * </ol>
+ */
+public class PathwayArchive implements Closeable {
+
+	/**
+	 * The first bytes of an archive.
+	 */
+	public static final byte[] MAGIC = { 'G', 'P', 'M', 'A' };
+
+	/**
+	 * The current version of the archive format.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The maximum size of a mapped region of the archive.
+	 */
+	static final int MAX_REGION_SIZE = 1 << 30;
+
+	private static final int HEADER_SIZE = 16; // magic, version, index position
+	private static final int INDEX_ENTRY_SIZE = 14; // id length, position, length, without id
+
+	private final File file;
+	private final FileChannel channel;
+	private final Map<String, Entry> entries;
+	private volatile boolean closed = false;
+
+	/**
+	 * The position and length of a pathway model in a mapped region.
+	 */
+	private static final class Entry {
+		private final long position;
+		private final int length;
+		private MappedByteBuffer region;
+		private int offset; // position in region
+
+		private Entry(long position, int length) {
+			this.position = position;
+			this.length = length;
+		}
+	}
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates an archive, use {@link #open(File)}.
+	 */
+	private PathwayArchive(File file, FileChannel channel, Map<String, Entry> entries) {
+		this.file = file;
+		this.channel = channel;
+		this.entries = entries;
+	}
+
+	/**
+	 * Opens the archive file. The index is read and the archive is mapped, but
+	 * pathway models are not read until {@link #read(String)}.
+	 *
+	 * @param file the archive file.
+	 * @return the open archive.
+	 * @throws ConverterException if the file is not an archive of a supported
+	 *                            version.
+	 */
+	public static PathwayArchive open(File file) throws ConverterException {
+		FileChannel channel = null;
+		try {
+			channel = new RandomAccessFile(file, "r").getChannel();
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				throw new ConverterException("Not a pathway archive: " + file);
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (header.get() != MAGIC[i]) {
+					throw new ConverterException("Not a pathway archive: " + file);
+				}
+			}
+			int version = header.getInt();
+			if (version > VERSION) {
+				throw new ConverterException("Pathway archive version " + version
+						+ " was not recognized. This application might be out of date.");
+			}
+			long indexPosition = header.getLong();
+			if (indexPosition < HEADER_SIZE || indexPosition > size) {
+				throw new ConverterException("Invalid index in pathway archive: " + file);
+			}
+			Map<String, Entry> entries = readIndex(file,
+					channel.map(FileChannel.MapMode.READ_ONLY, indexPosition, size - indexPosition), indexPosition);
+			mapRegions(channel, entries.values());
+			PathwayArchive archive = new PathwayArchive(file, channel, Collections.unmodifiableMap(entries));
+			channel = null; // closed by archive
+			return archive;
+		} catch (IOException e) {
+			throw new ConverterException(e);
+		} finally {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					Logger.log.error("Unable to close " + file, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the index, in the order the pathway models were written. The number
+	 * of entries and the id lengths are checked against the size of the index
+	 * before anything is allocated.
+	 */
+	private static Map<String, Entry> readIndex(File file, ByteBuffer index, long indexPosition)
+			throws ConverterException {
+		if (index.remaining() < 4) {
+			throw new ConverterException("Invalid index in pathway archive: " + file);
+		}
+		int n = index.getInt();
+		if (n < 0 || n > index.remaining() / INDEX_ENTRY_SIZE) {
+			throw new ConverterException("Invalid index size " + n + " in pathway archive: " + file);
+		}
+		Map<String, Entry> entries = new LinkedHashMap<String, Entry>(n * 4 / 3 + 1);
+		byte[] bytes = new byte[64];
+		for (int i = 0; i < n; i++) {
+			int idLength = index.getShort() & 0xFFFF;
+			if (idLength > index.remaining() - (INDEX_ENTRY_SIZE - 2)) {
+				throw new ConverterException("Invalid index in pathway archive: " + file);
+			}
+			if (bytes.length < idLength) {
+				bytes = new byte[idLength];
+			}
+			index.get(bytes, 0, idLength);
+			String id = new String(bytes, 0, idLength, StandardCharsets.UTF_8);
+			long position = index.getLong();
+			int length = index.getInt();
+			if (position < HEADER_SIZE || length < 0 || position + length > indexPosition) {
+				throw new ConverterException("Invalid index entry " + id + " in pathway archive: " + file);
+			}
+			entries.put(id, new Entry(position, length));
+		}
+		return entries;
+	}
+
+	/**
+	 * Maps the pathway models in regions of at most {@link #MAX_REGION_SIZE}
+	 * bytes. A pathway model is never split between regions.
+	 */
+	private static void mapRegions(FileChannel channel, Iterable<Entry> entries) throws IOException {
+		List<Entry> sorted = new ArrayList<Entry>();
+		for (Entry entry : entries) {
+			sorted.add(entry);
+		}
+		sorted.sort(Comparator.comparingLong(e -> e.position));
+		int start = 0;
+		while (start < sorted.size()) {
+			long regionStart = sorted.get(start).position;
+			long regionEnd = regionStart + sorted.get(start).length;
+			int end = start + 1;
+			while (end < sorted.size()) {
+				Entry next = sorted.get(end);
+				if (next.position + next.length - regionStart > MAX_REGION_SIZE) {
+					break;
+				}
+				regionEnd = Math.max(regionEnd, next.position + next.length);
+				end++;
+			}
+			MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart,
+					regionEnd - regionStart);
+			for (int i = start; i < end; i++) {
+				Entry entry = sorted.get(i);
+				entry.region = region;
+				entry.offset = (int) (entry.position - regionStart);
+			}
+			start = end;
+		}
+	}
+
+	// ================================================================================
+	// Read Methods
+	// ================================================================================
+	/**
+	 * Returns the ids of the pathway models in this archive, in the order they
+	 * were written.
+	 *
+	 * @return the unmodifiable set of pathway ids.
+	 */
+	@ThreadSafe
+	public Set<String> getIds() {
+		return entries.keySet();
+	}
+
+	/**
+	 * Returns the number of pathway models in this archive.
+	 *
+	 * @return the number of pathway models.
+	 */
+	@ThreadSafe
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Checks whether this archive holds a pathway model with the given id.
+	 *
+	 * @param id the pathway id.
+	 * @return true if this archive holds the pathway model.
+	 */
+	@ThreadSafe
+	public boolean contains(String id) {
+		return entries.containsKey(id);
+	}
+
+	/**
+	 * Returns a read-only buffer of the pathway model with the given id in the
+	 * {@link BinaryFormat}. The buffer is independent from other readers.
+	 *
+	 * @param id the pathway id.
+	 * @return the buffer, or null if this archive does not hold the pathway model.
+	 * @throws IllegalStateException if this archive is closed.
+	 */
+	@ThreadSafe
+	public ByteBuffer getBuffer(String id) {
+		if (closed) {
+			throw new IllegalStateException("Pathway archive " + file + " is closed.");
+		}
+		Entry entry = entries.get(id);
+		if (entry == null) {
+			return null;
+		}
+		ByteBuffer buffer = entry.region.asReadOnlyBuffer();
+		buffer.limit(entry.offset + entry.length);
+		buffer.position(entry.offset);
+		return buffer.slice();
+	}
+
+	/**
+	 * Reads the pathway model with the given id. Each call decodes a new pathway
+	 * model.
+	 *
+	 * @param id the pathway id.
+	 * @return the pathway model, or null if this archive does not hold the pathway
+	 *         model.
+	 * @throws ConverterException    if the pathway model could not be read.
+	 * @throws IllegalStateException if this archive is closed.
+	 */
+	@ThreadSafe
+	public PathwayModel read(String id) throws ConverterException {
+		ByteBuffer buffer = getBuffer(id);
+		if (buffer == null) {
+			return null;
+		}
+		PathwayModel pathwayModel = new PathwayModel();
+		BinaryFormat.readFromBinary(pathwayModel, buffer);
+		pathwayModel.clearChangedFlag();
+		return pathwayModel;
+	}
+
+	/**
+	 * Closes this archive. Mapped regions are released when no longer referenced.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		channel.close();
+	}
+
+	// ================================================================================
+	// Write Methods
+	// ================================================================================
+	/**
+	 * Creates an archive of all GPML files in the directory. GPML files are read
+	 * with validation, files which can not be read, also because of a runtime
+	 * exception, are logged and skipped. Strings and xrefs of all pathway models
+	 * are interned in a single {@link InternPool}.
+	 *
+	 * @param directory   the directory with GPML files.
+	 * @param recursive   whether to include subdirectories or not.
+	 * @param archiveFile the archive file to write.
+	 * @return the number of pathway models written.
+	 * @throws ConverterException if the archive could not be written.
+	 */
+	public static int create(File directory, boolean recursive, File archiveFile) throws ConverterException {
+		GPMLFormat format = new GPMLFormat(GPMLFormat.GPML2021);
+		format.setInternPool(new InternPool());
+		return create(directory, recursive, archiveFile, format);
+	}
+
+	/**
+	 * Creates an archive of all GPML files in the directory, read with the given
+	 * format.
+	 *
+	 * @param directory   the directory with GPML files.
+	 * @param recursive   whether to include subdirectories or not.
+	 * @param archiveFile the archive file to write.
+	 * @param format      the format to read GPML files with.
+	 * @return the number of pathway models written.
+	 * @throws ConverterException if the archive could not be written.
+	 */
+	static int create(File directory, boolean recursive, File archiveFile, GPMLFormat format)
+			throws ConverterException {
+		List<File> files = FileUtils.getFiles(directory, "gpml", recursive);
+		files.sort(null);
+		Writer writer = new Writer(archiveFile);
+		try {
+			for (File f : files) {
+				String id = FileUtils.removeExtension(f.getName());
+				if (writer.contains(id)) {
+					Logger.log.warn("Pathway id " + id + " is not unique, skipping " + f);
+					continue;
+				}
+				PathwayModel pathwayModel;
+				try {
+					pathwayModel = format.doImport(f);
+				} catch (ConverterException e) {
+					Logger.log.error("Unable to read " + f + ", skipping", e);
+					continue;
+				} catch (RuntimeException e) {
+					Logger.log.error("Unable to read " + f + ", skipping", e);
+					continue;
+				}
+				writer.add(id, pathwayModel);
+			}
+			writer.finish();
+		} finally {
+			writer.close();
+		}
+		return writer.size();
+	}
+
+	/**
+	 * Creates an archive of the given pathway models.
+	 *
+	 * @param pathwayModels the pathway models by pathway id.
+	 * @param archiveFile   the archive file to write.
+	 * @throws ConverterException if the archive could not be written.
+	 */
+	public static void create(Map<String, PathwayModel> pathwayModels, File archiveFile) throws ConverterException {
+		Writer writer = new Writer(archiveFile);
+		try {
+			for (Map.Entry<String, PathwayModel> entry : pathwayModels.entrySet()) {
+				writer.add(entry.getKey(), entry.getValue());
+			}
+			writer.finish();
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Writes pathway models one at a time, followed by the index.
+	 */
+	private static final class Writer {
+		private final RandomAccessFile out;
+		private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+		private Writer(File file) throws ConverterException {
+			try {
+				out = new RandomAccessFile(file, "rw");
+				out.setLength(0);
+				out.write(new byte[HEADER_SIZE]); // written by finish
+			} catch (IOException e) {
+				throw new ConverterException(e);
+			}
+		}
+
+		private boolean contains(String id) {
+			return entries.containsKey(id);
+		}
+
+		private int size() {
+			return entries.size();
+		}
+
+		private void add(String id, PathwayModel pathwayModel) throws ConverterException {
+			if (id == null || id.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+				throw new IllegalArgumentException("Invalid pathway id " + id);
+			}
+			if (entries.containsKey(id)) {
+				throw new IllegalArgumentException("Pathway id " + id + " is not unique");
+			}
+			byte[] bytes = BinaryFormat.writeToBinary(pathwayModel);
+			try {
+				entries.put(id, new Entry(out.getFilePointer(), bytes.length));
+				out.write(bytes);
+			} catch (IOException e) {
+				throw new ConverterException(e);
+			}
+		}
+
+		private void finish() throws ConverterException {
+			try {
+				long indexPosition = out.getFilePointer();
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream index = new DataOutputStream(bytes);
+				index.writeInt(entries.size());
+				for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+					byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+					index.writeShort(id.length);
+					index.write(id);
+					index.writeLong(entry.getValue().position);
+					index.writeInt(entry.getValue().length);
+				}
+				out.write(bytes.toByteArray());
+				out.seek(0);
+				out.write(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(indexPosition);
+			} catch (IOException e) {
+				throw new ConverterException(e);
+			}
+		}
+
+		private void close() throws ConverterException {
+			try {
+				out.close();
+			} catch (IOException e) {
+				throw new ConverterException(e);
+			}
+		}
+	}
+}
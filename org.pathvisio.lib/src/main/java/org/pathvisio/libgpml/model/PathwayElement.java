@@ -17,12 +17,11 @@
 package org.pathvisio.libgpml.model;
 
 import java.util.ArrayList;
-import java.util.EnumSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
 import org.bridgedb.Xref;
 import org.pathvisio.libgpml.model.Referenceable.Annotatable;
@@ -30,6 +29,7 @@ import org.pathvisio.libgpml.model.Referenceable.Citable;
 import org.pathvisio.libgpml.model.Referenceable.Evidenceable;
 import org.pathvisio.libgpml.model.type.AnnotationType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 import org.pathvisio.libgpml.util.XrefUtils;
 
@@ -43,16 +43,17 @@ import org.pathvisio.libgpml.util.XrefUtils;
  */
 public abstract class PathwayElement extends PathwayObject implements Cloneable, Annotatable, Citable, Evidenceable {
 
-	private List<Comment> comments;
+	// most pathway elements have none, allocated on first write
+	private List<Comment> comments = Collections.emptyList();
 	/**
 	 * Map for storing dynamic properties. Dynamic properties can have any String as
 	 * key and value of type String. If a value is set to null the key should be
 	 * removed.
 	 */
-	private Map<String, String> dynamicProperties;
-	private List<AnnotationRef> annotationRefs;
-	private List<CitationRef> citationRefs;
-	private List<EvidenceRef> evidenceRefs;
+	private Map<String, String> dynamicProperties = Collections.emptyMap();
+	private List<AnnotationRef> annotationRefs = Collections.emptyList();
+	private List<CitationRef> citationRefs = Collections.emptyList();
+	private List<EvidenceRef> evidenceRefs = Collections.emptyList();
 
 	// ================================================================================
 	// Constructors
@@ -62,24 +63,21 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	 */
 	public PathwayElement() {
 		super();
-		this.comments = new ArrayList<Comment>(); // 0 to unbounded
-		this.dynamicProperties = new TreeMap<String, String>(); // 0 to unbounded
-		this.annotationRefs = new ArrayList<AnnotationRef>(); // 0 to unbounded
-		this.citationRefs = new ArrayList<CitationRef>(); // 0 to unbounded
-		this.evidenceRefs = new ArrayList<EvidenceRef>(); // 0 to unbounded
 	}
 
 	// ================================================================================
 	// Comment and DynamicProperty Methods
 	// ================================================================================
 
-	/*
-	 * Returns the list of comments.
+	/**
+	 * Returns the list of comments. The list is unmodifiable and may not reflect
+	 * later changes, use {@link #addComment} and {@link #removeComment} instead.
 	 *
-	 * @return comments the list of comments.
+	 * @return comments the unmodifiable list of comments, empty if no comments were
+	 *         added.
 	 */
 	public List<Comment> getComments() {
-		return comments;
+		return Collections.unmodifiableList(comments);
 	}
 
 	/**
@@ -88,6 +86,9 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	 * @param comment the comment to be added.
 	 */
 	public void addComment(Comment comment) {
+		if (comments.isEmpty()) {
+			comments = new ArrayList<Comment>();
+		}
 		comments.add(comment);
 		fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.COMMENT));
 	}
@@ -144,12 +145,14 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	}
 
 	/**
-	 * Returns the map of dynamic properties.
+	 * Returns the map of dynamic properties. The map is unmodifiable and may not
+	 * reflect later changes, use {@link #setDynamicProperty} instead.
 	 *
-	 * @return dynamicProperties the map of dynamic properties.
+	 * @return dynamicProperties the unmodifiable map of dynamic properties, empty
+	 *         if no dynamic properties were set.
 	 */
 	public Map<String, String> getDynamicProperties() {
-		return dynamicProperties;
+		return Collections.unmodifiableMap(dynamicProperties);
 	}
 
 	/**
@@ -181,8 +184,12 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	public void setDynamicProperty(String key, String value) {
 		if (value == null)
 			dynamicProperties.remove(key);
-		else
+		else {
+			if (dynamicProperties.isEmpty()) {
+				dynamicProperties = new DynamicPropertyMap();
+			}
 			dynamicProperties.put(key, value);
+		}
 		fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, key));
 	}
 
@@ -190,14 +197,16 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	// AnnotationRef, CitationRef and EvidenceRef Methods
 	// ================================================================================
 	/**
-	 * Returns the list of annotation references.
+	 * Returns the list of annotation references. The list is unmodifiable
+	 * and may not reflect later changes, references are added and removed
+	 * with the add methods and {@link #removeAnnotationRef}.
 	 *
-	 * @return annotationRefs the list of annotation references, an empty list if no
-	 *         properties are defined.
+	 * @return annotationRefs the unmodifiable list of annotation references, empty
+	 *         if none were added.
 	 */
 	@Override
 	public List<AnnotationRef> getAnnotationRefs() {
-		return annotationRefs;
+		return Collections.unmodifiableList(annotationRefs);
 	}
 
 	/**
@@ -229,6 +238,9 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		if (annotationRef != null && !hasAnnotationRef(annotationRef)) {
 			annotationRef.setAnnotatableTo(this);
 			assert (annotationRef.getAnnotatable() == this);
+			if (annotationRefs.isEmpty()) {
+				annotationRefs = new ArrayList<AnnotationRef>();
+			}
 			annotationRefs.add(annotationRef);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.ANNOTATIONREF));
 		}
@@ -301,14 +313,16 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	}
 
 	/**
-	 * Returns the list of citation references.
+	 * Returns the list of citation references. The list is unmodifiable
+	 * and may not reflect later changes, references are added and removed
+	 * with the add methods and {@link #removeCitationRef}.
 	 *
-	 * @return citationRefs the list of citations referenced, an empty list if no
-	 *         properties are defined.
+	 * @return citationRefs the unmodifiable list of citation references, empty
+	 *         if none were added.
 	 */
 	@Override
 	public List<CitationRef> getCitationRefs() {
-		return citationRefs;
+		return Collections.unmodifiableList(citationRefs);
 	}
 
 	/**
@@ -340,6 +354,9 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		if (citationRef != null && !hasCitationRef(citationRef)) {
 			citationRef.setCitableTo(this);
 			assert (citationRef.getCitable() == this);
+			if (citationRefs.isEmpty()) {
+				citationRefs = new ArrayList<CitationRef>();
+			}
 			citationRefs.add(citationRef);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.CITATIONREF));
 		}
@@ -408,14 +425,16 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	}
 
 	/**
-	 * Returns the list of evidence references.
+	 * Returns the list of evidence references. The list is unmodifiable
+	 * and may not reflect later changes, references are added and removed
+	 * with the add methods and {@link #removeEvidenceRef}.
 	 *
-	 * @return evidenceRefs the list of evidences referenced, an empty list if no
-	 *         properties are defined.
+	 * @return evidenceRefs the unmodifiable list of evidence references, empty
+	 *         if none were added.
 	 */
 	@Override
 	public List<EvidenceRef> getEvidenceRefs() {
-		return evidenceRefs;
+		return Collections.unmodifiableList(evidenceRefs);
 	}
 
 	/**
@@ -447,6 +466,9 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		if (evidenceRef != null && !hasEvidenceRef(evidenceRef)) {
 			evidenceRef.setEvidenceableTo(this);
 			assert (evidenceRef.getEvidenceable() == this);
+			if (evidenceRefs.isEmpty()) {
+				evidenceRefs = new ArrayList<EvidenceRef>();
+			}
 			evidenceRefs.add(evidenceRef);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.EVIDENCEREF));
 		}
@@ -547,8 +569,11 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	 * @param src the source pathway element.
 	 */
 	public void copyValuesFrom(PathwayElement src) {
-		dynamicProperties = new TreeMap<String, String>(src.dynamicProperties); // create copy
-		comments = new ArrayList<Comment>();
+		propertiesChanging();
+		dynamicProperties = src.dynamicProperties.isEmpty() ? Collections.<String, String>emptyMap()
+				: new DynamicPropertyMap(src.dynamicProperties); // create copy
+		comments = src.comments.isEmpty() ? Collections.<Comment>emptyList()
+				: new ArrayList<Comment>(src.comments.size());
 		for (Comment c : src.comments) {
 			try {
 				comments.add((Comment) c.clone());
@@ -560,6 +585,29 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the comments and dynamic properties of this pathway element with
+	 * equal values of the given pool. Called by
+	 * {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		for (Comment c : comments) {
+			c.commentText = pool.intern(c.commentText);
+			c.source = pool.intern(c.source);
+		}
+		if (!dynamicProperties.isEmpty()) {
+			Map<String, String> interned = new DynamicPropertyMap();
+			for (Map.Entry<String, String> e : dynamicProperties.entrySet()) {
+				interned.put(pool.intern(e.getKey()), pool.intern(e.getValue()));
+			}
+			dynamicProperties = interned;
+		}
+	}
+
 	/**
 	 * Copies this pathway element.
 	 *
@@ -582,46 +630,50 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	 */
 	public void copyReferencesFrom(PathwayElement srcElement) {
 		if (srcElement != null && this.getObjectType() == srcElement.getObjectType()) {
-			copyAnnotationRefs(srcElement.getAnnotationRefs());
-			copyCitationRefs(srcElement.getCitationRefs());
-			copyEvidenceRefs(srcElement.getEvidenceRefs());
+			copyAnnotationRefs(this, srcElement.getAnnotationRefs());
+			copyCitationRefs(this, srcElement.getCitationRefs());
+			copyEvidenceRefs(this, srcElement.getEvidenceRefs());
 		}
 	}
 
 	/**
-	 * Copies citationsRefs and nested annotationRefs if applicable.
+	 * Copies citationsRefs to the given citable, and nested annotationRefs if
+	 * applicable.
 	 *
+	 * @param citable      the citable to copy to.
 	 * @param citationRefs the citationsRefs list.
 	 */
-	private void copyCitationRefs(List<CitationRef> citationRefs) {
+	private static void copyCitationRefs(Citable citable, List<CitationRef> citationRefs) {
 		for (CitationRef citationRef : citationRefs) {
-			this.addCitation(citationRef.getCitation().copyRef());
-			copyAnnotationRefs(citationRef.getAnnotationRefs());
+			CitationRef newCitationRef = citable.addCitation(citationRef.getCitation().copyRef());
+			copyAnnotationRefs(newCitationRef, citationRef.getAnnotationRefs());
 		}
 	}
 
 	/**
-	 * Copies annotationRefs and nested citationRefs and evidenceRefs if applicable.
+	 * Copies annotationRefs to the given annotatable, and nested citationRefs and
+	 * evidenceRefs if applicable.
 	 *
+	 * @param annotatable    the annotatable to copy to.
 	 * @param annotationRefs the annotationRefs list.
 	 */
-	private void copyAnnotationRefs(List<AnnotationRef> annotationRefs) {
+	private static void copyAnnotationRefs(Annotatable annotatable, List<AnnotationRef> annotationRefs) {
 		for (AnnotationRef annotationRef : annotationRefs) {
-			this.addAnnotation(annotationRef.getAnnotation().copyRef());
-			copyCitationRefs(annotationRef.getCitationRefs());
-			copyEvidenceRefs(annotationRef.getEvidenceRefs());
-
+			AnnotationRef newAnnotationRef = annotatable.addAnnotation(annotationRef.getAnnotation().copyRef());
+			copyCitationRefs(newAnnotationRef, annotationRef.getCitationRefs());
+			copyEvidenceRefs(newAnnotationRef, annotationRef.getEvidenceRefs());
 		}
 	}
 
 	/**
-	 * Copies evidenceRefs.
+	 * Copies evidenceRefs to the given evidenceable.
 	 *
+	 * @param evidenceable the evidenceable to copy to.
 	 * @param evidenceRefs the evidenceRefs list.
 	 */
-	private void copyEvidenceRefs(List<EvidenceRef> evidenceRefs) {
+	private static void copyEvidenceRefs(Evidenceable evidenceable, List<EvidenceRef> evidenceRefs) {
 		for (EvidenceRef evidenceRef : evidenceRefs) {
-			this.addEvidence(evidenceRef.getEvidence().copyRef());
+			evidenceable.addEvidence(evidenceRef.getEvidence().copyRef());
 		}
 	}
 
@@ -640,6 +692,11 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		return keys;
 	}
 
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(PathwayObject.STATIC_PROPERTY_KEYS,
+			StaticProperty.COMMENT, StaticProperty.ANNOTATIONREF, StaticProperty.CITATIONREF,
+			StaticProperty.EVIDENCEREF);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -647,11 +704,7 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		Set<StaticProperty> propsPathwayElement = EnumSet.of(StaticProperty.COMMENT, StaticProperty.ANNOTATIONREF,
-				StaticProperty.CITATIONREF, StaticProperty.EVIDENCEREF);
-		result.addAll(propsPathwayElement);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
@@ -910,8 +963,8 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		 */
 		public AnnotationRef(Annotation annotation) {
 			setAnnotationTo(annotation);
-			this.citationRefs = new ArrayList<CitationRef>();
-			this.evidenceRefs = new ArrayList<EvidenceRef>();
+			this.citationRefs = Collections.emptyList();
+			this.evidenceRefs = Collections.emptyList();
 		}
 
 		// ================================================================================
@@ -1036,14 +1089,16 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		// CitationRef Methods
 		// ================================================================================
 		/**
-		 * Returns the list of citation references.
+		 * Returns the list of citation references. The list is unmodifiable
+		 * and may not reflect later changes, references are added and removed
+		 * with the add methods and {@link #removeCitationRef}.
 		 *
-		 * @return citationRefs the list of citations referenced, an empty list if no
-		 *         properties are defined.
+		 * @return citationRefs the unmodifiable list of citation references, empty
+		 *         if none were added.
 		 */
 		@Override
 		public List<CitationRef> getCitationRefs() {
-			return citationRefs;
+			return Collections.unmodifiableList(citationRefs);
 		}
 
 		/**
@@ -1075,6 +1130,9 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 			if (citationRef != null && !hasCitationRef(citationRef)) {
 				citationRef.setCitableTo(this);
 				assert (citationRef.getCitable() == this);
+				if (citationRefs.isEmpty()) {
+					citationRefs = new ArrayList<CitationRef>();
+				}
 				citationRefs.add(citationRef);
 				fireObjectModifiedEvent(
 						PathwayObjectEvent.createSinglePropertyEvent(PathwayElement.this, StaticProperty.CITATIONREF));
@@ -1148,14 +1206,16 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		// EvidenceRef Methods
 		// ================================================================================
 		/**
-		 * Returns the list of evidence references.
+		 * Returns the list of evidence references. The list is unmodifiable
+		 * and may not reflect later changes, references are added and removed
+		 * with the add methods and {@link #removeEvidenceRef}.
 		 *
-		 * @return evidenceRefs the list of evidences referenced, an empty list if no
-		 *         properties are defined.
+		 * @return evidenceRefs the unmodifiable list of evidence references, empty
+		 *         if none were added.
 		 */
 		@Override
 		public List<EvidenceRef> getEvidenceRefs() {
-			return evidenceRefs;
+			return Collections.unmodifiableList(evidenceRefs);
 		}
 
 		/**
@@ -1187,6 +1247,9 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 			if (evidenceRef != null && !hasEvidenceRef(evidenceRef)) {
 				evidenceRef.setEvidenceableTo(this);
 				assert (evidenceRef.getEvidenceable() == this);
+				if (evidenceRefs.isEmpty()) {
+					evidenceRefs = new ArrayList<EvidenceRef>();
+				}
 				evidenceRefs.add(evidenceRef);
 				fireObjectModifiedEvent(
 						PathwayObjectEvent.createSinglePropertyEvent(PathwayElement.this, StaticProperty.EVIDENCEREF));
@@ -1342,7 +1405,7 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		 */
 		protected CitationRef(Citation citation) {
 			setCitationTo(citation);
-			annotationRefs = new ArrayList<AnnotationRef>();
+			annotationRefs = Collections.emptyList();
 		}
 
 		// ================================================================================
@@ -1465,14 +1528,16 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 		// AnnotationRef Methods
 		// ================================================================================
 		/**
-		 * Returns the list of annotation references.
+		 * Returns the list of annotation references. The list is unmodifiable
+		 * and may not reflect later changes, references are added and removed
+		 * with the add methods and {@link #removeAnnotationRef}.
 		 *
-		 * @return annotationRefs the list of annotations referenced, an empty list if
-		 *         no properties are defined.
+		 * @return annotationRefs the unmodifiable list of annotation references, empty
+		 *         if none were added.
 		 */
 		@Override
 		public List<AnnotationRef> getAnnotationRefs() {
-			return annotationRefs;
+			return Collections.unmodifiableList(annotationRefs);
 		}
 
 		/**
@@ -1504,6 +1569,9 @@ public abstract class PathwayElement extends PathwayObject implements Cloneable,
 			if (annotationRef != null && !hasAnnotationRef(annotationRef)) {
 				annotationRef.setAnnotatableTo(this);
 				assert (annotationRef.getAnnotatable() == this);
+				if (annotationRefs.isEmpty()) {
+					annotationRefs = new ArrayList<AnnotationRef>();
+				}
 				annotationRefs.add(annotationRef);
 				fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(PathwayElement.this,
 						StaticProperty.ANNOTATIONREF));
@@ -16,6 +16,7 @@
  ******************************************************************************/
 package org.pathvisio.libgpml.model;
 
+import java.awt.Color;
 import java.io.File;
 import java.io.InputStream;
 import java.io.Reader;
@@ -25,16 +26,17 @@ import java.util.Collections;
 import java.util.EventListener;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.apache.commons.collections4.BidiMap;
-import org.apache.commons.collections4.bidimap.DualHashBidiMap;
 import org.bridgedb.Xref;
 import org.pathvisio.libgpml.debug.Logger;
 import org.pathvisio.libgpml.io.ConverterException;
@@ -43,6 +45,18 @@ import org.pathvisio.libgpml.model.GraphLink.LinkableFrom;
 import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
 import org.pathvisio.libgpml.model.LineElement.Anchor;
 import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.shape.IShape;
+import org.pathvisio.libgpml.model.type.ArrowHeadType;
+import org.pathvisio.libgpml.model.type.ConnectorType;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.GroupType;
+import org.pathvisio.libgpml.model.type.HAlignType;
+import org.pathvisio.libgpml.model.type.LineStyleType;
+import org.pathvisio.libgpml.model.type.StateType;
+import org.pathvisio.libgpml.model.type.VAlignType;
+import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.prop.StaticPropertyType;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 
 /**
@@ -71,6 +85,10 @@ public class PathwayModel {
 	private List<Annotation> annotations;
 	private List<Citation> citations;
 	private List<Evidence> evidences;
+	// right and bottom edges of pathway elements, for the board size
+	private BoardExtent boardExtent;
+	private int resizeEventsSuspended = 0;
+	private boolean resizePending = false;
 
 	// ================================================================================
 	// Constructors
@@ -94,6 +112,7 @@ public class PathwayModel {
 		this.annotations = new ArrayList<Annotation>();
 		this.citations = new ArrayList<Citation>();
 		this.evidences = new ArrayList<Evidence>();
+		this.boardExtent = new BoardExtent();
 	}
 
 	// ================================================================================
@@ -233,7 +252,15 @@ public class PathwayModel {
 	 * @return true if pathway model has given pathway object, false otherwise.
 	 */
 	public boolean hasPathwayObject(PathwayObject pathwayObject) {
-		return this.getPathwayObjects().contains(pathwayObject);
+		if (pathwayObject == null) {
+			return false;
+		}
+		// look up by elementId first, without copying all pathway objects
+		String elementId = pathwayObject.getElementId();
+		if (elementId != null && elementIdToPathwayObject.get(elementId) == pathwayObject) {
+			return true;
+		}
+		return elementIdToPathwayObject.containsValue(pathwayObject);
 	}
 
 	/**
@@ -670,7 +697,8 @@ public class PathwayModel {
 	protected Annotation addAnnotation(Annotation annotation) {
 		Annotation annotationExisting = hasEqualAnnotation(annotation);
 		if (annotationExisting != null) {
-			Logger.log.trace("Annotation not added, information equivalent to " + annotationExisting.getElementId());
+			Logger.log.trace(
+					() -> "Annotation not added, information equivalent to " + annotationExisting.getElementId());
 			return annotationExisting;
 		} else {
 			addPathwayObject(annotation);
@@ -729,7 +757,8 @@ public class PathwayModel {
 		if (citation != null) {
 			Citation citationExisting = hasEqualCitation(citation);
 			if (citationExisting != null) {
-				Logger.log.trace("Citation not added, information equivalent to " + citationExisting.getElementId());
+				Logger.log.trace(
+						() -> "Citation not added, information equivalent to " + citationExisting.getElementId());
 				return citationExisting;
 			} else {
 				addPathwayObject(citation);
@@ -787,7 +816,7 @@ public class PathwayModel {
 	protected Evidence addEvidence(Evidence evidence) {
 		Evidence evidenceExisting = hasEqualEvidence(evidence);
 		if (evidenceExisting != null) {
-			Logger.log.trace("Evidence not added, information equivalent to " + evidenceExisting.getElementId());
+			Logger.log.trace(() -> "Evidence not added, information equivalent to " + evidenceExisting.getElementId());
 			return evidenceExisting;
 		} else {
 			addPathwayObject(evidence);
@@ -855,6 +884,9 @@ public class PathwayModel {
 			elementId = o.setGeneratedElementId();
 		}
 		addElementId(elementId, o);
+		if (undoJournal != null) {
+			undoJournal.objectAdded(o);
+		}
 		fireObjectModifiedEvent(new PathwayModelEvent(o, PathwayModelEvent.ADDED));
 		checkMBoardSize(o);
 	}
@@ -877,9 +909,17 @@ public class PathwayModel {
 		if (!hasPathwayObject(o)) {
 			throw new IllegalArgumentException("Pathway model does not have this pathway object");
 		}
+		if (undoJournal != null) {
+			undoJournal.objectRemoving(o);
+		}
 		removeElementId(o.getElementId());
 		o.terminate();
+		if (undoJournal != null) {
+			undoJournal.objectRemoved(o);
+		}
 		fireObjectModifiedEvent(new PathwayModelEvent(o, PathwayModelEvent.DELETED));
+		boardExtent.remove(o);
+		updateBoardSize();
 	}
 
 	/**
@@ -970,6 +1010,329 @@ public class PathwayModel {
 		}
 	}
 
+	// ================================================================================
+	// Bulk Update Methods
+	// ================================================================================
+	// objects modified during a bulk update, with the changed property
+	private Map<PathwayObject, BulkChange> bulkModified = null;
+	// the static property set and the pathway object being set by the bulk update
+	private StaticProperty bulkKey = null;
+	private PathwayObject bulkTarget = null;
+
+	/**
+	 * Sets the given static property to the same value on all given pathway
+	 * objects. All pathway objects are validated before any is changed. While the
+	 * values are set, pathway object listeners are not notified and RESIZED events
+	 * are suspended. Afterwards each modified pathway object notifies its own
+	 * listeners once, with an event for the given static property that is a
+	 * coordinate change if coordinates changed. Pathway model listeners receive a
+	 * single {@link PathwayModelEvent#MODIFIED} event with all modified objects.
+	 *
+	 * <p>
+	 * NB: If setting the value on a pathway object throws, the pathway objects
+	 * modified until then are notified as above before the exception is passed on.
+	 * An exception thrown by a listener during that notification is added to it as
+	 * suppressed.
+	 *
+	 * @param pathwayObjects the pathway objects to modify.
+	 * @param key            the static property to set.
+	 * @param value          the value to set.
+	 * @throws IllegalArgumentException if a pathway object does not belong to this
+	 *                                  pathway model or does not have the given
+	 *                                  static property, or the value does not
+	 *                                  have the type of the static property.
+	 */
+	public void setStaticProperty(Collection<? extends PathwayObject> pathwayObjects, StaticProperty key,
+			Object value) {
+		if (key == null) {
+			throw new IllegalArgumentException("Static property key is null");
+		}
+		checkValue(key, value);
+		Set<StaticProperty> checked = null; // key sets are shared per class
+		for (PathwayObject o : pathwayObjects) {
+			if (o.getPathwayModel() != this) {
+				throw new IllegalArgumentException("Pathway object " + o + " does not belong to this pathway model");
+			}
+			Set<StaticProperty> keys = o.getStaticPropertyKeys();
+			if (keys != checked) {
+				if (!keys.contains(key)) {
+					throw new IllegalArgumentException(
+							"Property " + key.name() + " is not allowed for objects of type " + o.getObjectType());
+				}
+				checked = keys;
+			}
+		}
+		if (bulkModified != null) {
+			// nested bulk update, notification is done by the outer one
+			StaticProperty outerKey = bulkKey;
+			PathwayObject outerTarget = bulkTarget;
+			try {
+				setBulk(pathwayObjects, key, value);
+			} finally {
+				bulkKey = outerKey;
+				bulkTarget = outerTarget;
+			}
+			return;
+		}
+		bulkModified = new LinkedHashMap<PathwayObject, BulkChange>();
+		suspendResizeEvents();
+		Throwable failure = null;
+		try {
+			setBulk(pathwayObjects, key, value);
+		} catch (Throwable e) {
+			failure = e;
+			throw e;
+		} finally {
+			Map<PathwayObject, BulkChange> modified = bulkModified;
+			bulkModified = null;
+			bulkKey = null;
+			bulkTarget = null;
+			resumeResizeEvents();
+			try {
+				notifyBulkModified(modified);
+			} catch (RuntimeException e) {
+				// do not mask the exception of setting the value
+				if (failure == null) {
+					throw e;
+				}
+				failure.addSuppressed(e);
+			}
+		}
+	}
+
+	/**
+	 * Checks that the given value has the type of the given static property, so
+	 * that a bulk update does not fail halfway on a wrong value. Values of types
+	 * with names, e.g. {@link DataNodeType}, may also be given by name. Static
+	 * properties of which the value is not set, e.g. AUTHOR, accept any value.
+	 *
+	 * @param key   the static property.
+	 * @param value the value.
+	 * @throws IllegalArgumentException if the value does not have the type of the
+	 *                                  static property.
+	 */
+	private static void checkValue(StaticProperty key, Object value) {
+		Class<?> valueClass;
+		boolean nullable = true;
+		boolean byName = false;
+		switch ((StaticPropertyType) key.getType()) {
+		case BOOLEAN:
+			valueClass = Boolean.class;
+			nullable = false;
+			break;
+		case DOUBLE:
+		case ROTATION:
+			valueClass = Double.class;
+			nullable = false;
+			break;
+		case INTEGER:
+			valueClass = Integer.class;
+			nullable = false;
+			break;
+		case STRING:
+		case ORGANISM:
+		case DESCRIPTION:
+		case FONTNAME:
+			// groupRef is typed as string, but set as group
+			valueClass = key == StaticProperty.GROUPREF ? Group.class : String.class;
+			break;
+		case COLOR:
+			valueClass = Color.class;
+			break;
+		case XREF:
+			valueClass = Xref.class;
+			break;
+		case COMMENT:
+			valueClass = List.class;
+			break;
+		case ALIASREF:
+			valueClass = Group.class;
+			break;
+		case LINKABLETO:
+			valueClass = LinkableTo.class;
+			break;
+		case SHAPETYPE:
+			valueClass = IShape.class;
+			break;
+		case HALIGNTYPE:
+			valueClass = HAlignType.class;
+			break;
+		case VALIGNTYPE:
+			valueClass = VAlignType.class;
+			break;
+		case DATANODETYPE:
+			valueClass = DataNodeType.class;
+			byName = true;
+			break;
+		case STATETYPE:
+			valueClass = StateType.class;
+			byName = true;
+			break;
+		case GROUPTYPE:
+			valueClass = GroupType.class;
+			byName = true;
+			break;
+		case ARROWHEADTYPE:
+			valueClass = ArrowHeadType.class;
+			byName = true;
+			break;
+		case CONNECTORTYPE:
+			valueClass = ConnectorType.class;
+			byName = true;
+			break;
+		case LINESTYLETYPE:
+			valueClass = LineStyleType.class;
+			byName = true;
+			break;
+		default:
+			return;
+		}
+		if (value == null ? !nullable : !valueClass.isInstance(value) && !(byName && value instanceof String)) {
+			throw new IllegalArgumentException(
+					"Value " + value + " is not valid for property " + key.name() + " of type " + key.getType());
+		}
+	}
+
+	/**
+	 * Sets the given static property on all given pathway objects, recording which
+	 * pathway object is being set. Called by
+	 * {@link #setStaticProperty(Collection, StaticProperty, Object)}.
+	 *
+	 * @param pathwayObjects the pathway objects to modify.
+	 * @param key            the static property to set.
+	 * @param value          the value to set.
+	 */
+	private void setBulk(Collection<? extends PathwayObject> pathwayObjects, StaticProperty key, Object value) {
+		bulkKey = key;
+		for (PathwayObject o : pathwayObjects) {
+			bulkTarget = o;
+			o.setStaticProperty(key, value);
+		}
+	}
+
+	/**
+	 * Notifies the listeners of the pathway objects modified during a bulk update,
+	 * and the pathway model listeners.
+	 *
+	 * @param modified the modified pathway objects, with the changed property.
+	 */
+	private void notifyBulkModified(Map<PathwayObject, BulkChange> modified) {
+		if (modified.isEmpty()) {
+			return;
+		}
+		for (Map.Entry<PathwayObject, BulkChange> entry : modified.entrySet()) {
+			PathwayObject o = entry.getKey();
+			BulkChange change = entry.getValue();
+			o.notifyListeners(PathwayObjectEvent.createPropertyEvent(o, change.property, change.coordinateChange));
+		}
+		fireObjectModifiedEvent(
+				new PathwayModelEvent(pathway, PathwayModelEvent.MODIFIED, new ArrayList<>(modified.keySet())));
+	}
+
+	/**
+	 * Sets the given static property to the same value on all pathway objects of
+	 * this pathway model which have the property and are accepted by the given
+	 * filter. See {@link #setStaticProperty(Collection, StaticProperty, Object)}.
+	 *
+	 * @param filter the filter for pathway objects to modify.
+	 * @param key    the static property to set.
+	 * @param value  the value to set.
+	 */
+	public void setStaticProperty(Predicate<? super PathwayObject> filter, StaticProperty key, Object value) {
+		List<PathwayObject> selection = new ArrayList<PathwayObject>();
+		for (PathwayObject o : elementIdToPathwayObject.values()) {
+			if (o.getStaticPropertyKeys().contains(key) && filter.test(o)) {
+				selection.add(o);
+			}
+		}
+		setStaticProperty(selection, key, value);
+	}
+
+	/**
+	 * Called by pathway objects when they are modified. During a bulk update the
+	 * modification is recorded, and listeners of the pathway object are notified
+	 * once when the bulk update is done. A modification of the pathway object
+	 * being set is recorded as a change of the static property being set, other
+	 * modifications with the property of their event.
+	 *
+	 * @param e the pathway object event.
+	 * @return true if notification of listeners is deferred.
+	 */
+	boolean deferObjectModified(PathwayObjectEvent e) {
+		if (bulkModified == null) {
+			return false;
+		}
+		PathwayObject o = e.getModifiedPathwayObject();
+		Object property = o == bulkTarget ? bulkKey : e.getProperty();
+		BulkChange change = bulkModified.get(o);
+		if (change == null) {
+			bulkModified.put(o, new BulkChange(property, e.isCoordinateChange()));
+		} else {
+			if (change.property != null && !change.property.equals(property)) {
+				change.property = null; // more than one property changed
+			}
+			change.coordinateChange |= e.isCoordinateChange();
+		}
+		return true;
+	}
+
+	/**
+	 * The change of a pathway object during a bulk update.
+	 */
+	private static final class BulkChange {
+		// the changed property, or null if more than one property changed
+		private Object property;
+		private boolean coordinateChange;
+
+		private BulkChange(Object property, boolean coordinateChange) {
+			this.property = property;
+			this.coordinateChange = coordinateChange;
+		}
+	}
+
+	// ================================================================================
+	// Intern Methods
+	// ================================================================================
+	/**
+	 * Replaces the strings and xrefs of all pathway objects with equal values of
+	 * the given pool, so that equal values are shared between pathway elements and
+	 * pathway models read with the same pool. Called after reading if an intern
+	 * pool is given, see {@link #readFromXml(File, boolean, InternPool)}.
+	 *
+	 * <p>
+	 * NB: Values are replaced directly, no events are fired.
+	 *
+	 * @param pool the intern pool.
+	 */
+	public void internValues(InternPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("Cannot intern values with invalid pool");
+		}
+		getPathway().internValues(pool);
+		for (PathwayObject o : elementIdToPathwayObject.values()) {
+			if (o != getPathway()) {
+				o.internValues(pool);
+			}
+		}
+	}
+
+	// ================================================================================
+	// Undo Journal Methods
+	// ================================================================================
+	// journal recording changes for undo and redo, if any
+	UndoJournal undoJournal = null;
+
+	/**
+	 * Returns the undo journal attached to this pathway model, or null if changes
+	 * are not journaled. A journal is attached by instantiating an
+	 * {@link UndoJournal} for this pathway model.
+	 *
+	 * @return the undo journal, or null.
+	 */
+	public UndoJournal getUndoJournal() {
+		return undoJournal;
+	}
+
 	// ================================================================================
 	// Xref Methods
 	// ================================================================================
@@ -1042,84 +1405,73 @@ public class PathwayModel {
 	// Clone Methods
 	// ================================================================================
 	/**
-	 * Clones this pathway model.
+	 * Clones this pathway model. All pathway objects keep their elementId.
 	 * 
 	 * @return the clone of this pathway model.
 	 */
 	@Override
 	public PathwayModel clone() {
 		PathwayModel result = new PathwayModel();
-		BidiMap<PathwayObject, PathwayObject> newToSource = new DualHashBidiMap<>();
-		for (PathwayElement e : getPathwayElements()) {
-			CopyElement copyElement = e.copy();
-			PathwayElement newElement = copyElement.getNewElement();
-			PathwayElement srcElement = copyElement.getSourceElement();
+		// maps each source pathway element, state and anchor to its copy
+		Map<PathwayObject, PathwayObject> sourceToCopy = new IdentityHashMap<PathwayObject, PathwayObject>();
+		List<PathwayElement> srcElements = getPathwayElements();
+		for (PathwayElement srcElement : srcElements) {
+			PathwayElement newElement = srcElement.copy().getNewElement();
+			copyElementIds(srcElement, newElement, sourceToCopy);
 			result.add(newElement);
-			// load references
-			newElement.copyReferencesFrom(srcElement);
-			// store information
-			newToSource.put(newElement, srcElement);
-			// specially store anchor information
-			if (newElement instanceof LineElement) {
-				Iterator<Anchor> it1 = ((LineElement) newElement).getAnchors().iterator();
-				Iterator<Anchor> it2 = ((LineElement) srcElement).getAnchors().iterator();
-				while (it1.hasNext() && it2.hasNext()) {
-					Anchor na = it1.next();
-					Anchor sa = it2.next();
-					if (na != null && sa != null) {
-						newToSource.put(na, sa);
-					}
-				}
-			}
 		}
-		// add group members in new Group
-		for (Group g : result.getGroups()) {
-			Group src = (Group) newToSource.get(g);
-			for (Groupable srcMember : src.getPathwayElements()) {
-				Groupable newMember = (Groupable) newToSource.getKey(srcMember);
-				if (newMember != null) {
-					g.addPathwayElement(newMember);
-				}
-			}
-			g.updateDimensions();
+		// copy annotations, citations and evidences with their elementId, the
+		// references copied below are then linked to these equivalent copies
+		for (Annotation a : annotations) {
+			Annotation copy = a.copyRef();
+			copy.setElementId(a.getElementId());
+			result.addAnnotation(copy);
 		}
-		// set aliasRef if any
-		for (Group g : getAliasRefs()) {
-			for (DataNode d : getLinkedAliases(g)) {
-				DataNode newAlias = (DataNode) newToSource.getKey(d);
-				Group newAliasRef = (Group) newToSource.getKey(g);
-				if (newAlias != null && newAliasRef != null) {
-					newAlias.setAliasRef(newAliasRef);
-				}
-			}
+		for (Citation c : citations) {
+			Citation copy = c.copyRef();
+			copy.setElementId(c.getElementId());
+			result.addCitation(copy);
+		}
+		for (Evidence e : evidences) {
+			Evidence copy = e.copyRef();
+			copy.setElementId(e.getElementId());
+			result.addEvidence(copy);
 		}
-		// link LineElement LinePoint elementRefs
-		for (LineElement l : result.getLineElements()) {
-			LineElement src = (LineElement) newToSource.get(l);
-			// set start elementRef
-			LinkableTo srcStartElementRef = src.getStartElementRef();
-			if (srcStartElementRef != null) {
-				LinkableTo newStartElementRef = (LinkableTo) newToSource.getKey(srcStartElementRef);
-				if (newStartElementRef != null) {
-					LinePoint startPoint = l.getStartLinePoint();
-					LinePoint srcPoint = src.getStartLinePoint();
-					startPoint.linkTo(newStartElementRef, srcPoint.getRelX(), srcPoint.getRelY());
+		// link copies in a single pass, after all elementIds are taken
+		for (PathwayElement src : srcElements) {
+			PathwayElement e = (PathwayElement) sourceToCopy.get(src);
+			e.copyReferencesFrom(src);
+			if (src instanceof Group) {
+				// add group members in new group
+				Group g = (Group) e;
+				for (Groupable srcMember : ((Group) src).getPathwayElements()) {
+					Groupable newMember = (Groupable) sourceToCopy.get(srcMember);
+					if (newMember != null) {
+						g.addPathwayElement(newMember);
+					}
 				}
-			}
-			// set end elementRef
-			LinkableTo srcEndElementRef = src.getEndElementRef();
-			if (srcEndElementRef != null) {
-				LinkableTo newEndElementRef = (LinkableTo) newToSource.getKey(srcEndElementRef);
-				if (newEndElementRef != null) {
-					LinePoint endPoint = l.getEndLinePoint();
-					LinePoint srcPoint = src.getEndLinePoint();
-					endPoint.linkTo(newEndElementRef, srcPoint.getRelX(), srcPoint.getRelY());
+			} else if (src instanceof DataNode) {
+				// set aliasRef if any
+				Group srcAliasRef = ((DataNode) src).getAliasRef();
+				if (srcAliasRef != null) {
+					Group newAliasRef = (Group) sourceToCopy.get(srcAliasRef);
+					if (newAliasRef != null) {
+						((DataNode) e).setAliasRef(newAliasRef);
+					}
 				}
+			} else if (src instanceof LineElement) {
+				// link line points, then take over the connector shape geometry
+				LineElement l = (LineElement) e;
+				LineElement srcLine = (LineElement) src;
+				copyLinkTo(srcLine.getStartLinePoint(), l.getStartLinePoint(), sourceToCopy);
+				copyLinkTo(srcLine.getEndLinePoint(), l.getEndLinePoint(), sourceToCopy);
+				l.copyConnectorShapeFrom(srcLine);
 			}
 		}
-		// refresh connector shapes
-		for (LineElement o : result.getLineElements()) {
-			o.getConnectorShape().recalculateShape(o);
+		// update dimensions once all groups have their members, as nested groups
+		// are not necessarily copied before their parent group
+		for (Group g : result.getGroups()) {
+			g.updateDimensions();
 		}
 		result.changed = changed;
 		if (sourceFile != null) {
@@ -1132,6 +1484,91 @@ public class PathwayModel {
 		return result;
 	}
 
+	/**
+	 * Sets the elementIds of the given copy, and of its states, line points and
+	 * anchors, to those of the source pathway element. The copy, its states and
+	 * anchors are stored in the given map. Called before the copy is added to a pathway
+	 * model.
+	 *
+	 * @param src          the source pathway element.
+	 * @param copy         the copy of the source pathway element.
+	 * @param sourceToCopy the map of source pathway objects to their copies.
+	 */
+	private static void copyElementIds(PathwayElement src, PathwayElement copy,
+			Map<PathwayObject, PathwayObject> sourceToCopy) {
+		copy.setElementId(src.getElementId());
+		sourceToCopy.put(src, copy);
+		if (src instanceof DataNode) {
+			Iterator<State> it1 = ((DataNode) copy).getStates().iterator();
+			Iterator<State> it2 = ((DataNode) src).getStates().iterator();
+			while (it1.hasNext() && it2.hasNext()) {
+				State ns = it1.next();
+				State ss = it2.next();
+				ns.setElementId(ss.getElementId());
+				sourceToCopy.put(ss, ns);
+			}
+		} else if (src instanceof LineElement) {
+			Iterator<LinePoint> it1 = ((LineElement) copy).getLinePoints().iterator();
+			Iterator<LinePoint> it2 = ((LineElement) src).getLinePoints().iterator();
+			while (it1.hasNext() && it2.hasNext()) {
+				it1.next().setElementId(it2.next().getElementId());
+			}
+			Iterator<Anchor> it3 = ((LineElement) copy).getAnchors().iterator();
+			Iterator<Anchor> it4 = ((LineElement) src).getAnchors().iterator();
+			while (it3.hasNext() && it4.hasNext()) {
+				Anchor na = it3.next();
+				Anchor sa = it4.next();
+				na.setElementId(sa.getElementId());
+				sourceToCopy.put(sa, na);
+			}
+		}
+	}
+
+	/**
+	 * Links the given line point copy to the copy of the elementRef of the source
+	 * line point, if any.
+	 *
+	 * @param srcPoint     the source line point.
+	 * @param point        the copy of the source line point.
+	 * @param sourceToCopy the map of source pathway objects to their copies.
+	 */
+	private static void copyLinkTo(LinePoint srcPoint, LinePoint point,
+			Map<PathwayObject, PathwayObject> sourceToCopy) {
+		LinkableTo srcElementRef = srcPoint.getElementRef();
+		if (srcElementRef != null) {
+			LinkableTo newElementRef = (LinkableTo) sourceToCopy.get(srcElementRef);
+			if (newElementRef != null) {
+				point.linkTo(newElementRef, srcPoint.getRelX(), srcPoint.getRelY());
+			}
+		}
+	}
+
+	// last snapshot taken, reused while this pathway model is unchanged
+	private PathwayModelSnapshot snapshot = null;
+
+	/**
+	 * Returns a snapshot of this pathway model, which can be shared with reader
+	 * threads while this pathway model is modified. If this pathway model did not
+	 * change since the previous snapshot, the previous snapshot is returned;
+	 * otherwise the snapshot is made from a {@link #clone()}, so a snapshot after
+	 * a change takes time linear in the size of this pathway model, and is not
+	 * structurally shared with earlier snapshots. Changes are found by
+	 * the {@link #getModificationCount() modification count}, which each event of
+	 * this pathway model or its pathway objects increments.
+	 *
+	 * <p>
+	 * NB: Like all other methods, this method must be called from the thread which
+	 * modifies this pathway model.
+	 *
+	 * @return the snapshot of this pathway model.
+	 */
+	public PathwayModelSnapshot snapshot() {
+		if (snapshot == null || snapshot.getModificationCount() != modificationCount) {
+			snapshot = new PathwayModelSnapshot(clone(), modificationCount);
+		}
+		return snapshot;
+	}
+
 	// ================================================================================
 	// Read Write Methods
 	// ================================================================================
@@ -1167,20 +1604,59 @@ public class PathwayModel {
 	}
 
 	public void readFromXml(Reader in, boolean validate) throws ConverterException {
-		GPMLFormat.readFromXml(this, in, validate);
+		readFromXml(in, validate, null);
+	}
+
+	public void readFromXml(InputStream in, boolean validate) throws ConverterException {
+		readFromXml(in, validate, null);
+	}
+
+	public void readFromXml(File file, boolean validate) throws ConverterException {
+		readFromXml(file, validate, null);
+	}
+
+	/**
+	 * Reads this pathway model from the given reader. Strings and xrefs are
+	 * interned with the given pool, if any.
+	 *
+	 * @param in       the reader.
+	 * @param validate if true, validate the dom structure.
+	 * @param pool     the intern pool, or null to not intern values.
+	 * @throws ConverterException
+	 */
+	public void readFromXml(Reader in, boolean validate, InternPool pool) throws ConverterException {
+		GPMLFormat.readFromXml(this, in, validate, pool);
 		setSourceFile(null);
 		clearChangedFlag();
 	}
 
-	public void readFromXml(InputStream in, boolean validate) throws ConverterException {
-		GPMLFormat.readFromXml(this, in, validate);
+	/**
+	 * Reads this pathway model from the given input stream. Strings and xrefs are
+	 * interned with the given pool, if any.
+	 *
+	 * @param in       the input stream.
+	 * @param validate if true, validate the dom structure.
+	 * @param pool     the intern pool, or null to not intern values.
+	 * @throws ConverterException
+	 */
+	public void readFromXml(InputStream in, boolean validate, InternPool pool) throws ConverterException {
+		GPMLFormat.readFromXml(this, in, validate, pool);
 		setSourceFile(null);
 		clearChangedFlag();
 	}
 
-	public void readFromXml(File file, boolean validate) throws ConverterException {
-		Logger.log.info("Start reading the XML file: " + file);
-		GPMLFormat.readFromXml(this, file, validate);
+	/**
+	 * Reads this pathway model from the given file. Strings and xrefs are interned
+	 * with the given pool, if any.
+	 *
+	 * @param file     the file.
+	 * @param validate if true, validate the dom structure.
+	 * @param pool     the intern pool, or null to not intern values.
+	 * @throws ConverterException
+	 */
+	public void readFromXml(File file, boolean validate, InternPool pool) throws ConverterException {
+		Logger.log.info(() -> "Start reading the XML file: " + file);
+		GPMLFormat.readFromXml(this, file, validate, pool);
 		setSourceFile(file);
 		clearChangedFlag();
 	}
@@ -1202,6 +1678,19 @@ public class PathwayModel {
 	// FireEvent and Listener Methods
 	// ================================================================================
 	private boolean changed = true;
+	// incremented on every modification, unlike the changed flag never reset
+	private long modificationCount = 0;
+
+	/**
+	 * Returns the number of modifications made to this pathway model since it was
+	 * created. Can be used to find out whether anything changed between two
+	 * points in time.
+	 *
+	 * @return the modification count.
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
 
 	/**
 	 * The "changed" flag tracks if the Pathway has been changed since the file was
@@ -1243,6 +1732,7 @@ public class PathwayModel {
 	 * @param e the pathway object event.
 	 */
 	void childModified(PathwayObjectEvent e) {
+		modificationCount++;
 		markChanged();
 		if (e.isCoordinateChange()) {
 			PathwayObject elt = e.getModifiedPathwayObject();
@@ -1270,27 +1760,70 @@ public class PathwayModel {
 	}
 
 	/**
-	 * Checks whether the board size is still large enough for the given
-	 * {@link PathwayElement} and increases the size if not
+	 * Margin between the right and bottom most pathway elements and the edge of
+	 * the board.
+	 */
+	public static final double BORDER_SIZE = 30;
+
+	/**
+	 * Updates the tracked position of the given {@link PathwayElement} and resizes
+	 * the board if necessary. The board size fits the pathway elements (plus
+	 * {@link #BORDER_SIZE}), it grows and shrinks as elements are moved, added or
+	 * removed. It does not shrink below the size set on the {@link Pathway}, e.g.
+	 * read from GPML.
 	 *
 	 * @param e The element to check the board size for
 	 */
 	protected void checkMBoardSize(PathwayObject e) {
-		final int BORDER_SIZE = 30;
-		double mw = getPathway().getBoardWidth();
-		double mh = getPathway().getBoardHeight();
-		if (e instanceof LineElement) {
-			mw = Math.max(mw, BORDER_SIZE
-					+ Math.max(((LineElement) e).getStartLinePointX(), ((LineElement) e).getEndLinePointX()));
-			mh = Math.max(mh, BORDER_SIZE
-					+ Math.max(((LineElement) e).getStartLinePointY(), ((LineElement) e).getEndLinePointY()));
-		} else if (e instanceof ShapedElement) {
-			mw = Math.max(mw, BORDER_SIZE + ((ShapedElement) e).getLeft() + ((ShapedElement) e).getWidth());
-			mh = Math.max(mh, BORDER_SIZE + ((ShapedElement) e).getTop() + ((ShapedElement) e).getHeight());
+		boardExtent.update(e);
+		updateBoardSize();
+	}
+
+	/**
+	 * Sets the board size to fit the tracked pathway elements, but not smaller
+	 * than the minimum board size of the {@link Pathway}. Fires a
+	 * {@link PathwayModelEvent#RESIZED} event if the size changed, unless resize
+	 * events are suspended.
+	 */
+	void updateBoardSize() {
+		if (boardExtent.isEmpty()) {
+			return; // nothing to fit, keep board size as is
 		}
+		double mw = Math.max(getPathway().getMinBoardWidth(), BORDER_SIZE + boardExtent.getMaxRight());
+		double mh = Math.max(getPathway().getMinBoardHeight(), BORDER_SIZE + boardExtent.getMaxBottom());
 		if (Math.abs(getPathway().getBoardWidth() - mw) + Math.abs(getPathway().getBoardHeight() - mh) > 0.01) {
-			getPathway().setBoardWidth(mw);
-			getPathway().setBoardHeight(mh);
+			getPathway().fitBoardSize(mw, mh);
+			if (resizeEventsSuspended > 0) {
+				resizePending = true;
+			} else {
+				fireObjectModifiedEvent(new PathwayModelEvent(getPathway(), PathwayModelEvent.RESIZED));
+			}
+		}
+	}
+
+	/**
+	 * Suspends {@link PathwayModelEvent#RESIZED} events, e.g. while dragging
+	 * pathway elements. The board size is still kept up to date. Calls may be
+	 * nested, and must each be matched by a call to {@link #resumeResizeEvents()}.
+	 */
+	public void suspendResizeEvents() {
+		resizeEventsSuspended++;
+	}
+
+	/**
+	 * Resumes {@link PathwayModelEvent#RESIZED} events after
+	 * {@link #suspendResizeEvents()}. If the board was resized in the meantime, a
+	 * single RESIZED event is fired.
+	 *
+	 * @throws IllegalStateException if resize events were not suspended.
+	 */
+	public void resumeResizeEvents() {
+		if (resizeEventsSuspended == 0) {
+			throw new IllegalStateException("Resize events were not suspended");
+		}
+		resizeEventsSuspended--;
+		if (resizeEventsSuspended == 0 && resizePending) {
+			resizePending = false;
 			fireObjectModifiedEvent(new PathwayModelEvent(getPathway(), PathwayModelEvent.RESIZED));
 		}
 	}
@@ -1397,6 +1930,7 @@ public class PathwayModel {
 	 * @param e the pathway model event.
 	 */
 	public void fireObjectModifiedEvent(PathwayModelEvent e) {
+		modificationCount++;
 		markChanged();
 		for (PathwayModelListener g : listeners) {
 			g.pathwayModified(e);
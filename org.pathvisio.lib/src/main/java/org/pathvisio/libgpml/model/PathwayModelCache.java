@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.pathvisio.libgpml.debug.ThreadSafe;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.io.PathwayModelImporter;
+
+/**
+ * Bounded cache of imported pathway models, keyed on file. A cached pathway
+ * model is reused as long as the last modified time and length of its file are
+ * unchanged, so repeated imports of the same file skip parsing.
+ *
+ * <p>
+ * NB:
+ * <ol>
+ * <li>Pathway models are cached as {@link PathwayModelSnapshot}s. Callers get a
+ * shared read-only snapshot from {@link #getSnapshot(File)}, or their own
+ * modifiable copy from {@link #get(File)}.
+ * <li>The weight of a pathway model is its number of pathway objects. When the
+ * total weight exceeds the maximum weight, the least recently used pathway
+ * models are evicted.
+ * <li>Concurrent requests for the same file import it once; other files are
+ * imported in parallel.
+ * </ol>
+ */
+@ThreadSafe
+public class PathwayModelCache {
+
+	private final PathwayModelImporter importer;
+	private final long maxWeight;
+
+	private final LinkedHashMap<File, Entry> entries = new LinkedHashMap<File, Entry>(16, 0.75f, true);
+	private final Map<File, FutureTask<Entry>> loading = new HashMap<File, FutureTask<Entry>>();
+	private long weight = 0;
+
+	private long hitCount = 0;
+	private long missCount = 0;
+	private long loadCount = 0;
+	private long loadFailureCount = 0;
+	private long totalLoadTime = 0; // nanoseconds
+	private long evictionCount = 0;
+
+	/**
+	 * A cached pathway model and the state of its file when imported.
+	 */
+	private static final class Entry {
+		private final long lastModified;
+		private final long length;
+		private final PathwayModelSnapshot snapshot;
+		private final long weight;
+
+		private Entry(long lastModified, long length, PathwayModelSnapshot snapshot) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.snapshot = snapshot;
+			this.weight = estimateWeight(snapshot.getCachedCopy());
+		}
+
+		private boolean isCurrent(long lastModified, long length) {
+			return this.lastModified == lastModified && this.length == length;
+		}
+	}
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates a cache which imports GPML files.
+	 *
+	 * @param maxWeight the maximum total weight, i.e. number of pathway objects, of
+	 *                  cached pathway models.
+	 */
+	public PathwayModelCache(long maxWeight) {
+		this(new GPMLFormat(GPMLFormat.GPML2021), maxWeight);
+	}
+
+	/**
+	 * Instantiates a cache which imports files with the given importer, e.g.
+	 * {@link GPMLFormat} or {@link BinaryFormat}.
+	 *
+	 * @param importer  the importer.
+	 * @param maxWeight the maximum total weight, i.e. number of pathway objects, of
+	 *                  cached pathway models.
+	 * @throws IllegalArgumentException if importer is null or maxWeight is
+	 *                                  negative.
+	 */
+	public PathwayModelCache(PathwayModelImporter importer, long maxWeight) {
+		if (importer == null) {
+			throw new IllegalArgumentException("Importer is null.");
+		}
+		if (maxWeight < 0) {
+			throw new IllegalArgumentException("Maximum weight " + maxWeight + " should not be negative.");
+		}
+		this.importer = importer;
+		this.maxWeight = maxWeight;
+	}
+
+	// ================================================================================
+	// Get Methods
+	// ================================================================================
+	/**
+	 * Returns a modifiable copy of the pathway model of the given file. The file is
+	 * imported if it is not cached, or changed since it was cached.
+	 *
+	 * @param file the file.
+	 * @return the copy of the pathway model.
+	 * @throws ConverterException if the file could not be imported.
+	 */
+	public PathwayModel get(File file) throws ConverterException {
+		return getSnapshot(file).toPathwayModel();
+	}
+
+	/**
+	 * Returns the shared read-only snapshot of the pathway model of the given file.
+	 * The file is imported if it is not cached, or changed since it was cached.
+	 * All callers get the same snapshot, so its pathway objects must not be
+	 * modified; use {@link #get(File)} for a copy to modify, and
+	 * {@link PathwayModelSnapshot#writeToXml(File, boolean)} to write it.
+	 *
+	 * @param file the file.
+	 * @return the snapshot of the pathway model.
+	 * @throws ConverterException if the file could not be imported.
+	 */
+	public PathwayModelSnapshot getSnapshot(File file) throws ConverterException {
+		final File key = file.getAbsoluteFile();
+		// stat the file outside the lock, so a slow file system does not block
+		// requests for other files
+		long lastModified = key.lastModified();
+		long length = key.length();
+		FutureTask<Entry> task;
+		boolean owner = false;
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null && entry.isCurrent(lastModified, length)) {
+				hitCount++;
+				return entry.snapshot;
+			}
+			missCount++;
+			task = loading.get(key);
+			if (task == null) {
+				task = new FutureTask<Entry>(new Callable<Entry>() {
+					@Override
+					public Entry call() throws ConverterException {
+						return load(key);
+					}
+				});
+				loading.put(key, task);
+				owner = true;
+			}
+		}
+		if (owner) {
+			task.run();
+		}
+		try {
+			return task.get().snapshot;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConverterException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ConverterException) {
+				throw (ConverterException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	/**
+	 * Imports the file and caches the pathway model. The file state is taken
+	 * before importing, so a file changed during the import is imported again on
+	 * the next request.
+	 *
+	 * @param key the absolute file.
+	 * @return the cache entry.
+	 * @throws ConverterException if the file could not be imported.
+	 */
+	private Entry load(File key) throws ConverterException {
+		long lastModified = key.lastModified();
+		long length = key.length();
+		long start = System.nanoTime();
+		Entry entry = null;
+		try {
+			PathwayModel pathwayModel = importer.doImport(key);
+			// the imported pathway model is not shared, so it needs no copy
+			entry = new Entry(lastModified, length, new PathwayModelSnapshot(pathwayModel, 0));
+			return entry;
+		} finally {
+			long time = System.nanoTime() - start;
+			synchronized (this) {
+				loading.remove(key);
+				totalLoadTime += time;
+				if (entry == null) {
+					loadFailureCount++;
+				} else {
+					loadCount++;
+					put(key, entry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Caches the entry, replacing any previous entry of the file, and evicts least
+	 * recently used entries while the total weight exceeds the maximum weight.
+	 * Entries heavier than the maximum weight are not cached.
+	 */
+	private void put(File key, Entry entry) {
+		Entry previous = entries.remove(key);
+		if (previous != null) {
+			weight -= previous.weight;
+		}
+		if (entry.weight > maxWeight) {
+			return;
+		}
+		entries.put(key, entry);
+		weight += entry.weight;
+		Iterator<Entry> it = entries.values().iterator();
+		while (weight > maxWeight && it.hasNext()) {
+			weight -= it.next().weight;
+			it.remove();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * Returns the estimated weight of the given pathway model, i.e. its number of
+	 * pathway objects.
+	 *
+	 * @param pathwayModel the pathway model.
+	 * @return the weight.
+	 */
+	static long estimateWeight(PathwayModel pathwayModel) {
+		return 1 + pathwayModel.getElementIds().size();
+	}
+
+	// ================================================================================
+	// Invalidate Methods
+	// ================================================================================
+	/**
+	 * Removes the pathway model of the given file from this cache.
+	 *
+	 * @param file the file.
+	 */
+	public synchronized void invalidate(File file) {
+		Entry entry = entries.remove(file.getAbsoluteFile());
+		if (entry != null) {
+			weight -= entry.weight;
+		}
+	}
+
+	/**
+	 * Removes all pathway models from this cache. Statistics are kept.
+	 */
+	public synchronized void invalidateAll() {
+		entries.clear();
+		weight = 0;
+	}
+
+	// ================================================================================
+	// Statistics Methods
+	// ================================================================================
+	/**
+	 * Returns the number of cached pathway models.
+	 *
+	 * @return the number of cached pathway models.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the total weight of cached pathway models.
+	 *
+	 * @return the total weight.
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Returns the maximum total weight of cached pathway models.
+	 *
+	 * @return the maximum weight.
+	 */
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Returns the number of requests answered from this cache.
+	 *
+	 * @return the hit count.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns the number of requests not answered from this cache, including
+	 * requests which waited for a concurrent import of the same file.
+	 *
+	 * @return the miss count.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns the number of successfully imported files.
+	 *
+	 * @return the load count.
+	 */
+	public synchronized long getLoadCount() {
+		return loadCount;
+	}
+
+	/**
+	 * Returns the number of files which could not be imported.
+	 *
+	 * @return the load failure count.
+	 */
+	public synchronized long getLoadFailureCount() {
+		return loadFailureCount;
+	}
+
+	/**
+	 * Returns the total time spent importing files, in nanoseconds.
+	 *
+	 * @return the total load time.
+	 */
+	public synchronized long getTotalLoadTime() {
+		return totalLoadTime;
+	}
+
+	/**
+	 * Returns the number of pathway models evicted to stay within the maximum
+	 * weight.
+	 *
+	 * @return the eviction count.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Returns the fraction of requests answered from this cache.
+	 *
+	 * @return the hit rate, or 1.0 if there were no requests.
+	 */
+	public synchronized double getHitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+	}
+
+	/**
+	 * Returns a summary of the statistics of this cache.
+	 */
+	@Override
+	public synchronized String toString() {
+		return "PathwayModelCache[size=" + entries.size() + ", weight=" + weight + "/" + maxWeight + ", hits="
+				+ hitCount + ", misses=" + missCount + ", loads=" + loadCount + ", loadFailures="
+				+ loadFailureCount + ", totalLoadTime=" + totalLoadTime / 1000000 + "ms, evictions="
+				+ evictionCount + "]";
+	}
+}
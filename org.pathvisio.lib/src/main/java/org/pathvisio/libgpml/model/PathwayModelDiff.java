@@ -0,0 +1,846 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.bridgedb.Xref;
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.Pathway.Author;
+import org.pathvisio.libgpml.model.PathwayElement.AnnotationRef;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.PathwayElement.Comment;
+import org.pathvisio.libgpml.model.PathwayElement.EvidenceRef;
+import org.pathvisio.libgpml.prop.StaticProperty;
+
+/**
+ * Structural difference between an old and a new {@link PathwayModel}. Pathway
+ * elements, states and anchors of the old pathway model are matched to those of
+ * the new pathway model:
+ * <ol>
+ * <li>by elementId.
+ * <li>by Xref, for xrefable pathway elements of the same class. If several
+ * candidates have the same Xref, the nearest one is taken.
+ * <li>by geometry: the rounded bounds of shaped pathway elements, the rounded
+ * end points of lines, and the relative position of states and anchors on their
+ * matched parent.
+ * <li>by links, for lines of the same class between matched pathway elements,
+ * e.g. an interaction with a moved data node.
+ * </ol>
+ * Matched pathway objects are compared by their static properties; references
+ * to other pathway objects are compared through the matching. The position and
+ * shape type of anchors, and the waypoints of lines, are compared as well and
+ * reported as {@link StaticProperty#ANCHORPOSITION},
+ * {@link StaticProperty#ANCHORSHAPETYPE} and {@link StaticProperty#LINEPOINTS}.
+ * Each step uses hash lookups, and the nearest of many candidates with the same
+ * key is found through a grid, so a diff takes time near-linear in the size of
+ * the pathway models.
+ */
+public final class PathwayModelDiff {
+
+	private static final Set<StaticProperty> IGNORED_KEYS = EnumSet.of(StaticProperty.ELEMENTID,
+			StaticProperty.BOARDWIDTH, StaticProperty.BOARDHEIGHT);
+
+	private final PathwayModel oldModel;
+	private final PathwayModel newModel;
+	// matched pathway objects, from old to new and from new to old
+	private final Map<PathwayObject, PathwayObject> oldToNew = new IdentityHashMap<PathwayObject, PathwayObject>();
+	private final Map<PathwayObject, PathwayObject> newToOld = new IdentityHashMap<PathwayObject, PathwayObject>();
+	private final List<PathwayObject> added = new ArrayList<PathwayObject>();
+	private final List<PathwayObject> removed = new ArrayList<PathwayObject>();
+	private final List<Modification> modified = new ArrayList<Modification>();
+	private final Map<PathwayObject, Modification> oldToModification = new IdentityHashMap<PathwayObject, Modification>();
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates a diff between the given pathway models. Called by
+	 * {@link #compare(PathwayModel, PathwayModel)}.
+	 *
+	 * @param oldModel the old pathway model.
+	 * @param newModel the new pathway model.
+	 */
+	private PathwayModelDiff(PathwayModel oldModel, PathwayModel newModel) {
+		this.oldModel = oldModel;
+		this.newModel = newModel;
+	}
+
+	/**
+	 * Compares the given pathway models.
+	 *
+	 * @param oldModel the old pathway model.
+	 * @param newModel the new pathway model.
+	 * @return the diff from the old to the new pathway model.
+	 */
+	public static PathwayModelDiff compare(PathwayModel oldModel, PathwayModel newModel) {
+		if (oldModel == null || newModel == null) {
+			throw new IllegalArgumentException("Cannot compare invalid pathway model");
+		}
+		PathwayModelDiff diff = new PathwayModelDiff(oldModel, newModel);
+		List<PathwayObject> oldObjects = getObjects(oldModel);
+		List<PathwayObject> newObjects = getObjects(newModel);
+		diff.matchByElementId(oldObjects);
+		diff.matchByKey(oldObjects, newObjects, KeyType.XREF);
+		diff.matchByKey(oldObjects, newObjects, KeyType.GEOMETRY);
+		diff.matchByKey(oldObjects, newObjects, KeyType.LINK);
+		diff.compareMatches(oldObjects, newObjects);
+		return diff;
+	}
+
+	// ================================================================================
+	// Accessors
+	// ================================================================================
+	/**
+	 * Returns the old pathway model.
+	 *
+	 * @return the old pathway model.
+	 */
+	public PathwayModel getOldModel() {
+		return oldModel;
+	}
+
+	/**
+	 * Returns the new pathway model.
+	 *
+	 * @return the new pathway model.
+	 */
+	public PathwayModel getNewModel() {
+		return newModel;
+	}
+
+	/**
+	 * Returns the pathway objects of the new pathway model without a match in the
+	 * old pathway model.
+	 *
+	 * @return the unmodifiable list of added pathway objects.
+	 */
+	public List<PathwayObject> getAdded() {
+		return Collections.unmodifiableList(added);
+	}
+
+	/**
+	 * Returns the pathway objects of the old pathway model without a match in the
+	 * new pathway model.
+	 *
+	 * @return the unmodifiable list of removed pathway objects.
+	 */
+	public List<PathwayObject> getRemoved() {
+		return Collections.unmodifiableList(removed);
+	}
+
+	/**
+	 * Returns the matched pathway objects with changed static properties.
+	 *
+	 * @return the unmodifiable list of modifications.
+	 */
+	public List<Modification> getModified() {
+		return Collections.unmodifiableList(modified);
+	}
+
+	/**
+	 * Returns the modification of the given pathway object of the old pathway
+	 * model.
+	 *
+	 * @param oldObject the pathway object of the old pathway model.
+	 * @return the modification, or null if unmodified or removed.
+	 */
+	public Modification getModification(PathwayObject oldObject) {
+		return oldToModification.get(oldObject);
+	}
+
+	/**
+	 * Returns the pathway object of the new pathway model matched to the given
+	 * pathway object of the old pathway model.
+	 *
+	 * @param oldObject the pathway object of the old pathway model.
+	 * @return the matched pathway object, or null if removed.
+	 */
+	public PathwayObject getNewObject(PathwayObject oldObject) {
+		return oldToNew.get(oldObject);
+	}
+
+	/**
+	 * Returns the pathway object of the old pathway model matched to the given
+	 * pathway object of the new pathway model.
+	 *
+	 * @param newObject the pathway object of the new pathway model.
+	 * @return the matched pathway object, or null if added.
+	 */
+	public PathwayObject getOldObject(PathwayObject newObject) {
+		return newToOld.get(newObject);
+	}
+
+	/**
+	 * Returns true if no pathway objects were added, removed or modified.
+	 *
+	 * @return true if the pathway models are equal.
+	 */
+	public boolean isEmpty() {
+		return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+	}
+
+	// ================================================================================
+	// Matching Methods
+	// ================================================================================
+	/**
+	 * Returns the pathway elements, states and anchors of the given pathway model,
+	 * with parents before their states and anchors.
+	 */
+	static List<PathwayObject> getObjects(PathwayModel pathwayModel) {
+		List<PathwayObject> result = new ArrayList<PathwayObject>();
+		for (PathwayElement e : pathwayModel.getPathwayElements()) {
+			result.add(e);
+			if (e instanceof DataNode) {
+				result.addAll(((DataNode) e).getStates());
+			} else if (e instanceof LineElement) {
+				result.addAll(((LineElement) e).getAnchors());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Stores the given match.
+	 */
+	private void addMatch(PathwayObject oldObject, PathwayObject newObject) {
+		oldToNew.put(oldObject, newObject);
+		newToOld.put(newObject, oldObject);
+	}
+
+	/**
+	 * Matches pathway objects with the same elementId and class, and the pathway
+	 * of both pathway models.
+	 */
+	private void matchByElementId(List<PathwayObject> oldObjects) {
+		for (PathwayObject o : oldObjects) {
+			PathwayObject n = o instanceof Pathway ? newModel.getPathway() : newModel.getPathwayObject(o.getElementId());
+			if (n != null && n.getClass() == o.getClass() && !newToOld.containsKey(n)) {
+				addMatch(o, n);
+			}
+		}
+	}
+
+	/**
+	 * Matches the remaining pathway objects with equal keys of the given type.
+	 * Unmatched pathway objects of the new pathway model are put in buckets by key,
+	 * each unmatched pathway object of the old pathway model then takes the
+	 * nearest candidate from its bucket.
+	 *
+	 * @param type the type of key.
+	 */
+	private void matchByKey(List<PathwayObject> oldObjects, List<PathwayObject> newObjects, KeyType type) {
+		Map<List<Object>, Bucket> buckets = new HashMap<List<Object>, Bucket>();
+		for (PathwayObject n : newObjects) {
+			if (!newToOld.containsKey(n)) {
+				List<Object> key = getKey(type, n, false);
+				if (key != null) {
+					buckets.computeIfAbsent(key, k -> new Bucket()).add(n);
+				}
+			}
+		}
+		if (buckets.isEmpty()) {
+			return;
+		}
+		for (PathwayObject o : oldObjects) {
+			if (!oldToNew.containsKey(o)) {
+				// parents come first, so states and anchors can use the matched parent
+				List<Object> key = getKey(type, o, true);
+				Bucket candidates = key == null ? null : buckets.get(key);
+				if (candidates != null) {
+					PathwayObject n = candidates.takeNearest(o);
+					if (n != null) {
+						addMatch(o, n);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Types of keys to match pathway objects by, after elementId.
+	 */
+	private enum KeyType {
+		XREF, GEOMETRY, LINK
+	}
+
+	/**
+	 * Returns the key of the given type for the given pathway object, or null if
+	 * it has none. Keys of pathway objects of the old pathway model refer to
+	 * matched pathway objects of the new pathway model.
+	 *
+	 * @param type the type of key.
+	 * @param o    the pathway object.
+	 * @param old  if true, the pathway object is of the old pathway model.
+	 */
+	private List<Object> getKey(KeyType type, PathwayObject o, boolean old) {
+		switch (type) {
+		case XREF:
+			return getXrefKey(o);
+		case GEOMETRY:
+			return getGeometryKey(o, toNewObject(getParent(o), old));
+		case LINK:
+			if (o instanceof LineElement) {
+				LineElement l = (LineElement) o;
+				PathwayObject start = toNewObject((PathwayObject) l.getStartElementRef(), old);
+				PathwayObject end = toNewObject((PathwayObject) l.getEndElementRef(), old);
+				return start == null && end == null ? null : Arrays.<Object>asList(o.getClass(), start, end);
+			}
+			// states and anchors of lines matched by links
+			return o instanceof Anchor ? getGeometryKey(o, toNewObject(getParent(o), old)) : null;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the given pathway object of the new pathway model, or the matched
+	 * pathway object of the new pathway model for the given pathway object of the
+	 * old pathway model.
+	 */
+	private PathwayObject toNewObject(PathwayObject o, boolean old) {
+		return o == null || !old ? o : oldToNew.get(o);
+	}
+
+	/**
+	 * Returns the parent data node of a state, or the parent line of an anchor.
+	 */
+	static PathwayObject getParent(PathwayObject o) {
+		if (o instanceof State) {
+			return ((State) o).getDataNode();
+		} else if (o instanceof Anchor) {
+			return ((Anchor) o).getLineElement();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the Xref key of the given pathway object, or null if it has no Xref
+	 * identifier.
+	 */
+	private static List<Object> getXrefKey(PathwayObject o) {
+		if (o instanceof Xrefable && !(o instanceof Pathway)) {
+			Xref xref = ((Xrefable) o).getXref();
+			if (xref != null && xref.getId() != null && !xref.getId().isEmpty()) {
+				return Arrays.<Object>asList(o.getClass(), xref);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the geometry key of the given pathway object, or null if it has no
+	 * geometry. Coordinates are rounded to whole units.
+	 *
+	 * @param o      the pathway object.
+	 * @param parent the parent of a state or anchor in the new pathway model.
+	 */
+	private static List<Object> getGeometryKey(PathwayObject o, PathwayObject parent) {
+		if (o instanceof State) {
+			State s = (State) o;
+			return parent == null ? null
+					: Arrays.<Object>asList(State.class, parent, Math.round(s.getRelX() * 100),
+							Math.round(s.getRelY() * 100));
+		} else if (o instanceof Anchor) {
+			return parent == null ? null
+					: Arrays.<Object>asList(Anchor.class, parent, Math.round(((Anchor) o).getPosition() * 100));
+		} else if (o instanceof Pathway) {
+			return null;
+		} else if (o instanceof ShapedElement) {
+			ShapedElement s = (ShapedElement) o;
+			return Arrays.<Object>asList(o.getClass(), Math.round(s.getCenterX()), Math.round(s.getCenterY()),
+					Math.round(s.getWidth()), Math.round(s.getHeight()));
+		} else if (o instanceof LineElement) {
+			LineElement l = (LineElement) o;
+			return Arrays.<Object>asList(o.getClass(), Math.round(l.getStartLinePointX()),
+					Math.round(l.getStartLinePointY()), Math.round(l.getEndLinePointX()),
+					Math.round(l.getEndLinePointY()));
+		}
+		return null;
+	}
+
+	// ================================================================================
+	// Comparison Methods
+	// ================================================================================
+	/**
+	 * Collects added and removed pathway objects, and compares matched pathway
+	 * objects.
+	 */
+	private void compareMatches(List<PathwayObject> oldObjects, List<PathwayObject> newObjects) {
+		for (PathwayObject o : oldObjects) {
+			PathwayObject n = oldToNew.get(o);
+			if (n == null) {
+				removed.add(o);
+			} else {
+				Set<StaticProperty> keys = getChangedKeys(o, n);
+				if (!keys.isEmpty()) {
+					Modification m = new Modification(o, n, keys);
+					modified.add(m);
+					oldToModification.put(o, m);
+				}
+			}
+		}
+		for (PathwayObject n : newObjects) {
+			if (!newToOld.containsKey(n)) {
+				added.add(n);
+			}
+		}
+	}
+
+	/**
+	 * Returns the static properties which differ between the given matched
+	 * pathway objects. The elementId and the board size, which follows from the
+	 * bounds of the pathway elements, are not compared.
+	 */
+	private Set<StaticProperty> getChangedKeys(PathwayObject o, PathwayObject n) {
+		Set<StaticProperty> result = EnumSet.noneOf(StaticProperty.class);
+		for (StaticProperty key : o.getStaticPropertyKeys()) {
+			if (IGNORED_KEYS.contains(key)) {
+				continue;
+			}
+			boolean equal;
+			switch (key) {
+			case ANNOTATIONREF:
+				equal = annotationRefsEqual(((PathwayElement) o).getAnnotationRefs(),
+						((PathwayElement) n).getAnnotationRefs());
+				break;
+			case CITATIONREF:
+				equal = citationRefsEqual(((PathwayElement) o).getCitationRefs(),
+						((PathwayElement) n).getCitationRefs());
+				break;
+			case EVIDENCEREF:
+				equal = evidenceRefsEqual(((PathwayElement) o).getEvidenceRefs(),
+						((PathwayElement) n).getEvidenceRefs());
+				break;
+			default:
+				equal = matchedValuesEqual(o.getStaticProperty(key), n.getStaticProperty(key));
+			}
+			if (!equal) {
+				result.add(key);
+			}
+		}
+		if (o instanceof Anchor) {
+			Anchor a1 = (Anchor) o;
+			Anchor a2 = (Anchor) n;
+			if (a1.getPosition() != a2.getPosition()) {
+				result.add(StaticProperty.ANCHORPOSITION);
+			}
+			if (a1.getShapeType() != a2.getShapeType()) {
+				result.add(StaticProperty.ANCHORSHAPETYPE);
+			}
+		} else if (o instanceof LineElement) {
+			if (!waypointsEqual((LineElement) o, (LineElement) n)) {
+				result.add(StaticProperty.LINEPOINTS);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if the given lines have the same number of line points, and
+	 * equal coordinates for the line points between start and end. The start and
+	 * end line points are compared as static properties.
+	 *
+	 * @param l1 the first line.
+	 * @param l2 the second line.
+	 * @return true if the waypoints are equal.
+	 */
+	static boolean waypointsEqual(LineElement l1, LineElement l2) {
+		List<LinePoint> p1 = l1.getLinePoints();
+		List<LinePoint> p2 = l2.getLinePoints();
+		if (p1.size() != p2.size()) {
+			return false;
+		}
+		for (int i = 1; i < p1.size() - 1; i++) {
+			if (p1.get(i).getX() != p2.get(i).getX() || p1.get(i).getY() != p2.get(i).getY()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the given static property values of the old and new pathway
+	 * model are equal. Pathway objects are equal if they are matched.
+	 */
+	private boolean matchedValuesEqual(Object v1, Object v2) {
+		if (v1 instanceof PathwayObject || v2 instanceof PathwayObject) {
+			return v1 == null ? v2 == null : oldToNew.get(v1) == v2;
+		}
+		return valuesEqual(v1, v2);
+	}
+
+	/**
+	 * Returns true if the given static property values, which are not pathway
+	 * objects, are equal. Lists are compared item by item.
+	 *
+	 * @param v1 the first value.
+	 * @param v2 the second value.
+	 * @return true if the values are equal.
+	 */
+	static boolean valuesEqual(Object v1, Object v2) {
+		if (v1 instanceof List && v2 instanceof List) {
+			List<?> l1 = (List<?>) v1;
+			List<?> l2 = (List<?>) v2;
+			if (l1.size() != l2.size()) {
+				return false;
+			}
+			for (int i = 0; i < l1.size(); i++) {
+				if (!itemsEqual(l1.get(i), l2.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return Objects.equals(v1, v2);
+	}
+
+	/**
+	 * Returns true if the given list items are equal. Comments and authors are
+	 * compared by their fields.
+	 */
+	private static boolean itemsEqual(Object i1, Object i2) {
+		if (i1 instanceof Comment && i2 instanceof Comment) {
+			Comment c1 = (Comment) i1;
+			Comment c2 = (Comment) i2;
+			return Objects.equals(c1.getCommentText(), c2.getCommentText())
+					&& Objects.equals(c1.getSource(), c2.getSource());
+		} else if (i1 instanceof Author && i2 instanceof Author) {
+			Author a1 = (Author) i1;
+			Author a2 = (Author) i2;
+			return Objects.equals(a1.getName(), a2.getName()) && Objects.equals(a1.getUsername(), a2.getUsername())
+					&& a1.getOrder() == a2.getOrder();
+		}
+		return Objects.equals(i1, i2);
+	}
+
+	/**
+	 * Returns true if the annotationRefs, citationRefs and evidenceRefs of the
+	 * given pathway elements are equal.
+	 *
+	 * @param e1 the first pathway element.
+	 * @param e2 the second pathway element.
+	 * @return true if the references are equal.
+	 */
+	static boolean referencesEqual(PathwayElement e1, PathwayElement e2) {
+		return annotationRefsEqual(e1.getAnnotationRefs(), e2.getAnnotationRefs())
+				&& citationRefsEqual(e1.getCitationRefs(), e2.getCitationRefs())
+				&& evidenceRefsEqual(e1.getEvidenceRefs(), e2.getEvidenceRefs());
+	}
+
+	/**
+	 * Returns true if the given annotationRefs refer to equal annotations, with
+	 * equal nested references.
+	 */
+	private static boolean annotationRefsEqual(List<AnnotationRef> l1, List<AnnotationRef> l2) {
+		if (l1.size() != l2.size()) {
+			return false;
+		}
+		for (int i = 0; i < l1.size(); i++) {
+			AnnotationRef r1 = l1.get(i);
+			AnnotationRef r2 = l2.get(i);
+			if (!r1.getAnnotation().equalsAnnotation(r2.getAnnotation())
+					|| !citationRefsEqual(r1.getCitationRefs(), r2.getCitationRefs())
+					|| !evidenceRefsEqual(r1.getEvidenceRefs(), r2.getEvidenceRefs())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the given citationRefs refer to equal citations, with equal
+	 * nested references.
+	 */
+	private static boolean citationRefsEqual(List<CitationRef> l1, List<CitationRef> l2) {
+		if (l1.size() != l2.size()) {
+			return false;
+		}
+		for (int i = 0; i < l1.size(); i++) {
+			CitationRef r1 = l1.get(i);
+			CitationRef r2 = l2.get(i);
+			if (!r1.getCitation().equalsCitation(r2.getCitation())
+					|| !annotationRefsEqual(r1.getAnnotationRefs(), r2.getAnnotationRefs())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the given evidenceRefs refer to equal evidences.
+	 */
+	private static boolean evidenceRefsEqual(List<EvidenceRef> l1, List<EvidenceRef> l2) {
+		if (l1.size() != l2.size()) {
+			return false;
+		}
+		for (int i = 0; i < l1.size(); i++) {
+			if (!l1.get(i).getEvidence().equalsEvidence(l2.get(i).getEvidence())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a summary of this diff.
+	 */
+	@Override
+	public String toString() {
+		return "PathwayModelDiff[added=" + added.size() + ", removed=" + removed.size() + ", modified="
+				+ modified.size() + "]";
+	}
+
+	// ================================================================================
+	// Bucket Class
+	// ================================================================================
+	/**
+	 * Unmatched pathway objects of the new pathway model with the same key, all of
+	 * the same class. Pathway objects without coordinates are taken in order.
+	 * Shaped elements are taken nearest first; a bucket with many shaped elements,
+	 * e.g. hundreds of data nodes with the same Xref, puts them in a grid so that
+	 * the search for the nearest one only visits nearby cells.
+	 */
+	private static final class Bucket {
+
+		private static final int GRID_THRESHOLD = 16;
+
+		private final List<PathwayObject> items = new ArrayList<PathwayObject>();
+		private int next = 0; // first item not taken, for pathway objects without coordinates
+		private int remaining = 0;
+		// grid of shaped elements by cell, built when first needed
+		private Map<Long, List<ShapedElement>> grid = null;
+		private double cellSize;
+		private int minCellX, maxCellX, minCellY, maxCellY;
+
+		void add(PathwayObject n) {
+			items.add(n);
+			remaining++;
+		}
+
+		/**
+		 * Removes and returns the candidate nearest to the given pathway object, or
+		 * null if all candidates are taken.
+		 */
+		PathwayObject takeNearest(PathwayObject o) {
+			if (remaining == 0) {
+				return null;
+			}
+			remaining--;
+			if (!(o instanceof ShapedElement)) {
+				return items.get(next++);
+			}
+			ShapedElement s = (ShapedElement) o;
+			if (grid == null && items.size() <= GRID_THRESHOLD) {
+				return takeNearestFromList(s, items);
+			}
+			if (grid == null) {
+				buildGrid();
+			}
+			return takeNearestFromGrid(s);
+		}
+
+		/**
+		 * Removes and returns the shaped element of the given list nearest to the
+		 * given shaped element. The last element is moved to the removed index.
+		 */
+		private static <T extends PathwayObject> T takeNearestFromList(ShapedElement s, List<T> list) {
+			int best = nearest(s, list, Double.MAX_VALUE);
+			T result = list.get(best);
+			list.set(best, list.get(list.size() - 1));
+			list.remove(list.size() - 1);
+			return result;
+		}
+
+		/**
+		 * Returns the index of the shaped element of the given list nearest to the
+		 * given shaped element and closer than the given distance, or -1 if none.
+		 */
+		private static int nearest(ShapedElement s, List<? extends PathwayObject> list, double bestDistance) {
+			int best = -1;
+			for (int i = 0; i < list.size(); i++) {
+				double distance = distance(s, (ShapedElement) list.get(i));
+				if (distance < bestDistance) {
+					best = i;
+					bestDistance = distance;
+					if (distance == 0) {
+						break;
+					}
+				}
+			}
+			return best;
+		}
+
+		private static double distance(ShapedElement s1, ShapedElement s2) {
+			return Math.hypot(s1.getCenterX() - s2.getCenterX(), s1.getCenterY() - s2.getCenterY());
+		}
+
+		/**
+		 * Puts the shaped elements in a grid with about one shaped element per cell.
+		 */
+		private void buildGrid() {
+			double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+			double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+			for (PathwayObject n : items) {
+				ShapedElement e = (ShapedElement) n;
+				minX = Math.min(minX, e.getCenterX());
+				maxX = Math.max(maxX, e.getCenterX());
+				minY = Math.min(minY, e.getCenterY());
+				maxY = Math.max(maxY, e.getCenterY());
+			}
+			double width = maxX - minX;
+			double height = maxY - minY;
+			// also for shaped elements along a horizontal or vertical line
+			cellSize = Math.max(1,
+					Math.max(Math.sqrt(width * height / items.size()), Math.max(width, height) / items.size()));
+			minCellX = minCellY = Integer.MAX_VALUE;
+			maxCellX = maxCellY = Integer.MIN_VALUE;
+			grid = new HashMap<Long, List<ShapedElement>>();
+			for (PathwayObject n : items) {
+				ShapedElement e = (ShapedElement) n;
+				int x = cell(e.getCenterX());
+				int y = cell(e.getCenterY());
+				minCellX = Math.min(minCellX, x);
+				maxCellX = Math.max(maxCellX, x);
+				minCellY = Math.min(minCellY, y);
+				maxCellY = Math.max(maxCellY, y);
+				grid.computeIfAbsent(cellKey(x, y), k -> new ArrayList<ShapedElement>(2)).add(e);
+			}
+			items.clear();
+		}
+
+		private int cell(double v) {
+			return (int) Math.floor(v / cellSize);
+		}
+
+		private static long cellKey(int x, int y) {
+			return ((long) x << 32) | (y & 0xFFFFFFFFL);
+		}
+
+		/**
+		 * Searches rings of cells around the cell of the given shaped element, until
+		 * no cell in the next ring can hold a nearer shaped element.
+		 */
+		private ShapedElement takeNearestFromGrid(ShapedElement s) {
+			int cx = cell(s.getCenterX());
+			int cy = cell(s.getCenterY());
+			int maxRing = Math.max(Math.max(cx - minCellX, maxCellX - cx), Math.max(cy - minCellY, maxCellY - cy));
+			int ring = Math.max(0,
+					Math.max(Math.max(minCellX - cx, cx - maxCellX), Math.max(minCellY - cy, cy - maxCellY)));
+			List<ShapedElement> bestCell = null;
+			int best = -1;
+			double bestDistance = Double.MAX_VALUE;
+			for (; ring <= maxRing; ring++) {
+				// shaped elements in this ring are at least (ring - 1) cells away
+				if (best >= 0 && bestDistance <= (ring - 1) * cellSize) {
+					break;
+				}
+				for (int x = Math.max(cx - ring, minCellX); x <= Math.min(cx + ring, maxCellX); x++) {
+					boolean edge = x == cx - ring || x == cx + ring;
+					int step = edge ? 1 : 2 * ring;
+					for (int y = cy - ring; y <= cy + ring; y += step) {
+						if (y < minCellY || y > maxCellY) {
+							continue;
+						}
+						List<ShapedElement> list = grid.get(cellKey(x, y));
+						if (list != null) {
+							int i = nearest(s, list, bestDistance);
+							if (i >= 0) {
+								bestCell = list;
+								best = i;
+								bestDistance = distance(s, list.get(i));
+							}
+						}
+					}
+				}
+			}
+			ShapedElement result = bestCell.get(best);
+			bestCell.set(best, bestCell.get(bestCell.size() - 1));
+			bestCell.remove(bestCell.size() - 1);
+			return result;
+		}
+	}
+
+	// ================================================================================
+	// Modification Class
+	// ================================================================================
+	/**
+	 * A matched pathway object with changed static properties.
+	 */
+	public static final class Modification {
+
+		private final PathwayObject oldObject;
+		private final PathwayObject newObject;
+		private final Set<StaticProperty> keys;
+
+		/**
+		 * Instantiates a modification.
+		 *
+		 * @param oldObject the pathway object of the old pathway model.
+		 * @param newObject the matched pathway object of the new pathway model.
+		 * @param keys      the changed static properties.
+		 */
+		private Modification(PathwayObject oldObject, PathwayObject newObject, Set<StaticProperty> keys) {
+			this.oldObject = oldObject;
+			this.newObject = newObject;
+			this.keys = Collections.unmodifiableSet(keys);
+		}
+
+		/**
+		 * Returns the pathway object of the old pathway model.
+		 *
+		 * @return the old pathway object.
+		 */
+		public PathwayObject getOldObject() {
+			return oldObject;
+		}
+
+		/**
+		 * Returns the pathway object of the new pathway model.
+		 *
+		 * @return the new pathway object.
+		 */
+		public PathwayObject getNewObject() {
+			return newObject;
+		}
+
+		/**
+		 * Returns the changed static properties.
+		 *
+		 * @return the unmodifiable set of changed static properties.
+		 */
+		public Set<StaticProperty> getChangedKeys() {
+			return keys;
+		}
+
+		@Override
+		public String toString() {
+			return oldObject.getElementId() + " " + keys;
+		}
+	}
+}
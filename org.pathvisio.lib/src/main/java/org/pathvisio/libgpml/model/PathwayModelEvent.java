@@ -16,6 +16,9 @@
  ******************************************************************************/
 package org.pathvisio.libgpml.model;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Used to notify listeners of changes to the model, i.e a Pathway or
  * PathwayElement. This can mean the addition or removal of whole elements, or
@@ -31,9 +34,11 @@ public class PathwayModelEvent {
 	public static final int DELETED = 2; // sent to pathway model listeners when an object deleted
 	public static final int ADDED = 3; // sent to pathway model listeners when an object added
 	public static final int RESIZED = 4; // sent to pathway model listeners when an object resized
+	public static final int MODIFIED = 5; // sent to pathway model listeners after a bulk update of objects
 
 	private PathwayObject affectedData;
 	private int type;
+	private Collection<PathwayObject> affectedObjects;
 
 	/**
 	 * Instantiates a pathway model event.
@@ -44,6 +49,21 @@ public class PathwayModelEvent {
 	public PathwayModelEvent(PathwayObject pathwayObject, int t) {
 		affectedData = pathwayObject;
 		type = t;
+		affectedObjects = Collections.singletonList(pathwayObject);
+	}
+
+	/**
+	 * Instantiates a pathway model event affecting several pathway objects, e.g.
+	 * after a bulk update.
+	 * 
+	 * @param pathwayObject   the pathway object, usually the pathway.
+	 * @param t               the integer for type.
+	 * @param affectedObjects all pathway objects affected.
+	 */
+	public PathwayModelEvent(PathwayObject pathwayObject, int t, Collection<PathwayObject> affectedObjects) {
+		affectedData = pathwayObject;
+		type = t;
+		this.affectedObjects = Collections.unmodifiableCollection(affectedObjects);
 	}
 
 	/**
@@ -64,4 +84,14 @@ public class PathwayModelEvent {
 		return type;
 	}
 
+	/**
+	 * Returns all affected pathway objects. For events about a single pathway
+	 * object this is the same as {@link #getAffectedData()}.
+	 * 
+	 * @return the pathway objects affected.
+	 */
+	public Collection<PathwayObject> getAffectedObjects() {
+		return affectedObjects;
+	}
+
 }
@@ -0,0 +1,649 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.GraphLink.LinkableFrom;
+import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.Pathway.Author;
+import org.pathvisio.libgpml.model.PathwayElement.Comment;
+import org.pathvisio.libgpml.model.PathwayModelDiff.Modification;
+import org.pathvisio.libgpml.prop.StaticProperty;
+
+/**
+ * Three-way merge of two pathway models, ours and theirs, edited concurrently
+ * from a common base pathway model. The merged pathway model is a copy of ours,
+ * to which the changes of theirs are applied:
+ * <ul>
+ * <li>pathway elements, states and anchors added by theirs are added.
+ * <li>pathway objects removed by theirs are removed, unless modified by ours.
+ * <li>static properties and references changed by theirs are set, unless ours
+ * changed them to a different value. So are anchor positions, anchor shape
+ * types and waypoints.
+ * </ul>
+ * Changes which cannot be merged are reported as {@link Conflict}, and the
+ * merged pathway model keeps ours. Pathway objects are matched between base,
+ * ours and theirs with {@link PathwayModelDiff}, so a merge takes time
+ * near-linear in the size of the pathway models.
+ */
+public final class PathwayModelMerge {
+
+	private static final Set<StaticProperty> REFERENCE_KEYS = EnumSet.of(StaticProperty.ANNOTATIONREF,
+			StaticProperty.CITATIONREF, StaticProperty.EVIDENCEREF);
+	private static final Set<StaticProperty> LINK_KEYS = EnumSet.of(StaticProperty.GROUPREF, StaticProperty.ALIASREF,
+			StaticProperty.STARTELEMENTREF, StaticProperty.ENDELEMENTREF);
+
+	private final PathwayModelDiff oursDiff;
+	private final PathwayModelDiff theirsDiff;
+	private final PathwayModel pathwayModel;
+	// pathway objects of ours and theirs mapped to those of the merged pathway model
+	private final Map<PathwayObject, PathwayObject> oursToMerged = new IdentityHashMap<PathwayObject, PathwayObject>();
+	private final Map<PathwayObject, PathwayObject> mergedToOurs = new IdentityHashMap<PathwayObject, PathwayObject>();
+	private final Map<PathwayObject, PathwayObject> theirsToMerged = new IdentityHashMap<PathwayObject, PathwayObject>();
+	private final List<Conflict> conflicts = new ArrayList<Conflict>();
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates a merge. Called by
+	 * {@link #merge(PathwayModel, PathwayModel, PathwayModel)}.
+	 *
+	 * @param oursDiff   the diff from base to ours.
+	 * @param theirsDiff the diff from base to theirs.
+	 */
+	private PathwayModelMerge(PathwayModelDiff oursDiff, PathwayModelDiff theirsDiff) {
+		this.oursDiff = oursDiff;
+		this.theirsDiff = theirsDiff;
+		this.pathwayModel = oursDiff.getNewModel().clone();
+	}
+
+	/**
+	 * Merges the changes of ours and theirs to the given base pathway model. The
+	 * given pathway models are not modified.
+	 *
+	 * @param base   the common base pathway model.
+	 * @param ours   the pathway model with our changes.
+	 * @param theirs the pathway model with their changes.
+	 * @return the merge, with the merged pathway model and conflicts.
+	 */
+	public static PathwayModelMerge merge(PathwayModel base, PathwayModel ours, PathwayModel theirs) {
+		PathwayModelMerge merge = new PathwayModelMerge(PathwayModelDiff.compare(base, ours),
+				PathwayModelDiff.compare(base, theirs));
+		merge.mapObjects();
+		merge.mergeAdded();
+		merge.mergeRemoved();
+		merge.mergeModified();
+		for (Group g : merge.pathwayModel.getGroups()) {
+			g.updateDimensions();
+		}
+		return merge;
+	}
+
+	// ================================================================================
+	// Accessors
+	// ================================================================================
+	/**
+	 * Returns the merged pathway model.
+	 *
+	 * @return the merged pathway model.
+	 */
+	public PathwayModel getPathwayModel() {
+		return pathwayModel;
+	}
+
+	/**
+	 * Returns the diff from base to ours.
+	 *
+	 * @return the diff of ours.
+	 */
+	public PathwayModelDiff getOursDiff() {
+		return oursDiff;
+	}
+
+	/**
+	 * Returns the diff from base to theirs.
+	 *
+	 * @return the diff of theirs.
+	 */
+	public PathwayModelDiff getTheirsDiff() {
+		return theirsDiff;
+	}
+
+	/**
+	 * Returns the changes which could not be merged.
+	 *
+	 * @return the unmodifiable list of conflicts.
+	 */
+	public List<Conflict> getConflicts() {
+		return Collections.unmodifiableList(conflicts);
+	}
+
+	/**
+	 * Returns true if some changes could not be merged.
+	 *
+	 * @return true if there are conflicts.
+	 */
+	public boolean hasConflicts() {
+		return !conflicts.isEmpty();
+	}
+
+	// ================================================================================
+	// Merge Methods
+	// ================================================================================
+	/**
+	 * Maps the pathway objects of ours and the matched pathway objects of theirs
+	 * to the merged pathway model, which is a copy of ours with the same
+	 * elementIds.
+	 */
+	private void mapObjects() {
+		for (PathwayObject o : PathwayModelDiff.getObjects(oursDiff.getNewModel())) {
+			PathwayObject m = o instanceof Pathway ? pathwayModel.getPathway()
+					: pathwayModel.getPathwayObject(o.getElementId());
+			oursToMerged.put(o, m);
+			mergedToOurs.put(m, o);
+		}
+		for (PathwayObject t : PathwayModelDiff.getObjects(theirsDiff.getNewModel())) {
+			PathwayObject o = oursDiff.getNewObject(theirsDiff.getOldObject(t));
+			if (o != null) {
+				theirsToMerged.put(t, oursToMerged.get(o));
+			}
+		}
+	}
+
+	/**
+	 * Adds copies of the pathway elements, states and anchors added by theirs,
+	 * then links the copies.
+	 */
+	private void mergeAdded() {
+		List<PathwayObject> added = new ArrayList<PathwayObject>();
+		for (PathwayObject t : theirsDiff.getAdded()) {
+			if (theirsToMerged.containsKey(t)) {
+				// state or anchor of an added pathway element
+				continue;
+			}
+			PathwayObject m = null;
+			if (t instanceof State || t instanceof Anchor) {
+				PathwayObject parent = theirsToMerged.get(PathwayModelDiff.getParent(t));
+				if (parent == null) {
+					// parent removed by ours
+					PathwayObject baseParent = theirsDiff.getOldObject(PathwayModelDiff.getParent(t));
+					addConflict(ConflictType.MODIFIED_REMOVED, baseParent, null, t, null);
+					continue;
+				}
+				m = addChild(parent, t);
+			} else if (t instanceof PathwayElement) {
+				m = addElement((PathwayElement) t);
+			}
+			if (m != null) {
+				added.add(t);
+			}
+		}
+		for (PathwayObject t : added) {
+			PathwayObject m = theirsToMerged.get(t);
+			if (t instanceof PathwayElement) {
+				((PathwayElement) m).copyReferencesFrom((PathwayElement) t);
+			}
+			Set<StaticProperty> missing = EnumSet.noneOf(StaticProperty.class);
+			for (StaticProperty key : t.getStaticPropertyKeys()) {
+				if (LINK_KEYS.contains(key) && !setValue(m, key, t)) {
+					missing.add(key);
+				}
+			}
+			if (!missing.isEmpty()) {
+				addConflict(ConflictType.MISSING_REFERENCE, null, null, t, missing);
+			}
+			if (t instanceof LineElement) {
+				((LineElement) m).copyConnectorShapeFrom((LineElement) t);
+			}
+		}
+	}
+
+	/**
+	 * Adds a copy of the given pathway element of theirs, with its states and
+	 * anchors, to the merged pathway model. The elementId is kept unless taken.
+	 */
+	private PathwayObject addElement(PathwayElement t) {
+		PathwayElement m = t.copy().getNewElement();
+		if (pathwayModel.getPathwayObject(t.getElementId()) == null) {
+			m.setElementId(t.getElementId());
+		}
+		pathwayModel.add(m);
+		theirsToMerged.put(t, m);
+		if (t instanceof DataNode) {
+			mapChildren(((DataNode) t).getStates(), ((DataNode) m).getStates());
+		} else if (t instanceof LineElement) {
+			mapChildren(((LineElement) t).getAnchors(), ((LineElement) m).getAnchors());
+		}
+		return m;
+	}
+
+	/**
+	 * Maps the states or anchors of a pathway element of theirs to those of its
+	 * copy.
+	 */
+	private void mapChildren(List<? extends PathwayObject> from, List<? extends PathwayObject> to) {
+		Iterator<? extends PathwayObject> it = to.iterator();
+		for (PathwayObject t : from) {
+			if (it.hasNext()) {
+				theirsToMerged.put(t, it.next());
+			}
+		}
+	}
+
+	/**
+	 * Adds a copy of the given state or anchor of theirs to the given parent of
+	 * the merged pathway model.
+	 */
+	private PathwayObject addChild(PathwayObject parent, PathwayObject t) {
+		PathwayObject m;
+		if (t instanceof State) {
+			State s = (State) t;
+			State state = ((DataNode) parent).addState(s.getTextLabel(), s.getType(), s.getRelX(), s.getRelY());
+			state.copyValuesFrom(s);
+			m = state;
+		} else {
+			Anchor a = (Anchor) t;
+			m = ((LineElement) parent).addAnchor(a.getPosition(), a.getShapeType());
+		}
+		theirsToMerged.put(t, m);
+		return m;
+	}
+
+	/**
+	 * Removes the pathway objects removed by theirs. Pathway objects modified by
+	 * ours, or linked by lines, groups or aliases changed by ours, are kept.
+	 */
+	private void mergeRemoved() {
+		Set<PathwayObject> kept = Collections.newSetFromMap(new IdentityHashMap<PathwayObject, Boolean>());
+		for (PathwayObject b : theirsDiff.getRemoved()) {
+			PathwayObject o = oursDiff.getNewObject(b);
+			if (o == null) {
+				// removed by ours too
+				continue;
+			}
+			if (kept.contains(PathwayModelDiff.getParent(b))) {
+				kept.add(b);
+				continue;
+			}
+			if (oursDiff.getModification(b) != null) {
+				addConflict(ConflictType.MODIFIED_REMOVED, b, o, null, oursDiff.getModification(b).getChangedKeys());
+				kept.add(b);
+				continue;
+			}
+			PathwayObject m = oursToMerged.get(o);
+			if (isLinkedByOurs(m)) {
+				addConflict(ConflictType.MISSING_REFERENCE, b, o, null, null);
+				kept.add(b);
+				continue;
+			}
+			// may be removed already with its parent or as an empty group
+			if (m.getPathwayModel() == pathwayModel) {
+				if (m instanceof Anchor) {
+					((Anchor) m).getLineElement().removeAnchor((Anchor) m);
+				} else {
+					pathwayModel.remove(m);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the given pathway object of the merged pathway model is
+	 * linked by a line, group member or alias added by ours, or of which ours
+	 * changed the links.
+	 */
+	private boolean isLinkedByOurs(PathwayObject m) {
+		List<PathwayObject> linking = new ArrayList<PathwayObject>();
+		if (m instanceof LinkableTo) {
+			for (LinkableFrom lf : pathwayModel.getReferringLinkableFroms((LinkableTo) m)) {
+				linking.add(((LinePoint) lf).getLineElement());
+			}
+		}
+		if (m instanceof Group) {
+			for (Groupable member : ((Group) m).getPathwayElements()) {
+				linking.add((PathwayObject) member);
+			}
+			Set<DataNode> aliases = pathwayModel.getLinkedAliases((Group) m);
+			if (aliases != null) {
+				linking.addAll(aliases);
+			}
+		}
+		for (PathwayObject l : linking) {
+			PathwayObject b = oursDiff.getOldObject(mergedToOurs.get(l));
+			if (b == null) {
+				return true;
+			}
+			Modification mod = oursDiff.getModification(b);
+			if (mod != null && !Collections.disjoint(mod.getChangedKeys(), LINK_KEYS)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sets the static properties and references modified by theirs, unless
+	 * removed by ours or modified by ours to a different value.
+	 */
+	private void mergeModified() {
+		for (Modification mt : theirsDiff.getModified()) {
+			PathwayObject b = mt.getOldObject();
+			PathwayObject t = mt.getNewObject();
+			PathwayObject o = oursDiff.getNewObject(b);
+			if (o == null) {
+				addConflict(ConflictType.MODIFIED_REMOVED, b, null, t, mt.getChangedKeys());
+				continue;
+			}
+			PathwayObject m = oursToMerged.get(o);
+			Modification mo = oursDiff.getModification(b);
+			Set<StaticProperty> oursKeys = mo == null ? Collections.<StaticProperty>emptySet() : mo.getChangedKeys();
+			Set<StaticProperty> conflicting = EnumSet.noneOf(StaticProperty.class);
+			Set<StaticProperty> missing = EnumSet.noneOf(StaticProperty.class);
+			boolean references = false;
+			for (StaticProperty key : mt.getChangedKeys()) {
+				if (REFERENCE_KEYS.contains(key)) {
+					references = true;
+				} else if (!oursKeys.contains(key)) {
+					if (!setValue(m, key, t)) {
+						missing.add(key);
+					}
+				} else if (!isSameValue(o, t, key)) {
+					conflicting.add(key);
+				}
+			}
+			// annotationRefs, citationRefs and evidenceRefs are nested, so are merged as one
+			if (references) {
+				if (Collections.disjoint(oursKeys, REFERENCE_KEYS)) {
+					PathwayElement e = (PathwayElement) m;
+					e.removeAnnotationRefs();
+					e.removeCitationRefs();
+					e.removeEvidenceRefs();
+					e.copyReferencesFrom((PathwayElement) t);
+				} else if (!PathwayModelDiff.referencesEqual((PathwayElement) o, (PathwayElement) t)) {
+					for (StaticProperty key : REFERENCE_KEYS) {
+						if (mt.getChangedKeys().contains(key) || oursKeys.contains(key)) {
+							conflicting.add(key);
+						}
+					}
+				}
+			}
+			if (!conflicting.isEmpty()) {
+				addConflict(ConflictType.PROPERTY, b, o, t, conflicting);
+			}
+			if (!missing.isEmpty()) {
+				addConflict(ConflictType.MISSING_REFERENCE, b, o, t, missing);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the given pathway objects of ours and theirs have equal
+	 * values for the given static property. Anchor positions, anchor shape types
+	 * and waypoints, which are reported by diffs only, are compared directly.
+	 */
+	private boolean isSameValue(PathwayObject o, PathwayObject t, StaticProperty key) {
+		switch (key) {
+		case ANCHORPOSITION:
+			return ((Anchor) o).getPosition() == ((Anchor) t).getPosition();
+		case ANCHORSHAPETYPE:
+			return ((Anchor) o).getShapeType() == ((Anchor) t).getShapeType();
+		case LINEPOINTS:
+			return PathwayModelDiff.waypointsEqual((LineElement) o, (LineElement) t);
+		default:
+			return isSameValue(o.getStaticProperty(key), t.getStaticProperty(key));
+		}
+	}
+
+	/**
+	 * Returns true if the given values of a static property of ours and theirs are
+	 * equal. Pathway objects are equal if they map to the same pathway object of
+	 * the merged pathway model.
+	 */
+	private boolean isSameValue(Object oursValue, Object theirsValue) {
+		if (oursValue instanceof PathwayObject || theirsValue instanceof PathwayObject) {
+			PathwayObject m = theirsToMerged.get(theirsValue);
+			return oursValue == null ? theirsValue == null : m != null && oursToMerged.get(oursValue) == m;
+		}
+		return PathwayModelDiff.valuesEqual(oursValue, theirsValue);
+	}
+
+	/**
+	 * Sets the given static property of the given pathway object of the merged
+	 * pathway model to the value of the given pathway object of theirs. Pathway
+	 * objects are mapped to the merged pathway model.
+	 *
+	 * @return false if the value refers to a pathway object removed by ours.
+	 */
+	private boolean setValue(PathwayObject m, StaticProperty key, PathwayObject t) {
+		// reported by diffs only, not static properties of anchors and lines
+		switch (key) {
+		case ANCHORPOSITION:
+			((Anchor) m).setPosition(((Anchor) t).getPosition());
+			return true;
+		case ANCHORSHAPETYPE:
+			((Anchor) m).setShapeType(((Anchor) t).getShapeType());
+			return true;
+		case LINEPOINTS:
+			copyWaypoints((LineElement) m, (LineElement) t);
+			return true;
+		default:
+			break;
+		}
+		Object value = t.getStaticProperty(key);
+		Object mergedValue = value;
+		if (value instanceof PathwayObject) {
+			mergedValue = theirsToMerged.get(value);
+			if (mergedValue == null) {
+				return false;
+			}
+		}
+		switch (key) {
+		case STARTELEMENTREF:
+		case ENDELEMENTREF:
+			LineElement line = (LineElement) m;
+			LinePoint point = key == StaticProperty.STARTELEMENTREF ? line.getStartLinePoint()
+					: line.getEndLinePoint();
+			if (mergedValue == null) {
+				point.unlink();
+			} else {
+				LineElement theirsLine = (LineElement) t;
+				LinePoint theirsPoint = key == StaticProperty.STARTELEMENTREF ? theirsLine.getStartLinePoint()
+						: theirsLine.getEndLinePoint();
+				point.linkTo((LinkableTo) mergedValue, theirsPoint.getRelX(), theirsPoint.getRelY());
+			}
+			break;
+		case GROUPREF:
+			// keep group members in sync, unlike setStaticProperty
+			if (mergedValue == null) {
+				((Groupable) m).unsetGroupRef();
+			} else {
+				((Groupable) m).setGroupRefTo((Group) mergedValue);
+			}
+			break;
+		case COMMENT:
+			List<Comment> comments = new ArrayList<Comment>();
+			for (Comment c : ((PathwayElement) t).getComments()) {
+				try {
+					comments.add((Comment) c.clone());
+				} catch (CloneNotSupportedException e) {
+					assert (false);
+					/* not going to happen */
+				}
+			}
+			m.setStaticProperty(key, comments);
+			break;
+		case AUTHOR:
+			Pathway pathway = (Pathway) m;
+			for (Author a : new ArrayList<Author>(pathway.getAuthors())) {
+				pathway.removeAuthor(a);
+			}
+			for (Author a : ((Pathway) t).getAuthors()) {
+				Author author = pathway.addAuthor(a.getName());
+				author.setUsername(a.getUsername());
+				author.setOrder(a.getOrder());
+				author.setXref(a.getXref());
+			}
+			break;
+		default:
+			m.setStaticProperty(key, mergedValue);
+		}
+		return true;
+	}
+
+	/**
+	 * Sets the waypoints of the given line of the merged pathway model to those of
+	 * the given line of theirs. The start and end line points are kept, and are
+	 * merged as static properties.
+	 */
+	private void copyWaypoints(LineElement m, LineElement t) {
+		List<LinePoint> mergedPoints = m.getLinePoints();
+		List<LinePoint> theirsPoints = t.getLinePoints();
+		if (mergedPoints.size() == theirsPoints.size()) {
+			// same number of waypoints, move them
+			for (int i = 1; i < theirsPoints.size() - 1; i++) {
+				mergedPoints.get(i).moveTo(theirsPoints.get(i).getX(), theirsPoints.get(i).getY());
+			}
+			return;
+		}
+		List<LinePoint> points = new ArrayList<LinePoint>();
+		points.add(m.getStartLinePoint());
+		for (int i = 1; i < theirsPoints.size() - 1; i++) {
+			points.add(m.new LinePoint(theirsPoints.get(i).getX(), theirsPoints.get(i).getY()));
+		}
+		points.add(m.getEndLinePoint());
+		m.setLinePoints(points);
+	}
+
+	/**
+	 * Adds a conflict.
+	 */
+	private void addConflict(ConflictType type, PathwayObject base, PathwayObject ours, PathwayObject theirs,
+			Set<StaticProperty> keys) {
+		conflicts.add(new Conflict(type, base, ours, theirs, keys));
+	}
+
+	// ================================================================================
+	// Conflict Class
+	// ================================================================================
+	/**
+	 * The type of a {@link Conflict}.
+	 */
+	public enum ConflictType {
+		/** ours and theirs changed a static property to different values. */
+		PROPERTY,
+		/** one side modified a pathway object, the other side removed it. */
+		MODIFIED_REMOVED,
+		/** one side links to a pathway object, the other side removed it. */
+		MISSING_REFERENCE
+	}
+
+	/**
+	 * A change which could not be merged. The merged pathway model keeps the
+	 * pathway object of ours, if any.
+	 */
+	public static final class Conflict {
+
+		private final ConflictType type;
+		private final PathwayObject base;
+		private final PathwayObject ours;
+		private final PathwayObject theirs;
+		private final Set<StaticProperty> keys;
+
+		/**
+		 * Instantiates a conflict.
+		 *
+		 * @param type   the type of conflict.
+		 * @param base   the pathway object of base, or null if added.
+		 * @param ours   the pathway object of ours, or null if removed or not
+		 *               applicable.
+		 * @param theirs the pathway object of theirs, or null if removed.
+		 * @param keys   the conflicting static properties, or null if not
+		 *               applicable.
+		 */
+		private Conflict(ConflictType type, PathwayObject base, PathwayObject ours, PathwayObject theirs,
+				Set<StaticProperty> keys) {
+			this.type = type;
+			this.base = base;
+			this.ours = ours;
+			this.theirs = theirs;
+			this.keys = keys == null ? Collections.<StaticProperty>emptySet() : Collections.unmodifiableSet(keys);
+		}
+
+		/**
+		 * Returns the type of this conflict.
+		 *
+		 * @return the conflict type.
+		 */
+		public ConflictType getType() {
+			return type;
+		}
+
+		/**
+		 * Returns the pathway object of base.
+		 *
+		 * @return the base pathway object, or null if added.
+		 */
+		public PathwayObject getBase() {
+			return base;
+		}
+
+		/**
+		 * Returns the pathway object of ours.
+		 *
+		 * @return our pathway object, or null.
+		 */
+		public PathwayObject getOurs() {
+			return ours;
+		}
+
+		/**
+		 * Returns the pathway object of theirs.
+		 *
+		 * @return their pathway object, or null.
+		 */
+		public PathwayObject getTheirs() {
+			return theirs;
+		}
+
+		/**
+		 * Returns the conflicting static properties.
+		 *
+		 * @return the unmodifiable set of static properties, empty if not applicable.
+		 */
+		public Set<StaticProperty> getKeys() {
+			return keys;
+		}
+
+		@Override
+		public String toString() {
+			PathwayObject o = base != null ? base : theirs;
+			return type + " " + (o == null ? null : o.getElementId()) + " " + keys;
+		}
+	}
+}
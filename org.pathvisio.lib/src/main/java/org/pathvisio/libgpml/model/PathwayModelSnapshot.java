@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.GraphLink.LinkableFrom;
+import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
+
+/**
+ * Snapshot of a {@link PathwayModel} for concurrent readers, taken with
+ * {@link PathwayModel#snapshot()}. The snapshot holds its own copy of the
+ * pathway model, which edits of the original pathway model do not change, so it
+ * can be read from any number of threads without locking while the original
+ * pathway model is edited.
+ *
+ * <p>
+ * Snapshots are reused: taking a snapshot of an unchanged pathway model returns
+ * the previous snapshot without copying. Taking a snapshot after any change
+ * copies the whole pathway model with {@link PathwayModel#clone()}, in time and
+ * memory linear in its size. Snapshots are not structurally shared with the
+ * pathway model or with each other: each pathway object refers to the one
+ * pathway model it belongs to, and links between pathway objects are kept in
+ * that pathway model, so unchanged pathway objects cannot be shared. Editors
+ * which change the pathway model often should take snapshots only as often as
+ * readers need them.
+ *
+ * <p>
+ * NB: The snapshot returns unmodifiable lists and sets, but the pathway
+ * elements in them are not protected against modification, and must not be
+ * modified. Use {@link #toPathwayModel()} to get a modifiable copy.
+ */
+public final class PathwayModelSnapshot {
+
+	private final PathwayModel pathwayModel;
+	private final long modificationCount;
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates a snapshot for the given copy of a pathway model. Lazily
+	 * calculated values of pathway elements are calculated here, so that readers
+	 * of the snapshot never write to shared pathway elements.
+	 *
+	 * @param pathwayModel      the copy of the pathway model, not shared with the
+	 *                          editor.
+	 * @param modificationCount the modification count of the original pathway
+	 *                          model at the time of the snapshot.
+	 */
+	PathwayModelSnapshot(PathwayModel pathwayModel, long modificationCount) {
+		for (ShapedElement e : pathwayModel.getShapedElements()) {
+			e.getRotatedBounds();
+			e.getBounds();
+		}
+		for (LineElement l : pathwayModel.getLineElements()) {
+			l.getConnectorShape();
+		}
+		this.pathwayModel = pathwayModel;
+		this.modificationCount = modificationCount;
+	}
+
+	// ================================================================================
+	// Accessors
+	// ================================================================================
+	/**
+	 * Returns the modification count of the original pathway model at the time
+	 * this snapshot was taken.
+	 *
+	 * @return the modification count.
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Returns the copy of the pathway model held by this snapshot, e.g. to
+	 * estimate its size. The copy is shared by all readers of this snapshot, and
+	 * must not be modified.
+	 *
+	 * @return the copy of the pathway model.
+	 */
+	PathwayModel getCachedCopy() {
+		return pathwayModel;
+	}
+
+	/**
+	 * Writes this snapshot to the given output stream as GPML2021. Writers update
+	 * group dimensions and remove empty groups of the pathway model they write,
+	 * so a copy is written, and readers of this snapshot are not affected. May be
+	 * called from any thread.
+	 *
+	 * @param out      the output stream.
+	 * @param validate if true, validate the dom structure before writing.
+	 * @throws ConverterException if the pathway model could not be written.
+	 */
+	public void writeToXml(OutputStream out, boolean validate) throws ConverterException {
+		new GPMLFormat(GPMLFormat.GPML2021).writeToXml(pathwayModel.clone(), out, validate);
+	}
+
+	/**
+	 * Writes this snapshot to the given file as GPML2021. A copy is written, see
+	 * {@link #writeToXml(OutputStream, boolean)}.
+	 *
+	 * @param file     the file.
+	 * @param validate if true, validate the dom structure before writing.
+	 * @throws ConverterException if the pathway model could not be written.
+	 */
+	public void writeToXml(File file, boolean validate) throws ConverterException {
+		new GPMLFormat(GPMLFormat.GPML2021).writeToXml(pathwayModel.clone(), file, validate);
+	}
+
+	/**
+	 * Returns a modifiable copy of this snapshot.
+	 *
+	 * @return a new pathway model.
+	 */
+	public PathwayModel toPathwayModel() {
+		return pathwayModel.clone();
+	}
+
+	/**
+	 * Returns the pathway object containing metadata, e.g. title, organism.
+	 *
+	 * @return the pathway.
+	 */
+	public Pathway getPathway() {
+		return pathwayModel.getPathway();
+	}
+
+	/**
+	 * Returns the pathway object for the given elementId.
+	 *
+	 * @param elementId the elementId.
+	 * @return the pathway object, or null if not found.
+	 */
+	public PathwayObject getPathwayObject(String elementId) {
+		return pathwayModel.getPathwayObject(elementId);
+	}
+
+	/**
+	 * Returns all elementIds of this snapshot.
+	 *
+	 * @return the unmodifiable set of elementIds.
+	 */
+	public Set<String> getElementIds() {
+		return Collections.unmodifiableSet(pathwayModel.getElementIds());
+	}
+
+	/**
+	 * Returns all line points which refer to the given pathway element or anchor.
+	 *
+	 * @param elementRef the pathway element or anchor.
+	 * @return the set of line points.
+	 */
+	public Set<LinkableFrom> getReferringLinkableFroms(LinkableTo elementRef) {
+		return pathwayModel.getReferringLinkableFroms(elementRef);
+	}
+
+	/**
+	 * Returns the data node aliases for the given group.
+	 *
+	 * @param aliasRef the group.
+	 * @return the unmodifiable set of data node aliases, or null if none.
+	 */
+	public Set<DataNode> getLinkedAliases(Group aliasRef) {
+		Set<DataNode> aliases = pathwayModel.getLinkedAliases(aliasRef);
+		return aliases == null ? null : Collections.unmodifiableSet(aliases);
+	}
+
+	/**
+	 * Returns the data nodes of this snapshot.
+	 *
+	 * @return the unmodifiable list of data nodes.
+	 */
+	public List<DataNode> getDataNodes() {
+		return Collections.unmodifiableList(pathwayModel.getDataNodes());
+	}
+
+	/**
+	 * Returns the interactions of this snapshot.
+	 *
+	 * @return the unmodifiable list of interactions.
+	 */
+	public List<Interaction> getInteractions() {
+		return Collections.unmodifiableList(pathwayModel.getInteractions());
+	}
+
+	/**
+	 * Returns the graphical lines of this snapshot.
+	 *
+	 * @return the unmodifiable list of graphical lines.
+	 */
+	public List<GraphicalLine> getGraphicalLines() {
+		return Collections.unmodifiableList(pathwayModel.getGraphicalLines());
+	}
+
+	/**
+	 * Returns the labels of this snapshot.
+	 *
+	 * @return the unmodifiable list of labels.
+	 */
+	public List<Label> getLabels() {
+		return Collections.unmodifiableList(pathwayModel.getLabels());
+	}
+
+	/**
+	 * Returns the shapes of this snapshot.
+	 *
+	 * @return the unmodifiable list of shapes.
+	 */
+	public List<Shape> getShapes() {
+		return Collections.unmodifiableList(pathwayModel.getShapes());
+	}
+
+	/**
+	 * Returns the groups of this snapshot.
+	 *
+	 * @return the unmodifiable list of groups.
+	 */
+	public List<Group> getGroups() {
+		return Collections.unmodifiableList(pathwayModel.getGroups());
+	}
+
+	/**
+	 * Returns the annotations of this snapshot.
+	 *
+	 * @return the unmodifiable list of annotations.
+	 */
+	public List<Annotation> getAnnotations() {
+		return Collections.unmodifiableList(pathwayModel.getAnnotations());
+	}
+
+	/**
+	 * Returns the citations of this snapshot.
+	 *
+	 * @return the unmodifiable list of citations.
+	 */
+	public List<Citation> getCitations() {
+		return Collections.unmodifiableList(pathwayModel.getCitations());
+	}
+
+	/**
+	 * Returns the evidences of this snapshot.
+	 *
+	 * @return the unmodifiable list of evidences.
+	 */
+	public List<Evidence> getEvidences() {
+		return Collections.unmodifiableList(pathwayModel.getEvidences());
+	}
+
+}
@@ -16,12 +16,14 @@
  ******************************************************************************/
 package org.pathvisio.libgpml.model;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 
 /**
  * Abstract class of pathway elements which are part of a pathway and have an
@@ -168,6 +170,17 @@ public abstract class PathwayObject {
 		this.elementId = null;
 	}
 
+	/**
+	 * Replaces string and xref values of this pathway object with equal values of
+	 * the given pool. The elementId is unique, so is not interned. Overridden by
+	 * subclasses with values to intern.
+	 *
+	 * @param pool the intern pool.
+	 */
+	void internValues(InternPool pool) {
+		// nothing to intern
+	}
+
 	// ================================================================================
 	// FireEvent and Listener Methods
 	// ================================================================================
@@ -182,12 +195,14 @@ public abstract class PathwayObject {
 		noFire = times;
 	}
 
-	private Set<PathwayObjectListener> listeners = new HashSet<PathwayObjectListener>();
+	// most pathway objects have no listeners, allocated on first add
+	private Set<PathwayObjectListener> listeners = Collections.emptySet();
 
 	/**
 	 * Returns the listeners for this pathway object.
 	 * 
-	 * @return listeners for this pathway object.
+	 * @return listeners for this pathway object, an empty immutable set if no
+	 *         listeners were added.
 	 */
 	public Set<PathwayObjectListener> getListeners() {
 		return listeners;
@@ -200,6 +215,9 @@ public abstract class PathwayObject {
 	 */
 	public void addListener(PathwayObjectListener v) {
 		if (!listeners.contains(v)) {
+			if (listeners.isEmpty()) {
+				listeners = new HashSet<PathwayObjectListener>();
+			}
 			listeners.add(v);
 		}
 	}
@@ -225,7 +243,44 @@ public abstract class PathwayObject {
 		}
 		if (pathwayModel != null) {
 			pathwayModel.childModified(e);
+			if (pathwayModel.deferObjectModified(e)) {
+				return; // listeners are notified at the end of the bulk update
+			}
+		}
+		notifyListeners(e);
+	}
+
+	/**
+	 * Called before the given static property of this pathway object changes, so
+	 * that the undo journal of the pathway model, if any, can record the old
+	 * value.
+	 * 
+	 * @param key the static property about to change.
+	 */
+	void propertyChanging(StaticProperty key) {
+		if (pathwayModel != null && pathwayModel.undoJournal != null) {
+			pathwayModel.undoJournal.propertyChanging(this, key);
 		}
+	}
+
+	/**
+	 * Called before several static properties of this pathway object change at
+	 * once, e.g. when values are copied from another pathway object, so that the
+	 * undo journal of the pathway model, if any, can record the old values.
+	 */
+	void propertiesChanging() {
+		if (pathwayModel != null && pathwayModel.undoJournal != null) {
+			pathwayModel.undoJournal.propertiesChanging(this);
+		}
+	}
+
+	/**
+	 * Notifies the listeners of this pathway object of the given event, without
+	 * notifying the pathway model.
+	 * 
+	 * @param e the pathway object event.
+	 */
+	void notifyListeners(PathwayObjectEvent e) {
 		for (PathwayObjectListener g : listeners) {
 			g.gmmlObjectModified(e);
 		}
@@ -247,15 +302,34 @@ public abstract class PathwayObject {
 		return keys;
 	}
 
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(EnumSet.noneOf(StaticProperty.class),
+			StaticProperty.ELEMENTID);
+
 	/**
-	 * Returns all static properties for this pathway object.
+	 * Returns all static properties for this pathway object. The set is computed
+	 * once per class and is unmodifiable.
 	 *
 	 * @return result the set of static property for this pathway object.
 	 */
 	public Set<StaticProperty> getStaticPropertyKeys() {
+		return STATIC_PROPERTY_KEYS;
+	}
+
+	/**
+	 * Returns an unmodifiable set of the given static property keys together with
+	 * the keys of the parent class. Used to build the shared key set of each
+	 * class.
+	 *
+	 * @param parentKeys the static property keys of the parent class.
+	 * @param keys       the static property keys added by the class.
+	 * @return the unmodifiable set of static property keys.
+	 */
+	protected static Set<StaticProperty> staticPropertyKeys(Set<StaticProperty> parentKeys, StaticProperty... keys) {
 		Set<StaticProperty> result = EnumSet.noneOf(StaticProperty.class);
-		result.add(StaticProperty.ELEMENTID);
-		return result;
+		result.addAll(parentKeys);
+		Collections.addAll(result, keys);
+		return Collections.unmodifiableSet(result);
 	}
 
 	/**
@@ -78,6 +78,20 @@ public final class PathwayObjectEvent {
 		return new PathwayObjectEvent(pathwayObject, null, true);
 	}
 
+	/**
+	 * Creates a single property event, which is also a coordinate property event
+	 * if coordinates changed. A null property means any property may have changed.
+	 * 
+	 * @param pathwayObject    the pathway object.
+	 * @param property         the property, or null.
+	 * @param coordinateChange whether coordinates changed.
+	 * @return the pathway object event.
+	 */
+	protected static PathwayObjectEvent createPropertyEvent(PathwayObject pathwayObject, Object property,
+			boolean coordinateChange) {
+		return new PathwayObjectEvent(pathwayObject, property, coordinateChange);
+	}
+
 	/**
 	 * Constructor.
 	 *
@@ -107,6 +121,16 @@ public final class PathwayObjectEvent {
 		return pwElement;
 	}
 
+	/**
+	 * Returns the property that has been modified, or null if any property may
+	 * have been modified.
+	 * 
+	 * @return the modified property or null.
+	 */
+	Object getProperty() {
+		return property;
+	}
+
 	/**
 	 * Check if the given static property may have been modified in this event. Note
 	 * that this method does not apply to coordinate properties (position, size),
@@ -20,6 +20,7 @@ import java.util.Set;
 
 import org.pathvisio.libgpml.model.type.ObjectType;
 import org.pathvisio.libgpml.prop.StaticProperty;
+import org.pathvisio.libgpml.util.InternPool;
 import org.pathvisio.libgpml.util.Utils;
 
 /**
@@ -73,6 +74,7 @@ public class Shape extends ShapedElement {
 	@Override
 	public void setTextLabel(String v) {
 		if (v != null && !Utils.stringEquals(textLabel, v)) {
+			propertyChanging(StaticProperty.TEXTLABEL);
 			textLabel = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.TEXTLABEL));
 		}
@@ -105,6 +107,18 @@ public class Shape extends ShapedElement {
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
+	/**
+	 * Replaces the text label of this shape with equal values of the given
+	 * pool. Called by {@link PathwayModel#internValues(InternPool)}.
+	 *
+	 * @param pool the intern pool.
+	 */
+	@Override
+	void internValues(InternPool pool) {
+		super.internValues(pool);
+		textLabel = pool.intern(textLabel);
+	}
+
 	/**
 	 * Copies this pathway element.
 	 *
@@ -121,6 +135,10 @@ public class Shape extends ShapedElement {
 	// ================================================================================
 	// Property Methods
 	// ================================================================================
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(ShapedElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.TEXTLABEL);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -128,9 +146,7 @@ public class Shape extends ShapedElement {
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		result.add(StaticProperty.TEXTLABEL);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
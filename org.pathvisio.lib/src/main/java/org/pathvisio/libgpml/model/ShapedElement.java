@@ -20,7 +20,6 @@ import java.awt.Color;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.util.EnumSet;
 import java.util.Set;
 
 import org.pathvisio.libgpml.debug.Logger;
@@ -30,7 +29,6 @@ import org.pathvisio.libgpml.model.LineElement.LinePoint;
 import org.pathvisio.libgpml.model.shape.IShape;
 import org.pathvisio.libgpml.model.type.HAlignType;
 import org.pathvisio.libgpml.model.type.LineStyleType;
-import org.pathvisio.libgpml.model.type.ShapeType;
 import org.pathvisio.libgpml.model.type.VAlignType;
 import org.pathvisio.libgpml.prop.StaticProperty;
 import org.pathvisio.libgpml.util.Utils;
@@ -49,24 +47,13 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	private double centerY;
 	private double width;
 	private double height;
-	// font properties
-	private Color textColor = Color.decode("#000000"); // black
-	private String fontName = "Arial"; // Arial
-	private boolean fontWeight = false; // bold or normal
-	private boolean fontStyle = false; // italic or normal
-	private boolean fontDecoration = false; // underline or normal
-	private boolean fontStrikethru = false;// strikethru or normal
-	private double fontSize = 12; // allows 0.5 sizes
-	private HAlignType hAlign = HAlignType.CENTER; // horizontal alignment of text
-	private VAlignType vAlign = VAlignType.MIDDLE; // vertical alignment of text
-	// shape style properties
-	private Color borderColor = Color.decode("#000000"); // black
-	private LineStyleType borderStyle = LineStyleType.SOLID; // solid
-	private double borderWidth = 1.0;
-	private Color fillColor = Color.decode("#ffffff"); // white
-	private IShape shapeType = ShapeType.RECTANGLE; // rectangle
+	// font and shape style properties, shared by elements with equal styling
+	private ShapedStyle style = ShapedStyle.DEFAULT;
 	private int zOrder; // optional
 	private double rotation = 0; // optional, in radians
+	// cached bounds, cleared when coordinates, size or rotation change
+	private Rectangle2D boundsCache;
+	private Rectangle2D rotatedBoundsCache;
 
 	// ================================================================================
 	// Constructors
@@ -152,6 +139,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @param v the given group to set.
 	 */
 	private void setGroupRef(Group v) {
+		propertyChanging(StaticProperty.GROUPREF);
 		groupRef = v;
 		fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.GROUPREF));
 	}
@@ -193,9 +181,11 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	public void setCenterX(double v) {
 		if (centerX != v) {
 			if (v < 0) {
-				Logger.log.trace("Warning: negative x coordinate " + String.valueOf(v));
+				Logger.log.trace(() -> "Warning: negative x coordinate " + String.valueOf(v));
 			}
+			propertyChanging(StaticProperty.CENTERX);
 			centerX = v;
+			invalidateBounds();
 			fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
 		}
 	}
@@ -219,9 +209,11 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	public void setCenterY(double v) {
 		if (centerY != v) {
 			if (v < 0) {
-				Logger.log.trace("Warning: negative y coordinate " + String.valueOf(v));
+				Logger.log.trace(() -> "Warning: negative y coordinate " + String.valueOf(v));
 			}
+			propertyChanging(StaticProperty.CENTERY);
 			centerY = v;
+			invalidateBounds();
 			fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
 		}
 	}
@@ -247,7 +239,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 			throw new IllegalArgumentException("Tried to set dimension < 0: " + v);
 		}
 		if (width != v) {
+			propertyChanging(StaticProperty.WIDTH);
 			width = v;
+			invalidateBounds();
 			fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
 		}
 	}
@@ -273,11 +267,41 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 			throw new IllegalArgumentException("Tried to set dimension < 0: " + v);
 		}
 		if (height != v) {
+			propertyChanging(StaticProperty.HEIGHT);
 			height = v;
+			invalidateBounds();
 			fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
 		}
 	}
 
+	/**
+	 * Returns the font and shape style of this shaped pathway element, which is
+	 * shared with shaped pathway elements with equal styling.
+	 *
+	 * @return the shared style.
+	 */
+	ShapedStyle getStyle() {
+		return style;
+	}
+
+	/**
+	 * Sets the font and shape style of this shaped pathway element to the given
+	 * shared style. Used by {@link BinaryFormatReader}.
+	 *
+	 * @param v the shared style.
+	 * @throws IllegalArgumentException if style null.
+	 */
+	void setStyle(ShapedStyle v) {
+		if (v == null) {
+			throw new IllegalArgumentException("Invalid style.");
+		}
+		if (style != v) {
+			propertiesChanging();
+			style = v;
+			fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
+		}
+	}
+
 	// ================================================================================
 	// Font Graphics Properties
 	// ================================================================================
@@ -287,11 +311,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return textColor the color of text.
 	 */
 	public Color getTextColor() {
-		if (textColor == null) {
-			return Color.decode("#000000"); // black
-		} else {
-			return textColor;
-		}
+		return style.getTextColor();
 	}
 
 	/**
@@ -304,7 +324,8 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 		if (v == null) {
 			throw new IllegalArgumentException();
 		} else {
-			textColor = v;
+			propertyChanging(StaticProperty.TEXTCOLOR);
+			style = style.withTextColor(v);
 		}
 	}
 
@@ -315,11 +336,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return fontName the name of the font.
 	 */
 	public String getFontName() {
-		if (fontName == null) {
-			return "Arial";
-		} else {
-			return fontName;
-		}
+		return style.getFontName();
 	}
 
 	/**
@@ -333,8 +350,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 		if (v == null) {
 			throw new IllegalArgumentException();
 		}
-		if (!Utils.stringEquals(fontName, v)) {
-			fontName = v;
+		if (!Utils.stringEquals(style.getFontName(), v)) {
+			propertyChanging(StaticProperty.FONTNAME);
+			style = style.withFontName(v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.FONTNAME));
 		}
 	}
@@ -347,7 +365,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *
 	 */
 	public boolean getFontWeight() {
-		return fontWeight;
+		return style.hasFontFlag(ShapedStyle.FONT_WEIGHT);
 	}
 
 	/**
@@ -357,8 +375,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *          normal.
 	 */
 	public void setFontWeight(boolean v) {
-		if (fontWeight != v) {
-			fontWeight = v;
+		if (style.hasFontFlag(ShapedStyle.FONT_WEIGHT) != v) {
+			propertyChanging(StaticProperty.FONTWEIGHT);
+			style = style.withFontFlag(ShapedStyle.FONT_WEIGHT, v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.FONTWEIGHT));
 		}
 	}
@@ -372,7 +391,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *
 	 */
 	public boolean getFontStyle() {
-		return fontStyle;
+		return style.hasFontFlag(ShapedStyle.FONT_STYLE);
 	}
 
 	/**
@@ -382,8 +401,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *          typographic style is normal.
 	 */
 	public void setFontStyle(boolean v) {
-		if (fontStyle != v) {
-			fontStyle = v;
+		if (style.hasFontFlag(ShapedStyle.FONT_STYLE) != v) {
+			propertyChanging(StaticProperty.FONTSTYLE);
+			style = style.withFontFlag(ShapedStyle.FONT_STYLE, v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.FONTSTYLE));
 		}
 	}
@@ -396,7 +416,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *
 	 */
 	public boolean getFontDecoration() {
-		return fontDecoration;
+		return style.hasFontFlag(ShapedStyle.FONT_DECORATION);
 	}
 
 	/**
@@ -406,8 +426,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *          typographic style is normal.
 	 */
 	public void setFontDecoration(boolean v) {
-		if (fontDecoration != v) {
-			fontDecoration = v;
+		if (style.hasFontFlag(ShapedStyle.FONT_DECORATION) != v) {
+			propertyChanging(StaticProperty.FONTDECORATION);
+			style = style.withFontFlag(ShapedStyle.FONT_DECORATION, v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.FONTDECORATION));
 		}
 	}
@@ -419,7 +440,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *         If false, typographic style is normal.
 	 */
 	public boolean getFontStrikethru() {
-		return fontStrikethru;
+		return style.hasFontFlag(ShapedStyle.FONT_STRIKETHRU);
 	}
 
 	/**
@@ -429,8 +450,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *          typographic style is normal.
 	 */
 	public void setFontStrikethru(boolean v) {
-		if (fontStrikethru != v) {
-			fontStrikethru = v;
+		if (style.hasFontFlag(ShapedStyle.FONT_STRIKETHRU) != v) {
+			propertyChanging(StaticProperty.FONTSTRIKETHRU);
+			style = style.withFontFlag(ShapedStyle.FONT_STRIKETHRU, v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.FONTSTRIKETHRU));
 		}
 	}
@@ -442,11 +464,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *
 	 */
 	public double getFontSize() {
-		if (fontSize < 0) {
-			return 12;
-		} else {
-			return fontSize;
-		}
+		return style.getFontSize();
 	}
 
 	/**
@@ -460,8 +478,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 		if (v < 0) {
 			throw new IllegalArgumentException("Tried to set font size < 0: " + v);
 		}
-		if (fontSize != v) {
-			fontSize = Math.round(v * 2) / 2.0; // round to nearest 0.5
+		if (style.getFontSize() != v) {
+			propertyChanging(StaticProperty.FONTSIZE);
+			style = style.withFontSize(Math.round(v * 2) / 2.0); // round to nearest 0.5
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.FONTSIZE));
 		}
 	}
@@ -473,11 +492,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return hAlign the horizontal alignment value of displayed text.
 	 */
 	public HAlignType getHAlign() {
-		if (hAlign == null) {
-			return HAlignType.CENTER;
-		} else {
-			return hAlign;
-		}
+		return style.getHAlign();
 	}
 
 	/**
@@ -486,8 +501,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @param v the horizontal alignment value of displayed text.
 	 */
 	public void setHAlign(HAlignType v) {
-		if (v != null && hAlign != v) {
-			hAlign = v;
+		if (v != null && style.getHAlign() != v) {
+			propertyChanging(StaticProperty.HALIGN);
+			style = style.withHAlign(v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.HALIGN));
 		}
 	}
@@ -498,11 +514,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return vAlign the vertical alignment value of displayed text.
 	 */
 	public VAlignType getVAlign() {
-		if (vAlign == null) {
-			return VAlignType.MIDDLE;
-		} else {
-			return vAlign;
-		}
+		return style.getVAlign();
 	}
 
 	/**
@@ -512,8 +524,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 *
 	 */
 	public void setVAlign(VAlignType v) {
-		if (v != null && vAlign != v) {
-			vAlign = v;
+		if (v != null && style.getVAlign() != v) {
+			propertyChanging(StaticProperty.VALIGN);
+			style = style.withVAlign(v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.VALIGN));
 		}
 	}
@@ -527,11 +540,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return borderColor the border color of this shaped pathway element.
 	 */
 	public Color getBorderColor() {
-		if (borderColor == null) {
-			return Color.decode("#000000"); // black
-		} else {
-			return borderColor;
-		}
+		return style.getBorderColor();
 	}
 
 	/**
@@ -544,8 +553,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 		if (v == null) {
 			throw new IllegalArgumentException();
 		}
-		if (borderColor != v) {
-			borderColor = v;
+		if (!v.equals(style.getBorderColor())) {
+			propertyChanging(StaticProperty.BORDERCOLOR);
+			style = style.withBorderColor(v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.BORDERCOLOR));
 		}
 	}
@@ -556,11 +566,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return borderStyle the style of a border.
 	 */
 	public LineStyleType getBorderStyle() {
-		if (borderStyle == null) {
-			return LineStyleType.SOLID;
-		} else {
-			return borderStyle;
-		}
+		return style.getBorderStyle();
 	}
 
 	/**
@@ -569,8 +575,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @param v the style of a border.
 	 */
 	public void setBorderStyle(LineStyleType v) {
-		if (v != null && borderStyle != v) {
-			borderStyle = v;
+		if (v != null && style.getBorderStyle() != v) {
+			propertyChanging(StaticProperty.BORDERSTYLE);
+			style = style.withBorderStyle(v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.BORDERSTYLE));
 		}
 	}
@@ -581,7 +588,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return borderWidth the width of a border.
 	 */
 	public double getBorderWidth() {
-		return borderWidth;
+		return style.getBorderWidth();
 	}
 
 	/**
@@ -594,8 +601,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 		if (v < 0) {
 			throw new IllegalArgumentException();
 		}
-		if (borderWidth != v) {
-			borderWidth = v;
+		if (style.getBorderWidth() != v) {
+			propertyChanging(StaticProperty.BORDERWIDTH);
+			style = style.withBorderWidth(v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.BORDERWIDTH));
 		}
 	}
@@ -607,7 +615,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return fillColor the fill color of this shaped pathway element.
 	 */
 	public Color getFillColor() {
-		return fillColor;
+		return style.getFillColor();
 	}
 
 	/**
@@ -621,8 +629,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 		if (v == null) {
 			throw new IllegalArgumentException();
 		}
-		if (fillColor != v) {
-			fillColor = v;
+		if (!v.equals(style.getFillColor())) {
+			propertyChanging(StaticProperty.FILLCOLOR);
+			style = style.withFillColor(v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.FILLCOLOR));
 		}
 	}
@@ -637,11 +646,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 * @return shapeType the visual appearance of this shaped pathway element.
 	 */
 	public IShape getShapeType() {
-		if (shapeType == null) {
-			return ShapeType.RECTANGLE;
-		} else {
-			return shapeType;
-		}
+		return style.getShapeType();
 	}
 
 	/**
@@ -658,8 +663,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 		if (v == null) {
 			throw new IllegalArgumentException();
 		}
-		if (shapeType != v) {
-			shapeType = v;
+		if (style.getShapeType() != v) {
+			propertyChanging(StaticProperty.SHAPETYPE);
+			style = style.withShapeType(v);
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.SHAPETYPE));
 		}
 	}
@@ -682,6 +688,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	@Override
 	public void setZOrder(int v) {
 		if (zOrder != v) {
+			propertyChanging(StaticProperty.ZORDER);
 			zOrder = v;
 			fireObjectModifiedEvent(PathwayObjectEvent.createSinglePropertyEvent(this, StaticProperty.ZORDER));
 		}
@@ -703,7 +710,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 */
 	public void setRotation(Double v) {
 		if (rotation != v) {
+			propertyChanging(StaticProperty.ROTATION);
 			rotation = v;
+			invalidateBounds();
 			fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
 		}
 	}
@@ -746,31 +755,96 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	// ================================================================================
 	/**
 	 * Returns the rectangular bounds of this shaped pathway element after rotation
-	 * is applied.
+	 * is applied. The bounds are cached until the coordinates, size or rotation of
+	 * this pathway element change.
 	 *
 	 * @return the rectangular bounds for this shaped pathway element with rotation
 	 *         taken into account.
 	 */
 	@Override
 	public Rectangle2D getRotatedBounds() {
-		Rectangle2D bounds = getBounds();
-		AffineTransform t = new AffineTransform();
-		t.rotate(getRotation(), getCenterX(), getCenterY());
-		bounds = t.createTransformedShape(bounds).getBounds2D();
-		return bounds;
+		return (Rectangle2D) rotatedBounds().clone();
 	}
 
 	/**
 	 * Returns the rectangular bounds of this shaped pathway element without
-	 * rotation taken into account.
+	 * rotation taken into account. The bounds are cached until the coordinates or
+	 * size of this pathway element change.
 	 *
 	 * @return the rectangular bounds for this shaped pathway element.
 	 */
 	@Override
 	public Rectangle2D getBounds() {
+		return (Rectangle2D) bounds().clone();
+	}
+
+	/**
+	 * Calculates the rectangular bounds of this shaped pathway element after
+	 * rotation is applied. Called by {@link #getRotatedBounds()} when the cached
+	 * bounds are invalid.
+	 *
+	 * @return the new rectangular bounds with rotation taken into account.
+	 */
+	protected Rectangle2D computeRotatedBounds() {
+		Rectangle2D bounds = bounds();
+		if (getRotation() == 0) {
+			return (Rectangle2D) bounds.clone();
+		}
+		AffineTransform t = new AffineTransform();
+		t.rotate(getRotation(), getCenterX(), getCenterY());
+		return t.createTransformedShape(bounds).getBounds2D();
+	}
+
+	/**
+	 * Calculates the rectangular bounds of this shaped pathway element. Called by
+	 * {@link #getBounds()} when the cached bounds are invalid.
+	 *
+	 * @return the new rectangular bounds.
+	 */
+	protected Rectangle2D computeBounds() {
 		return new Rectangle2D.Double(getLeft(), getTop(), getWidth(), getHeight());
 	}
 
+	/**
+	 * Clears the cached bounds of this shaped pathway element. The parent group, if
+	 * any, is notified so that it can update its own bounds. Nothing is done if
+	 * the bounds were not cached, as then no one depends on them.
+	 */
+	protected void invalidateBounds() {
+		Rectangle2D oldBounds = boundsCache;
+		Rectangle2D oldRotatedBounds = rotatedBoundsCache;
+		if (oldBounds == null && oldRotatedBounds == null) {
+			return;
+		}
+		boundsCache = null;
+		rotatedBoundsCache = null;
+		if (groupRef != null) {
+			groupRef.memberBoundsChanged(this, oldBounds, oldRotatedBounds);
+		}
+	}
+
+	/**
+	 * Returns the cached bounds, calculating them if necessary. The returned
+	 * rectangle must not be modified.
+	 */
+	private Rectangle2D bounds() {
+		if (boundsCache == null) {
+			boundsCache = computeBounds();
+		}
+		return boundsCache;
+	}
+
+	/**
+	 * Returns the cached rotated bounds, calculating them if necessary. The
+	 * returned rectangle must not be modified.
+	 */
+	private Rectangle2D rotatedBounds() {
+		if (rotatedBoundsCache == null) {
+			rotatedBoundsCache = computeRotatedBounds();
+		}
+		return rotatedBoundsCache;
+	}
+
 	/**
 	 * Returns the left x coordinate of the bounding box around (start, end) this
 	 * shaped pathway element.
@@ -788,7 +862,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 */
 	@Override
 	public void setLeft(double v) {
+		propertyChanging(StaticProperty.CENTERX);
 		centerX = v + width / 2;
+		invalidateBounds();
 		fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
 	}
 
@@ -809,7 +885,9 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 */
 	@Override
 	public void setTop(double v) {
+		propertyChanging(StaticProperty.CENTERY);
 		centerY = v + height / 2;
+		invalidateBounds();
 		fireObjectModifiedEvent(PathwayObjectEvent.createCoordinatePropertyEvent(this));
 	}
 
@@ -823,7 +901,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	public Point2D toAbsoluteCoordinate(Point2D p) {
 		double x = p.getX();
 		double y = p.getY();
-		Rectangle2D bounds = getRotatedBounds();
+		Rectangle2D bounds = rotatedBounds();
 		// Scale
 		if (bounds.getWidth() != 0)
 			x *= bounds.getWidth() / 2;
@@ -847,7 +925,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	public Point2D toRelativeCoordinate(Point2D p) {
 		double relX = p.getX();
 		double relY = p.getY();
-		Rectangle2D bounds = getRotatedBounds();
+		Rectangle2D bounds = rotatedBounds();
 		// Translate
 		relX -= bounds.getCenterX();
 		relY -= bounds.getCenterY();
@@ -880,28 +958,25 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 		centerY = src.centerY;
 		width = src.width;
 		height = src.height;
-		textColor = src.textColor;
-		fontName = src.fontName;
-		fontWeight = src.fontWeight;
-		fontStyle = src.fontStyle;
-		fontDecoration = src.fontDecoration;
-		fontStrikethru = src.fontStrikethru;
-		fontSize = src.fontSize;
-		hAlign = src.hAlign;
-		vAlign = src.vAlign;
-		borderColor = src.borderColor;
-		borderStyle = src.borderStyle;
-		borderWidth = src.borderWidth;
-		fillColor = src.fillColor;
-		shapeType = src.shapeType;
+		style = src.style;
 		zOrder = src.zOrder;
 		rotation = src.rotation;
+		invalidateBounds();
 		fireObjectModifiedEvent(PathwayObjectEvent.createAllPropertiesEvent(this));
 	}
 
 	// ================================================================================
 	// Property Methods
 	// ================================================================================
+	/* static property keys of this class, shared by all instances */
+	static final Set<StaticProperty> STATIC_PROPERTY_KEYS = staticPropertyKeys(PathwayElement.STATIC_PROPERTY_KEYS,
+			StaticProperty.GROUPREF, StaticProperty.CENTERX, StaticProperty.CENTERY, StaticProperty.WIDTH,
+			StaticProperty.HEIGHT, StaticProperty.TEXTCOLOR, StaticProperty.FONTNAME, StaticProperty.FONTWEIGHT,
+			StaticProperty.FONTSTYLE, StaticProperty.FONTDECORATION, StaticProperty.FONTSTRIKETHRU,
+			StaticProperty.FONTSIZE, StaticProperty.HALIGN, StaticProperty.VALIGN, StaticProperty.BORDERCOLOR,
+			StaticProperty.BORDERSTYLE, StaticProperty.BORDERWIDTH, StaticProperty.FILLCOLOR, StaticProperty.SHAPETYPE,
+			StaticProperty.ZORDER, StaticProperty.ROTATION);
+
 	/**
 	 * Returns all static properties for this pathway object.
 	 *
@@ -909,16 +984,7 @@ public abstract class ShapedElement extends PathwayElement implements LinkableTo
 	 */
 	@Override
 	public Set<StaticProperty> getStaticPropertyKeys() {
-		Set<StaticProperty> result = super.getStaticPropertyKeys();
-		Set<StaticProperty> propsShapedElement = EnumSet.of(StaticProperty.GROUPREF, StaticProperty.CENTERX,
-				StaticProperty.CENTERY, StaticProperty.WIDTH, StaticProperty.HEIGHT, StaticProperty.TEXTCOLOR,
-				StaticProperty.FONTNAME, StaticProperty.FONTWEIGHT, StaticProperty.FONTSTYLE,
-				StaticProperty.FONTDECORATION, StaticProperty.FONTSTRIKETHRU, StaticProperty.FONTSIZE,
-				StaticProperty.HALIGN, StaticProperty.VALIGN, StaticProperty.BORDERCOLOR, StaticProperty.BORDERSTYLE,
-				StaticProperty.BORDERWIDTH, StaticProperty.FILLCOLOR, StaticProperty.SHAPETYPE, StaticProperty.ZORDER,
-				StaticProperty.ROTATION);
-		result.addAll(propsShapedElement);
-		return result;
+		return STATIC_PROPERTY_KEYS;
 	}
 
 	/**
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.pathvisio.libgpml.model.shape.IShape;
+import org.pathvisio.libgpml.model.type.HAlignType;
+import org.pathvisio.libgpml.model.type.LineStyleType;
+import org.pathvisio.libgpml.model.type.ShapeType;
+import org.pathvisio.libgpml.model.type.VAlignType;
+
+/**
+ * Font and shape style graphics properties of a {@link ShapedElement}. Styles
+ * are immutable and shared by all shaped pathway elements with equal styling:
+ * each change returns the shared style with the new value. Font flags are packed
+ * in a single int.
+ *
+ * <p>
+ * Shared styles are held in a concurrent map of weak references, so that
+ * pathway models may be read in several threads, and a style is dropped when no
+ * shaped pathway element uses it anymore.
+ */
+final class ShapedStyle {
+
+	static final int FONT_WEIGHT = 1; // bold
+	static final int FONT_STYLE = 2; // italic
+	static final int FONT_DECORATION = 4; // underline
+	static final int FONT_STRIKETHRU = 8; // strikethru
+
+	// shared styles, held as long as a shaped pathway element uses them
+	private static final ConcurrentMap<StyleRef, StyleRef> STYLES = new ConcurrentHashMap<StyleRef, StyleRef>();
+	private static final ReferenceQueue<ShapedStyle> CLEARED = new ReferenceQueue<ShapedStyle>();
+
+	/**
+	 * The default style of a shaped pathway element.
+	 */
+	static final ShapedStyle DEFAULT = share(new ShapedStyle(Color.BLACK, "Arial", 0, 12, HAlignType.CENTER,
+			VAlignType.MIDDLE, Color.BLACK, LineStyleType.SOLID, 1.0, Color.WHITE, ShapeType.RECTANGLE));
+
+	// font properties
+	private final Color textColor;
+	private final String fontName;
+	private final int fontFlags;
+	private final double fontSize; // allows 0.5 sizes
+	private final HAlignType hAlign; // horizontal alignment of text
+	private final VAlignType vAlign; // vertical alignment of text
+	// shape style properties
+	private final Color borderColor;
+	private final LineStyleType borderStyle;
+	private final double borderWidth;
+	private final Color fillColor;
+	private final IShape shapeType;
+	private final int hash;
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates a style with the given values, to be shared by {@link #share}.
+	 */
+	private ShapedStyle(Color textColor, String fontName, int fontFlags, double fontSize, HAlignType hAlign,
+			VAlignType vAlign, Color borderColor, LineStyleType borderStyle, double borderWidth, Color fillColor,
+			IShape shapeType) {
+		this.textColor = textColor;
+		this.fontName = fontName;
+		this.fontFlags = fontFlags;
+		this.fontSize = fontSize;
+		this.hAlign = hAlign;
+		this.vAlign = vAlign;
+		this.borderColor = borderColor;
+		this.borderStyle = borderStyle;
+		this.borderWidth = borderWidth;
+		this.fillColor = fillColor;
+		this.shapeType = shapeType;
+		int h = Objects.hashCode(textColor);
+		h = 31 * h + Objects.hashCode(fontName);
+		h = 31 * h + fontFlags;
+		h = 31 * h + Double.hashCode(fontSize);
+		h = 31 * h + Objects.hashCode(hAlign);
+		h = 31 * h + Objects.hashCode(vAlign);
+		h = 31 * h + Objects.hashCode(borderColor);
+		h = 31 * h + Objects.hashCode(borderStyle);
+		h = 31 * h + Double.hashCode(borderWidth);
+		h = 31 * h + Objects.hashCode(fillColor);
+		this.hash = 31 * h + System.identityHashCode(shapeType);
+	}
+
+	/**
+	 * Returns the shared style equal to the given new style. The given style is
+	 * shared if no equal style is in use. References to styles which are no
+	 * longer used are removed first.
+	 *
+	 * @param style the new style.
+	 * @return the shared style.
+	 */
+	private static ShapedStyle share(ShapedStyle style) {
+		Reference<? extends ShapedStyle> cleared;
+		while ((cleared = CLEARED.poll()) != null) {
+			STYLES.remove(cleared, cleared);
+		}
+		StyleRef ref = new StyleRef(style, CLEARED);
+		while (true) {
+			StyleRef existing = STYLES.putIfAbsent(ref, ref);
+			if (existing == null) {
+				return style;
+			}
+			ShapedStyle shared = existing.get();
+			if (shared != null) {
+				return shared;
+			}
+			// cleared but not yet removed
+			STYLES.remove(existing, existing);
+		}
+	}
+
+	// ================================================================================
+	// Accessors
+	// ================================================================================
+	Color getTextColor() {
+		return textColor;
+	}
+
+	String getFontName() {
+		return fontName;
+	}
+
+	boolean hasFontFlag(int flag) {
+		return (fontFlags & flag) != 0;
+	}
+
+	double getFontSize() {
+		return fontSize;
+	}
+
+	HAlignType getHAlign() {
+		return hAlign;
+	}
+
+	VAlignType getVAlign() {
+		return vAlign;
+	}
+
+	Color getBorderColor() {
+		return borderColor;
+	}
+
+	LineStyleType getBorderStyle() {
+		return borderStyle;
+	}
+
+	double getBorderWidth() {
+		return borderWidth;
+	}
+
+	Color getFillColor() {
+		return fillColor;
+	}
+
+	IShape getShapeType() {
+		return shapeType;
+	}
+
+	// ================================================================================
+	// Change Methods
+	// ================================================================================
+	ShapedStyle withTextColor(Color v) {
+		return share(new ShapedStyle(v, fontName, fontFlags, fontSize, hAlign, vAlign, borderColor, borderStyle,
+				borderWidth, fillColor, shapeType));
+	}
+
+	ShapedStyle withFontName(String v) {
+		return share(new ShapedStyle(textColor, v, fontFlags, fontSize, hAlign, vAlign, borderColor, borderStyle,
+				borderWidth, fillColor, shapeType));
+	}
+
+	ShapedStyle withFontFlag(int flag, boolean v) {
+		int flags = v ? fontFlags | flag : fontFlags & ~flag;
+		return share(new ShapedStyle(textColor, fontName, flags, fontSize, hAlign, vAlign, borderColor, borderStyle,
+				borderWidth, fillColor, shapeType));
+	}
+
+	ShapedStyle withFontSize(double v) {
+		return share(new ShapedStyle(textColor, fontName, fontFlags, v, hAlign, vAlign, borderColor, borderStyle,
+				borderWidth, fillColor, shapeType));
+	}
+
+	ShapedStyle withHAlign(HAlignType v) {
+		return share(new ShapedStyle(textColor, fontName, fontFlags, fontSize, v, vAlign, borderColor, borderStyle,
+				borderWidth, fillColor, shapeType));
+	}
+
+	ShapedStyle withVAlign(VAlignType v) {
+		return share(new ShapedStyle(textColor, fontName, fontFlags, fontSize, hAlign, v, borderColor, borderStyle,
+				borderWidth, fillColor, shapeType));
+	}
+
+	ShapedStyle withBorderColor(Color v) {
+		return share(new ShapedStyle(textColor, fontName, fontFlags, fontSize, hAlign, vAlign, v, borderStyle,
+				borderWidth, fillColor, shapeType));
+	}
+
+	ShapedStyle withBorderStyle(LineStyleType v) {
+		return share(new ShapedStyle(textColor, fontName, fontFlags, fontSize, hAlign, vAlign, borderColor, v,
+				borderWidth, fillColor, shapeType));
+	}
+
+	ShapedStyle withBorderWidth(double v) {
+		return share(new ShapedStyle(textColor, fontName, fontFlags, fontSize, hAlign, vAlign, borderColor,
+				borderStyle, v, fillColor, shapeType));
+	}
+
+	ShapedStyle withFillColor(Color v) {
+		return share(new ShapedStyle(textColor, fontName, fontFlags, fontSize, hAlign, vAlign, borderColor,
+				borderStyle, borderWidth, v, shapeType));
+	}
+
+	ShapedStyle withShapeType(IShape v) {
+		return share(new ShapedStyle(textColor, fontName, fontFlags, fontSize, hAlign, vAlign, borderColor,
+				borderStyle, borderWidth, fillColor, v));
+	}
+
+	// ================================================================================
+	// Equality Methods
+	// ================================================================================
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ShapedStyle)) {
+			return false;
+		}
+		ShapedStyle other = (ShapedStyle) obj;
+		return hash == other.hash && fontFlags == other.fontFlags && Double.compare(fontSize, other.fontSize) == 0
+				&& Double.compare(borderWidth, other.borderWidth) == 0 && hAlign == other.hAlign
+				&& vAlign == other.vAlign && borderStyle == other.borderStyle && shapeType == other.shapeType
+				&& Objects.equals(textColor, other.textColor) && Objects.equals(fontName, other.fontName)
+				&& Objects.equals(borderColor, other.borderColor) && Objects.equals(fillColor, other.fillColor);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	// ================================================================================
+	// StyleRef Class
+	// ================================================================================
+	/**
+	 * Weak reference to a shared style, which is equal to references to equal
+	 * styles. A cleared reference is only equal to itself, so that it can still be
+	 * removed from the map of shared styles.
+	 */
+	private static final class StyleRef extends WeakReference<ShapedStyle> {
+		private final int hash;
+
+		StyleRef(ShapedStyle style, ReferenceQueue<ShapedStyle> queue) {
+			super(style, queue);
+			hash = style.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof StyleRef)) {
+				return false;
+			}
+			ShapedStyle style = get();
+			return style != null && style.equals(((StyleRef) obj).get());
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,846 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.PathwayElement.AnnotationRef;
+import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.PathwayElement.EvidenceRef;
+import org.pathvisio.libgpml.model.Referenceable.Annotatable;
+import org.pathvisio.libgpml.model.Referenceable.Citable;
+import org.pathvisio.libgpml.model.Referenceable.Evidenceable;
+import org.pathvisio.libgpml.model.type.AnchorShapeType;
+import org.pathvisio.libgpml.prop.StaticProperty;
+
+/**
+ * Operation journal for undo and redo of changes to a {@link PathwayModel}.
+ * Instead of copying the whole pathway model for each undo step, the journal
+ * records the changes themselves:
+ * <ul>
+ * <li>static property changes, with the old value, including links (groupRef,
+ * aliasRef, start and end elementRef).
+ * <li>line point moves, with the old position and link.
+ * <li>anchor moves and shape type changes, with the old position and shape
+ * type.
+ * <li>additions of pathway elements, states and anchors.
+ * <li>removals of pathway elements, states and anchors.
+ * </ul>
+ * Changes are grouped into edits with {@link #checkpoint()}. Undoing an edit
+ * costs time proportional to the number of changes in the edit, not to the size
+ * of the pathway model. Undoing an edit records the inverse changes as the
+ * edit to redo, and vice versa.
+ *
+ * <p>
+ * The journal keeps no copy of the pathway model. Setters of journaled static
+ * properties call {@link PathwayObject#propertyChanging} before the change, and
+ * only the old value of the changed static property is recorded.
+ *
+ * <p>
+ * The history is bounded by the total number of recorded changes; the oldest
+ * edits are dropped when the bound is exceeded.
+ *
+ * <p>
+ * NB: Changes to comments, authors, dynamic properties and annotation,
+ * citation and evidence references are not journaled. The references of a
+ * removed pathway element are restored when its removal is undone.
+ */
+public final class UndoJournal {
+
+	/* static properties which are not journaled, e.g. calculated properties */
+	private static final Set<StaticProperty> IGNORED_KEYS = EnumSet.of(StaticProperty.ELEMENTID,
+			StaticProperty.BOARDWIDTH, StaticProperty.BOARDHEIGHT);
+
+	/* static properties which link to other pathway objects */
+	private static final Set<StaticProperty> LINK_KEYS = EnumSet.of(StaticProperty.GROUPREF, StaticProperty.ALIASREF,
+			StaticProperty.STARTELEMENTREF, StaticProperty.ENDELEMENTREF);
+
+	private final PathwayModel pathwayModel;
+	private int maxEntries;
+
+	// removals in progress, completed after the removed object is terminated
+	private final List<Removal> removing = new ArrayList<Removal>();
+
+	private List<Entry> current = new ArrayList<Entry>();
+	private final Deque<List<Entry>> undoStack = new ArrayDeque<List<Entry>>();
+	private final Deque<List<Entry>> redoStack = new ArrayDeque<List<Entry>>();
+	private int entryCount = 0;
+	private boolean reverting = false;
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates an undo journal and attaches it to the given pathway model. All
+	 * changes to the pathway model from now on are recorded.
+	 *
+	 * @param pathwayModel the pathway model to journal.
+	 * @param maxEntries   the maximum number of changes kept in the history.
+	 * @throws IllegalStateException if the pathway model already has a journal.
+	 */
+	public UndoJournal(PathwayModel pathwayModel, int maxEntries) {
+		if (pathwayModel.getUndoJournal() != null) {
+			throw new IllegalStateException("Pathway model already has an undo journal");
+		}
+		setMaxEntries(maxEntries);
+		this.pathwayModel = pathwayModel;
+		pathwayModel.undoJournal = this;
+	}
+
+	// ================================================================================
+	// Accessors
+	// ================================================================================
+	/**
+	 * Returns the pathway model of this journal.
+	 *
+	 * @return the pathway model.
+	 */
+	public PathwayModel getPathwayModel() {
+		return pathwayModel;
+	}
+
+	/**
+	 * Returns the maximum number of changes kept in the history.
+	 *
+	 * @return the maximum number of changes.
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Sets the maximum number of changes kept in the history, and drops the oldest
+	 * edits if necessary.
+	 *
+	 * @param v the maximum number of changes.
+	 */
+	public void setMaxEntries(int v) {
+		if (v < 0) {
+			throw new IllegalArgumentException("Maximum number of entries must not be negative");
+		}
+		maxEntries = v;
+		trim();
+	}
+
+	/**
+	 * Returns the number of changes in the history, including the current edit.
+	 *
+	 * @return the number of changes.
+	 */
+	public int getEntryCount() {
+		return entryCount + current.size();
+	}
+
+	/**
+	 * Returns the number of edits which can be undone, including the current edit
+	 * if it has changes.
+	 *
+	 * @return the number of undoable edits.
+	 */
+	public int getUndoCount() {
+		return undoStack.size() + (current.isEmpty() ? 0 : 1);
+	}
+
+	/**
+	 * Returns the number of edits which can be redone.
+	 *
+	 * @return the number of redoable edits.
+	 */
+	public int getRedoCount() {
+		return redoStack.size();
+	}
+
+	/**
+	 * Returns true if there is an edit to undo.
+	 *
+	 * @return true if undo is possible.
+	 */
+	public boolean canUndo() {
+		return getUndoCount() > 0;
+	}
+
+	/**
+	 * Returns true if there is an edit to redo.
+	 *
+	 * @return true if redo is possible.
+	 */
+	public boolean canRedo() {
+		return !redoStack.isEmpty();
+	}
+
+	// ================================================================================
+	// Undo Redo Methods
+	// ================================================================================
+	/**
+	 * Ends the current edit. All changes since the previous checkpoint are undone
+	 * together.
+	 */
+	public void checkpoint() {
+		if (!current.isEmpty()) {
+			undoStack.push(current);
+			entryCount += current.size();
+			current = new ArrayList<Entry>();
+			trim();
+		}
+	}
+
+	/**
+	 * Undoes the last edit. The current edit is ended first.
+	 *
+	 * @throws IllegalStateException if there is nothing to undo.
+	 */
+	public void undo() {
+		checkpoint();
+		if (undoStack.isEmpty()) {
+			throw new IllegalStateException("Nothing to undo");
+		}
+		List<Entry> edit = undoStack.pop();
+		entryCount -= edit.size();
+		redoStack.push(revert(edit));
+		trim();
+	}
+
+	/**
+	 * Redoes the last undone edit.
+	 *
+	 * @throws IllegalStateException if there is nothing to redo.
+	 */
+	public void redo() {
+		checkpoint();
+		if (redoStack.isEmpty()) {
+			throw new IllegalStateException("Nothing to redo");
+		}
+		List<Entry> edit = redoStack.pop();
+		entryCount -= edit.size();
+		undoStack.push(revert(edit));
+		trim();
+	}
+
+	/**
+	 * Clears the history. The pathway model is not changed.
+	 */
+	public void clear() {
+		current = new ArrayList<Entry>();
+		undoStack.clear();
+		redoStack.clear();
+		entryCount = 0;
+	}
+
+	/**
+	 * Detaches this journal from its pathway model. No further changes are
+	 * recorded and the history is cleared.
+	 */
+	public void detach() {
+		if (pathwayModel.undoJournal == this) {
+			pathwayModel.undoJournal = null;
+		}
+		clear();
+	}
+
+	/**
+	 * Reverts the changes of the given edit in reverse order, and returns the
+	 * changes made while reverting, which revert the given edit again.
+	 *
+	 * @param edit the edit to revert.
+	 * @return the inverse edit.
+	 */
+	private List<Entry> revert(List<Entry> edit) {
+		reverting = true;
+		pathwayModel.suspendResizeEvents();
+		try {
+			for (int i = edit.size() - 1; i >= 0; i--) {
+				edit.get(i).revert();
+			}
+		} finally {
+			pathwayModel.resumeResizeEvents();
+			reverting = false;
+		}
+		List<Entry> inverse = current;
+		entryCount += inverse.size();
+		current = new ArrayList<Entry>();
+		return inverse;
+	}
+
+	/**
+	 * Drops the oldest edits until the history is within the maximum number of
+	 * changes. Edits to redo are dropped first.
+	 */
+	private void trim() {
+		while (getEntryCount() > maxEntries && (!redoStack.isEmpty() || !undoStack.isEmpty())) {
+			List<Entry> edit = redoStack.isEmpty() ? undoStack.removeLast() : redoStack.removeLast();
+			entryCount -= edit.size();
+		}
+	}
+
+	/**
+	 * Records the given change in the current edit. A new change outside of undo
+	 * and redo clears the edits to redo.
+	 *
+	 * @param entry the change.
+	 */
+	private void record(Entry entry) {
+		if (!reverting && !redoStack.isEmpty()) {
+			for (List<Entry> edit : redoStack) {
+				entryCount -= edit.size();
+			}
+			redoStack.clear();
+		}
+		current.add(entry);
+	}
+
+	// ================================================================================
+	// Pathway Model Hooks
+	// ================================================================================
+	/**
+	 * Called by a pathway object before the given static property changes.
+	 * Records the old value, unless the pathway object is not (yet) part of the
+	 * pathway model or the static property is not journaled. Of consecutive
+	 * changes to the same static property only the first old value is recorded,
+	 * e.g. while dragging a pathway element.
+	 *
+	 * @param o   the pathway object to be modified.
+	 * @param key the static property about to change.
+	 */
+	void propertyChanging(PathwayObject o, StaticProperty key) {
+		if (IGNORED_KEYS.contains(key) || !isInModel(o)) {
+			return;
+		}
+		Entry last = current.isEmpty() ? null : current.get(current.size() - 1);
+		if (last instanceof PropertyChange && ((PropertyChange) last).o == o && ((PropertyChange) last).key == key) {
+			return;
+		}
+		Object value = getValue(o, key);
+		if (!(value instanceof Collection)) {
+			record(new PropertyChange(o, key, value));
+		}
+	}
+
+	/**
+	 * Called by a pathway object before several static properties change at
+	 * once. Records the old values of all journaled static properties.
+	 *
+	 * @param o the pathway object to be modified.
+	 */
+	void propertiesChanging(PathwayObject o) {
+		if (!isInModel(o)) {
+			return;
+		}
+		for (Map.Entry<StaticProperty, Object> e : getValues(o).entrySet()) {
+			record(new PropertyChange(o, e.getKey(), e.getValue()));
+		}
+	}
+
+	/**
+	 * Called by a line point before its position or link changes. Records the old
+	 * position and link. Of consecutive changes to the same line point only the
+	 * first is recorded.
+	 *
+	 * @param point the line point to be modified.
+	 */
+	void pointChanging(LinePoint point) {
+		if (!isInModel(point)) {
+			return;
+		}
+		Entry last = current.isEmpty() ? null : current.get(current.size() - 1);
+		if (last instanceof PointChange && ((PointChange) last).point == point) {
+			return;
+		}
+		record(new PointChange(point));
+	}
+
+	/**
+	 * Called by an anchor before its position or shape type changes. Records the
+	 * old position and shape type. Of consecutive changes to the same anchor only
+	 * the first is recorded.
+	 *
+	 * @param anchor the anchor to be modified.
+	 */
+	void anchorChanging(Anchor anchor) {
+		if (!isInModel(anchor)) {
+			return;
+		}
+		Entry last = current.isEmpty() ? null : current.get(current.size() - 1);
+		if (last instanceof AnchorChange && ((AnchorChange) last).anchor == anchor) {
+			return;
+		}
+		record(new AnchorChange(anchor));
+	}
+
+	/**
+	 * Called by the pathway model after a pathway object is added.
+	 *
+	 * @param o the added pathway object.
+	 */
+	void objectAdded(PathwayObject o) {
+		// states and anchors added together with their parent are not recorded
+		if (isJournaled(o) && isParentAdded(o)) {
+			record(new Addition(o));
+		}
+	}
+
+	/**
+	 * Called by the pathway model before a pathway object is removed, while its
+	 * values and links are still intact. The links of the pathway object are
+	 * recorded before the changes the removal causes, e.g. removal of an emptied
+	 * group, so that they are restored after these changes are reverted.
+	 *
+	 * @param o the pathway object to be removed.
+	 */
+	void objectRemoving(PathwayObject o) {
+		if (!isJournaled(o)) {
+			removing.add(null);
+			return;
+		}
+		Map<StaticProperty, Object> links = new EnumMap<StaticProperty, Object>(StaticProperty.class);
+		for (StaticProperty key : LINK_KEYS) {
+			if (o.getStaticPropertyKeys().contains(key)) {
+				Object value = getValue(o, key);
+				if (value != null) {
+					links.put(key, value);
+				}
+			}
+		}
+		if (!links.isEmpty()) {
+			record(new Relink(o, links));
+		}
+		removing.add(new Removal(o));
+	}
+
+	/**
+	 * Called by the pathway model after a pathway object is removed. The removal
+	 * is recorded after the changes to other pathway objects it caused, so that
+	 * it is reverted first.
+	 *
+	 * @param o the removed pathway object.
+	 */
+	void objectRemoved(PathwayObject o) {
+		Removal removal = removing.remove(removing.size() - 1);
+		if (removal != null) {
+			record(removal);
+		}
+	}
+
+	// ================================================================================
+	// Helper Methods
+	// ================================================================================
+	/**
+	 * Returns true if additions and removals of the given pathway object are
+	 * journaled: pathway elements, states and anchors. Line points are part of
+	 * their line.
+	 */
+	private static boolean isJournaled(PathwayObject o) {
+		return (o instanceof PathwayElement && !(o instanceof Pathway)) || o instanceof Anchor;
+	}
+
+	/**
+	 * Returns true if the parent data node or line of the given state or anchor
+	 * is already part of the pathway model, or if the pathway object has no
+	 * parent.
+	 */
+	private boolean isParentAdded(PathwayObject o) {
+		PathwayObject parent = null;
+		if (o instanceof State) {
+			parent = ((State) o).getDataNode();
+		} else if (o instanceof Anchor) {
+			parent = ((Anchor) o).getLineElement();
+		}
+		return parent == null || isInModel(parent);
+	}
+
+	/**
+	 * Returns true if the given pathway object is part of the pathway model.
+	 */
+	private boolean isInModel(PathwayObject o) {
+		String elementId = o.getElementId();
+		return elementId != null && pathwayModel.getPathwayObject(elementId) == o;
+	}
+
+	/**
+	 * Returns the journaled static property values of the given pathway object.
+	 * Values which are collections are not journaled.
+	 */
+	private static Map<StaticProperty, Object> getValues(PathwayObject o) {
+		Map<StaticProperty, Object> result = new EnumMap<StaticProperty, Object>(StaticProperty.class);
+		for (StaticProperty key : o.getStaticPropertyKeys()) {
+			if (!IGNORED_KEYS.contains(key)) {
+				Object value = getValue(o, key);
+				if (!(value instanceof Collection)) {
+					result.put(key, value);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the journaled value of the given static property. The start and end
+	 * elementRef of a line are returned as {@link Link}, which includes the
+	 * relative position of the line point.
+	 */
+	private static Object getValue(PathwayObject o, StaticProperty key) {
+		Object value = o.getStaticProperty(key);
+		if (value != null && (key == StaticProperty.STARTELEMENTREF || key == StaticProperty.ENDELEMENTREF)) {
+			LineElement line = (LineElement) o;
+			LinePoint point = key == StaticProperty.STARTELEMENTREF ? line.getStartLinePoint()
+					: line.getEndLinePoint();
+			value = new Link((LinkableTo) value, point.getRelX(), point.getRelY());
+		}
+		return value;
+	}
+
+	/**
+	 * Sets the given static property to the given journaled value, unless the
+	 * pathway object or the linked pathway object is not part of the pathway
+	 * model.
+	 */
+	private void setValue(PathwayObject o, StaticProperty key, Object value) {
+		if (o.getPathwayModel() != pathwayModel) {
+			return;
+		}
+		Object target = value instanceof Link ? ((Link) value).elementRef : value;
+		if (target instanceof PathwayObject && ((PathwayObject) target).getPathwayModel() != pathwayModel) {
+			return;
+		}
+		if (Objects.equals(getValue(o, key), value)) {
+			return;
+		}
+		if (value instanceof Link) {
+			LineElement line = (LineElement) o;
+			LinePoint point = key == StaticProperty.STARTELEMENTREF ? line.getStartLinePoint()
+					: line.getEndLinePoint();
+			Link link = (Link) value;
+			point.linkTo(link.elementRef, link.relX, link.relY);
+		} else if (key == StaticProperty.GROUPREF) {
+			// keep group members in sync, unlike setStaticProperty
+			if (value == null) {
+				((Groupable) o).unsetGroupRef();
+			} else {
+				((Groupable) o).setGroupRefTo((Group) value);
+			}
+		} else {
+			o.setStaticProperty(key, value);
+		}
+	}
+
+	// ================================================================================
+	// Entry Classes
+	// ================================================================================
+	/**
+	 * A recorded change, which can be reverted.
+	 */
+	private abstract static class Entry {
+
+		/**
+		 * Reverts this change.
+		 */
+		abstract void revert();
+	}
+
+	/**
+	 * A static property change, reverted by setting the old value.
+	 */
+	private final class PropertyChange extends Entry {
+		private final PathwayObject o;
+		private final StaticProperty key;
+		private final Object oldValue;
+
+		PropertyChange(PathwayObject o, StaticProperty key, Object oldValue) {
+			this.o = o;
+			this.key = key;
+			this.oldValue = oldValue;
+		}
+
+		@Override
+		void revert() {
+			setValue(o, key, oldValue);
+		}
+	}
+
+	/**
+	 * A line point move, reverted by linking the line point to its old elementRef,
+	 * or moving it to its old position if it was not linked.
+	 */
+	private final class PointChange extends Entry {
+		private final LinePoint point;
+		private final LinkableTo elementRef;
+		private final double relX;
+		private final double relY;
+		private final double x;
+		private final double y;
+
+		PointChange(LinePoint point) {
+			this.point = point;
+			this.elementRef = point.getElementRef();
+			this.relX = point.getRelX();
+			this.relY = point.getRelY();
+			this.x = point.getX();
+			this.y = point.getY();
+		}
+
+		@Override
+		void revert() {
+			if (!isInModel(point)) {
+				return;
+			}
+			if (elementRef != null && ((PathwayObject) elementRef).getPathwayModel() == pathwayModel) {
+				point.linkTo(elementRef, relX, relY);
+			} else {
+				point.unlink();
+				point.moveTo(x, y);
+			}
+		}
+	}
+
+	/**
+	 * An anchor move or shape type change, reverted by setting the old position
+	 * and shape type.
+	 */
+	private final class AnchorChange extends Entry {
+		private final Anchor anchor;
+		private final double position;
+		private final AnchorShapeType shapeType;
+
+		AnchorChange(Anchor anchor) {
+			this.anchor = anchor;
+			this.position = anchor.getPosition();
+			this.shapeType = anchor.getShapeType();
+		}
+
+		@Override
+		void revert() {
+			if (!isInModel(anchor)) {
+				return;
+			}
+			anchor.setPosition(position);
+			anchor.setShapeType(shapeType);
+		}
+	}
+
+	/**
+	 * An addition, reverted by removing the pathway object again.
+	 */
+	private final class Addition extends Entry {
+		private final PathwayObject o;
+
+		Addition(PathwayObject o) {
+			this.o = o;
+		}
+
+		@Override
+		void revert() {
+			if (!isInModel(o)) {
+				return;
+			}
+			if (o instanceof Anchor) {
+				((Anchor) o).getLineElement().removeAnchor((Anchor) o);
+			} else {
+				pathwayModel.remove(o);
+			}
+		}
+	}
+
+	/**
+	 * The links of a removed pathway object, reverted by restoring the links after
+	 * the pathway object and its linked pathway objects are added again.
+	 */
+	private final class Relink extends Entry {
+		private final PathwayObject o;
+		private final Map<StaticProperty, Object> links;
+
+		Relink(PathwayObject o, Map<StaticProperty, Object> links) {
+			this.o = o;
+			this.links = links;
+		}
+
+		@Override
+		void revert() {
+			for (Map.Entry<StaticProperty, Object> e : links.entrySet()) {
+				setValue(o, e.getKey(), e.getValue());
+			}
+		}
+	}
+
+	/**
+	 * A removal, reverted by adding the same pathway object again with its
+	 * elementId and line points. States and anchors removed together with their
+	 * parent are recorded as separate removals, and are added again after their
+	 * parent. Pathway elements are added again at the end of their list.
+	 */
+	private final class Removal extends Entry {
+		private final PathwayObject o;
+		private final String elementId;
+		private final List<LinePoint> points;
+		private final List<String> pointIds;
+		private final List<Reference> references;
+
+		Removal(PathwayObject o) {
+			this.o = o;
+			this.elementId = o.getElementId();
+			references = o instanceof PathwayElement ? getReferences((PathwayElement) o) : null;
+			if (o instanceof LineElement) {
+				points = new ArrayList<LinePoint>(((LineElement) o).getLinePoints());
+				pointIds = new ArrayList<String>(points.size());
+				for (LinePoint p : points) {
+					pointIds.add(p.getElementId());
+				}
+			} else {
+				points = null;
+				pointIds = null;
+			}
+		}
+
+		@Override
+		void revert() {
+			if (o.getPathwayModel() != null) {
+				return;
+			}
+			if (o instanceof State) {
+				DataNode dataNode = ((State) o).getDataNode();
+				if (isInModel(dataNode)) {
+					o.setElementId(elementId);
+					dataNode.addState((State) o);
+				}
+			} else if (o instanceof Anchor) {
+				LineElement line = ((Anchor) o).getLineElement();
+				if (isInModel(line)) {
+					o.setElementId(elementId);
+					line.addAnchor((Anchor) o);
+				}
+			} else {
+				o.setElementId(elementId);
+				if (points != null) {
+					for (int i = 0; i < points.size(); i++) {
+						points.get(i).setElementId(pointIds.get(i));
+					}
+					((LineElement) o).setLinePoints(points);
+				}
+				pathwayModel.add(o);
+			}
+			if (references != null && o.getPathwayModel() == pathwayModel) {
+				addReferences((PathwayElement) o, references);
+			}
+		}
+	}
+
+	/**
+	 * Annotation, citation or evidence referred to by a removed pathway element,
+	 * with its elementId and nested references.
+	 */
+	private static final class Reference {
+		private final PathwayObject target;
+		private final String elementId;
+		private final List<Reference> nested;
+
+		Reference(PathwayObject target, List<Reference> nested) {
+			this.target = target;
+			this.elementId = target.getElementId();
+			this.nested = nested;
+		}
+	}
+
+	/**
+	 * Returns the annotations, citations and evidences referred to by the given
+	 * annotatable, citable or evidenceable, including nested references.
+	 */
+	private static List<Reference> getReferences(Referenceable owner) {
+		List<Reference> result = new ArrayList<Reference>();
+		if (owner instanceof Annotatable) {
+			for (AnnotationRef ref : ((Annotatable) owner).getAnnotationRefs()) {
+				result.add(new Reference(ref.getAnnotation(), getReferences(ref)));
+			}
+		}
+		if (owner instanceof Citable) {
+			for (CitationRef ref : ((Citable) owner).getCitationRefs()) {
+				result.add(new Reference(ref.getCitation(), getReferences(ref)));
+			}
+		}
+		if (owner instanceof Evidenceable) {
+			for (EvidenceRef ref : ((Evidenceable) owner).getEvidenceRefs()) {
+				result.add(new Reference(ref.getEvidence(), Collections.<Reference>emptyList()));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the given references to the given annotatable, citable or
+	 * evidenceable. Annotations, citations and evidences which were removed from
+	 * the pathway model are added again with their elementId.
+	 */
+	private void addReferences(Referenceable owner, List<Reference> references) {
+		for (Reference r : references) {
+			if (r.target.getPathwayModel() == null && pathwayModel.getPathwayObject(r.elementId) == null) {
+				r.target.setElementId(r.elementId);
+			}
+			Referenceable ref = null;
+			if (r.target instanceof Annotation) {
+				ref = ((Annotatable) owner).addAnnotation((Annotation) r.target);
+			} else if (r.target instanceof Citation) {
+				ref = ((Citable) owner).addCitation((Citation) r.target);
+			} else if (r.target instanceof Evidence) {
+				((Evidenceable) owner).addEvidence((Evidence) r.target);
+			}
+			if (ref != null) {
+				addReferences(ref, r.nested);
+			}
+		}
+	}
+
+	/**
+	 * Journaled value of the start or end elementRef of a line, with the relative
+	 * position of the line point.
+	 */
+	private static final class Link {
+		private final LinkableTo elementRef;
+		private final double relX;
+		private final double relY;
+
+		Link(LinkableTo elementRef, double relX, double relY) {
+			this.elementRef = elementRef;
+			this.relX = relX;
+			this.relY = relY;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Link)) {
+				return false;
+			}
+			Link other = (Link) obj;
+			return elementRef == other.elementRef && relX == other.relX && relY == other.relY;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(elementRef), relX, relY);
+		}
+	}
+}
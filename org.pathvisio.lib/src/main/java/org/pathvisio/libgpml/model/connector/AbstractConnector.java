@@ -125,4 +125,35 @@ public abstract class AbstractConnector implements ConnectorShape {
 	public void setWayPoints(WayPoint[] waypoints) {
 		this.waypoints = waypoints;
 	}
+
+	/**
+	 * Copies the cached shape, segments and waypoints of the given connector
+	 * shape, instead of recalculating them. Used when copying a line whose
+	 * connector restrictions are equal to those of the source line. Segments and
+	 * waypoints are copied, as they may be changed in place; the shape is shared.
+	 * 
+	 * @param src the connector shape of the same type to copy from.
+	 */
+	public void copyShapeFrom(AbstractConnector src) {
+		if (src.getClass() != getClass()) {
+			throw new IllegalArgumentException("Cannot copy shape of " + src.getClass().getSimpleName() + " to "
+					+ getClass().getSimpleName());
+		}
+		shape = src.shape;
+		segments = null;
+		if (src.segments != null) {
+			segments = new Segment[src.segments.length];
+			for (int i = 0; i < segments.length; i++) {
+				Segment s = src.segments[i];
+				segments[i] = new Segment((Point2D) s.getMStart().clone(), (Point2D) s.getMEnd().clone());
+			}
+		}
+		waypoints = null;
+		if (src.waypoints != null) {
+			waypoints = new WayPoint[src.waypoints.length];
+			for (int i = 0; i < waypoints.length; i++) {
+				waypoints[i] = new WayPoint(src.waypoints[i]);
+			}
+		}
+	}
 }
@@ -19,7 +19,6 @@ package org.pathvisio.libgpml.model.connector;
 import java.awt.geom.Point2D;
 
 import org.pathvisio.libgpml.util.LinAlg;
-import org.pathvisio.libgpml.util.LinAlg.Point;
 
 
 /**
@@ -134,7 +133,7 @@ public interface ConnectorShape {
 		}
 
 		public double getMLength() {
-			return LinAlg.distance(new Point(start), new Point(end));
+			return LinAlg.distance(start.getX(), start.getY(), end.getX(), end.getY());
 		}
 
 		/**
@@ -16,8 +16,10 @@
  ******************************************************************************/
 package org.pathvisio.libgpml.model.connector;
 
+import java.lang.reflect.Constructor;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.pathvisio.libgpml.debug.Logger;
 import org.pathvisio.libgpml.model.type.ConnectorType;
@@ -33,6 +35,8 @@ import org.pathvisio.libgpml.model.type.ConnectorType;
 public abstract class ConnectorShapeFactory {
 
 	private static Map<String, Class<? extends ConnectorShape>> shapes = new HashMap<String, Class<? extends ConnectorShape>>();
+	// constructors resolved by name, so reflection lookup only happens once per type
+	private static Map<String, Constructor<? extends ConnectorShape>> constructors = new ConcurrentHashMap<String, Constructor<? extends ConnectorShape>>();
 
 	static {
 		shapes.put(ConnectorType.STRAIGHT.getName(), StraightConnectorShape.class);
@@ -46,6 +50,7 @@ public abstract class ConnectorShapeFactory {
 			throw new IllegalArgumentException("null argument provided");
 		}
 		shapes.put(name, shapeClass);
+		constructors.remove(name);
 	}
 
 	/**
@@ -61,7 +66,12 @@ public abstract class ConnectorShapeFactory {
 		Class<? extends ConnectorShape> shapeClass = shapes.get(name);
 		ConnectorShape shape = null;
 		try {
-			shape = shapeClass.getConstructor().newInstance();
+			Constructor<? extends ConnectorShape> constructor = constructors.get(name);
+			if (constructor == null) {
+				constructor = shapeClass.getConstructor();
+				constructors.put(name, constructor);
+			}
+			shape = constructor.newInstance();
 		} catch (Exception e) {
 			Logger.log.error("Unable to create instance of connectorshape " + shapeClass, e);
 			shape = new StraightConnectorShape();
@@ -69,6 +79,19 @@ public abstract class ConnectorShapeFactory {
 		return shape;
 	}
 
+	/**
+	 * Creates an instance of the implementor of ConnectorShape for the given
+	 * connector type.
+	 * 
+	 * @param type the connector type.
+	 * @return shape the connector shape, or the shape for
+	 *         {@link ConnectorType#STRAIGHT} when no shape is registered for the
+	 *         given type.
+	 */
+	public static ConnectorShape createConnectorShape(ConnectorType type) {
+		return createConnectorShape(type.getName());
+	}
+
 	/**
 	 * Returns the class that implements ConnectorShape identified by the given name
 	 * 
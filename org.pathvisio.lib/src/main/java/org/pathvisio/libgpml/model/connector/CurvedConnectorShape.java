@@ -103,6 +103,32 @@ public class CurvedConnectorShape extends ElbowConnectorShape {
 		return curveLow;
 	}
 
+	/**
+	 * Also copies the elbow segments, and calculates the curves from them. The
+	 * curves are used for the anchor positions and arrow heads.
+	 *
+	 * @param src the connector shape of the same type to copy from.
+	 */
+	@Override
+	public void copyShapeFrom(AbstractConnector src) {
+		super.copyShapeFrom(src);
+		Segment[] srcElbowSegments = ((CurvedConnectorShape) src).elbowSegments;
+		elbowSegments = null;
+		curvedSegments = null;
+		curveHigh = null;
+		curveLow = null;
+		if (srcElbowSegments != null) {
+			elbowSegments = new Segment[srcElbowSegments.length];
+			for (int i = 0; i < elbowSegments.length; i++) {
+				Segment s = srcElbowSegments[i];
+				elbowSegments[i] = new Segment((Point2D) s.getMStart().clone(), (Point2D) s.getMEnd().clone());
+			}
+			curvedSegments = calculateCurvedSegments(elbowSegments);
+			curveHigh = calculateCurve(NRSTEP_HIGH);
+			curveLow = calculateCurve(NRSTEP_LOW);
+		}
+	}
+
 	/**
 	 * Based on the given elbow segments, calculate a new segment and control points
 	 * for each bezier curve.
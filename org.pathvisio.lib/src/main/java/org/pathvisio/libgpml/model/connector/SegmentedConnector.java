@@ -22,7 +22,6 @@ import java.awt.geom.Point2D;
 
 import org.pathvisio.libgpml.debug.Logger;
 import org.pathvisio.libgpml.util.LinAlg;
-import org.pathvisio.libgpml.util.LinAlg.Point;
 
 /**
  * Base class for segmented connectors.
@@ -140,16 +139,11 @@ public abstract class SegmentedConnector extends AbstractConnector {
 		double runningLength = 0.0; // sum of the length of the segments so far
 		for (Segment seg : segments) {
 			// projection of v on the segment
-			// TODO: probably could be merged with LinAlg.project.
-			// Couldn't do that right away because I need the intermediate u value.
-			Point base = new Point(seg.getMStart());
-			Point direction = new Point(seg.getMEnd()).subtract(new Point(seg.getMStart()));
-			Point vrelative = new Point(v).subtract(new Point(seg.getMStart()));
-
-			double u = (vrelative.x * direction.x + vrelative.y * direction.y)
-					/ (direction.x * direction.x + direction.y * direction.y);
-
-			Point projection = new Point(base.x + u * direction.x, base.y + u * direction.y);
+			Point2D start = seg.getMStart();
+			Point2D end = seg.getMEnd();
+			double dx = end.getX() - start.getX();
+			double dy = end.getY() - start.getY();
+			double u = LinAlg.dot(v.getX() - start.getX(), v.getY() - start.getY(), dx, dy) / LinAlg.dot(dx, dy, dx, dy);
 
 			// calculate distance between v and segment.
 			// special case: if u is smaller than 0 or larger than 1
@@ -157,12 +151,12 @@ public abstract class SegmentedConnector extends AbstractConnector {
 			double distance;
 			if (u < 0) {
 				u = 0;
-				distance = LinAlg.distance(new Point(v), new Point(seg.getMStart()));
+				distance = LinAlg.distance(v.getX(), v.getY(), start.getX(), start.getY());
 			} else if (u > 1) {
 				u = 1;
-				distance = LinAlg.distance(new Point(v), new Point(seg.getMEnd()));
+				distance = LinAlg.distance(v.getX(), v.getY(), end.getX(), end.getY());
 			} else
-				distance = LinAlg.distance(projection, new Point(v));
+				distance = LinAlg.distance(start.getX() + u * dx, start.getY() + u * dy, v.getX(), v.getY());
 
 			// did we find a better match?
 			if (distance < bestDistance) {
@@ -20,7 +20,6 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 
 import org.pathvisio.libgpml.util.LinAlg;
-import org.pathvisio.libgpml.util.LinAlg.Point;
 
 /**
  * Implements a straight connector Shape, i.e. a Connector with only 90-degree
@@ -95,7 +94,8 @@ public class StraightConnectorShape extends AbstractConnector {
 	@Override
 	public double toLineCoordinate(Point2D v) {
 		Segment[] segments = getSegments();
-		return LinAlg.toLineCoordinates(new Point(segments[0].getMStart()),
-				new Point(segments[segments.length - 1].getMEnd()), new Point(v));
+		Point2D start = segments[0].getMStart();
+		Point2D end = segments[segments.length - 1].getMEnd();
+		return LinAlg.toLineCoordinates(start.getX(), start.getY(), end.getX(), end.getY(), v.getX(), v.getY());
 	}
 }
@@ -0,0 +1,359 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model.shape;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of scaled shapes. Shapes are keyed by their prototype (the unscaled
+ * shape registered for a {@link IShape}) and by the requested width and height,
+ * rounded to a bucket of {@link #BUCKET_SIZE}. The least recently used entry is
+ * evicted once the cache is full.
+ *
+ * <p>
+ * Shapes returned by the cache are immutable, so they can be shared between
+ * callers and threads.
+ */
+public class ShapeCache {
+
+	/**
+	 * Sizes are rounded to a multiple of this value before lookup.
+	 */
+	public static final double BUCKET_SIZE = 0.01;
+
+	/**
+	 * Default maximum number of cached shapes.
+	 */
+	public static final int DEFAULT_CAPACITY = 2048;
+
+	private static final ShapeCache SHARED = new ShapeCache(DEFAULT_CAPACITY);
+
+	private final int capacity;
+	private final Map<Key, Shape> cache;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates a shape cache.
+	 *
+	 * @param capacity the maximum number of cached shapes.
+	 * @throws IllegalArgumentException if capacity is smaller than one.
+	 */
+	public ShapeCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.cache = new LinkedHashMap<Key, Shape>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Shape> eldest) {
+				if (size() > ShapeCache.this.capacity) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache shared by {@link ShapeRegistry} and
+	 * {@link org.pathvisio.libgpml.model.type.ShapeType}.
+	 *
+	 * @return the shared shape cache.
+	 */
+	public static ShapeCache getInstance() {
+		return SHARED;
+	}
+
+	// ================================================================================
+	// Methods
+	// ================================================================================
+	/**
+	 * Returns the given prototype scaled and translated so that its bounds are
+	 * (0, 0, w, h), with w and h rounded to the nearest bucket. The result is taken
+	 * from the cache if available.
+	 *
+	 * @param prototype the unscaled shape.
+	 * @param w         the width.
+	 * @param h         the height.
+	 * @return the immutable scaled shape.
+	 */
+	public Shape getShape(Shape prototype, double w, double h) {
+		long bw = bucket(w);
+		long bh = bucket(h);
+		Key key = new Key(prototype, bw, bh);
+		synchronized (cache) {
+			Shape result = cache.get(key);
+			if (result != null) {
+				hits++;
+				return result;
+			}
+			misses++;
+		}
+		Shape result = immutable(scale(prototype, bw * BUCKET_SIZE, bh * BUCKET_SIZE));
+		synchronized (cache) {
+			cache.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Scales and translates the given shape so that its bounds are (0, 0, w, h).
+	 *
+	 * @param shape the shape.
+	 * @param w     the width.
+	 * @param h     the height.
+	 * @return the scaled shape.
+	 */
+	static Shape scale(Shape shape, double w, double h) {
+		Rectangle r = shape.getBounds();
+		AffineTransform at = new AffineTransform();
+		at.translate(-r.x, -r.y);
+		at.scale(w / r.width, h / r.height);
+		return at.createTransformedShape(shape);
+	}
+
+	/**
+	 * Wraps the given shape in a read-only view. Shapes which are already immutable
+	 * are returned as is.
+	 *
+	 * @param shape the shape.
+	 * @return the immutable shape.
+	 */
+	public static Shape immutable(Shape shape) {
+		if (shape == null || shape instanceof ImmutableShape) {
+			return shape;
+		}
+		return new ImmutableShape(shape);
+	}
+
+	/**
+	 * Removes all cached shapes and resets the statistics.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+			hits = 0;
+			misses = 0;
+			evictions = 0;
+		}
+	}
+
+	// ================================================================================
+	// Statistics
+	// ================================================================================
+	/**
+	 * Returns the number of cached shapes.
+	 *
+	 * @return the size of the cache.
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of cached shapes.
+	 *
+	 * @return the capacity.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of lookups answered from the cache.
+	 *
+	 * @return the hit count.
+	 */
+	public long getHitCount() {
+		synchronized (cache) {
+			return hits;
+		}
+	}
+
+	/**
+	 * Returns the number of lookups which had to build a new shape.
+	 *
+	 * @return the miss count.
+	 */
+	public long getMissCount() {
+		synchronized (cache) {
+			return misses;
+		}
+	}
+
+	/**
+	 * Returns the number of shapes evicted because the cache was full.
+	 *
+	 * @return the eviction count.
+	 */
+	public long getEvictionCount() {
+		synchronized (cache) {
+			return evictions;
+		}
+	}
+
+	/**
+	 * Returns the fraction of lookups answered from the cache, or 0 if there were
+	 * no lookups yet.
+	 *
+	 * @return the hit rate between 0 and 1.
+	 */
+	public double getHitRate() {
+		synchronized (cache) {
+			long total = hits + misses;
+			return total == 0 ? 0 : (double) hits / total;
+		}
+	}
+
+	/**
+	 * Returns a string with the statistics of this cache.
+	 */
+	@Override
+	public String toString() {
+		synchronized (cache) {
+			return "ShapeCache[size=" + cache.size() + ", capacity=" + capacity + ", hits=" + hits + ", misses="
+					+ misses + ", evictions=" + evictions + "]";
+		}
+	}
+
+	/**
+	 * Returns the bucket for the given size.
+	 */
+	private static long bucket(double size) {
+		return Math.round(size / BUCKET_SIZE);
+	}
+
+	// ================================================================================
+	// Key Class
+	// ================================================================================
+	/**
+	 * Cache key. Prototypes are compared by identity.
+	 */
+	private static final class Key {
+
+		private final Shape prototype;
+		private final long w;
+		private final long h;
+
+		private Key(Shape prototype, long w, long h) {
+			this.prototype = prototype;
+			this.w = w;
+			this.h = h;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return prototype == k.prototype && w == k.w && h == k.h;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = System.identityHashCode(prototype);
+			result = 31 * result + Long.hashCode(w);
+			return 31 * result + Long.hashCode(h);
+		}
+	}
+
+	// ================================================================================
+	// ImmutableShape Class
+	// ================================================================================
+	/**
+	 * Read-only view of a shape. Only the query methods of {@link Shape} are
+	 * exposed, so the wrapped path can not be modified by callers.
+	 */
+	private static final class ImmutableShape implements Shape {
+
+		private final Shape shape;
+
+		private ImmutableShape(Shape shape) {
+			this.shape = shape;
+		}
+
+		@Override
+		public Rectangle getBounds() {
+			return shape.getBounds();
+		}
+
+		@Override
+		public Rectangle2D getBounds2D() {
+			return shape.getBounds2D();
+		}
+
+		@Override
+		public boolean contains(double x, double y) {
+			return shape.contains(x, y);
+		}
+
+		@Override
+		public boolean contains(Point2D p) {
+			return shape.contains(p);
+		}
+
+		@Override
+		public boolean intersects(double x, double y, double w, double h) {
+			return shape.intersects(x, y, w, h);
+		}
+
+		@Override
+		public boolean intersects(Rectangle2D r) {
+			return shape.intersects(r);
+		}
+
+		@Override
+		public boolean contains(double x, double y, double w, double h) {
+			return shape.contains(x, y, w, h);
+		}
+
+		@Override
+		public boolean contains(Rectangle2D r) {
+			return shape.contains(r);
+		}
+
+		@Override
+		public PathIterator getPathIterator(AffineTransform at) {
+			return shape.getPathIterator(at);
+		}
+
+		@Override
+		public PathIterator getPathIterator(AffineTransform at, double flatness) {
+			return shape.getPathIterator(at, flatness);
+		}
+	}
+
+}
@@ -20,6 +20,9 @@ import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.GeneralPath;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class defines some shapes. Shapes are defined and registered in the
@@ -48,6 +51,18 @@ import java.awt.geom.GeneralPath;
  */
 public class ShapeCatalog {
 
+	/**
+	 * Pluggable shapes only depend on their {@link Internal} type, so each path is
+	 * built once and shared.
+	 */
+	private static final Map<Internal, Shape> PLUGGABLE_SHAPES = new EnumMap<Internal, Shape>(Internal.class);
+
+	/**
+	 * Unit circle coordinates {cos, sin} of the vertices of regular polygons, by
+	 * number of sides.
+	 */
+	private static final Map<Integer, double[][]> POLYGON_VERTICES = new ConcurrentHashMap<Integer, double[][]>();
+
 	static void registerShapes() {
 	}
 
@@ -74,9 +89,26 @@ public class ShapeCatalog {
 	/**
 	 * Internal, Only for general shape types that can be described as a path. The
 	 * shapes are constructed as a general path with arbitrary size and then resized
-	 * to fit w and h parameters.
+	 * to fit w and h parameters. The returned shape is immutable and shared.
 	 */
 	static public java.awt.Shape getPluggableShape(Internal st) {
+		synchronized (PLUGGABLE_SHAPES) {
+			Shape shape = PLUGGABLE_SHAPES.get(st);
+			if (shape == null) {
+				shape = ShapeCache.immutable(createPluggableShape(st));
+				PLUGGABLE_SHAPES.put(st, shape);
+			}
+			return shape;
+		}
+	}
+
+	/**
+	 * Builds the general path for the given pluggable shape type.
+	 * 
+	 * @param st the internal shape type.
+	 * @return the new path.
+	 */
+	private static GeneralPath createPluggableShape(Internal st) {
 		GeneralPath path = new GeneralPath();
 		switch (st) {
 		// ========================================
@@ -460,11 +492,20 @@ public class ShapeCatalog {
 	 * @return
 	 */
 	public static java.awt.Shape getRegularPolygon(int sides, double w, double h) {
+		double[][] vertices = POLYGON_VERTICES.get(sides);
+		if (vertices == null) {
+			vertices = new double[sides][2];
+			for (int i = 0; i < sides; ++i) {
+				double angle = Math.PI * 2 * i / sides;
+				vertices[i][0] = Math.cos(angle);
+				vertices[i][1] = Math.sin(angle);
+			}
+			POLYGON_VERTICES.put(sides, vertices);
+		}
 		GeneralPath path = new GeneralPath();
 		for (int i = 0; i < sides; ++i) {
-			double angle = Math.PI * 2 * i / sides;
-			double x = (w / 2) * (1 + Math.cos(angle));
-			double y = (h / 2) * (1 + Math.sin(angle));
+			double x = (w / 2) * (1 + vertices[i][0]);
+			double y = (h / 2) * (1 + vertices[i][1]);
 			if (i == 0) {
 				path.moveTo((float) x, (float) y);
 			} else {
@@ -94,6 +94,16 @@ public class ShapeRegistry {
 		return shapeMap.get(name);
 	}
 
+	/**
+	 * Returns the cache of scaled shapes used by registered shapes, e.g. to
+	 * inspect its hit rate.
+	 * 
+	 * @return the shared shape cache.
+	 */
+	public static ShapeCache getShapeCache() {
+		return ShapeCache.getInstance();
+	}
+
 	// ================================================================================
 	// Arrow Methods
 	// ================================================================================
@@ -64,7 +64,7 @@ public class AnnotationType {
 		if (nameToAnnotationType.containsKey(name)) {
 			return nameToAnnotationType.get(name);
 		} else {
-			Logger.log.trace("Registered annotation type " + name);
+			Logger.log.trace(() -> "Registered annotation type " + name);
 			return new AnnotationType(name);
 		}
 	}
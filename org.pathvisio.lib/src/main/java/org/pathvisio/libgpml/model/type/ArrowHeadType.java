@@ -92,7 +92,7 @@ public class ArrowHeadType {
 		if (nameToArrowHeadType.containsKey(name)) {
 			return nameToArrowHeadType.get(name);
 		} else {
-			Logger.log.trace("Registered arrowhead type " + name); 
+			Logger.log.trace(() -> "Registered arrowhead type " + name); 
 			return new ArrowHeadType(name);
 		}
 	}
@@ -81,7 +81,7 @@ public class DataNodeType {
 		if (nameToDataNodeType.containsKey(name)) {
 			return nameToDataNodeType.get(name);
 		} else {
-			Logger.log.trace("Registered datanode type " + name);
+			Logger.log.trace(() -> "Registered datanode type " + name);
 			return new DataNodeType(name);
 		}
 	}
@@ -18,7 +18,6 @@ package org.pathvisio.libgpml.model.type;
 
 import java.awt.Rectangle;
 import java.awt.Shape;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Arc2D;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
@@ -30,6 +29,7 @@ import java.util.TreeMap;
 
 import org.pathvisio.libgpml.debug.Logger;
 import org.pathvisio.libgpml.model.shape.IShape;
+import org.pathvisio.libgpml.model.shape.ShapeCache;
 import org.pathvisio.libgpml.model.shape.ShapeCatalog;
 import org.pathvisio.libgpml.model.shape.ShapeCatalog.Internal;
 import org.pathvisio.libgpml.model.shape.ShapeRegistry;
@@ -184,7 +184,7 @@ public class ShapeType implements IShape {
 		if (SHAPETYPE_MAP.containsKey(name)) {
 			return SHAPETYPE_MAP.get(name);
 		} else {
-			Logger.log.trace("Registered shape type " + name);
+			Logger.log.trace(() -> "Registered shape type " + name);
 			return new ShapeType(name, shape);
 		}
 	}
@@ -202,7 +202,8 @@ public class ShapeType implements IShape {
 	}
 
 	/**
-	 * Returns the shape resized given width and height.
+	 * Returns the shape resized given width and height. Scaled shapes are shared
+	 * through the {@link ShapeCache} and must not be modified.
 	 * 
 	 * @param w the width.
 	 * @param h the height.
@@ -212,12 +213,7 @@ public class ShapeType implements IShape {
 		if (shape == null) {
 			return ShapeRegistry.DEFAULT_SHAPE.getShape(w, h);
 		}
-		// now scale the path so it has proper w and h.
-		Rectangle r = shape.getBounds();
-		AffineTransform at = new AffineTransform();
-		at.translate(-r.x, -r.y);
-		at.scale(w / r.width, h / r.height);
-		return at.createTransformedShape(shape);
+		return ShapeCache.getInstance().getShape(shape, w, h);
 	}
 
 	/**
@@ -68,7 +68,7 @@ public class StateType {
 		if (nameToStateType.containsKey(name)) {
 			return nameToStateType.get(name);
 		} else {
-			Logger.log.trace("Registered state type " + name);
+			Logger.log.trace(() -> "Registered state type " + name);
 			return new StateType(name);
 		}
 	}
@@ -132,9 +132,13 @@ public enum StaticProperty implements Property {
 	ENDY("endY", "End Y", StaticPropertyType.DOUBLE, 285, true, false, false),
 	STARTELEMENTREF("startElementRef", "StartElementRef", StaticPropertyType.LINKABLETO, 286, false, true, false),
 	ENDELEMENTREF("endElementRef", "EndElementRef", StaticPropertyType.LINKABLETO, 287, false, true, false),
+	// waypoints between start and end, reported by diffs only
+	LINEPOINTS("linePoints", "Line Points", StaticPropertyType.LINEPOINTS, 288, true, true, true),
 
 	// types
 	ANCHORSHAPETYPE("anchorShapeType", "Anchor Shape Type", StaticPropertyType.ANCHORSHAPETYPE, 290),
+	// reported by diffs only
+	ANCHORPOSITION("anchorPosition", "Anchor Position", StaticPropertyType.DOUBLE, 291, true, true, true),
 	// line style properties
 	LINECOLOR("lineColor", "Line Color", StaticPropertyType.COLOR, 300),
 	LINESTYLE("lineStyle", "Line Style", StaticPropertyType.LINESTYLETYPE, 301),
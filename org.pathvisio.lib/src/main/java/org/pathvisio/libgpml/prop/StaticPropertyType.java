@@ -43,7 +43,7 @@ public enum StaticPropertyType implements PropertyType {
 	ALIASREF,
 
 	// LineElement
-	ARROWHEADTYPE, LINKABLETO, ANCHORSHAPETYPE, CONNECTORTYPE,
+	ARROWHEADTYPE, LINKABLETO, ANCHORSHAPETYPE, CONNECTORTYPE, LINEPOINTS,
 
 	// Style properties
 	FONTNAME, HALIGNTYPE, VALIGNTYPE, SHAPETYPE, LINESTYLETYPE, // for both lines and shape borders 
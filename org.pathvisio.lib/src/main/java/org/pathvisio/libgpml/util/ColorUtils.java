@@ -20,6 +20,7 @@ import java.awt.Color;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.pathvisio.libgpml.debug.Logger;
 
@@ -31,6 +32,8 @@ import org.pathvisio.libgpml.debug.Logger;
  */
 public class ColorUtils {
 
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
 	/**
 	 * Converts a {@link Color} object to a hexBinary string.
 	 * 
@@ -40,25 +43,15 @@ public class ColorUtils {
 	 * @return the resulting hex string.
 	 */
 	public static String colorToHex(Color color, boolean appendHash) {
-		int a = color.getAlpha();
-		int r = color.getRed();
-		int g = color.getGreen();
-		int b = color.getBlue();
+		int argb = color.getRGB();
+		int a = argb >>> 24;
 		if (a == 255) {
-			if (appendHash) {
-				return String.format("#%02x%02x%02x", r, g, b);
-			} else {
-				return String.format("%02x%02x%02x", r, g, b);
-			}
+			return toHex(argb & 0xffffff, 6, appendHash);
 		} else {
-			if (appendHash) {
-				return String.format("#%02x%02x%02x%02x", r, g, b, a);
-			} else {
-				return String.format("%02x%02x%02x%02x", r, g, b, a);
-			}
+			return toHex((argb << 8) | a, 8, appendHash);
 		}
 	}
-	
+
 	/**
 	 * Converts a {@link Color} object to a hexBinary string for 2013a.
 	 * 
@@ -68,20 +61,28 @@ public class ColorUtils {
 	 * @return the resulting hex string.
 	 */
 	public static String colorToHex2013(Color color, boolean appendHash) {
-		int a = color.getAlpha();
-		int r = color.getRed();
-		int g = color.getGreen();
-		int b = color.getBlue();
-		
-		if(a == 0 && r == 0 && g == 0 && b == 0) {
+		int argb = color.getRGB();
+		if (argb == 0) {
 			return "Transparent";
 		} else {
-			if (appendHash) {
-				return String.format("#%02x%02x%02x", r, g, b);
-			} else {
-				return String.format("%02x%02x%02x", r, g, b);
-			}
+			return toHex(argb & 0xffffff, 6, appendHash);
+		}
+	}
+
+	/**
+	 * Formats the lowest digits of value as lowercase hexBinary string.
+	 */
+	private static String toHex(int value, int digits, boolean appendHash) {
+		int offset = appendHash ? 1 : 0;
+		char[] chars = new char[offset + digits];
+		if (appendHash) {
+			chars[0] = '#';
+		}
+		for (int i = chars.length - 1; i >= offset; i--) {
+			chars[i] = HEX_DIGITS[value & 0xf];
+			value >>>= 4;
 		}
+		return new String(chars);
 	}
 
 	/**
@@ -89,26 +90,75 @@ public class ColorUtils {
 	 * can't be converted null is returned.
 	 * 
 	 * @param hex
+	 * @throws NumberFormatException if hex contains no hexadecimal digits, or
+	 *                               characters other than hexadecimal digits and
+	 *                               "#".
 	 */
 	public static Color hexToColor(String hex) {
-		hex = hex.replace("#", "");
-		long i = Long.parseLong(hex, 16);
-		int r = (int) ((i >> 24) & 0xff);
-		int g = (int) ((i >> 16) & 0xff);
-		int b = (int) ((i >> 8) & 0xff);
-		switch (hex.length()) {
+		long parsed = parseHex(hex);
+		if (parsed < 0) {
+			throw new NumberFormatException("For input string: \"" + hex + "\"");
+		}
+		return toColor(parsed);
+	}
+
+	/**
+	 * Parses the hexadecimal digits of given string, ignoring "#".
+	 * 
+	 * @return the number of digits in the upper, and the value of the last eight
+	 *         digits in the lower 32 bits; or -1 if not a hexBinary string.
+	 */
+	private static long parseHex(String hex) {
+		int value = 0;
+		long digits = 0;
+		for (int i = 0; i < hex.length(); i++) {
+			char c = hex.charAt(i);
+			if (c != '#') {
+				int digit = Character.digit(c, 16);
+				if (digit < 0) {
+					return -1;
+				}
+				value = (value << 4) | digit;
+				digits++;
+			}
+		}
+		return digits == 0 ? -1 : (digits << 32) | (value & 0xffffffffL);
+	}
+
+	/**
+	 * Returns the color for a parsed hexBinary string of six (rrggbb) or eight
+	 * (rrggbbaa) digits, or null for other lengths.
+	 */
+	private static Color toColor(long parsed) {
+		int value = (int) parsed;
+		switch ((int) (parsed >>> 32)) {
 		case 6:
-			if (!hex.contains("#"))
-				hex = "#" + hex;
-			return Color.decode(hex);
+			return getColor(0xff000000 | value);
 		case 8:
-
-			int a = (int) (i & 0xff);
-			return new Color(r, g, b, a);
+			return getColor((value << 24) | (value >>> 8));
 		}
 		return null;
 	}
 
+	/**
+	 * Shared colors, by hash of their argb value. Colors are immutable, and the
+	 * same few colors are used by most pathway elements.
+	 */
+	private static final AtomicReferenceArray<Color> colorCache = new AtomicReferenceArray<Color>(256);
+
+	/**
+	 * Returns a shared color for the given argb value.
+	 */
+	private static Color getColor(int argb) {
+		int slot = (argb ^ (argb >>> 8) ^ (argb >>> 16) ^ (argb >>> 24)) & 0xff;
+		Color color = colorCache.get(slot);
+		if (color == null || color.getRGB() != argb) {
+			color = new Color(argb, true);
+			colorCache.set(slot, color);
+		}
+		return color;
+	}
+
 	/**
 	 * Converts a (gpml) string containing either a named color, e.g. "White", or a
 	 * hexBinary number to a {@link Color} object.
@@ -116,45 +166,44 @@ public class ColorUtils {
 	 * @param stringColor
 	 */
 	public static Color stringToColor(String stringColor) {
-		if (colorMap.containsKey(stringColor)) {
-			return hexToColor(colorMap.get(stringColor));
-		} else {
-			try {
-				return hexToColor(stringColor);
-			} catch (Exception e) {
-				Logger.log.error("while converting color: " + "Color " + stringColor
-						+ " is not valid, element color is set to black", e);
-			}
+		// color names are not hexBinary, e.g. "Blue" contains "l"
+		long parsed = parseHex(stringColor);
+		if (parsed >= 0) {
+			return toColor(parsed);
+		}
+		Color color = colorMap.get(stringColor);
+		if (color != null) {
+			return color;
 		}
-		return Color.decode("#000000"); // default black (as implemented in GPML 2013a)
+		Logger.log.error("while converting color: Color " + stringColor + " is not valid, element color is set to black");
+		return getColor(0xff000000); // default black (as implemented in GPML 2013a)
 	}
 
 	/**
-	 * Mapping of string gpml:ColorType (older versions of gpml) to a hexBinary
-	 * {@link String}. In {@link #stringToColor}, {@link #hexToColor}converts
-	 * hexBinary String to {@link Color} object. Color name string matching is case
+	 * Mapping of string gpml:ColorType (older versions of gpml) to a {@link Color}
+	 * object, used by {@link #stringToColor}. Color name string matching is case
 	 * insensitive.
 	 */
-	private static final Map<String, String> colorMap;
+	private static final Map<String, Color> colorMap;
 	static {
-		Map<String, String> cMap = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
-		cMap.put("Aqua", "#00ffff");
-		cMap.put("Black", "#000000");
-		cMap.put("Blue", "#0000ff");
-		cMap.put("Fuchsia", "#ff00ff");
-		cMap.put("Gray", "#808080");
-		cMap.put("Green", "#008000");
-		cMap.put("Lime", "#00ff00");
-		cMap.put("Maroon", "#800000");
-		cMap.put("Navy", "#000080");
-		cMap.put("Olive", "#808000");
-		cMap.put("Purple", "#800080");
-		cMap.put("Red", "#ff0000");
-		cMap.put("Silver", "#c0c0c0");
-		cMap.put("Teal", "#008080");
-		cMap.put("White", "#ffffff");
-		cMap.put("Yellow", "#ffff00");
-		cMap.put("Transparent", "#00000000");
+		Map<String, Color> cMap = new TreeMap<String, Color>(String.CASE_INSENSITIVE_ORDER);
+		cMap.put("Aqua", hexToColor("#00ffff"));
+		cMap.put("Black", hexToColor("#000000"));
+		cMap.put("Blue", hexToColor("#0000ff"));
+		cMap.put("Fuchsia", hexToColor("#ff00ff"));
+		cMap.put("Gray", hexToColor("#808080"));
+		cMap.put("Green", hexToColor("#008000"));
+		cMap.put("Lime", hexToColor("#00ff00"));
+		cMap.put("Maroon", hexToColor("#800000"));
+		cMap.put("Navy", hexToColor("#000080"));
+		cMap.put("Olive", hexToColor("#808000"));
+		cMap.put("Purple", hexToColor("#800080"));
+		cMap.put("Red", hexToColor("#ff0000"));
+		cMap.put("Silver", hexToColor("#c0c0c0"));
+		cMap.put("Teal", hexToColor("#008080"));
+		cMap.put("White", hexToColor("#ffffff"));
+		cMap.put("Yellow", hexToColor("#ffff00"));
+		cMap.put("Transparent", hexToColor("#00000000"));
 		colorMap = Collections.unmodifiableMap(cMap);
 	}
 
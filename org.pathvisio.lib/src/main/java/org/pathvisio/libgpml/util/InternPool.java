@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bridgedb.Xref;
+
+/**
+ * Pool of equal {@link String} and {@link Xref} values, shared by the pathway
+ * models read with it. Font names, data sources, comment sources, dynamic
+ * properties and repeated labels are then stored once, instead of once per
+ * pathway element.
+ *
+ * <p>
+ * Unlike {@link String#intern()}, values are held only as long as this pool,
+ * which can be cleared when no more pathway models are read. A pool may be
+ * shared by readers in several threads.
+ *
+ * <p>
+ * NB: Saved bytes are estimated from the size of a compact String (40 bytes
+ * plus one byte per character) and an Xref (24 bytes plus its identifier).
+ */
+public class InternPool {
+
+	private static final int STRING_BYTES = 40;
+	private static final int XREF_BYTES = 24;
+
+	private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<String, String>();
+	private final ConcurrentMap<Xref, Xref> xrefs = new ConcurrentHashMap<Xref, Xref>();
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong savedBytes = new AtomicLong();
+
+	// ================================================================================
+	// Intern Methods
+	// ================================================================================
+	/**
+	 * Returns the pooled string equal to the given string. The given string is
+	 * pooled if no equal string was pooled before.
+	 *
+	 * @param s the string, may be null.
+	 * @return the pooled string, or null if the given string is null.
+	 */
+	public String intern(String s) {
+		if (s == null) {
+			return null;
+		}
+		requestCount.incrementAndGet();
+		String pooled = strings.putIfAbsent(s, s);
+		if (pooled == null) {
+			return s;
+		}
+		if (pooled != s) {
+			hitCount.incrementAndGet();
+			savedBytes.addAndGet(STRING_BYTES + s.length());
+		}
+		return pooled;
+	}
+
+	/**
+	 * Returns the pooled xref equal to the given xref, with the pooled identifier.
+	 * The given xref is pooled if no equal xref was pooled before. Xrefs are
+	 * immutable, so may be shared by pathway elements.
+	 *
+	 * @param xref the xref, may be null.
+	 * @return the pooled xref, or null if the given xref is null.
+	 */
+	public Xref intern(Xref xref) {
+		if (xref == null) {
+			return null;
+		}
+		requestCount.incrementAndGet();
+		Xref pooled = xrefs.get(xref);
+		if (pooled == null) {
+			String id = intern(xref.getId());
+			// pool a copy with the pooled identifier
+			Xref copy = id == xref.getId() ? xref : new Xref(id, xref.getDataSource(), xref.isPrimary());
+			pooled = xrefs.putIfAbsent(copy, copy);
+			if (pooled == null) {
+				return copy;
+			}
+		}
+		// equal xrefs may differ in being primary
+		if (pooled.isPrimary() != xref.isPrimary()) {
+			return xref;
+		}
+		if (pooled != xref) {
+			hitCount.incrementAndGet();
+			int idBytes = xref.getId() == pooled.getId() ? 0 : STRING_BYTES + pooled.getId().length();
+			savedBytes.addAndGet(XREF_BYTES + idBytes);
+		}
+		return pooled;
+	}
+
+	/**
+	 * Removes all pooled values and resets the statistics. Pathway models read
+	 * before keep their values.
+	 */
+	public void clear() {
+		strings.clear();
+		xrefs.clear();
+		requestCount.set(0);
+		hitCount.set(0);
+		savedBytes.set(0);
+	}
+
+	// ================================================================================
+	// Statistics Methods
+	// ================================================================================
+	/**
+	 * Returns the number of pooled strings.
+	 *
+	 * @return the number of strings.
+	 */
+	public int getStringCount() {
+		return strings.size();
+	}
+
+	/**
+	 * Returns the number of pooled xrefs.
+	 *
+	 * @return the number of xrefs.
+	 */
+	public int getXrefCount() {
+		return xrefs.size();
+	}
+
+	/**
+	 * Returns the number of values passed to this pool.
+	 *
+	 * @return the number of requests.
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Returns the number of values replaced by an equal pooled value.
+	 *
+	 * @return the number of hits.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the estimated number of bytes saved by replacing values with equal
+	 * pooled values.
+	 *
+	 * @return the estimated number of saved bytes.
+	 */
+	public long getSavedBytes() {
+		return savedBytes.get();
+	}
+
+	/**
+	 * Returns a summary of the statistics of this pool.
+	 */
+	@Override
+	public String toString() {
+		return "InternPool[strings=" + getStringCount() + ", xrefs=" + getXrefCount() + ", requests="
+				+ getRequestCount() + ", hits=" + getHitCount() + ", savedBytes=" + getSavedBytes() + "]";
+	}
+}
@@ -34,33 +34,18 @@ public class LinAlg {
 	 * @return angle in radians
 	 */
 	public static double angle(Point p1, Point p2) {
-		// Angle:
-		// p1.p2
-		// cos(angle) = --------------
-		// ||p1||*||p2||
-
-		double cos = dot(p1, p2) / (p1.len() * p2.len());
-		if (cos > 1) {
-			cos = 1;
-		}
-		return direction(p1, p2) * Math.acos(cos);
+		return angle(p1.x, p1.y, p2.x, p2.y);
 	}
 
 	/**
 	 * negative: ccw positive: cw
 	 */
 	public static double direction(Point p1, Point p2) {
-
-		return Math.signum(p1.x * p2.y - p1.y * p2.x);
+		return direction(p1.x, p1.y, p2.x, p2.y);
 	}
 
 	private static double dot(Point v1, Point v2) {
-		double[] d1 = v1.asArray();
-		double[] d2 = v2.asArray();
-		double sum = 0;
-		for (int i = 0; i < Math.min(d1.length, d2.length); i++)
-			sum += d1[i] * d2[i];
-		return sum;
+		return dot(v1.x, v1.y, v2.x, v2.y);
 	}
 
 	/**
@@ -69,30 +54,165 @@ public class LinAlg {
 	 * If p is 0,0, it's the same as the two-argument function with the same name.
 	 */
 	public static Point project(Point p, Point q, Point v) {
-		Point q2 = new Point(q.x - p.x, q.y - p.y);
 		double vlen = dot(v, v);
 		if (vlen == 0) {
 			return p;
 		} else {
-			double c = dot(q2, v) / dot(v, v);
+			double c = projectionFactor(p.x, p.y, q.x, q.y, v.x, v.y);
 			return new Point(p.x + v.x * c, p.y + v.y * c);
 		}
 	}
 
+	/**
+	 * Projection of point q on a line through p with direction vector v, written
+	 * into the given result point instead of allocating a new one.
+	 * 
+	 * @param p      point on the line.
+	 * @param q      the point to project.
+	 * @param v      direction vector of the line.
+	 * @param result the point receiving the projection, may be p or q.
+	 * @return result
+	 */
+	public static Point project(Point p, Point q, Point v, Point result) {
+		double c = projectionFactor(p.x, p.y, q.x, q.y, v.x, v.y);
+		return result.set(p.x + v.x * c, p.y + v.y * c);
+	}
+
 	/**
 	 * Convert a 2-D point to 1-D line coordinates (relative position on the line,
 	 * range {0,1})
 	 */
 	public static double toLineCoordinates(Point start, Point end, Point p) {
+		return toLineCoordinates(start.x, start.y, end.x, end.y, p.x, p.y);
+	}
+
+	/**
+	 * Projection of p1 on p2:
+	 * 
+	 * p1.p2 ----- . p2 p2.p2
+	 */
+	public static Point project(Point p1, Point p2) {
+		double c = dot(p1, p2) / dot(p2, p2);
+		return new Point(p2.x * c, p2.y * c);
+	}
+
+	public static double distance(Point p1, Point p2) {
+		return distance(p1.x, p1.y, p2.x, p2.y);
+	}
+
+	public static Point rotate(Point p, double angle) {
+		return rotate(p, angle, new Point(0, 0));
+	}
+
+	/**
+	 * Rotates p by the given angle, writing the result into the given point
+	 * instead of allocating a new one.
+	 * 
+	 * @param p      the point to rotate.
+	 * @param angle  the angle in radians.
+	 * @param result the point receiving the rotated coordinates, may be p.
+	 * @return result
+	 */
+	public static Point rotate(Point p, double angle, Point result) {
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		return result.set(p.x * cos + p.y * sin, -p.x * sin + p.y * cos);
+	}
+
+	// ================================================================================
+	// Primitive methods
+	// ================================================================================
+	// The methods below do the same math as the Point methods above on plain
+	// doubles, so that hot geometry loops do not need to allocate.
+
+	/**
+	 * Returns the dot product of vectors (x1, y1) and (x2, y2).
+	 */
+	public static double dot(double x1, double y1, double x2, double y2) {
+		return x1 * x2 + y1 * y2;
+	}
+
+	/**
+	 * Returns the z component of the cross product of vectors (x1, y1) and (x2,
+	 * y2).
+	 */
+	public static double cross(double x1, double y1, double x2, double y2) {
+		return x1 * y2 - y1 * x2;
+	}
+
+	/**
+	 * Returns the length of vector (x, y).
+	 */
+	public static double length(double x, double y) {
+		return Math.sqrt(x * x + y * y);
+	}
+
+	/**
+	 * Returns the distance between points (x1, y1) and (x2, y2).
+	 */
+	public static double distance(double x1, double y1, double x2, double y2) {
+		return length(x2 - x1, y2 - y1);
+	}
+
+	/**
+	 * negative: ccw positive: cw
+	 * 
+	 * @see #direction(Point, Point)
+	 */
+	public static double direction(double x1, double y1, double x2, double y2) {
+		return Math.signum(cross(x1, y1, x2, y2));
+	}
+
+	/**
+	 * Returns the angle in radians between vectors (x1, y1) and (x2, y2).
+	 * 
+	 * @see #angle(Point, Point)
+	 */
+	public static double angle(double x1, double y1, double x2, double y2) {
+		// Angle:
+		// p1.p2
+		// cos(angle) = --------------
+		// ||p1||*||p2||
+
+		double cos = dot(x1, y1, x2, y2) / (length(x1, y1) * length(x2, y2));
+		if (cos > 1) {
+			cos = 1;
+		}
+		return direction(x1, y1, x2, y2) * Math.acos(cos);
+	}
+
+	/**
+	 * Returns factor c such that (px + vx * c, py + vy * c) is the projection of
+	 * point (qx, qy) on the line through (px, py) with direction vector (vx, vy).
+	 * Returns 0 if the direction vector has length zero.
+	 */
+	public static double projectionFactor(double px, double py, double qx, double qy, double vx, double vy) {
+		double vlen = dot(vx, vy, vx, vy);
+		if (vlen == 0) {
+			return 0;
+		}
+		return dot(qx - px, qy - py, vx, vy) / vlen;
+	}
+
+	/**
+	 * Convert a 2-D point (px, py) to 1-D line coordinates (relative position on
+	 * the line from (sx, sy) to (ex, ey), range {0,1})
+	 * 
+	 * @see #toLineCoordinates(Point, Point, Point)
+	 */
+	public static double toLineCoordinates(double sx, double sy, double ex, double ey, double px, double py) {
 		// Project v position on line and calculate relative position
-		Point direction = start.subtract(end);
-		Point projection = project(start, p, direction);
-		double lineLength = distance(start, end);
-		double anchorLength = distance(start, projection);
+		double dx = sx - ex;
+		double dy = sy - ey;
+		double c = projectionFactor(sx, sy, px, py, dx, dy);
+		double projx = sx + dx * c;
+		double projy = sy + dy * c;
+		double lineLength = distance(sx, sy, ex, ey);
+		double anchorLength = distance(sx, sy, projx, projy);
 		double position = anchorLength / lineLength;
 
-		double ldir = direction(start, end);
-		double adir = direction(start, projection);
+		double ldir = direction(sx, sy, ex, ey);
+		double adir = direction(sx, sy, projx, projy);
 		if (adir != ldir) {
 			position = 0;
 		}
@@ -106,30 +226,27 @@ public class LinAlg {
 	}
 
 	/**
-	 * Projection of p1 on p2:
+	 * Returns the x coordinate of (x, y) rotated by the given angle.
 	 * 
-	 * p1.p2 ----- . p2 p2.p2
+	 * @see #rotate(Point, double)
 	 */
-	public static Point project(Point p1, Point p2) {
-		double c = dot(p1, p2) / dot(p2, p2);
-		return new Point(p2.x * c, p2.y * c);
+	public static double rotateX(double x, double y, double angle) {
+		return x * Math.cos(angle) + y * Math.sin(angle);
 	}
 
-	public static double distance(Point p1, Point p2) {
-		Point dp = p2.subtract(p1);
-		return dp.len();
-	}
-
-	public static Point rotate(Point p, double angle) {
-		Point pr = new Point(0, 0);
-		pr.x = p.x * Math.cos(angle) + p.y * Math.sin(angle);
-		pr.y = -p.x * Math.sin(angle) + p.y * Math.cos(angle);
-		return pr;
+	/**
+	 * Returns the y coordinate of (x, y) rotated by the given angle.
+	 * 
+	 * @see #rotate(Point, double)
+	 */
+	public static double rotateY(double x, double y, double angle) {
+		return -x * Math.sin(angle) + y * Math.cos(angle);
 	}
 
 	/**
 	 * Point, pair of doubles. Supports adding, substracting, calculating the length
-	 * of the vector, etc.
+	 * of the vector, etc. The methods returning a Point allocate a new object; use
+	 * the methods ending in "Local" to update a scratch point in place.
 	 */
 	public static class Point {
 		public double x, y;
@@ -161,7 +278,7 @@ public class LinAlg {
 		}
 
 		public double len() {
-			return Math.sqrt(dot(this, this));
+			return length(x, y);
 		}
 
 		public Point add(Point p) {
@@ -176,6 +293,54 @@ public class LinAlg {
 			return new Point(x *= d, y *= d);
 		}
 
+		/**
+		 * Sets the coordinates of this point.
+		 * 
+		 * @return this point.
+		 */
+		public Point set(double x, double y) {
+			this.x = x;
+			this.y = y;
+			return this;
+		}
+
+		/**
+		 * Adds p to this point in place.
+		 * 
+		 * @return this point.
+		 */
+		public Point addLocal(Point p) {
+			return set(x + p.x, y + p.y);
+		}
+
+		/**
+		 * Subtracts p from this point in place.
+		 * 
+		 * @return this point.
+		 */
+		public Point subtractLocal(Point p) {
+			return set(x - p.x, y - p.y);
+		}
+
+		/**
+		 * Multiplies this point by d in place.
+		 * 
+		 * @return this point.
+		 */
+		public Point multiplyLocal(double d) {
+			return set(x * d, y * d);
+		}
+
+		/**
+		 * Normalizes this point to unit length in place.
+		 * 
+		 * @return this point.
+		 */
+		public Point normLocal() {
+			double l = len();
+			return set(x / l, y / l);
+		}
+
 		public Point clone() {
 			return new Point(x, y);
 		}
@@ -16,7 +16,9 @@
  ******************************************************************************/
 package org.pathvisio.libgpml.util;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bridgedb.DataSource;
 import org.bridgedb.Xref;
@@ -74,11 +76,21 @@ public class XrefUtils {
 		}
 	}
 
+	// resolved data sources by string, valid while the data source registry size
+	// is unchanged
+	private static final Map<String, DataSource> dataSourceCache = new ConcurrentHashMap<String, DataSource>();
+	private static volatile int registrySize = -1;
+
 	/**
 	 * Returns {@link DataSource} object from given string. String may be either
 	 * compact identifier prefix, full name, or system code for a data source. If no
 	 * data source exists for the given string, registers the string as a new data
 	 * source.
+	 * <p>
+	 * NB: Resolved data sources are cached, as the same few strings are resolved
+	 * for every xref read. The cache is cleared when data sources are registered
+	 * elsewhere. Changes to existing data sources, e.g. new aliases, are not
+	 * detected; call {@link #clearDataSourceCache()} after such changes.
 	 * 
 	 * @param dataSourceStr the string for data source.
 	 * @return dataSource the data source for the given string.
@@ -87,6 +99,33 @@ public class XrefUtils {
 		if (dataSourceStr.equals("")) {
 			return null; // null datasource if if empty string
 		}
+		if (DataSource.getDataSources().size() == registrySize) {
+			DataSource dataSource = dataSourceCache.get(dataSourceStr);
+			if (dataSource != null) {
+				return dataSource;
+			}
+		}
+		synchronized (dataSourceCache) {
+			int size = DataSource.getDataSources().size();
+			if (size != registrySize) {
+				dataSourceCache.clear();
+				registrySize = size;
+			}
+			DataSource dataSource = resolveXrefDataSource(dataSourceStr);
+			if (dataSource != null) {
+				dataSourceCache.put(dataSourceStr, dataSource);
+			}
+			// a data source registered for this string does not change other strings
+			registrySize = DataSource.getDataSources().size();
+			return dataSource;
+		}
+	}
+
+	/**
+	 * Resolves the {@link DataSource} for given string, see
+	 * {@link #getXrefDataSource(String)}.
+	 */
+	private static DataSource resolveXrefDataSource(String dataSourceStr) {
 		// if compact identifier prefix
 		DataSource dataSource = DataSource.getByCompactIdentifierPrefix(dataSourceStr);
 		if (dataSource == null) {
@@ -95,22 +134,36 @@ public class XrefUtils {
 				dataSource = DataSource.getExistingByFullName(dataSourceStr);
 				// if existing system code
 			} else if (DataSource.systemCodeExists(dataSourceStr)) {
-				dataSource = DataSource.getByAlias(dataSourceStr);
+				dataSource = DataSource.getExistingBySystemCode(dataSourceStr);
 				// else register new data source
 			} else {
 				DataSource.register(dataSourceStr, dataSourceStr).compactIdentifierPrefix(dataSourceStr).asDataSource();
-				Logger.log.trace("Registered xref datasource " + dataSourceStr);
+				Logger.log.trace(() -> "Registered xref datasource " + dataSourceStr);
 				dataSource = DataSource.getByCompactIdentifierPrefix(dataSourceStr);
 			}
 		}
 		return dataSource;
 	}
 
+	/**
+	 * Clears the cache of resolved data sources. Needed only after changing
+	 * existing data sources, as registering new data sources clears the cache.
+	 */
+	public static void clearDataSourceCache() {
+		synchronized (dataSourceCache) {
+			dataSourceCache.clear();
+			registrySize = -1;
+		}
+	}
+
 	/**
 	 * Returns string for data source given {@link DataSource}. Priority is compact
 	 * identifier prefix string. If compact identifier prefix null, returns full
 	 * name. If full name null, returns system code. If no data source exists,
 	 * return null.
+	 * <p>
+	 * NB: Not cached, unlike {@link #getXrefDataSource(String)}, as this only
+	 * reads fields of the data source.
 	 * 
 	 * @param dataSource the data source.
 	 * @return dataSourceStr the string for given data source, or null if no valid
@@ -134,6 +187,8 @@ public class XrefUtils {
 	 * Priority is data source full name. If full name null, returns system code. If
 	 * system code null, returns compact prefix identifier. If no data source
 	 * exists, return null.
+	 * <p>
+	 * NB: Not cached, see {@link #getXrefDataSourceStr(DataSource)}.
 	 * 
 	 * @param dataSource the data source.
 	 * @return dataSourceStr the string for given data source, or null if no valid
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.debug;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link Logger}.
+ */
+public class TestLogger extends TestCase {
+
+	/**
+	 * Supplied messages are only built if their level is enabled.
+	 */
+	@Test
+	public void testSupplier() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Logger logger = new Logger();
+		logger.setStream(new PrintStream(out, true));
+		final AtomicInteger built = new AtomicInteger();
+		logger.trace(() -> "message " + built.incrementAndGet());
+		assertFalse(logger.isTraceEnabled());
+		assertEquals(0, built.get());
+		assertEquals(0, out.size());
+		logger.setLogLevel(true, true, true, true, true, true);
+		logger.trace(() -> "message " + built.incrementAndGet());
+		assertEquals(1, built.get());
+		assertTrue(out.toString().endsWith("Trace: message 1" + System.lineSeparator()));
+	}
+
+	/**
+	 * Asynchronous messages are written in order.
+	 */
+	@Test
+	public void testAsync() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Logger logger = new Logger();
+		logger.setStream(new PrintStream(out, true));
+		logger.setAsync(1000);
+		assertTrue(logger.isAsync());
+		for (int i = 0; i < 100; i++) {
+			logger.info("message " + i);
+		}
+		logger.error("error", new IllegalStateException("expected"));
+		logger.flush();
+		String[] lines = out.toString().split(System.lineSeparator());
+		assertTrue(lines[0].endsWith("Info:  message 0"));
+		assertTrue(lines[99].endsWith("Info:  message 99"));
+		assertTrue(lines[100].startsWith("Error: error"));
+		assertTrue(out.toString().contains("IllegalStateException: expected"));
+		assertEquals(0, logger.getDroppedCount());
+		logger.setAsync(0);
+		assertFalse(logger.isAsync());
+		logger.warn("sync");
+		assertTrue(out.toString().endsWith("Warn:  sync" + System.lineSeparator()));
+	}
+
+	/**
+	 * Messages are dropped rather than blocking the caller when the stream is
+	 * slow.
+	 */
+	@Test
+	public void testDrop() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		OutputStream blocking = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				out.write(b);
+			}
+		};
+		Logger logger = new Logger();
+		logger.setStream(new PrintStream(blocking, true));
+		logger.setAsync(2);
+		for (int i = 0; i < 10; i++) {
+			logger.warn("message " + i);
+		}
+		// one message is being written, at most two are queued
+		assertTrue(logger.getDroppedCount() >= 7);
+		release.countDown();
+		logger.flush();
+		assertTrue(out.toString().contains("log messages dropped"));
+		logger.setAsync(0);
+	}
+}
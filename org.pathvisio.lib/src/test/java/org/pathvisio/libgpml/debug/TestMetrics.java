@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.debug;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+
+import org.junit.Test;
+import org.pathvisio.libgpml.model.BinaryFormat;
+import org.pathvisio.libgpml.model.GPMLFormat;
+import org.pathvisio.libgpml.model.PathwayModel;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link Metrics} and {@link HistogramMetricsRecorder}.
+ */
+public class TestMetrics extends TestCase {
+
+	/**
+	 * Durations are counted in buckets of powers of two.
+	 */
+	@Test
+	public void testHistogram() {
+		HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+		for (int i = 1; i <= 100; i++) {
+			recorder.record(Phase.VALIDATE, i * 1000);
+		}
+		assertEquals(100, recorder.getCount(Phase.VALIDATE));
+		assertEquals(5050000, recorder.getTotalTime(Phase.VALIDATE));
+		assertEquals(50500.0, recorder.getMeanTime(Phase.VALIDATE));
+		// 50000 and 100000 are in buckets up to 2^16 and 2^17 nanoseconds
+		assertEquals(65535, recorder.getPercentile(Phase.VALIDATE, 0.5));
+		assertEquals(131071, recorder.getPercentile(Phase.VALIDATE, 1.0));
+		assertEquals(0, recorder.getPercentile(Phase.SERIALIZE, 0.5));
+		assertTrue(recorder.toString().contains("VALIDATE"));
+		assertFalse(recorder.toString().contains("SERIALIZE"));
+		recorder.reset();
+		assertEquals(0, recorder.getCount(Phase.VALIDATE));
+	}
+
+	/**
+	 * Phases of reading and writing are recorded while a recorder is set.
+	 */
+	@Test
+	public void testRecord() throws Exception {
+		URL url = Thread.currentThread().getContextClassLoader().getResource("example-v2021.gpml");
+		HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+		assertEquals(0, Metrics.start());
+		Metrics.setRecorder(recorder);
+		try {
+			PathwayModel p = new PathwayModel();
+			p.readFromXml(new File(url.getPath()), true);
+			GPMLFormat.GPML2021.writeToXml(p, new ByteArrayOutputStream(), false);
+			BinaryFormat.readFromBinary(new PathwayModel(), BinaryFormat.writeToBinary(p));
+		} finally {
+			Metrics.setRecorder(null);
+		}
+		for (Phase phase : new Phase[] { Phase.READ_GPML, Phase.BUILD_JDOM, Phase.VALIDATE, Phase.READ_DATANODES,
+				Phase.READ_POINT_ELEMENTREFS, Phase.REFRESH_LINE_ELEMENTS, Phase.WRITE_GPML, Phase.CREATE_JDOM,
+				Phase.SERIALIZE, Phase.READ_BINARY, Phase.WRITE_BINARY }) {
+			assertEquals(phase.toString(), 1, recorder.getCount(phase));
+		}
+		assertEquals(0, recorder.getCount(Phase.INTERN));
+		assertTrue(recorder.getTotalTime(Phase.READ_GPML) >= recorder.getTotalTime(Phase.BUILD_JDOM)
+				+ recorder.getTotalTime(Phase.VALIDATE) + recorder.getTotalTime(Phase.READ_DATANODES));
+		assertSame(MetricsRecorder.NONE, Metrics.getRecorder());
+	}
+}
@@ -0,0 +1,393 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.bridgedb.bio.DataSourceTxt;
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.GraphLink.LinkableTo;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.PathwayElement.AnnotationRef;
+import org.pathvisio.libgpml.model.type.AnchorShapeType;
+import org.pathvisio.libgpml.model.type.AnnotationType;
+import org.pathvisio.libgpml.model.type.ArrowHeadType;
+import org.pathvisio.libgpml.model.type.ConnectorType;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.GroupType;
+import org.pathvisio.libgpml.model.type.LineStyleType;
+import org.pathvisio.libgpml.model.type.ShapeType;
+import org.pathvisio.libgpml.model.type.StateType;
+import org.pathvisio.libgpml.util.XrefUtils;
+
+/**
+ * Generates synthetic pathway models of a given size, for benchmarks and stress
+ * tests of reading, writing and copying. The same size and seed always give the
+ * same pathway model, including elementIds.
+ * <p>
+ * NB: Of the given number of pathway elements, about:
+ * <ol>
+ * <li>45% are data nodes on a grid, a fifth with one or two states, a quarter
+ * with annotationRefs to shared annotations with citationRefs and evidenceRefs.
+ * <li>30% are interactions between nearby data nodes, with straight, elbow or
+ * curved connectors. A fifth has an anchor, and some interactions end at anchors
+ * or start at groups.
+ * <li>7% are complex groups of three data nodes, nested in pathway groups of
+ * three complexes, and aliases of complexes.
+ * <li>the rest are labels, shapes and graphical lines.
+ * </ol>
+ */
+public class PathwayModelGenerator {
+
+	private static final DataNodeType[] DATANODE_TYPES = { DataNodeType.GENEPRODUCT, DataNodeType.PROTEIN,
+			DataNodeType.METABOLITE, DataNodeType.RNA };
+	private static final StateType[] STATE_TYPES = { StateType.PROTEIN_MODIFICATION, StateType.GENETIC_VARIANT,
+			StateType.EPIGENETIC_MODIFICATION };
+	private static final ConnectorType[] CONNECTOR_TYPES = { ConnectorType.STRAIGHT, ConnectorType.ELBOW,
+			ConnectorType.CURVED };
+	private static final ArrowHeadType[] ARROWHEAD_TYPES = { ArrowHeadType.CONVERSION, ArrowHeadType.BINDING,
+			ArrowHeadType.INHIBITION, ArrowHeadType.STIMULATION };
+	private static final ShapeType[] SHAPE_TYPES = { ShapeType.RECTANGLE, ShapeType.ROUNDED_RECTANGLE, ShapeType.OVAL,
+			ShapeType.HEXAGON };
+
+	private static final double COLUMN_WIDTH = 150;
+	private static final double ROW_HEIGHT = 80;
+
+	/**
+	 * Initializes Xref data source text, as in {@link GPMLFormat}.
+	 */
+	static {
+		if (!DataSource.fullNameExists("Ensembl")) DataSourceTxt.init();
+	}
+
+	private final Random random;
+	private final PathwayModel pathwayModel = new PathwayModel();
+	private final List<DataNode> dataNodes = new ArrayList<DataNode>();
+	private final List<Group> complexes = new ArrayList<Group>();
+	private final List<Anchor> anchors = new ArrayList<Anchor>();
+	private final Map<LinePoint, Anchor> anchorLinks = new LinkedHashMap<LinePoint, Anchor>();
+	private final List<Annotation> annotations = new ArrayList<Annotation>();
+	private final List<Citation> citations = new ArrayList<Citation>();
+	private final List<Evidence> evidences = new ArrayList<Evidence>();
+	private int columns;
+	private int nextId = 0;
+
+	// ================================================================================
+	// Constructors
+	// ================================================================================
+	/**
+	 * Instantiates a generator, use {@link #generate(int, long)}.
+	 */
+	private PathwayModelGenerator(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Generates a pathway model with about the given number of pathway elements,
+	 * not counting states, points and anchors.
+	 *
+	 * @param size the number of pathway elements.
+	 * @param seed the seed of the random generator.
+	 * @return the new pathway model.
+	 * @throws IllegalArgumentException if size is negative.
+	 */
+	public static PathwayModel generate(int size, long seed) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Size " + size + " should not be negative.");
+		}
+		PathwayModelGenerator generator = new PathwayModelGenerator(seed);
+		generator.generate(size);
+		return generator.pathwayModel;
+	}
+
+	// ================================================================================
+	// Generate Methods
+	// ================================================================================
+	private void generate(int size) {
+		int dataNodeCount = Math.max(2, size * 45 / 100);
+		columns = (int) Math.ceil(Math.sqrt(dataNodeCount));
+		generatePathway(size);
+		generateReferences(Math.max(1, size / 100));
+		generateDataNodes(dataNodeCount);
+		generateGroups();
+		generateInteractions(size * 30 / 100);
+		generateLabels(size * 6 / 100);
+		generateShapes(size * 4 / 100);
+		generateGraphicalLines(size * 2 / 100);
+	}
+
+	private void generatePathway(int size) {
+		Pathway pathway = pathwayModel.getPathway();
+		pathway.setTitle("Synthetic pathway of " + size + " pathway elements");
+		pathway.setOrganism("Homo sapiens");
+		pathway.setDescription("Generated by " + getClass().getSimpleName() + ".");
+		pathway.addAuthor("libGPML");
+	}
+
+	/**
+	 * Adds annotations, citations and evidences, which are referred to by pathway
+	 * elements.
+	 */
+	private void generateReferences(int n) {
+		for (int i = 0; i < n; i++) {
+			Annotation annotation = new Annotation("Term " + i, AnnotationType.ONTOLOGY,
+					XrefUtils.createXref("GO:" + (1000000 + i), "Gene Ontology"), null);
+			annotation.setElementId(nextId("a"));
+			annotations.add(pathwayModel.addAnnotation(annotation));
+			Citation citation = new Citation(XrefUtils.createXref(Integer.toString(10000000 + i), "PubMed"), null);
+			citation.setElementId(nextId("c"));
+			citations.add(pathwayModel.addCitation(citation));
+			Evidence evidence = new Evidence("Evidence " + i,
+					XrefUtils.createXref("ECO:" + (1000000 + i), "Evidence & Conclusion Ontology"), null);
+			evidence.setElementId(nextId("e"));
+			evidences.add(pathwayModel.addEvidence(evidence));
+		}
+		pathwayModel.getPathway().addCitation(citations.get(0));
+	}
+
+	/**
+	 * Adds data nodes on a grid, some with states, annotationRefs and comments.
+	 */
+	private void generateDataNodes(int n) {
+		for (int i = 0; i < n; i++) {
+			DataNodeType type = DATANODE_TYPES[random.nextInt(DATANODE_TYPES.length)];
+			DataNode dataNode = new DataNode("Node " + i, type);
+			dataNode.setElementId(nextId("n"));
+			dataNode.setCenterX(COLUMN_WIDTH * (1 + i % columns));
+			dataNode.setCenterY(ROW_HEIGHT * (1 + i / columns));
+			dataNode.setWidth(90);
+			dataNode.setHeight(25);
+			if (type == DataNodeType.METABOLITE) {
+				dataNode.setXref(XrefUtils.createXref("CHEBI:" + (10000 + random.nextInt(90000)), "ChEBI"));
+				dataNode.setTextColor(Color.BLUE);
+				dataNode.setBorderColor(Color.BLUE);
+			} else {
+				dataNode.setXref(XrefUtils.createXref(Integer.toString(1000 + random.nextInt(100000)), "Entrez Gene"));
+			}
+			if (random.nextInt(5) == 0) {
+				int stateCount = 1 + random.nextInt(2);
+				for (int j = 0; j < stateCount; j++) {
+					State state = dataNode.addState(nextId("s"), "P", STATE_TYPES[random.nextInt(STATE_TYPES.length)],
+							j == 0 ? 1.0 : -1.0, -1.0);
+					state.setWidth(15);
+					state.setHeight(15);
+					state.setShapeType(ShapeType.OVAL);
+				}
+			}
+			if (random.nextInt(4) == 0) {
+				addReferences(dataNode);
+			}
+			if (random.nextInt(10) == 0) {
+				dataNode.addComment("Comment on node " + i, "libGPML");
+			}
+			pathwayModel.addDataNode(dataNode);
+			for (State state : dataNode.getStates()) {
+				state.coordinatesChanged();
+			}
+			dataNodes.add(dataNode);
+		}
+	}
+
+	/**
+	 * Adds an annotationRef with a citationRef and evidenceRef to the pathway
+	 * element.
+	 */
+	private void addReferences(PathwayElement pathwayElement) {
+		AnnotationRef annotationRef = pathwayElement
+				.addAnnotation(annotations.get(random.nextInt(annotations.size())));
+		if (random.nextBoolean()) {
+			annotationRef.addCitation(citations.get(random.nextInt(citations.size())));
+		}
+		if (random.nextBoolean()) {
+			annotationRef.addEvidence(evidences.get(random.nextInt(evidences.size())));
+		}
+	}
+
+	/**
+	 * Groups three neighbouring data nodes in complexes, nests three consecutive
+	 * complexes in pathway groups, and adds aliases of some complexes.
+	 */
+	private void generateGroups() {
+		Group parent = null;
+		for (int i = 0; i + 3 <= dataNodes.size(); i += 9) {
+			if (i % columns + 3 > columns) {
+				continue; // complexes do not wrap to the next row
+			}
+			Group complex = new Group(GroupType.COMPLEX);
+			complex.setElementId(nextId("g"));
+			pathwayModel.addGroup(complex);
+			for (int j = i; j < i + 3; j++) {
+				dataNodes.get(j).setGroupRefTo(complex);
+			}
+			complex.updateDimensions();
+			if (complexes.size() % 3 == 0) {
+				parent = new Group(GroupType.PATHWAY);
+				parent.setElementId(nextId("g"));
+				parent.setTextLabel("Pathway group " + complexes.size() / 3);
+				pathwayModel.addGroup(parent);
+			}
+			complex.setGroupRefTo(parent);
+			complexes.add(complex);
+			if (complexes.size() % 4 == 0) {
+				DataNode alias = new DataNode("Alias of complex " + complexes.size(), DataNodeType.ALIAS);
+				alias.setElementId(nextId("n"));
+				alias.setCenterX(complex.getCenterX() + COLUMN_WIDTH / 2);
+				alias.setCenterY(complex.getCenterY() + ROW_HEIGHT / 2);
+				alias.setWidth(90);
+				alias.setHeight(25);
+				pathwayModel.addDataNode(alias);
+				alias.setAliasRef(complex);
+			}
+		}
+		// pathway groups contain the updated complexes
+		for (Group group : pathwayModel.getGroups()) {
+			group.updateDimensions();
+		}
+	}
+
+	/**
+	 * Adds interactions between nearby data nodes. Some interactions have an
+	 * anchor, end at an anchor of a previous interaction, or start at a complex.
+	 */
+	private void generateInteractions(int n) {
+		for (int i = 0; i < n; i++) {
+			Interaction interaction = new Interaction();
+			interaction.setElementId(nextId("i"));
+			interaction.setConnectorType(CONNECTOR_TYPES[random.nextInt(CONNECTOR_TYPES.length)]);
+			interaction.setEndArrowHeadType(ARROWHEAD_TYPES[random.nextInt(ARROWHEAD_TYPES.length)]);
+			int from = random.nextInt(dataNodes.size());
+			int to = from + (random.nextBoolean() ? 1 : columns);
+			if (to >= dataNodes.size()) {
+				to = from == 0 ? 1 : from - 1;
+			}
+			// links to the facing sides of the data nodes
+			double relX = Math.abs(to - from) == 1 ? Math.signum(to - from) : 0;
+			double relY = relX == 0 ? Math.signum(to - from) : 0;
+			LinkableTo start = dataNodes.get(from);
+			LinkableTo end = dataNodes.get(to);
+			int r = random.nextInt(20);
+			if (r == 0 && !anchors.isEmpty()) {
+				end = anchors.get(random.nextInt(anchors.size()));
+				interaction.setEndArrowHeadType(ArrowHeadType.CATALYSIS);
+			} else if (r == 1 && !complexes.isEmpty()) {
+				start = complexes.get(random.nextInt(complexes.size()));
+			}
+			LinePoint startPoint = interaction.new LinePoint(0, 0);
+			startPoint.setElementId(nextId("p"));
+			LinePoint endPoint = interaction.new LinePoint(0, 0);
+			endPoint.setElementId(nextId("p"));
+			interaction.setLinePoints(new ArrayList<LinePoint>(Arrays.asList(startPoint, endPoint)));
+			if (random.nextInt(5) == 0) {
+				anchors.add(interaction.addAnchor(nextId("p"), 0.5, AnchorShapeType.SQUARE));
+			}
+			if (random.nextInt(4) == 0) {
+				interaction.addCitation(citations.get(random.nextInt(citations.size())));
+			}
+			pathwayModel.addInteraction(interaction);
+			startPoint.linkTo(start, relX, relY);
+			if (end instanceof Anchor) {
+				anchorLinks.put(endPoint, (Anchor) end);
+			} else {
+				endPoint.linkTo(end, -relX, -relY);
+			}
+		}
+		// anchors are positioned on the connector shape of their line, so links to
+		// anchors follow once all lines have their final shape
+		for (LineElement lineElement : pathwayModel.getLineElements()) {
+			lineElement.getConnectorShape().recalculateShape(lineElement);
+		}
+		for (Map.Entry<LinePoint, Anchor> entry : anchorLinks.entrySet()) {
+			LineElement anchorLine = entry.getValue().getLineElement();
+			anchorLine.getConnectorShape().recalculateShape(anchorLine);
+			entry.getKey().linkTo(entry.getValue(), 0, 0);
+			LineElement lineElement = entry.getKey().getLineElement();
+			lineElement.getConnectorShape().recalculateShape(lineElement);
+		}
+	}
+
+	private void generateLabels(int n) {
+		for (int i = 0; i < n; i++) {
+			Label label = new Label("Label " + i);
+			label.setElementId(nextId("l"));
+			label.setCenterX(COLUMN_WIDTH * (0.5 + random.nextInt(columns)));
+			label.setCenterY(ROW_HEIGHT * (0.5 + random.nextInt(rows())));
+			label.setWidth(80);
+			label.setHeight(20);
+			label.setFontSize(random.nextBoolean() ? 12 : 16);
+			if (random.nextInt(10) == 0) {
+				label.setHref("https://www.wikipathways.org");
+			}
+			pathwayModel.addLabel(label);
+		}
+	}
+
+	private void generateShapes(int n) {
+		for (int i = 0; i < n; i++) {
+			Shape shape = new Shape();
+			shape.setElementId(nextId("h"));
+			shape.setShapeType(SHAPE_TYPES[random.nextInt(SHAPE_TYPES.length)]);
+			shape.setCenterX(COLUMN_WIDTH * (0.5 + random.nextInt(columns)));
+			shape.setCenterY(ROW_HEIGHT * (0.5 + random.nextInt(rows())));
+			shape.setWidth(COLUMN_WIDTH);
+			shape.setHeight(ROW_HEIGHT);
+			shape.setBorderStyle(LineStyleType.DASHED);
+			shape.setRotation(random.nextInt(4) * Math.PI / 2);
+			shape.setZOrder(-1);
+			pathwayModel.addShape(shape);
+		}
+	}
+
+	private void generateGraphicalLines(int n) {
+		for (int i = 0; i < n; i++) {
+			GraphicalLine graphicalLine = new GraphicalLine();
+			graphicalLine.setElementId(nextId("r"));
+			double x = COLUMN_WIDTH * (0.5 + random.nextInt(columns));
+			double y = ROW_HEIGHT * (0.5 + random.nextInt(rows()));
+			LinePoint startPoint = graphicalLine.new LinePoint(x, y);
+			startPoint.setElementId(nextId("p"));
+			LinePoint endPoint = graphicalLine.new LinePoint(x + COLUMN_WIDTH, y);
+			endPoint.setElementId(nextId("p"));
+			graphicalLine.setLinePoints(new ArrayList<LinePoint>(Arrays.asList(startPoint, endPoint)));
+			graphicalLine.setLineStyle(LineStyleType.DOUBLE);
+			pathwayModel.addGraphicalLine(graphicalLine);
+		}
+	}
+
+	// ================================================================================
+	// Helper Methods
+	// ================================================================================
+	private int rows() {
+		return (dataNodes.size() + columns - 1) / columns;
+	}
+
+	/**
+	 * Returns the next elementId with the given prefix. ElementIds are unique
+	 * within the generated pathway model.
+	 */
+	private String nextId(String prefix) {
+		return prefix + Integer.toString(nextId++, 36);
+	}
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link BinaryFormat}.
+ */
+public class TestBinaryFormat extends TestCase {
+
+	private static String toGPML2021(PathwayModel pathwayModel) throws ConverterException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GPMLFormat.GPML2021.writeToXml(pathwayModel, out, false);
+		return out.toString();
+	}
+
+	private static void assertRoundTrip(String inputFile) throws ConverterException {
+		URL url = Thread.currentThread().getContextClassLoader().getResource(inputFile);
+		PathwayModel p1 = new PathwayModel();
+		p1.readFromXml(new File(url.getPath()), true);
+		byte[] bytes = BinaryFormat.writeToBinary(p1);
+		assertTrue(BinaryFormat.isMagic(ByteBuffer.wrap(bytes)));
+		PathwayModel p2 = new PathwayModel();
+		BinaryFormat.readFromBinary(p2, bytes);
+		assertTrue(PathwayModelDiff.compare(p1, p2).isEmpty());
+		assertEquals(toGPML2021(p1), toGPML2021(p2));
+		// styles are shared after reading, afterwards the same bytes are written
+		bytes = BinaryFormat.writeToBinary(p2);
+		PathwayModel p3 = new PathwayModel();
+		BinaryFormat.readFromBinary(p3, bytes);
+		assertTrue(Arrays.equals(bytes, BinaryFormat.writeToBinary(p3)));
+	}
+
+	/**
+	 * Pathway models read from the binary format are written to the same GPML.
+	 */
+	@Test
+	public void testRoundTrip() throws ConverterException {
+		assertRoundTrip("example-v2021.gpml");
+		assertRoundTrip("example-v2013a.gpml");
+	}
+
+	/**
+	 * Pathway models are read from the current position of a buffer, one after the
+	 * other.
+	 */
+	@Test
+	public void testBuffer() throws ConverterException {
+		PathwayModel p = new PathwayModel();
+		DataNode d1 = new DataNode("d1", DataNodeType.GENEPRODUCT);
+		d1.setCenterX(12.345678);
+		p.addDataNode(d1);
+		byte[] bytes = BinaryFormat.writeToBinary(p);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(2 * bytes.length);
+		buffer.put(bytes).put(bytes).flip();
+		PathwayModel p1 = new PathwayModel();
+		BinaryFormat.readFromBinary(p1, buffer);
+		assertEquals(bytes.length, buffer.position());
+		PathwayModel p2 = new PathwayModel();
+		BinaryFormat.readFromBinary(p2, buffer);
+		assertFalse(buffer.hasRemaining());
+		assertEquals(12.345678, p2.getDataNodes().get(0).getCenterX());
+		assertTrue(PathwayModelDiff.compare(p, p2).isEmpty());
+	}
+
+	/**
+	 * Other files and newer versions are not read.
+	 */
+	@Test
+	public void testInvalid() {
+		try {
+			BinaryFormat.readFromBinary(new PathwayModel(), "<Pathway/>".getBytes());
+			fail("Expected ConverterException");
+		} catch (ConverterException e) {
+			// expected
+		}
+		try {
+			BinaryFormat.readFromBinary(new PathwayModel(), new byte[] { 'G', 'P', 'M', 'B', 99 });
+			fail("Expected ConverterException");
+		} catch (ConverterException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for board size of {@link PathwayModel}.
+ */
+public class TestBoardSize extends TestCase {
+
+	private PathwayModel p;
+	private DataNode d1;
+	private DataNode d2;
+	private int resized;
+
+	@Before
+	public void setUp() {
+		p = new PathwayModel();
+		d1 = new DataNode("d1", DataNodeType.UNDEFINED);
+		d2 = new DataNode("d2", DataNodeType.UNDEFINED);
+		d1.setWidth(20);
+		d1.setHeight(10);
+		d1.setCenterX(100);
+		d1.setCenterY(50);
+		d2.setWidth(20);
+		d2.setHeight(10);
+		d2.setCenterX(200);
+		d2.setCenterY(300);
+		p.addDataNode(d1);
+		p.addDataNode(d2);
+		resized = 0;
+		p.addListener(new PathwayModelListener() {
+			@Override
+			public void pathwayModified(PathwayModelEvent e) {
+				if (e.getType() == PathwayModelEvent.RESIZED) {
+					resized++;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Board grows and shrinks with the outer most pathway elements.
+	 */
+	@Test
+	public void testGrowAndShrink() {
+		assertEquals(240.0, p.getPathway().getBoardWidth());
+		assertEquals(335.0, p.getPathway().getBoardHeight());
+		d1.setCenterX(500);
+		assertEquals(540.0, p.getPathway().getBoardWidth());
+		assertEquals(335.0, p.getPathway().getBoardHeight());
+		d1.setCenterX(100);
+		assertEquals(240.0, p.getPathway().getBoardWidth());
+		p.removeDataNode(d2);
+		assertEquals(140.0, p.getPathway().getBoardWidth());
+		assertEquals(85.0, p.getPathway().getBoardHeight());
+		assertEquals(3, resized);
+	}
+
+	/**
+	 * Resize events are coalesced while suspended.
+	 */
+	@Test
+	public void testSuspendResizeEvents() {
+		p.suspendResizeEvents();
+		for (int i = 0; i < 100; i++) {
+			d1.setCenterX(300 + i);
+		}
+		assertEquals(439.0, p.getPathway().getBoardWidth());
+		assertEquals(0, resized);
+		p.resumeResizeEvents();
+		assertEquals(1, resized);
+		try {
+			p.resumeResizeEvents();
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// ok
+		}
+	}
+
+	/**
+	 * Board size read from GPML is kept when larger than the pathway elements,
+	 * and written again. Setting a smaller board size shrinks the board to fit
+	 * the pathway elements.
+	 */
+	@Test
+	public void testOversizedBoardRoundTrip() throws Exception {
+		String gpml = new String(Files.readAllBytes(Paths.get(Thread.currentThread().getContextClassLoader()
+				.getResource("example-v2021.gpml").toURI())), StandardCharsets.UTF_8);
+		gpml = gpml.replace("boardWidth=\"2421.0000000000164\" boardHeight=\"2122.0\"",
+				"boardWidth=\"5000.0\" boardHeight=\"4000.0\"");
+		PathwayModel p1 = new PathwayModel();
+		p1.readFromXml(new StringReader(gpml), true);
+		assertEquals(5000.0, p1.getPathway().getBoardWidth());
+		assertEquals(4000.0, p1.getPathway().getBoardHeight());
+		PathwayModel p2 = roundTrip(p1, GPMLFormat.GPML2021);
+		assertEquals(5000.0, p2.getPathway().getBoardWidth());
+		assertEquals(4000.0, p2.getPathway().getBoardHeight());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GPMLFormat.GPML2013a.writeToXml(p1, out, true);
+		String gpml2013a = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(gpml2013a.contains("BoardWidth=\"5000.0\" BoardHeight=\"4000.0\""));
+		// elements moved beyond the board still grow it, and shrink it back
+		DataNode d = p1.getDataNodes().get(0);
+		double x = d.getCenterX();
+		d.setCenterX(6000);
+		assertTrue(p1.getPathway().getBoardWidth() >= 6000.0 + d.getWidth() / 2 + PathwayModel.BORDER_SIZE);
+		d.setCenterX(x);
+		assertEquals(5000.0, p1.getPathway().getBoardWidth());
+		// an explicit edit shrinks the board to the pathway elements
+		p1.getPathway().setBoardWidth(0);
+		assertEquals(2421.0, p1.getPathway().getBoardWidth(), 1e-9);
+		assertEquals(2421.0, roundTrip(p1, GPMLFormat.GPML2021).getPathway().getBoardWidth(), 1e-9);
+	}
+
+	private static PathwayModel roundTrip(PathwayModel p, GPMLFormatWriter format) throws ConverterException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		format.writeToXml(p, out, true);
+		PathwayModel result = new PathwayModel();
+		result.readFromXml(new ByteArrayInputStream(out.toByteArray()), true);
+		return result;
+	}
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.GroupType;
+import org.pathvisio.libgpml.prop.StaticProperty;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for bulk updates of static properties in {@link PathwayModel}.
+ */
+public class TestBulkUpdate extends TestCase {
+
+	private PathwayModel p;
+	private DataNode d1;
+	private DataNode d2;
+	private Label l1;
+	private List<PathwayModelEvent> modelEvents;
+	private List<PathwayObjectEvent> objectEvents;
+
+	@Before
+	public void setUp() {
+		p = new PathwayModel();
+		d1 = new DataNode("d1", DataNodeType.GENEPRODUCT);
+		d2 = new DataNode("d2", DataNodeType.METABOLITE);
+		l1 = new Label("l1");
+		p.addDataNode(d1);
+		p.addDataNode(d2);
+		p.addLabel(l1);
+		modelEvents = new ArrayList<PathwayModelEvent>();
+		objectEvents = new ArrayList<PathwayObjectEvent>();
+		p.addListener(new PathwayModelListener() {
+			@Override
+			public void pathwayModified(PathwayModelEvent e) {
+				modelEvents.add(e);
+			}
+		});
+		PathwayObjectListener listener = new PathwayObjectListener() {
+			@Override
+			public void gmmlObjectModified(PathwayObjectEvent e) {
+				objectEvents.add(e);
+			}
+		};
+		d1.addListener(listener);
+		d2.addListener(listener);
+	}
+
+	/**
+	 * Sets a property on a collection, with a single aggregated notification.
+	 */
+	@Test
+	public void testCollection() {
+		p.setStaticProperty(Arrays.asList(d1, d2, l1), StaticProperty.FILLCOLOR, Color.RED);
+		assertEquals(Color.RED, d1.getFillColor());
+		assertEquals(Color.RED, d2.getFillColor());
+		assertEquals(Color.RED, l1.getFillColor());
+		assertEquals(1, modelEvents.size());
+		assertEquals(PathwayModelEvent.MODIFIED, modelEvents.get(0).getType());
+		assertEquals(3, modelEvents.get(0).getAffectedObjects().size());
+		assertEquals(2, objectEvents.size());
+		for (PathwayObjectEvent e : objectEvents) {
+			assertTrue(e.affectsProperty(StaticProperty.FILLCOLOR));
+			assertFalse(e.affectsProperty(StaticProperty.TEXTLABEL));
+			assertFalse(e.isCoordinateChange());
+		}
+	}
+
+	/**
+	 * Sets a property on objects matching a predicate, objects without the
+	 * property are skipped.
+	 */
+	@Test
+	public void testPredicate() {
+		p.setStaticProperty(o -> o instanceof DataNode && ((DataNode) o).getType() == DataNodeType.METABOLITE,
+				StaticProperty.CENTERX, 100.0);
+		assertEquals(0.0, d1.getCenterX());
+		assertEquals(100.0, d2.getCenterX());
+		assertEquals(1, objectEvents.size());
+		assertTrue(objectEvents.get(0).isCoordinateChange());
+		assertTrue(objectEvents.get(0).affectsProperty(StaticProperty.CENTERX));
+		assertFalse(objectEvents.get(0).affectsProperty(StaticProperty.FILLCOLOR));
+		p.setStaticProperty(o -> true, StaticProperty.DATANODETYPE, DataNodeType.PROTEIN);
+		assertEquals(DataNodeType.PROTEIN, d1.getType());
+		assertEquals(DataNodeType.PROTEIN, d2.getType());
+	}
+
+	/**
+	 * Invalid objects are rejected before anything is changed.
+	 */
+	@Test
+	public void testValidation() {
+		try {
+			p.setStaticProperty(Arrays.asList(d1, l1), StaticProperty.DATANODETYPE, DataNodeType.PROTEIN);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// ok
+		}
+		assertEquals(DataNodeType.GENEPRODUCT, d1.getType());
+		assertTrue(modelEvents.isEmpty());
+	}
+
+	/**
+	 * Values of the wrong type are rejected before anything is changed, values of
+	 * named types may be given by name.
+	 */
+	@Test
+	public void testValueValidation() {
+		try {
+			p.setStaticProperty(Arrays.asList(d1, d2), StaticProperty.CENTERX, "100");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// ok
+		}
+		try {
+			p.setStaticProperty(Arrays.asList(d1, d2), StaticProperty.CENTERX, null);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// ok
+		}
+		try {
+			p.setStaticProperty(Arrays.asList(d1, d2), StaticProperty.FILLCOLOR, "red");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// ok
+		}
+		assertEquals(0.0, d1.getCenterX());
+		assertTrue(objectEvents.isEmpty());
+		assertTrue(modelEvents.isEmpty());
+		p.setStaticProperty(Arrays.asList(d1, d2), StaticProperty.DATANODETYPE, "Protein");
+		assertEquals(DataNodeType.PROTEIN, d2.getType());
+		Group g = new Group(GroupType.GROUP);
+		p.addGroup(g);
+		p.setStaticProperty(Arrays.asList(d1, d2), StaticProperty.GROUPREF, g);
+		assertSame(g, d2.getGroupRef());
+	}
+
+	/**
+	 * A listener throwing while objects modified before a setter threw are
+	 * notified does not mask the exception of the setter.
+	 */
+	@Test
+	public void testListenerThrows() {
+		Group g = new Group(GroupType.GROUP);
+		p.addGroup(g);
+		d1.setType(DataNodeType.ALIAS);
+		RuntimeException listenerException = new IllegalStateException("listener");
+		p.addListener(new PathwayModelListener() {
+			@Override
+			public void pathwayModified(PathwayModelEvent e) {
+				throw listenerException;
+			}
+		});
+		try {
+			p.setStaticProperty(Arrays.asList(d1, d2), StaticProperty.ALIASREF, g);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// d2 is not an alias
+			assertEquals(1, e.getSuppressed().length);
+			assertSame(listenerException, e.getSuppressed()[0]);
+		}
+		// without a failing setter the exception of the listener is passed on
+		try {
+			p.setStaticProperty(Arrays.asList(d1, d2), StaticProperty.TEXTLABEL, "label");
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertSame(listenerException, e);
+		}
+	}
+
+	/**
+	 * Objects modified before a setter throws are still notified, and later
+	 * changes are notified immediately again.
+	 */
+	@Test
+	public void testSetterThrows() {
+		Group g = new Group(GroupType.GROUP);
+		p.addGroup(g);
+		d1.setType(DataNodeType.ALIAS);
+		objectEvents.clear();
+		modelEvents.clear();
+		try {
+			p.setStaticProperty(Arrays.asList(d1, d2), StaticProperty.ALIASREF, g);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// ok, d2 is not an alias
+		}
+		assertSame(g, d1.getAliasRef());
+		assertEquals(1, objectEvents.size());
+		assertSame(d1, objectEvents.get(0).getModifiedPathwayObject());
+		assertTrue(objectEvents.get(0).affectsProperty(StaticProperty.ALIASREF));
+		assertFalse(objectEvents.get(0).affectsProperty(StaticProperty.TEXTLABEL));
+		assertEquals(1, modelEvents.size());
+		assertEquals(1, modelEvents.get(0).getAffectedObjects().size());
+		assertTrue(modelEvents.get(0).getAffectedObjects().contains(d1));
+		d2.setTextLabel("d2 changed");
+		assertEquals(2, objectEvents.size());
+	}
+}
@@ -16,15 +16,25 @@
  ******************************************************************************/
 package org.pathvisio.libgpml.model;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
 import org.junit.Before;
 import org.junit.Test;
 import org.pathvisio.libgpml.model.DataNode.State;
 import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.Pathway.Author;
+import org.pathvisio.libgpml.model.PathwayElement.AnnotationRef;
 import org.pathvisio.libgpml.model.PathwayElement.CitationRef;
+import org.pathvisio.libgpml.model.connector.ConnectorShape;
+import org.pathvisio.libgpml.model.type.AnnotationType;
+import org.pathvisio.libgpml.model.type.ConnectorType;
 import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.GroupType;
 import org.pathvisio.libgpml.model.type.StateType;
 
 import junit.framework.TestCase;
@@ -83,6 +93,152 @@ public class TestCopy extends TestCase {
 //		assertEquals(o2.getAnchors().get(0).getPathwayModel(), p2);
 	}
 	
+	/**
+	 * Clone links line points to the copies of their elementRefs, and takes over
+	 * the connector shape geometry without sharing waypoints.
+	 */
+	@Test
+	public void testCloneLinks() {
+		i1.setStartElementRef(o1);
+		i1.setEndElementRef(s1);
+		i1.setConnectorType(ConnectorType.ELBOW);
+		ConnectorShape shape = i1.getConnectorShape();
+		PathwayModel p2 = p.clone();
+		Interaction i2 = p2.getInteractions().get(0);
+		DataNode o2 = p2.getDataNodes().get(0);
+		assertSame(o2, i2.getStartElementRef());
+		assertSame(o2.getStates().get(0), i2.getEndElementRef());
+		ConnectorShape shape2 = i2.getConnectorShape();
+		assertNotSame(shape, shape2);
+		assertEquals(shape.getSegments().length, shape2.getSegments().length);
+		for (int i = 0; i < shape.getSegments().length; i++) {
+			assertEquals(shape.getSegments()[i].getMStart(), shape2.getSegments()[i].getMStart());
+			assertEquals(shape.getSegments()[i].getMEnd(), shape2.getSegments()[i].getMEnd());
+		}
+		assertNotSame(shape.getWayPoints(), shape2.getWayPoints());
+	}
+
+	/**
+	 * Clone copies the curve of curved lines, so lines linked to their anchors
+	 * have the same end points, and updates nested groups once all members are
+	 * linked.
+	 */
+	@Test
+	public void testCloneCurvedAnchorsAndNestedGroups() {
+		i1.getStartLinePoint().setX(10);
+		i1.getEndLinePoint().setX(210);
+		i1.getEndLinePoint().setY(118);
+		i1.setConnectorType(ConnectorType.CURVED);
+		Interaction i3 = new Interaction();
+		p.addInteraction(i3);
+		i3.getStartLinePoint().setX(300);
+		i3.getStartLinePoint().setY(18);
+		i3.setEndElementRef(i1.getAnchors().get(0));
+		i1.getConnectorShape();
+		// outer group is added first, so it is copied before its nested group
+		Group outer = new Group(GroupType.GROUP);
+		p.addGroup(outer);
+		Group inner = new Group(GroupType.COMPLEX);
+		p.addGroup(inner);
+		DataNode o2 = new DataNode("o2", DataNodeType.UNDEFINED);
+		p.addDataNode(o2);
+		o1.setCenterX(200);
+		o1.setCenterY(200);
+		o2.setCenterX(300);
+		o2.setCenterY(250);
+		inner.addPathwayElement(o1);
+		inner.addPathwayElement(o2);
+		outer.addPathwayElement(inner);
+		inner.updateDimensions();
+		outer.updateDimensions();
+		PathwayModel p2 = p.clone();
+		Interaction i4 = p2.getInteractions().get(1);
+		assertEquals(i3.getEndLinePoint().getX(), i4.getEndLinePoint().getX(), 1e-9);
+		assertEquals(i3.getEndLinePoint().getY(), i4.getEndLinePoint().getY(), 1e-9);
+		for (int i = 0; i < 2; i++) {
+			Group g = p.getGroups().get(i);
+			Group g2 = p2.getGroups().get(i);
+			assertEquals(g.getLeft(), g2.getLeft(), 1e-9);
+			assertEquals(g.getTop(), g2.getTop(), 1e-9);
+			assertEquals(g.getWidth(), g2.getWidth(), 1e-9);
+			assertEquals(g.getHeight(), g2.getHeight(), 1e-9);
+		}
+	}
+
+	/**
+	 * Snapshots are independent of later changes and reused while unchanged.
+	 */
+	@Test
+	public void testSnapshot() {
+		i1.setStartElementRef(o1);
+		PathwayModelSnapshot snap = p.snapshot();
+		assertSame(snap, p.snapshot());
+		assertEquals(1, snap.getDataNodes().size());
+		DataNode o2 = snap.getDataNodes().get(0);
+		assertNotSame(o1, o2);
+		assertSame(o2, snap.getPathwayObject(o1.getElementId()));
+		assertEquals(1, snap.getReferringLinkableFroms(o2).size());
+		try {
+			snap.getDataNodes().clear();
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// ok
+		}
+		o1.setCenterX(100);
+		p.addDataNode(new DataNode("o3", DataNodeType.UNDEFINED));
+		assertEquals(0.0, o2.getCenterX());
+		assertEquals(1, snap.getDataNodes().size());
+		PathwayModelSnapshot snap2 = p.snapshot();
+		assertNotSame(snap, snap2);
+		assertEquals(2, snap2.getDataNodes().size());
+	}
+
+	/**
+	 * Changes of authors, citations and evidences are not missed by snapshots.
+	 */
+	@Test
+	public void testSnapshotChanges() {
+		PathwayModelSnapshot snap = p.snapshot();
+		Author author = p.getPathway().addAuthor("Author 1");
+		assertNotSame(snap, p.snapshot());
+		snap = p.snapshot();
+		assertEquals(1, snap.getPathway().getAuthors().size());
+		p.getPathway().removeAuthor(author);
+		assertNotSame(snap, p.snapshot());
+		snap = p.snapshot();
+		c.setUrlLink("changed");
+		assertNotSame(snap, p.snapshot());
+		snap = p.snapshot();
+		assertEquals("changed", snap.getCitations().get(0).getUrlLink());
+		Evidence e = o1.addEvidence("e1", new Xref("123", DataSource.register("XYZ", "XYZ").asDataSource()), null)
+				.getEvidence();
+		snap = p.snapshot();
+		e.setValue("e2");
+		assertEquals("e2", e.getValue());
+		assertNotSame(snap, p.snapshot());
+		assertSame(p.snapshot().getCachedCopy(), p.snapshot().getCachedCopy());
+	}
+
+	/**
+	 * Writing a snapshot does not change the pathway model shared by its readers.
+	 */
+	@Test
+	public void testSnapshotWrite() throws Exception {
+		// writers remove empty groups
+		p.addGroup(new Group(GroupType.GROUP));
+		PathwayModelSnapshot snap = p.snapshot();
+		long modificationCount = snap.getCachedCopy().getModificationCount();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		snap.writeToXml(out, false);
+		PathwayModel written = new PathwayModel();
+		written.readFromXml(new ByteArrayInputStream(out.toByteArray()), false);
+		assertEquals(1, written.getDataNodes().size());
+		assertEquals(0, written.getGroups().size());
+		assertEquals(1, snap.getGroups().size());
+		assertEquals(modificationCount, snap.getCachedCopy().getModificationCount());
+		assertSame(snap, p.snapshot());
+	}
+
 	/**
 	 * 
 	 */
@@ -124,6 +280,30 @@ public class TestCopy extends TestCase {
 
 	}
 
+	/**
+	 * Nested citationRefs and evidenceRefs stay on their copied annotationRef.
+	 */
+	@Test
+	public void testCopyNestedReferences() {
+		AnnotationRef ar = o1.addAnnotation("a1", AnnotationType.UNDEFINED, null, null);
+		ar.addCitation(null, "nested");
+		ar.addEvidence("e1", new Xref("123", DataSource.register("XYZ", "XYZ").asDataSource()), null);
+		CopyElement copy = o1.copy();
+		DataNode o2 = (DataNode) copy.getNewElement();
+		PathwayModel p2 = new PathwayModel();
+		p2.addDataNode(o2);
+		o2.copyReferencesFrom(copy.getSourceElement());
+		assertEquals(1, o2.getCitationRefs().size());
+		assertEquals("String", o2.getCitationRefs().get(0).getCitation().getUrlLink());
+		assertEquals(0, o2.getEvidenceRefs().size());
+		assertEquals(1, o2.getAnnotationRefs().size());
+		AnnotationRef ar2 = o2.getAnnotationRefs().get(0);
+		assertEquals(1, ar2.getCitationRefs().size());
+		assertEquals("nested", ar2.getCitationRefs().get(0).getCitation().getUrlLink());
+		assertEquals(1, ar2.getEvidenceRefs().size());
+		assertEquals("e1", ar2.getEvidenceRefs().get(0).getEvidence().getValue());
+	}
+
 	/**
 	 * 
 	 */
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link DynamicPropertyMap}, which must behave as a TreeMap.
+ */
+public class TestDynamicPropertyMap extends TestCase {
+
+	/**
+	 * Entries are kept in key order, as in a TreeMap.
+	 */
+	@Test
+	public void testSorted() {
+		Map<String, String> map = new DynamicPropertyMap();
+		Map<String, String> expected = new TreeMap<String, String>();
+		for (String key : new String[] { "m", "c", "x", "a", "q", "c", "b" }) {
+			assertEquals(expected.put(key, key + "1"), map.put(key, key + "1"));
+		}
+		assertEquals(expected, map);
+		assertEquals(expected.hashCode(), map.hashCode());
+		assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(map.keySet()));
+		assertEquals(Arrays.asList("a", "b", "c", "m", "q", "x"), new ArrayList<String>(map.keySet()));
+		assertEquals("c1", map.get("c"));
+		assertNull(map.get("d"));
+		assertNull(map.get(null));
+		assertEquals("c1", map.remove("c"));
+		assertNull(map.remove("c"));
+		assertFalse(map.containsKey("c"));
+		assertEquals(new DynamicPropertyMap(map), map);
+		try {
+			map.put(null, "value");
+			fail("Expected NullPointerException");
+		} catch (NullPointerException e) {
+			// ok
+		}
+	}
+
+	/**
+	 * Entries can be changed and removed through the entry set.
+	 */
+	@Test
+	public void testIterator() {
+		Map<String, String> map = new DynamicPropertyMap();
+		map.put("a", "1");
+		map.put("b", "2");
+		map.put("c", "3");
+		Iterator<Map.Entry<String, String>> it = map.entrySet().iterator();
+		it.next().setValue("one");
+		it.next();
+		it.remove();
+		assertEquals("c", it.next().getKey());
+		assertFalse(it.hasNext());
+		assertEquals("one", map.get("a"));
+		assertEquals(2, map.size());
+		map.keySet().remove("a");
+		assertEquals(1, map.size());
+		map.clear();
+		assertTrue(map.isEmpty());
+	}
+
+	/**
+	 * Pathway elements store dynamic properties in key order, and have no listener
+	 * set until a listener is added.
+	 */
+	@Test
+	public void testPathwayElement() {
+		DataNode d = new DataNode("d", DataNodeType.GENEPRODUCT);
+		assertTrue(d.getListeners().isEmpty());
+		d.setDynamicProperty("z", "1");
+		d.setDynamicProperty("a", "2");
+		assertEquals(Arrays.asList("a", "z"), new ArrayList<String>(d.getDynamicPropertyKeys()));
+		PathwayObjectListener l = e -> {
+		};
+		d.addListener(l);
+		d.addListener(l);
+		assertEquals(1, d.getListeners().size());
+		d.removeListener(l);
+		assertTrue(d.getListeners().isEmpty());
+	}
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.junit.Before;
+import org.junit.Test;
+import org.pathvisio.libgpml.model.PathwayElement.AnnotationRef;
+import org.pathvisio.libgpml.model.type.AnnotationType;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the comments, dynamic properties and references of pathway
+ * elements, which are allocated on first write.
+ */
+public class TestEmptyCollections extends TestCase {
+
+	private PathwayModel p;
+	private DataNode d1;
+	private DataNode d2;
+
+	@Before
+	public void setUp() {
+		p = new PathwayModel();
+		d1 = new DataNode("d1", DataNodeType.GENEPRODUCT);
+		d2 = new DataNode("d2", DataNodeType.GENEPRODUCT);
+		p.add(d1);
+		p.add(d2);
+	}
+
+	/**
+	 * Pathway elements without comments, dynamic properties or references read
+	 * as empty.
+	 */
+	@Test
+	public void testEmpty() {
+		assertTrue(d1.getComments().isEmpty());
+		assertTrue(d1.getDynamicProperties().isEmpty());
+		assertTrue(d1.getAnnotationRefs().isEmpty());
+		assertTrue(d1.getCitationRefs().isEmpty());
+		assertTrue(d1.getEvidenceRefs().isEmpty());
+		assertNull(d1.getDynamicProperty("key"));
+		assertNull(d1.findComment("source"));
+		// removing from an empty element does nothing
+		d1.setDynamicProperty("key", null);
+		d1.removeAnnotationRefs();
+		d1.removeCitationRefs();
+		d1.removeEvidenceRefs();
+		assertTrue(d1.getDynamicProperties().isEmpty());
+	}
+
+	/**
+	 * The collections returned are unmodifiable, before and after the first
+	 * write.
+	 */
+	@Test
+	public void testUnmodifiable() {
+		assertUnmodifiable(d1);
+		d1.addComment("text", "source");
+		d1.setDynamicProperty("key", "value");
+		AnnotationRef ar = d1.addAnnotation("value", AnnotationType.ONTOLOGY,
+				new Xref("123", DataSource.register("XYZ", "XYZ").asDataSource()), null);
+		ar.addCitation(new Xref("456", DataSource.register("XYZ", "XYZ").asDataSource()), null);
+		d1.addCitation(new Xref("456", DataSource.register("XYZ", "XYZ").asDataSource()), null);
+		d1.addEvidence("value", new Xref("789", DataSource.register("XYZ", "XYZ").asDataSource()), null);
+		assertUnmodifiable(d1);
+		try {
+			ar.getCitationRefs().clear();
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// ok
+		}
+		assertEquals(1, ar.getCitationRefs().size());
+	}
+
+	private void assertUnmodifiable(PathwayElement e) {
+		try {
+			e.getComments().add(e.new Comment("text", "source"));
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException ex) {
+			// ok
+		}
+		try {
+			e.getDynamicProperties().put("key", "value");
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException ex) {
+			// ok
+		}
+		try {
+			e.getAnnotationRefs().clear();
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException ex) {
+			// ok
+		}
+		try {
+			e.getCitationRefs().clear();
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException ex) {
+			// ok
+		}
+		try {
+			e.getEvidenceRefs().clear();
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException ex) {
+			// ok
+		}
+	}
+
+	/**
+	 * The first write allocates collections for that pathway element only.
+	 */
+	@Test
+	public void testFirstWrite() {
+		d1.addComment("text", "source");
+		d1.setDynamicProperty("key", "value");
+		assertEquals(1, d1.getComments().size());
+		assertEquals("text", d1.findComment("source"));
+		assertEquals("value", d1.getDynamicProperty("key"));
+		assertTrue(d2.getComments().isEmpty());
+		assertTrue(d2.getDynamicProperties().isEmpty());
+		d1.removeComment(d1.getComments().get(0));
+		d1.setDynamicProperty("key", null);
+		assertTrue(d1.getComments().isEmpty());
+		assertTrue(d1.getDynamicProperties().isEmpty());
+		// copy of an element without values is empty
+		DataNode d3 = new DataNode("d3", DataNodeType.GENEPRODUCT);
+		d3.copyValuesFrom(d2);
+		assertTrue(d3.getComments().isEmpty());
+		assertTrue(d3.getDynamicProperties().isEmpty());
+	}
+
+	/**
+	 * References, and references of references, are allocated on first write.
+	 */
+	@Test
+	public void testReferences() {
+		AnnotationRef ar = d1.addAnnotation("value", AnnotationType.ONTOLOGY,
+				new Xref("123", DataSource.register("XYZ", "XYZ").asDataSource()), null);
+		assertEquals(1, d1.getAnnotationRefs().size());
+		assertTrue(d2.getAnnotationRefs().isEmpty());
+		assertTrue(ar.getCitationRefs().isEmpty());
+		ar.addCitation(new Xref("456", DataSource.register("XYZ", "XYZ").asDataSource()), null);
+		assertEquals(1, ar.getCitationRefs().size());
+		assertTrue(ar.getEvidenceRefs().isEmpty());
+		d1.addEvidence("value", new Xref("789", DataSource.register("XYZ", "XYZ").asDataSource()), null);
+		assertEquals(1, d1.getEvidenceRefs().size());
+		d1.removeEvidenceRefs();
+		d1.removeAnnotationRefs();
+		assertTrue(d1.getEvidenceRefs().isEmpty());
+		assertTrue(d1.getAnnotationRefs().isEmpty());
+	}
+}
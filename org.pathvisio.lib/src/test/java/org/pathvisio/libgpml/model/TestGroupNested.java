@@ -1,5 +1,6 @@
 package org.pathvisio.libgpml.model;
 
+import java.awt.geom.Rectangle2D;
 import java.io.File;
 import java.io.IOException;
 
@@ -230,6 +231,41 @@ public class TestGroupNested extends TestCase {
 		assertEquals(d3.getGroupRef(), g2);
 	}
 
+	/**
+	 * Checks that cached group bounds follow moves of nested members.
+	 */
+	@Test
+	public void testBounds() {
+		d1.setCenterX(100);
+		d1.setCenterY(100);
+		d2.setCenterX(200);
+		d2.setCenterY(200);
+		d3.setCenterX(300);
+		d3.setCenterY(300);
+		g1.updateDimensions();
+		assertEquals(new Rectangle2D.Double(92, 92, 16, 16), g1.getMinBounds(false));
+		assertEquals(new Rectangle2D.Double(84, 84, 224, 224), g2.getMinBounds(false));
+		// move nested member outwards, g2 bounds grow
+		d1.setCenterX(50);
+		assertEquals(new Rectangle2D.Double(42, 92, 16, 16), g1.getMinBounds(false));
+		assertEquals(new Rectangle2D.Double(34, 84, 274, 224), g2.getMinBounds(false));
+		// move edge member inwards, g2 bounds shrink
+		d3.setCenterY(150);
+		assertEquals(new Rectangle2D.Double(34, 84, 274, 124), g2.getMinBounds(false));
+		// returned bounds are copies
+		g2.getBounds().setRect(0, 0, 1, 1);
+		d2.getRotatedBounds().setRect(0, 0, 1, 1);
+		assertEquals(new Rectangle2D.Double(34, 84, 274, 124), g2.getMinBounds(false));
+		assertEquals(new Rectangle2D.Double(200, 200, 0, 0), d2.getRotatedBounds());
+		// removing a member updates bounds
+		g2.removePathwayElement(d2);
+		d2.setCenterX(1000);
+		assertEquals(new Rectangle2D.Double(34, 84, 274, 74), g2.getMinBounds(false));
+		// margin depends on group type
+		g1.setType(GroupType.COMPLEX);
+		assertEquals(new Rectangle2D.Double(38, 88, 24, 24), g1.getMinBounds(false));
+	}
+
 	/**
 	 * 
 	 */
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link PathwayArchive}.
+ */
+public class TestPathwayArchive extends TestCase {
+
+	/**
+	 * All GPML files of a directory are archived by file name.
+	 */
+	@Test
+	public void testCreate() throws Exception {
+		URL url = Thread.currentThread().getContextClassLoader().getResource("example-v2021.gpml");
+		File gpmlFile = new File(url.getPath());
+		File archiveFile = File.createTempFile("archive_testCreate_", ".gpma");
+		archiveFile.deleteOnExit();
+		assertEquals(2, PathwayArchive.create(gpmlFile.getParentFile(), false, archiveFile));
+		final PathwayModel p1 = new PathwayModel();
+		p1.readFromXml(gpmlFile, true);
+		try (final PathwayArchive archive = PathwayArchive.open(archiveFile)) {
+			assertEquals(Arrays.asList("example-v2013a", "example-v2021"), new ArrayList<String>(archive.getIds()));
+			assertTrue(archive.contains("example-v2021"));
+			assertNull(archive.read("WP1"));
+			// concurrent readers
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			List<Future<PathwayModel>> futures = new ArrayList<Future<PathwayModel>>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<PathwayModel>() {
+					@Override
+					public PathwayModel call() throws ConverterException {
+						return archive.read("example-v2021");
+					}
+				}));
+			}
+			for (Future<PathwayModel> future : futures) {
+				PathwayModel p2 = future.get();
+				assertTrue(PathwayModelDiff.compare(p1, p2).isEmpty());
+				assertFalse(p2.hasChanged());
+			}
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Pathway models are read by id, other files are not opened.
+	 */
+	@Test
+	public void testOpen() throws ConverterException, IOException {
+		Map<String, PathwayModel> pathwayModels = new LinkedHashMap<String, PathwayModel>();
+		for (int i = 0; i < 3; i++) {
+			PathwayModel p = new PathwayModel();
+			p.getPathway().setTitle("title" + i);
+			p.addDataNode(new DataNode("d" + i, DataNodeType.GENEPRODUCT));
+			pathwayModels.put("WP" + i, p);
+		}
+		File archiveFile = File.createTempFile("archive_testOpen_", ".gpma");
+		archiveFile.deleteOnExit();
+		PathwayArchive.create(pathwayModels, archiveFile);
+		PathwayArchive archive = PathwayArchive.open(archiveFile);
+		assertEquals(3, archive.size());
+		assertEquals("title1", archive.read("WP1").getPathway().getTitle());
+		assertTrue(BinaryFormat.isMagic(archive.getBuffer("WP2")));
+		archive.close();
+		try {
+			archive.read("WP1");
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			PathwayArchive.open(new File(
+					Thread.currentThread().getContextClassLoader().getResource("example-v2021.gpml").getPath()));
+			fail("Expected ConverterException");
+		} catch (ConverterException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Files which can not be read are skipped, whether reading fails with a
+	 * {@link ConverterException} or a runtime exception.
+	 */
+	@Test
+	public void testCreateSkipsUnreadable() throws Exception {
+		File directory = File.createTempFile("archive_testCreateSkipsUnreadable_", "");
+		directory.delete();
+		directory.mkdir();
+		directory.deleteOnExit();
+		PathwayModel p1 = new PathwayModel();
+		p1.addDataNode(new DataNode("d1", DataNodeType.GENEPRODUCT));
+		for (String name : new String[] { "broken", "good", "runtime" }) {
+			File f = new File(directory, name + ".gpml");
+			f.deleteOnExit();
+			GPMLFormat.GPML2021.writeToXml(p1, f, false);
+		}
+		File broken = new File(directory, "broken.gpml");
+		try (RandomAccessFile raf = new RandomAccessFile(broken, "rw")) {
+			raf.setLength(raf.length() / 2); // not well-formed
+		}
+		GPMLFormat format = new GPMLFormat(GPMLFormat.GPML2021) {
+			@Override
+			public PathwayModel doImport(File file) throws ConverterException {
+				if (file.getName().startsWith("runtime")) {
+					throw new IllegalStateException("Unexpected content in " + file);
+				}
+				return super.doImport(file);
+			}
+		};
+		File archiveFile = File.createTempFile("archive_testCreateSkipsUnreadable_", ".gpma");
+		archiveFile.deleteOnExit();
+		assertEquals(1, PathwayArchive.create(directory, false, archiveFile, format));
+		try (PathwayArchive archive = PathwayArchive.open(archiveFile)) {
+			assertEquals(Arrays.asList("good"), new ArrayList<String>(archive.getIds()));
+		}
+	}
+
+	/**
+	 * An index with more entries than fit in the file is rejected.
+	 */
+	@Test
+	public void testInvalidIndex() throws ConverterException, IOException {
+		Map<String, PathwayModel> pathwayModels = new LinkedHashMap<String, PathwayModel>();
+		pathwayModels.put("WP1", new PathwayModel());
+		File archiveFile = File.createTempFile("archive_testInvalidIndex_", ".gpma");
+		archiveFile.deleteOnExit();
+		PathwayArchive.create(pathwayModels, archiveFile);
+		for (int n : new int[] { Integer.MAX_VALUE, 2, -1 }) {
+			try (RandomAccessFile raf = new RandomAccessFile(archiveFile, "rw")) {
+				raf.seek(8); // index position, after magic and version
+				raf.seek(raf.readLong());
+				raf.writeInt(n);
+			}
+			try {
+				PathwayArchive.open(archiveFile).close();
+				fail("Expected ConverterException for " + n + " entries");
+			} catch (ConverterException e) {
+				// expected
+			}
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import org.junit.Test;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link PathwayModelCache}.
+ */
+public class TestPathwayModelCache extends TestCase {
+
+	/**
+	 * Writes a pathway model with the given number of data nodes to a new binary
+	 * file.
+	 */
+	private static File createFile(int n) throws ConverterException, IOException {
+		PathwayModel p = new PathwayModel();
+		for (int i = 0; i < n; i++) {
+			p.addDataNode(new DataNode("d" + i, DataNodeType.GENEPRODUCT));
+		}
+		File file = File.createTempFile("cache_test_", ".gpmlb");
+		file.deleteOnExit();
+		BinaryFormat.writeToBinary(p, file);
+		return file;
+	}
+
+	/**
+	 * Repeated requests are answered from the cache, callers get their own copy.
+	 */
+	@Test
+	public void testGet() throws ConverterException {
+		URL url = Thread.currentThread().getContextClassLoader().getResource("example-v2021.gpml");
+		File file = new File(url.getPath());
+		PathwayModelCache cache = new PathwayModelCache(100000);
+		PathwayModel p1 = cache.get(file);
+		PathwayModel p2 = cache.get(file);
+		assertNotSame(p1, p2);
+		assertTrue(PathwayModelDiff.compare(p1, p2).isEmpty());
+		assertSame(cache.getSnapshot(file), cache.getSnapshot(file));
+		assertEquals(1, cache.getLoadCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(3, cache.getHitCount());
+		assertTrue(cache.getTotalLoadTime() > 0);
+		assertEquals(PathwayModelCache.estimateWeight(p1), cache.getWeight());
+		// copies are isolated from the cache
+		p1.getPathway().setTitle("changed");
+		assertFalse("changed".equals(cache.get(file).getPathway().getTitle()));
+	}
+
+	/**
+	 * Changed files are imported again, files which can not be imported are not
+	 * cached.
+	 */
+	@Test
+	public void testInvalidate() throws ConverterException, IOException {
+		File file = createFile(2);
+		PathwayModelCache cache = new PathwayModelCache(new BinaryFormat(), 100);
+		assertEquals(2, cache.get(file).getDataNodes().size());
+		File other = createFile(3);
+		assertTrue(other.renameTo(file));
+		assertTrue(file.setLastModified(file.lastModified() + 10000));
+		assertEquals(3, cache.get(file).getDataNodes().size());
+		assertEquals(2, cache.getLoadCount());
+		assertEquals(1, cache.size());
+		cache.invalidate(file);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+		try {
+			cache.get(new File(file.getPath() + ".missing"));
+			fail("Expected ConverterException");
+		} catch (ConverterException e) {
+			// expected
+		}
+		assertEquals(1, cache.getLoadFailureCount());
+		assertEquals(0, cache.size());
+	}
+
+	/**
+	 * Least recently used pathway models are evicted to stay within the maximum
+	 * weight.
+	 */
+	@Test
+	public void testEvict() throws ConverterException, IOException {
+		File f1 = createFile(4);
+		File f2 = createFile(4);
+		File f3 = createFile(4);
+		File large = createFile(20);
+		// each pathway model weighs 5: the pathway and 4 data nodes
+		PathwayModelCache cache = new PathwayModelCache(new BinaryFormat(), 10);
+		cache.get(f1);
+		cache.get(f2);
+		cache.get(f1);
+		cache.get(f3);
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(10, cache.getWeight());
+		cache.get(f1);
+		assertEquals(3, cache.getLoadCount());
+		cache.get(f2);
+		assertEquals(4, cache.getLoadCount());
+		// heavier than the maximum weight, not cached
+		cache.get(large);
+		assertEquals(2, cache.size());
+		assertEquals(10, cache.getWeight());
+	}
+}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bridgedb.DataSource;
+import org.bridgedb.Xref;
+import org.junit.Test;
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.PathwayModelDiff.Modification;
+import org.pathvisio.libgpml.model.type.AnchorShapeType;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.StateType;
+import org.pathvisio.libgpml.prop.StaticProperty;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link PathwayModelDiff}.
+ */
+public class TestPathwayModelDiff extends TestCase {
+
+	/**
+	 * Creates a pathway model with two linked data nodes, a state and a label.
+	 * Each call generates new elementIds.
+	 */
+	private static PathwayModel createPathwayModel() {
+		PathwayModel p = new PathwayModel();
+		DataNode d1 = new DataNode("d1", DataNodeType.GENEPRODUCT);
+		d1.setXref(new Xref("1234", DataSource.register("Xx", "Xx").asDataSource()));
+		d1.setCenterX(50);
+		DataNode d2 = new DataNode("d2", DataNodeType.GENEPRODUCT);
+		d2.setCenterX(200);
+		p.addDataNode(d1);
+		p.addDataNode(d2);
+		d2.addState("s1", StateType.UNDEFINED, 1, 1);
+		Interaction i1 = new Interaction();
+		p.addInteraction(i1);
+		i1.setStartElementRef(d1);
+		i1.setEndElementRef(d2);
+		p.addLabel(new Label("l1"));
+		return p;
+	}
+
+	/**
+	 * A copy has no differences, changes are matched by elementId.
+	 */
+	@Test
+	public void testElementId() {
+		PathwayModel p1 = createPathwayModel();
+		PathwayModel p2 = p1.clone();
+		assertTrue(PathwayModelDiff.compare(p1, p2).isEmpty());
+		DataNode d1 = p1.getDataNodes().get(0);
+		DataNode d1Copy = (DataNode) p2.getPathwayObject(d1.getElementId());
+		d1Copy.setFillColor(Color.RED);
+		d1Copy.setCenterX(500);
+		p2.getPathway().setTitle("title");
+		PathwayModelDiff diff = PathwayModelDiff.compare(p1, p2);
+		assertSame(d1Copy, diff.getNewObject(d1));
+		// the pathway, the data node and the start point of the interaction
+		assertEquals(3, diff.getModified().size());
+		assertEquals(Collections.singleton(StaticProperty.TITLE),
+				diff.getModification(p1.getPathway()).getChangedKeys());
+		Modification m = diff.getModification(d1);
+		assertSame(d1Copy, m.getNewObject());
+		assertTrue(m.getChangedKeys().contains(StaticProperty.FILLCOLOR));
+		assertTrue(m.getChangedKeys().contains(StaticProperty.CENTERX));
+		assertFalse(m.getChangedKeys().contains(StaticProperty.ELEMENTID));
+		assertEquals(Collections.singleton(StaticProperty.STARTX),
+				diff.getModification(p1.getInteractions().get(0)).getChangedKeys());
+	}
+
+	/**
+	 * Pathway objects with other elementIds are matched by Xref and geometry,
+	 * and links are compared through the matching.
+	 */
+	@Test
+	public void testFallback() {
+		PathwayModel p1 = createPathwayModel();
+		PathwayModel p2 = createPathwayModel();
+		PathwayModelDiff diff = PathwayModelDiff.compare(p1, p2);
+		assertTrue(diff.toString(), diff.isEmpty());
+		DataNode d1 = p2.getDataNodes().get(0);
+		DataNode d2 = p2.getDataNodes().get(1);
+		d1.setCenterX(70);
+		d2.setTextLabel("new");
+		State s1 = d2.getStates().get(0);
+		Interaction i1 = p2.getInteractions().get(0);
+		diff = PathwayModelDiff.compare(p1, p2);
+		assertSame(d1, diff.getNewObject(p1.getDataNodes().get(0)));
+		assertSame(d2, diff.getNewObject(p1.getDataNodes().get(1)));
+		assertSame(s1, diff.getNewObject(p1.getDataNodes().get(1).getStates().get(0)));
+		assertSame(i1, diff.getNewObject(p1.getInteractions().get(0)));
+		assertEquals(3, diff.getModified().size());
+		assertEquals(Collections.singleton(StaticProperty.CENTERX),
+				diff.getModification(p1.getDataNodes().get(0)).getChangedKeys());
+		assertEquals(Collections.singleton(StaticProperty.TEXTLABEL),
+				diff.getModification(p1.getDataNodes().get(1)).getChangedKeys());
+		// moved start point of the interaction
+		assertEquals(Collections.singleton(StaticProperty.STARTX),
+				diff.getModification(p1.getInteractions().get(0)).getChangedKeys());
+		assertTrue(diff.getAdded().isEmpty());
+		assertTrue(diff.getRemoved().isEmpty());
+	}
+
+	/**
+	 * Unmatched pathway objects are added or removed, and a changed link is a
+	 * modification.
+	 */
+	@Test
+	public void testAddRemove() {
+		PathwayModel p1 = createPathwayModel();
+		PathwayModel p2 = p1.clone();
+		Label l1 = p2.getLabels().get(0);
+		p2.removeLabel(l1);
+		Label l2 = new Label("l2");
+		l2.setCenterX(300);
+		p2.addLabel(l2);
+		Interaction i1 = p2.getInteractions().get(0);
+		i1.setEndElementRef(l2);
+		PathwayModelDiff diff = PathwayModelDiff.compare(p1, p2);
+		assertEquals(Collections.singletonList(p1.getLabels().get(0)), diff.getRemoved());
+		assertEquals(Collections.singletonList(l2), diff.getAdded());
+		assertTrue(diff.getModification(p1.getInteractions().get(0)).getChangedKeys()
+				.contains(StaticProperty.ENDELEMENTREF));
+	}
+
+	/**
+	 * References are compared by value.
+	 */
+	@Test
+	public void testReferences() {
+		PathwayModel p1 = createPathwayModel();
+		p1.getDataNodes().get(0).addCitation(null, "urlLink");
+		PathwayModel p2 = p1.clone();
+		assertTrue(PathwayModelDiff.compare(p1, p2).isEmpty());
+		p2.getDataNodes().get(0).addCitation(null, "urlLink2");
+		PathwayModelDiff diff = PathwayModelDiff.compare(p1, p2);
+		assertEquals(Collections.singleton(StaticProperty.CITATIONREF),
+				diff.getModification(p1.getDataNodes().get(0)).getChangedKeys());
+	}
+
+	/**
+	 * Moved anchors and changed anchor shapes are modifications of the anchor.
+	 */
+	@Test
+	public void testAnchor() {
+		PathwayModel p1 = createPathwayModel();
+		Anchor a1 = p1.getInteractions().get(0).addAnchor(0.5, AnchorShapeType.NONE);
+		PathwayModel p2 = p1.clone();
+		assertTrue(PathwayModelDiff.compare(p1, p2).isEmpty());
+		Anchor a1Copy = (Anchor) p2.getPathwayObject(a1.getElementId());
+		a1Copy.setPosition(0.25);
+		PathwayModelDiff diff = PathwayModelDiff.compare(p1, p2);
+		assertEquals(Collections.singleton(StaticProperty.ANCHORPOSITION), diff.getModification(a1).getChangedKeys());
+		a1Copy.setShapeType(AnchorShapeType.SQUARE);
+		diff = PathwayModelDiff.compare(p1, p2);
+		assertEquals(1, diff.getModified().size());
+		assertTrue(diff.getModification(a1).getChangedKeys().contains(StaticProperty.ANCHORPOSITION));
+		assertTrue(diff.getModification(a1).getChangedKeys().contains(StaticProperty.ANCHORSHAPETYPE));
+	}
+
+	/**
+	 * Added, moved and removed waypoints are modifications of the line.
+	 */
+	@Test
+	public void testWaypoints() {
+		PathwayModel p1 = createPathwayModel();
+		Interaction i1 = p1.getInteractions().get(0);
+		PathwayModel p2 = p1.clone();
+		Interaction i1Copy = (Interaction) p2.getPathwayObject(i1.getElementId());
+		List<LinePoint> points = i1Copy.getLinePoints();
+		LinePoint start = points.get(0);
+		LinePoint end = points.get(1);
+		i1Copy.setLinePoints(Arrays.asList(start, i1Copy.new LinePoint(120, 40), end));
+		PathwayModelDiff diff = PathwayModelDiff.compare(p1, p2);
+		assertEquals(Collections.singleton(StaticProperty.LINEPOINTS), diff.getModification(i1).getChangedKeys());
+		// same waypoints on both sides
+		i1.setLinePoints(Arrays.asList(i1.getStartLinePoint(), i1.new LinePoint(120, 40), i1.getEndLinePoint()));
+		assertTrue(PathwayModelDiff.compare(p1, p2).isEmpty());
+		// moved
+		i1Copy.getLinePoints().get(1).moveTo(130, 40);
+		diff = PathwayModelDiff.compare(p1, p2);
+		assertEquals(Collections.singleton(StaticProperty.LINEPOINTS), diff.getModification(i1).getChangedKeys());
+		// removed
+		i1Copy.setLinePoints(Arrays.asList(start, end));
+		diff = PathwayModelDiff.compare(p1, p2);
+		assertEquals(Collections.singleton(StaticProperty.LINEPOINTS), diff.getModification(i1).getChangedKeys());
+	}
+
+	/**
+	 * Many pathway objects with the same Xref are each matched with the nearest
+	 * candidate.
+	 */
+	@Test
+	public void testManyCandidates() {
+		PathwayModel p1 = new PathwayModel();
+		PathwayModel p2 = new PathwayModel();
+		Xref xref = new Xref("1234", DataSource.register("Xx", "Xx").asDataSource());
+		for (int i = 0; i < 400; i++) {
+			double x = (i % 20) * 100;
+			double y = (i / 20) * 100;
+			DataNode d1 = new DataNode("d", DataNodeType.GENEPRODUCT);
+			d1.setXref(xref);
+			d1.setCenterX(x);
+			d1.setCenterY(y);
+			// generated elementIds of two pathway models may collide
+			d1.setElementId("old" + i);
+			p1.addDataNode(d1);
+			// added in reverse order, slightly moved
+			DataNode d2 = new DataNode("d", DataNodeType.GENEPRODUCT);
+			d2.setXref(xref);
+			d2.setCenterX(1900 - x + 3);
+			d2.setCenterY(1900 - y - 3);
+			d2.setElementId("new" + i);
+			p2.addDataNode(d2);
+		}
+		PathwayModelDiff diff = PathwayModelDiff.compare(p1, p2);
+		assertTrue(diff.getAdded().isEmpty());
+		assertTrue(diff.getRemoved().isEmpty());
+		assertEquals(400, diff.getModified().size());
+		for (DataNode d1 : p1.getDataNodes()) {
+			DataNode d2 = (DataNode) diff.getNewObject(d1);
+			assertEquals(d1.getCenterX() + 3, d2.getCenterX());
+			assertEquals(d1.getCenterY() - 3, d2.getCenterY());
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.type.ConnectorType;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link PathwayModelGenerator}.
+ */
+public class TestPathwayModelGenerator extends TestCase {
+
+	private static byte[] toGPML(GPMLFormatWriter format, PathwayModel pathwayModel, boolean validate)
+			throws ConverterException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		format.writeToXml(pathwayModel, out, validate);
+		return out.toByteArray();
+	}
+
+	/**
+	 * The same size and seed give the same pathway model.
+	 */
+	@Test
+	public void testDeterministic() throws ConverterException {
+		PathwayModel p1 = PathwayModelGenerator.generate(500, 42);
+		PathwayModel p2 = PathwayModelGenerator.generate(500, 42);
+		assertEquals(p1.getElementIds(), p2.getElementIds());
+		assertTrue(Arrays.equals(BinaryFormat.writeToBinary(p1), BinaryFormat.writeToBinary(p2)));
+		assertFalse(Arrays.equals(BinaryFormat.writeToBinary(p1),
+				BinaryFormat.writeToBinary(PathwayModelGenerator.generate(500, 43))));
+		assertEquals(0, PathwayModelGenerator.generate(0, 42).getInteractions().size());
+		try {
+			PathwayModelGenerator.generate(-1, 42);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Generated pathway models contain all features which are expensive to read
+	 * and write.
+	 */
+	@Test
+	public void testFeatures() {
+		PathwayModel p = PathwayModelGenerator.generate(1000, 42);
+		int size = p.getDataNodes().size() + p.getInteractions().size() + p.getGroups().size()
+				+ p.getLabels().size() + p.getShapes().size() + p.getGraphicalLines().size();
+		assertTrue(size > 900 && size < 1100);
+		int states = 0;
+		int aliases = 0;
+		int annotationRefs = 0;
+		for (DataNode dataNode : p.getDataNodes()) {
+			states += dataNode.getStates().size();
+			if (dataNode.getType() == DataNodeType.ALIAS) {
+				assertNotNull(dataNode.getAliasRef());
+				aliases++;
+			}
+			annotationRefs += dataNode.getAnnotationRefs().size();
+		}
+		assertTrue(states > 0);
+		assertTrue(aliases > 0);
+		assertTrue(annotationRefs > 0);
+		boolean nested = false;
+		for (Group group : p.getGroups()) {
+			nested |= group.getGroupRef() != null;
+		}
+		assertTrue(nested);
+		int anchors = 0;
+		boolean elbow = false;
+		boolean curved = false;
+		for (Interaction interaction : p.getInteractions()) {
+			anchors += interaction.getAnchors().size();
+			elbow |= interaction.getConnectorType() == ConnectorType.ELBOW;
+			curved |= interaction.getConnectorType() == ConnectorType.CURVED;
+			for (LinePoint point : interaction.getLinePoints()) {
+				if (point == interaction.getStartLinePoint() || point == interaction.getEndLinePoint()) {
+					assertNotNull(point.getElementRef());
+				}
+			}
+		}
+		assertTrue(anchors > 0);
+		assertTrue(elbow && curved);
+		assertFalse(p.getAnnotations().isEmpty());
+		assertFalse(p.getCitations().isEmpty());
+		assertFalse(p.getEvidences().isEmpty());
+	}
+
+	/**
+	 * Large generated pathway models are valid GPML, and survive all formats and
+	 * copying unchanged.
+	 */
+	@Test
+	public void testRoundTrip() throws ConverterException {
+		PathwayModel p1 = PathwayModelGenerator.generate(2000, 7);
+		byte[] gpml = toGPML(GPMLFormat.GPML2021, p1, true);
+		PathwayModel p2 = new PathwayModel();
+		GPMLFormat.readFromXml(p2, new ByteArrayInputStream(gpml), true);
+		assertTrue(PathwayModelDiff.compare(p1, p2).isEmpty());
+		toGPML(GPMLFormat.GPML2013a, p1, true);
+		PathwayModel p3 = new PathwayModel();
+		BinaryFormat.readFromBinary(p3, BinaryFormat.writeToBinary(p1));
+		assertTrue(PathwayModelDiff.compare(p1, p3).isEmpty());
+		assertTrue(PathwayModelDiff.compare(p1, p1.clone()).isEmpty());
+	}
+}
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.PathwayModelMerge.Conflict;
+import org.pathvisio.libgpml.model.PathwayModelMerge.ConflictType;
+import org.pathvisio.libgpml.model.type.AnchorShapeType;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.GroupType;
+import org.pathvisio.libgpml.model.type.StateType;
+import org.pathvisio.libgpml.prop.StaticProperty;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link PathwayModelMerge}.
+ */
+public class TestPathwayModelMerge extends TestCase {
+
+	private PathwayModel base;
+	private PathwayModel ours;
+	private PathwayModel theirs;
+	private String d1;
+	private String d2;
+	private String i1;
+
+	@Before
+	public void setUp() {
+		base = new PathwayModel();
+		DataNode dataNode1 = new DataNode("d1", DataNodeType.GENEPRODUCT);
+		DataNode dataNode2 = new DataNode("d2", DataNodeType.GENEPRODUCT);
+		dataNode1.setCenterX(50);
+		dataNode2.setCenterX(200);
+		base.addDataNode(dataNode1);
+		base.addDataNode(dataNode2);
+		Interaction interaction = new Interaction();
+		base.addInteraction(interaction);
+		interaction.setStartElementRef(dataNode1);
+		interaction.setEndElementRef(dataNode2);
+		d1 = dataNode1.getElementId();
+		d2 = dataNode2.getElementId();
+		i1 = interaction.getElementId();
+		ours = base.clone();
+		theirs = base.clone();
+	}
+
+	private static DataNode getDataNode(PathwayModel p, String elementId) {
+		return (DataNode) p.getPathwayObject(elementId);
+	}
+
+	/**
+	 * Changes to different static properties and pathway objects are merged.
+	 */
+	@Test
+	public void testProperties() {
+		getDataNode(ours, d1).setTextLabel("ours");
+		getDataNode(theirs, d1).setFillColor(Color.RED);
+		getDataNode(theirs, d2).setTextLabel("theirs");
+		theirs.getPathway().setTitle("title");
+		// same change on both sides
+		getDataNode(ours, d2).setFontSize(20);
+		getDataNode(theirs, d2).setFontSize(20);
+		PathwayModelMerge merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertFalse(merge.getConflicts().toString(), merge.hasConflicts());
+		PathwayModel p = merge.getPathwayModel();
+		assertEquals("ours", getDataNode(p, d1).getTextLabel());
+		assertEquals(Color.RED, getDataNode(p, d1).getFillColor());
+		assertEquals("theirs", getDataNode(p, d2).getTextLabel());
+		assertEquals(20.0, getDataNode(p, d2).getFontSize());
+		assertEquals("title", p.getPathway().getTitle());
+		// inputs are not modified
+		assertEquals("d2", getDataNode(ours, d2).getTextLabel());
+		assertTrue(PathwayModelDiff.compare(p, PathwayModelMerge.merge(base, ours, theirs).getPathwayModel())
+				.isEmpty());
+	}
+
+	/**
+	 * Different changes to the same static property are a conflict, and ours is
+	 * kept.
+	 */
+	@Test
+	public void testPropertyConflict() {
+		getDataNode(ours, d1).setTextLabel("ours");
+		getDataNode(theirs, d1).setTextLabel("theirs");
+		getDataNode(theirs, d1).setFillColor(Color.RED);
+		PathwayModelMerge merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertEquals(1, merge.getConflicts().size());
+		Conflict c = merge.getConflicts().get(0);
+		assertEquals(ConflictType.PROPERTY, c.getType());
+		assertSame(base.getPathwayObject(d1), c.getBase());
+		assertSame(ours.getPathwayObject(d1), c.getOurs());
+		assertSame(theirs.getPathwayObject(d1), c.getTheirs());
+		assertEquals(Collections.singleton(StaticProperty.TEXTLABEL), c.getKeys());
+		DataNode d = getDataNode(merge.getPathwayModel(), d1);
+		assertEquals("ours", d.getTextLabel());
+		assertEquals(Color.RED, d.getFillColor());
+	}
+
+	/**
+	 * Removals are merged, unless the other side modified the pathway object.
+	 */
+	@Test
+	public void testRemove() {
+		theirs.removeInteraction((Interaction) theirs.getPathwayObject(i1));
+		getDataNode(ours, d2).setTextLabel("ours");
+		ours.removeDataNode(getDataNode(ours, d1));
+		getDataNode(theirs, d1).setTextLabel("theirs");
+		PathwayModelMerge merge = PathwayModelMerge.merge(base, ours, theirs);
+		PathwayModel p = merge.getPathwayModel();
+		assertNull(p.getPathwayObject(i1));
+		assertNull(p.getPathwayObject(d1));
+		assertEquals(1, merge.getConflicts().size());
+		assertEquals(ConflictType.MODIFIED_REMOVED, merge.getConflicts().get(0).getType());
+		assertNull(merge.getConflicts().get(0).getOurs());
+
+		theirs.removeDataNode(getDataNode(theirs, d2));
+		merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertNotNull(merge.getPathwayModel().getPathwayObject(d2));
+		assertEquals(2, merge.getConflicts().size());
+	}
+
+	/**
+	 * Pathway elements, states and groups added by theirs are added and linked.
+	 */
+	@Test
+	public void testAdd() {
+		DataNode t1 = getDataNode(theirs, d1);
+		DataNode t3 = new DataNode("d3", DataNodeType.METABOLITE);
+		t3.setCenterX(400);
+		theirs.addDataNode(t3);
+		t1.addState("s1", StateType.UNDEFINED, 1, 1);
+		Group group = new Group(GroupType.COMPLEX);
+		theirs.addGroup(group);
+		group.addPathwayElement(t1);
+		group.addPathwayElement(t3);
+		Interaction t2 = new Interaction();
+		theirs.addInteraction(t2);
+		t2.setStartElementRef(t3);
+		t2.setEndElementRef(getDataNode(theirs, d2));
+		Label ours1 = new Label("ours");
+		ours.addLabel(ours1);
+		PathwayModelMerge merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertFalse(merge.getConflicts().toString(), merge.hasConflicts());
+		PathwayModel p = merge.getPathwayModel();
+		assertTrue(PathwayModelDiff.compare(theirs, p).getRemoved().isEmpty());
+		assertEquals(1, PathwayModelDiff.compare(theirs, p).getAdded().size());
+		DataNode m3 = getDataNode(p, t3.getElementId());
+		assertEquals("d3", m3.getTextLabel());
+		assertEquals(1, getDataNode(p, d1).getStates().size());
+		Group g = (Group) p.getPathwayObject(group.getElementId());
+		assertTrue(g.hasPathwayElement(m3));
+		assertSame(g, getDataNode(p, d1).getGroupRef());
+		Interaction m2 = (Interaction) p.getPathwayObject(t2.getElementId());
+		assertSame(m3, m2.getStartElementRef());
+		assertSame(p.getPathwayObject(d2), m2.getEndElementRef());
+	}
+
+	/**
+	 * A line added by theirs to a data node removed by ours is a conflict.
+	 */
+	@Test
+	public void testMissingReference() {
+		Interaction t2 = new Interaction();
+		theirs.addInteraction(t2);
+		t2.setStartElementRef(getDataNode(theirs, d1));
+		ours.removeDataNode(getDataNode(ours, d1));
+		PathwayModelMerge merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertEquals(1, merge.getConflicts().size());
+		Conflict c = merge.getConflicts().get(0);
+		assertEquals(ConflictType.MISSING_REFERENCE, c.getType());
+		assertEquals(Collections.singleton(StaticProperty.STARTELEMENTREF), c.getKeys());
+		assertNull(((Interaction) merge.getPathwayModel().getPathwayObject(t2.getElementId())).getStartElementRef());
+	}
+
+	/**
+	 * References are merged as a whole.
+	 */
+	@Test
+	public void testReferences() {
+		getDataNode(theirs, d1).addCitation(null, "urlLink");
+		PathwayModelMerge merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertFalse(merge.hasConflicts());
+		DataNode d = getDataNode(merge.getPathwayModel(), d1);
+		assertEquals(1, d.getCitationRefs().size());
+		assertEquals("urlLink", d.getCitationRefs().get(0).getCitation().getUrlLink());
+		assertTrue(merge.getPathwayModel().getCitations().contains(d.getCitationRefs().get(0).getCitation()));
+
+		getDataNode(ours, d1).addCitation(null, "urlLink2");
+		merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertEquals(ConflictType.PROPERTY, merge.getConflicts().get(0).getType());
+		assertEquals(Collections.singleton(StaticProperty.CITATIONREF), merge.getConflicts().get(0).getKeys());
+	}
+
+	/**
+	 * Anchor moves and shape type changes of theirs are merged, and different
+	 * moves on both sides are a conflict.
+	 */
+	@Test
+	public void testAnchor() {
+		String a1 = ((Interaction) base.getPathwayObject(i1)).addAnchor(0.5, AnchorShapeType.NONE).getElementId();
+		ours = base.clone();
+		theirs = base.clone();
+		((Anchor) theirs.getPathwayObject(a1)).setPosition(0.25);
+		((Anchor) theirs.getPathwayObject(a1)).setShapeType(AnchorShapeType.SQUARE);
+		PathwayModelMerge merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertFalse(merge.getConflicts().toString(), merge.hasConflicts());
+		Anchor a = (Anchor) merge.getPathwayModel().getPathwayObject(a1);
+		assertEquals(0.25, a.getPosition());
+		assertEquals(AnchorShapeType.SQUARE, a.getShapeType());
+		// different moves
+		((Anchor) ours.getPathwayObject(a1)).setPosition(0.75);
+		merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertEquals(1, merge.getConflicts().size());
+		Conflict c = merge.getConflicts().get(0);
+		assertEquals(ConflictType.PROPERTY, c.getType());
+		assertEquals(Collections.singleton(StaticProperty.ANCHORPOSITION), c.getKeys());
+		a = (Anchor) merge.getPathwayModel().getPathwayObject(a1);
+		assertEquals(0.75, a.getPosition());
+		assertEquals(AnchorShapeType.SQUARE, a.getShapeType());
+	}
+
+	/**
+	 * Waypoints changed by theirs only are copied, and different waypoints on
+	 * both sides are a conflict.
+	 */
+	@Test
+	public void testWaypoints() {
+		Interaction t = (Interaction) theirs.getPathwayObject(i1);
+		t.setLinePoints(Arrays.asList(t.getStartLinePoint(), t.new LinePoint(120, 40), t.getEndLinePoint()));
+		PathwayModelMerge merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertFalse(merge.getConflicts().toString(), merge.hasConflicts());
+		Interaction m = (Interaction) merge.getPathwayModel().getPathwayObject(i1);
+		assertTrue(PathwayModelDiff.waypointsEqual(t, m));
+		assertSame(getDataNode(merge.getPathwayModel(), d1), m.getStartElementRef());
+		assertSame(getDataNode(merge.getPathwayModel(), d2), m.getEndElementRef());
+		// moved by theirs
+		PathwayModel base2 = merge.getPathwayModel();
+		PathwayModel theirs2 = base2.clone();
+		LinePoint waypoint = ((Interaction) theirs2.getPathwayObject(i1)).getLinePoints().get(1);
+		waypoint.moveTo(130, 50);
+		merge = PathwayModelMerge.merge(base2, base2.clone(), theirs2);
+		assertFalse(merge.getConflicts().toString(), merge.hasConflicts());
+		m = (Interaction) merge.getPathwayModel().getPathwayObject(i1);
+		assertEquals(3, m.getLinePoints().size());
+		assertEquals(130.0, m.getLinePoints().get(1).getX());
+		assertEquals(50.0, m.getLinePoints().get(1).getY());
+		// different waypoints
+		Interaction o = (Interaction) ours.getPathwayObject(i1);
+		o.setLinePoints(Arrays.asList(o.getStartLinePoint(), o.new LinePoint(80, 10), o.getEndLinePoint()));
+		merge = PathwayModelMerge.merge(base, ours, theirs);
+		assertEquals(1, merge.getConflicts().size());
+		assertEquals(ConflictType.PROPERTY, merge.getConflicts().get(0).getType());
+		assertEquals(Collections.singleton(StaticProperty.LINEPOINTS), merge.getConflicts().get(0).getKeys());
+		m = (Interaction) merge.getPathwayModel().getPathwayObject(i1);
+		assertTrue(PathwayModelDiff.waypointsEqual(o, m));
+	}
+}
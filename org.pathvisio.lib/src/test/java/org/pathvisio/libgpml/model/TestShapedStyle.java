@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.HAlignType;
+import org.pathvisio.libgpml.model.type.ShapeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ShapedStyle}, shared by shaped pathway elements.
+ */
+public class TestShapedStyle extends TestCase {
+
+	private DataNode d1;
+	private DataNode d2;
+	private int events;
+
+	@Before
+	public void setUp() {
+		d1 = new DataNode("d1", DataNodeType.GENEPRODUCT);
+		d2 = new DataNode("d2", DataNodeType.GENEPRODUCT);
+		events = 0;
+		d1.addListener(e -> events++);
+	}
+
+	/**
+	 * Shaped pathway elements with equal styling share a style, and changes do not
+	 * affect other shaped pathway elements.
+	 */
+	@Test
+	public void testShared() {
+		assertSame(d1.getStyle(), d2.getStyle());
+		d1.setFillColor(new Color(10, 20, 30));
+		d1.setFontWeight(true);
+		assertNotSame(d1.getStyle(), d2.getStyle());
+		assertEquals(Color.WHITE, d2.getFillColor());
+		assertFalse(d2.getFontWeight());
+		d2.setFontWeight(true);
+		d2.setFillColor(new Color(10, 20, 30));
+		assertSame(d1.getStyle(), d2.getStyle());
+		d2.setHAlign(HAlignType.LEFT);
+		assertEquals(HAlignType.CENTER, d1.getHAlign());
+		assertEquals(HAlignType.LEFT, d2.getHAlign());
+		Label l1 = new Label("l1");
+		l1.copyValuesFrom(d1);
+		assertSame(d1.getStyle(), l1.getStyle());
+	}
+
+	/**
+	 * Font flags are stored independently, and events are fired only on change.
+	 */
+	@Test
+	public void testProperties() {
+		d1.setFontWeight(true);
+		d1.setFontStyle(true);
+		d1.setFontDecoration(true);
+		d1.setFontWeight(false);
+		assertFalse(d1.getFontWeight());
+		assertTrue(d1.getFontStyle());
+		assertTrue(d1.getFontDecoration());
+		assertFalse(d1.getFontStrikethru());
+		assertEquals(4, events);
+		d1.setFontStyle(true);
+		d1.setShapeType(ShapeType.OVAL);
+		d1.setShapeType(ShapeType.OVAL);
+		d1.setFontSize(13.3);
+		assertEquals(13.5, d1.getFontSize());
+		d1.setBorderWidth(2);
+		d1.setBorderWidth(2);
+		assertEquals(7, events);
+		assertEquals(ShapeType.OVAL, d1.getShapeType());
+		assertEquals(2.0, d1.getBorderWidth());
+		assertEquals(Color.BLACK, d1.getBorderColor());
+		try {
+			d1.setFillColor(null);
+			fail("Null fill color should throw exception");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Shaped pathway elements created in several threads share equal styles.
+	 */
+	@Test
+	public void testConcurrentShare() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<ShapedStyle>> results = new ArrayList<Future<ShapedStyle>>();
+			for (int i = 0; i < 100; i++) {
+				final int size = 20 + i % 5;
+				results.add(executor.submit(new Callable<ShapedStyle>() {
+					@Override
+					public ShapedStyle call() {
+						DataNode d = new DataNode("d", DataNodeType.GENEPRODUCT);
+						d.setFontSize(size);
+						d.setFillColor(new Color(1, 2, 3));
+						return d.getStyle();
+					}
+				}));
+			}
+			for (Future<ShapedStyle> result : results) {
+				ShapedStyle style = result.get();
+				ShapedStyle first = results.get((int) style.getFontSize() - 20).get();
+				assertSame(first, style);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -20,6 +20,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.pathvisio.libgpml.model.DataNode.State;
 import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.prop.StaticProperty;
 
 import junit.framework.TestCase;
 
@@ -88,4 +89,29 @@ public class TestState extends TestCase {
 		assertNull(st2.getPathwayModel());
 	}
 
+	/**
+	 * Tests static property keys of states, which are shared by all states.
+	 */
+	@Test
+	public void testStaticPropertyKeys() {
+		assertSame(st1.getStaticPropertyKeys(), st2.getStaticPropertyKeys());
+		assertTrue(st1.getStaticPropertyKeys().contains(StaticProperty.RELX));
+		assertTrue(st1.getStaticPropertyKeys().contains(StaticProperty.CENTERX));
+		assertFalse(d1.getStaticPropertyKeys().contains(StaticProperty.RELX));
+		try {
+			st1.getStaticPropertyKeys().add(StaticProperty.HREF);
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// ok
+		}
+		st1.setStaticProperty(StaticProperty.RELX, 0.5);
+		assertEquals(0.5, st1.getStaticProperty(StaticProperty.RELX));
+		try {
+			st1.getStaticProperty(StaticProperty.HREF);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// ok
+		}
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model;
+
+import java.awt.Color;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pathvisio.libgpml.model.DataNode.State;
+import org.pathvisio.libgpml.model.LineElement.Anchor;
+import org.pathvisio.libgpml.model.LineElement.LinePoint;
+import org.pathvisio.libgpml.model.type.AnchorShapeType;
+import org.pathvisio.libgpml.model.type.DataNodeType;
+import org.pathvisio.libgpml.model.type.GroupType;
+import org.pathvisio.libgpml.model.type.StateType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link UndoJournal}.
+ */
+public class TestUndoJournal extends TestCase {
+
+	private PathwayModel p;
+	private DataNode d1;
+	private DataNode d2;
+	private State s1;
+	private Group g1;
+	private Interaction i1;
+	private Anchor a1;
+	private Interaction i2;
+	private UndoJournal journal;
+
+	@Before
+	public void setUp() {
+		p = new PathwayModel();
+		d1 = new DataNode("d1", DataNodeType.GENEPRODUCT);
+		d2 = new DataNode("d2", DataNodeType.GENEPRODUCT);
+		d1.setCenterX(50);
+		d2.setCenterX(200);
+		p.addDataNode(d1);
+		p.addDataNode(d2);
+		s1 = d1.addState("s1", StateType.UNDEFINED, 1, 1);
+		g1 = new Group(GroupType.GROUP);
+		p.addGroup(g1);
+		g1.addPathwayElement(d1);
+		g1.addPathwayElement(d2);
+		i1 = new Interaction();
+		p.addInteraction(i1);
+		i1.setStartElementRef(d1);
+		i1.setEndElementRef(d2);
+		a1 = i1.addAnchor(0.5, null);
+		i2 = new Interaction();
+		p.addInteraction(i2);
+		i2.setStartElementRef(s1);
+		i2.setEndElementRef(a1);
+		journal = new UndoJournal(p, 1000);
+	}
+
+	/**
+	 * Property changes are undone and redone per edit.
+	 */
+	@Test
+	public void testPropertyChange() {
+		d1.setFillColor(Color.RED);
+		d1.setTextLabel("new");
+		journal.checkpoint();
+		d1.setCenterX(100);
+		assertEquals(2, journal.getUndoCount());
+		journal.undo();
+		assertEquals(50.0, d1.getCenterX());
+		assertEquals(Color.RED, d1.getFillColor());
+		journal.undo();
+		assertEquals("d1", d1.getTextLabel());
+		assertEquals(Color.WHITE, d1.getFillColor());
+		assertFalse(journal.canUndo());
+		journal.redo();
+		assertEquals("new", d1.getTextLabel());
+		assertEquals(Color.RED, d1.getFillColor());
+		journal.redo();
+		assertEquals(100.0, d1.getCenterX());
+		assertFalse(journal.canRedo());
+	}
+
+	/**
+	 * Consecutive changes to the same property are recorded once, with the first
+	 * old value.
+	 */
+	@Test
+	public void testConsecutiveChanges() {
+		Label l1 = new Label("l1");
+		p.addLabel(l1);
+		l1.setCenterX(10);
+		journal.clear();
+		for (int i = 1; i <= 100; i++) {
+			l1.setCenterX(10 + i);
+		}
+		assertEquals(1, journal.getEntryCount());
+		journal.undo();
+		assertEquals(10.0, l1.getCenterX());
+		journal.redo();
+		assertEquals(110.0, l1.getCenterX());
+	}
+
+	/**
+	 * Line point moves and links are undone and redone.
+	 */
+	@Test
+	public void testLinePointMove() {
+		LinePoint end = i1.getEndLinePoint();
+		end.unlink();
+		end.moveTo(300, 300);
+		journal.checkpoint();
+		for (int i = 0; i < 5; i++) {
+			end.moveBy(10, 10);
+		}
+		assertEquals(350.0, end.getX());
+		journal.undo();
+		assertNull(i1.getEndElementRef());
+		assertEquals(300.0, end.getX());
+		assertEquals(300.0, end.getY());
+		journal.undo();
+		assertSame(d2, i1.getEndElementRef());
+		journal.redo();
+		assertNull(i1.getEndElementRef());
+		assertEquals(300.0, end.getX());
+		journal.redo();
+		assertEquals(350.0, end.getY());
+	}
+
+	/**
+	 * Anchor moves and shape type changes are undone and redone.
+	 */
+	@Test
+	public void testAnchorChange() {
+		a1.setShapeType(AnchorShapeType.SQUARE);
+		journal.checkpoint();
+		for (int i = 1; i <= 5; i++) {
+			a1.setPosition(0.5 + i * 0.05);
+		}
+		assertEquals(2, journal.getEntryCount());
+		journal.undo();
+		assertEquals(0.5, a1.getPosition());
+		assertEquals(AnchorShapeType.SQUARE, a1.getShapeType());
+		journal.undo();
+		assertEquals(AnchorShapeType.NONE, a1.getShapeType());
+		assertFalse(journal.canUndo());
+		journal.redo();
+		assertEquals(AnchorShapeType.SQUARE, a1.getShapeType());
+		assertEquals(0.5, a1.getPosition());
+		journal.redo();
+		assertEquals(0.75, a1.getPosition(), 1e-9);
+		assertSame(a1, i2.getEndElementRef());
+	}
+
+	/**
+	 * Removal of a data node is undone with its states, group, links and
+	 * references.
+	 */
+	@Test
+	public void testRemove() {
+		Citation c1 = d1.addCitation(null, "urlLink").getCitation();
+		journal.checkpoint();
+		String id = d1.getElementId();
+		String stateId = s1.getElementId();
+		p.removeDataNode(d1);
+		assertNull(i1.getStartElementRef());
+		assertNull(i2.getStartElementRef());
+		journal.undo();
+		assertSame(d1, p.getPathwayObject(id));
+		assertSame(s1, p.getPathwayObject(stateId));
+		assertTrue(d1.getStates().contains(s1));
+		assertSame(g1, d1.getGroupRef());
+		assertTrue(g1.hasPathwayElement(d1));
+		assertSame(d1, i1.getStartElementRef());
+		assertSame(s1, i2.getStartElementRef());
+		assertSame(c1, d1.getCitationRefs().get(0).getCitation());
+		assertTrue(p.getCitations().contains(c1));
+		journal.redo();
+		assertNull(d1.getPathwayModel());
+		assertNull(i1.getStartElementRef());
+		journal.undo();
+		assertSame(d1, i1.getStartElementRef());
+	}
+
+	/**
+	 * Removal of a line is undone with its line points and anchors.
+	 */
+	@Test
+	public void testRemoveLine() {
+		String id = i1.getElementId();
+		String anchorId = a1.getElementId();
+		p.removeInteraction(i1);
+		assertNull(i2.getEndElementRef());
+		journal.undo();
+		assertSame(i1, p.getPathwayObject(id));
+		assertSame(a1, p.getPathwayObject(anchorId));
+		assertEquals(2, i1.getLinePoints().size());
+		assertSame(d1, i1.getStartElementRef());
+		assertSame(d2, i1.getEndElementRef());
+		assertSame(a1, i2.getEndElementRef());
+	}
+
+	/**
+	 * Additions are undone by removal, and redone.
+	 */
+	@Test
+	public void testAdd() {
+		Label l1 = new Label("l1");
+		p.addLabel(l1);
+		State s2 = d2.addState("s2", StateType.UNDEFINED, 0, 0);
+		journal.undo();
+		assertFalse(p.getLabels().contains(l1));
+		assertFalse(d2.getStates().contains(s2));
+		journal.redo();
+		assertTrue(p.getLabels().contains(l1));
+		assertTrue(d2.getStates().contains(s2));
+		assertSame(s2, p.getPathwayObject(s2.getElementId()));
+	}
+
+	/**
+	 * A new change clears the edits to redo, and the history is trimmed to the
+	 * maximum number of changes.
+	 */
+	@Test
+	public void testHistory() {
+		d1.setTextLabel("a");
+		journal.undo();
+		assertTrue(journal.canRedo());
+		d1.setTextLabel("b");
+		assertFalse(journal.canRedo());
+		journal.clear();
+		journal.setMaxEntries(3);
+		for (int i = 0; i < 5; i++) {
+			d1.setTextLabel("label" + i);
+			journal.checkpoint();
+		}
+		assertEquals(3, journal.getUndoCount());
+		assertEquals(3, journal.getEntryCount());
+		journal.undo();
+		journal.undo();
+		journal.undo();
+		assertEquals("label1", d1.getTextLabel());
+		assertFalse(journal.canUndo());
+		journal.detach();
+		assertNull(p.getUndoJournal());
+	}
+}
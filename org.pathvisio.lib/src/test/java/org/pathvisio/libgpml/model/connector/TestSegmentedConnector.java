@@ -22,6 +22,7 @@ import java.util.Arrays;
 import org.pathvisio.libgpml.model.Interaction;
 import org.pathvisio.libgpml.model.LineElement.LinePoint;
 import org.pathvisio.libgpml.model.connector.ConnectorShape.Segment;
+import org.pathvisio.libgpml.model.type.ConnectorType;
 
 import junit.framework.TestCase;
 
@@ -67,4 +68,16 @@ public class TestSegmentedConnector extends TestCase {
 		assertEquals(0.628, con.toLineCoordinate(w), 0.01);
 	}
 
+	/** connector shape is kept until the connector type changes */
+	public void testConnectorShape() {
+		Interaction line = new Interaction();
+		ConnectorShape shape = line.getConnectorShape();
+		assertTrue(shape instanceof StraightConnectorShape);
+		assertSame(shape, line.getConnectorShape());
+		line.setConnectorType(ConnectorType.SEGMENTED);
+		assertTrue(line.getConnectorShape() instanceof FreeConnectorShape);
+		line.setConnectorType(ConnectorType.ELBOW);
+		assertTrue(line.getConnectorShape() instanceof ElbowConnectorShape);
+	}
+
 }
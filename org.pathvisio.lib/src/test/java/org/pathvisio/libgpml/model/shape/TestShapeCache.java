@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.model.shape;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+
+import org.pathvisio.libgpml.model.shape.ShapeCatalog.Internal;
+import org.pathvisio.libgpml.model.type.ShapeType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for ShapeCache class.
+ */
+public class TestShapeCache extends TestCase {
+
+	public void testScaledShape() {
+		ShapeCache cache = new ShapeCache(10);
+		Shape prototype = ShapeCatalog.getPluggableShape(Internal.MITOCHONDRIA);
+		Shape shape = cache.getShape(prototype, 80, 40);
+		Rectangle2D bounds = shape.getBounds2D();
+		assertEquals(80, bounds.getWidth(), 1);
+		assertEquals(40, bounds.getHeight(), 1);
+		assertSame(shape, cache.getShape(prototype, 80, 40));
+		assertSame(shape, cache.getShape(prototype, 80.001, 40));
+		assertNotSame(shape, cache.getShape(prototype, 81, 40));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0.5, cache.getHitRate(), 0.0001);
+	}
+
+	public void testEviction() {
+		ShapeCache cache = new ShapeCache(2);
+		Shape prototype = ShapeCatalog.getPluggableShape(Internal.OCTAGON);
+		Shape s1 = cache.getShape(prototype, 10, 10);
+		cache.getShape(prototype, 20, 20);
+		cache.getShape(prototype, 10, 10); // s1 is now most recently used
+		cache.getShape(prototype, 30, 30);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertSame(s1, cache.getShape(prototype, 10, 10));
+	}
+
+	public void testSharedShapes() {
+		assertSame(ShapeCatalog.getPluggableShape(Internal.DNA_ICON),
+				ShapeCatalog.getPluggableShape(Internal.DNA_ICON));
+		Shape s1 = ShapeType.OCTAGON.getShape(50, 60);
+		assertSame(s1, ShapeType.OCTAGON.getShape(50, 60));
+		assertTrue(ShapeRegistry.getShapeCache().getHitCount() > 0);
+	}
+
+}
@@ -59,6 +59,26 @@ public class TestColorUtils extends TestCase {
 		assertTrue(ColorUtils.isTransparent(color));
 		assertTrue(ColorUtils.isTransparent(color2));
 	}
-	
-	
+
+	public void testSharedColors() {
+		// equal colors are shared
+		assertSame(ColorUtils.hexToColor("#99ccff"), ColorUtils.stringToColor("99CCFF"));
+		assertEquals(ColorUtils.stringToColor("Blue"), ColorUtils.hexToColor("0000ff"));
+		assertEquals(ColorUtils.hexToColor("#99ccff80"), new Color(0x99, 0xcc, 0xff, 0x80));
+		assertEquals("99ccff80", ColorUtils.colorToHex(new Color(0x99, 0xcc, 0xff, 0x80), false));
+		assertEquals("#0000ff", ColorUtils.colorToHex2013(new Color(0, 0, 255, 0), true));
+		assertEquals("Transparent", ColorUtils.colorToHex2013(new Color(0, 0, 0, 0), true));
+	}
+
+	public void testInvalidColor() {
+		// other lengths are not converted
+		assertNull(ColorUtils.hexToColor("fff"));
+		try {
+			ColorUtils.hexToColor("#ffgg00");
+			fail("Expected NumberFormatException");
+		} catch (NumberFormatException e) {
+			// expected
+		}
+		assertEquals(Color.BLACK, ColorUtils.stringToColor("#ffgg00"));
+	}
 }
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * PathVisio, a tool for data visualization and analysis using biological pathways
+ * Copyright 2006-2022 BiGCaT Bioinformatics, WikiPathways
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.pathvisio.libgpml.util;
+
+import java.io.File;
+import java.net.URL;
+
+import org.bridgedb.Xref;
+import org.junit.Test;
+import org.pathvisio.libgpml.io.ConverterException;
+import org.pathvisio.libgpml.model.DataNode;
+import org.pathvisio.libgpml.model.PathwayModel;
+import org.pathvisio.libgpml.model.PathwayModelDiff;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link InternPool}.
+ */
+public class TestInternPool extends TestCase {
+
+	/**
+	 * Equal strings and xrefs are replaced by the first pooled value.
+	 */
+	@Test
+	public void testIntern() {
+		InternPool pool = new InternPool();
+		String s1 = new String("Arial");
+		String s2 = new String("Arial");
+		assertSame(s1, pool.intern(s1));
+		assertSame(s1, pool.intern(s2));
+		assertSame(s1, pool.intern(s1));
+		assertNull(pool.intern((String) null));
+		Xref x1 = XrefUtils.createXref(new String("1234"), "ensembl");
+		Xref x2 = XrefUtils.createXref(new String("1234"), "ensembl");
+		assertSame(x1, pool.intern(x1));
+		assertSame(x1, pool.intern(x2));
+		assertNull(pool.intern((Xref) null));
+		assertEquals(2, pool.getStringCount());
+		assertEquals(1, pool.getXrefCount());
+		assertEquals(2, pool.getHitCount());
+		assertTrue(pool.getSavedBytes() > 0);
+		pool.clear();
+		assertEquals(0, pool.getStringCount());
+		assertEquals(0, pool.getRequestCount());
+		assertSame(s2, pool.intern(s2));
+	}
+
+	/**
+	 * Pathway models read with the same pool share equal values.
+	 */
+	@Test
+	public void testRead() throws ConverterException {
+		URL url = Thread.currentThread().getContextClassLoader().getResource("example-v2021.gpml");
+		File file = new File(url.getPath());
+		PathwayModel p0 = new PathwayModel();
+		p0.readFromXml(file, true);
+		InternPool pool = new InternPool();
+		PathwayModel p1 = new PathwayModel();
+		p1.readFromXml(file, true, pool);
+		long hits = pool.getHitCount();
+		assertTrue(hits > 0);
+		PathwayModel p2 = new PathwayModel();
+		p2.readFromXml(file, true, pool);
+		assertTrue(pool.getHitCount() > 2 * hits);
+		assertTrue(PathwayModelDiff.compare(p0, p2).isEmpty());
+		DataNode d1 = p1.getDataNodes().get(0);
+		DataNode d2 = p2.getDataNodes().get(0);
+		assertSame(d1.getTextLabel(), d2.getTextLabel());
+		assertSame(d1.getFontName(), d2.getFontName());
+		assertSame(d1.getFontName(), p2.getDataNodes().get(1).getFontName());
+		if (d1.getXref() != null) {
+			assertSame(d1.getXref(), d2.getXref());
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package org.pathvisio.libgpml.util;
+
+import org.pathvisio.libgpml.util.LinAlg.Point;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for LinAlg class, comparing primitive methods with their Point
+ * equivalents.
+ */
+public class TestLinAlg extends TestCase {
+
+	private static final double DELTA = 1e-9;
+
+	public void testDistanceAndAngle() {
+		Point p1 = new Point(3, 4);
+		Point p2 = new Point(-2, 7);
+		assertEquals(5, p1.len(), DELTA);
+		assertEquals(LinAlg.distance(p1, p2), LinAlg.distance(3, 4, -2, 7), DELTA);
+		assertEquals(LinAlg.angle(p1, p2), LinAlg.angle(3, 4, -2, 7), DELTA);
+		assertEquals(LinAlg.direction(p1, p2), LinAlg.direction(3, 4, -2, 7), DELTA);
+	}
+
+	public void testProject() {
+		Point p = new Point(1, 1);
+		Point q = new Point(4, 3);
+		Point v = new Point(1, 0);
+		Point expected = LinAlg.project(p, q, v);
+		assertEquals(4, expected.x, DELTA);
+		assertEquals(1, expected.y, DELTA);
+		Point scratch = new Point(0, 0);
+		assertSame(scratch, LinAlg.project(p, q, v, scratch));
+		assertEquals(expected.x, scratch.x, DELTA);
+		assertEquals(expected.y, scratch.y, DELTA);
+	}
+
+	public void testToLineCoordinates() {
+		Point start = new Point(10, 10);
+		Point end = new Point(30, 10);
+		Point p = new Point(15, 20);
+		assertEquals(0.25, LinAlg.toLineCoordinates(start, end, p), DELTA);
+		assertEquals(0.25, LinAlg.toLineCoordinates(10, 10, 30, 10, 15, 20), DELTA);
+		assertEquals(0, LinAlg.toLineCoordinates(10, 10, 10, 10, 15, 20), DELTA);
+	}
+
+	public void testRotate() {
+		Point p = new Point(2, 1);
+		double angle = Math.PI / 3;
+		Point expected = LinAlg.rotate(p, angle);
+		assertEquals(expected.x, LinAlg.rotateX(2, 1, angle), DELTA);
+		assertEquals(expected.y, LinAlg.rotateY(2, 1, angle), DELTA);
+		assertSame(p, LinAlg.rotate(p, angle, p));
+		assertEquals(expected.x, p.x, DELTA);
+		assertEquals(expected.y, p.y, DELTA);
+	}
+
+}
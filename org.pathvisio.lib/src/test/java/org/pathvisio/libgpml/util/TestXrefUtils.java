@@ -55,4 +55,44 @@ public class TestXrefUtils extends TestCase {
 		assertTrue(XrefUtils.equivalentXrefs(xref3, xref4));
 	}
 
+	/**
+	 * Tests that resolved data sources are cached, and that the cache is cleared
+	 * when data sources are registered.
+	 */
+	public void testDataSourceCache() {
+		if (!DataSource.fullNameExists("Ensembl"))
+			DataSourceTxt.init();
+		DataSource ensembl = XrefUtils.getXrefDataSource("Ensembl");
+		assertSame(ensembl, XrefUtils.getXrefDataSource("Ensembl"));
+		assertSame(ensembl, XrefUtils.getXrefDataSource("ensembl"));
+		// unknown data sources are registered once
+		DataSource unknown = XrefUtils.getXrefDataSource("cachetestunknown");
+		assertNotNull(unknown);
+		assertSame(unknown, XrefUtils.getXrefDataSource("cachetestunknown"));
+		// resolved by system code
+		DataSource bySystemCode = DataSource.register("Ct1", "Cache Test 1").asDataSource();
+		assertSame(bySystemCode, XrefUtils.getXrefDataSource("Ct1"));
+		// a compact identifier prefix registered elsewhere takes precedence
+		DataSource byPrefix = DataSource.register("Ct2", "Cache Test 2").compactIdentifierPrefix("Ct1").asDataSource();
+		assertSame(byPrefix, XrefUtils.getXrefDataSource("Ct1"));
+		XrefUtils.clearDataSourceCache();
+		assertSame(ensembl, XrefUtils.getXrefDataSource("Ensembl"));
+	}
+
+	/**
+	 * Tests that system codes resolve to their data source. Before the cache,
+	 * system codes were looked up with {@link DataSource#getByAlias}, which does
+	 * not index system codes and resolved them to null.
+	 */
+	public void testSystemCode() {
+		if (!DataSource.fullNameExists("Ensembl"))
+			DataSourceTxt.init();
+		XrefUtils.clearDataSourceCache();
+		DataSource ensembl = DataSource.getExistingByFullName("Ensembl");
+		assertEquals("En", ensembl.getSystemCode());
+		assertNull(DataSource.getByAlias("En"));
+		assertSame(ensembl, XrefUtils.getXrefDataSource("En"));
+		assertSame(ensembl, XrefUtils.createXref("ENSG00000139618", "En").getDataSource());
+	}
+
 }